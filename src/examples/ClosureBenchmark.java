@@ -0,0 +1,84 @@
+/*
+ * ClosureBenchmark.java
+ *
+ * Copyright: 2010-2014 Karell Bertet, France
+ *
+ * License: http://www.cecill.info/licences/Licence_CeCILL-B_V1-en.html CeCILL-B license
+ *
+ * This file is part of java-lattices, free package. You can redistribute it and/or modify
+ * it under the terms of CeCILL-B license.
+ */
+
+import java.util.ArrayList;
+import java.util.Random;
+import java.util.TreeSet;
+
+import fr.kbertet.lattice.ImplicationalSystem;
+import fr.kbertet.lattice.Rule;
+
+/**
+ * This class compares the LinClosure algorithm used by `ImplicationalSystem.closure`
+ * with the former fixpoint closure, iterating over all the rules until no element is added,
+ * on implicational systems generated by `ImplicationalSystem.random`.
+ *
+ * Usage: `java ClosureBenchmark [nbElements nbRules nbClosures]`
+ */
+public class ClosureBenchmark {
+
+    /** The fixpoint closure formerly implemented by `ImplicationalSystem.closure`. **/
+    public static TreeSet<Comparable> fixpointClosure(ImplicationalSystem is, TreeSet<Comparable> x) {
+        TreeSet<Comparable> oldES = new TreeSet<Comparable>();
+        TreeSet<Comparable> newES = new TreeSet<Comparable>(x);
+        do {
+            oldES.addAll(newES);
+            for (Rule rule : is.getRules()) {
+                if (newES.containsAll(rule.getPremise()) || rule.getPremise().isEmpty()) {
+                    newES.addAll(rule.getConclusion());
+                }
+            }
+        } while (!oldES.equals(newES));
+        return newES;
+    }
+
+    /** The main static method. **/
+    public static void main(String[] arg) {
+        int nbS = 50;
+        int nbR = 2000;
+        int nbClosures = 1000;
+        if (arg.length == 3) {
+            nbS = Integer.parseInt(arg[0]);
+            nbR = Integer.parseInt(arg[1]);
+            nbClosures = Integer.parseInt(arg[2]);
+        }
+        ImplicationalSystem is = ImplicationalSystem.random(nbS, nbR);
+        ArrayList<Comparable> elements = new ArrayList<Comparable>(is.getSet());
+        Random random = new Random(0);
+        ArrayList<TreeSet<Comparable>> inputs = new ArrayList<TreeSet<Comparable>>();
+        for (int i = 0; i < nbClosures; i++) {
+            TreeSet<Comparable> x = new TreeSet<Comparable>();
+            for (int k = random.nextInt(4); k >= 0; k--) {
+                x.add(elements.get(random.nextInt(elements.size())));
+            }
+            inputs.add(x);
+        }
+        // warm up both implementations and check they agree
+        for (TreeSet<Comparable> x : inputs) {
+            if (!fixpointClosure(is, x).equals(is.closure(x))) {
+                throw new IllegalStateException("Closures differ for " + x);
+            }
+        }
+        long start = System.nanoTime();
+        for (TreeSet<Comparable> x : inputs) {
+            fixpointClosure(is, x);
+        }
+        long fixpoint = System.nanoTime() - start;
+        start = System.nanoTime();
+        for (TreeSet<Comparable> x : inputs) {
+            is.closure(x);
+        }
+        long linClosure = System.nanoTime() - start;
+        System.out.println(nbS + " elements, " + is.getRules().size() + " rules, " + nbClosures + " closures");
+        System.out.println("fixpoint closure: " + (fixpoint / 1000000) + " ms");
+        System.out.println("LinClosure:       " + (linClosure / 1000000) + " ms");
+    }
+}
@@ -0,0 +1,103 @@
+/*
+ * DirectBenchmark.java
+ *
+ * Copyright: 2010-2014 Karell Bertet, France
+ *
+ * License: http://www.cecill.info/licences/Licence_CeCILL-B_V1-en.html CeCILL-B license
+ *
+ * This file is part of java-lattices, free package. You can redistribute it and/or modify
+ * it under the terms of CeCILL-B license.
+ */
+
+import java.util.Random;
+
+import fr.kbertet.lattice.ImplicationalSystem;
+import fr.kbertet.lattice.Rule;
+import fr.kbertet.util.ComparableSet;
+
+/**
+ * This class compares the semi-naive saturation used by `ImplicationalSystem.makeDirect`,
+ * sequential and parallel, with the former saturation combining all the pairs of rules at each round,
+ * on implicational systems generated as by `ImplicationalSystem.random` from a seed.
+ *
+ * Usage: `java DirectBenchmark [nbElements nbRules seed]`
+ */
+public class DirectBenchmark {
+
+    /** The saturation formerly implemented by `ImplicationalSystem.makeDirect`. **/
+    public static void roundDirect(ImplicationalSystem is) {
+        is.makeUnary();
+        is.makeProper();
+        boolean ok = true;
+        while (ok) {
+            ImplicationalSystem save = new ImplicationalSystem(is);
+            for (Rule rule1 : save.getRules()) {
+                for (Rule rule2 : save.getRules()) {
+                    if (!rule1.equals(rule2) && !rule1.getPremise().containsAll(rule2.getConclusion())) {
+                        ComparableSet c = new ComparableSet(rule2.getPremise());
+                        c.removeAll(rule1.getConclusion());
+                        c.addAll(rule1.getPremise());
+                        if (!c.containsAll(rule2.getPremise())) {
+                            is.addRule(new Rule(c, rule2.getConclusion()));
+                        }
+                    }
+                }
+            }
+            ok = is.sizeRules() != save.sizeRules();
+        }
+        is.makeCompact();
+    }
+
+    /** A random implicational system generated with the distribution of `ImplicationalSystem.random`. **/
+    public static ImplicationalSystem random(int nbS, int nbR, long seed) {
+        Random random = new Random(seed);
+        ImplicationalSystem is = new ImplicationalSystem();
+        for (int i = 0; i < nbS; i++) {
+            is.addElement(Integer.valueOf(i));
+        }
+        while (is.sizeRules() < nbR) {
+            ComparableSet conclusion = new ComparableSet();
+            conclusion.add(Integer.valueOf(random.nextInt(nbS)));
+            ComparableSet premise = new ComparableSet();
+            for (int i = 0; i < nbS; i++) {
+                if (random.nextInt(nbS) < nbS / 5) {
+                    premise.add(Integer.valueOf(i));
+                }
+            }
+            is.addRule(new Rule(premise, conclusion));
+        }
+        return is;
+    }
+
+    /** The main static method. **/
+    public static void main(String[] arg) {
+        int nbS = 20;
+        int nbR = 12;
+        long seed = 0;
+        if (arg.length == 3) {
+            nbS = Integer.parseInt(arg[0]);
+            nbR = Integer.parseInt(arg[1]);
+            seed = Long.parseLong(arg[2]);
+        }
+        ImplicationalSystem is = random(nbS, nbR, seed);
+        ImplicationalSystem rounds = new ImplicationalSystem(is);
+        ImplicationalSystem worklist = new ImplicationalSystem(is);
+        ImplicationalSystem parallel = new ImplicationalSystem(is);
+        long start = System.nanoTime();
+        roundDirect(rounds);
+        long round = System.nanoTime() - start;
+        start = System.nanoTime();
+        worklist.makeDirect();
+        long sequential = System.nanoTime() - start;
+        start = System.nanoTime();
+        parallel.makeDirectParallel();
+        long forkJoin = System.nanoTime() - start;
+        if (!rounds.getRules().equals(worklist.getRules()) || !rounds.getRules().equals(parallel.getRules())) {
+            throw new IllegalStateException("Direct systems differ");
+        }
+        System.out.println(nbS + " elements, " + is.sizeRules() + " rules, " + worklist.sizeRules() + " direct rules");
+        System.out.println("round saturation:    " + (round / 1000000) + " ms");
+        System.out.println("worklist saturation: " + (sequential / 1000000) + " ms");
+        System.out.println("parallel saturation: " + (forkJoin / 1000000) + " ms");
+    }
+}
@@ -13,8 +13,7 @@ package fr.kbertet.context;
 
 import java.io.IOException;
 import java.util.ArrayList;
-import java.util.BitSet;
-import java.util.Iterator;
+import java.util.Arrays;
 import java.util.LinkedList;
 import java.util.Random;
 import java.util.StringTokenizer;
@@ -22,8 +21,13 @@ import java.util.TreeMap;
 import java.util.TreeSet;
 import java.util.Vector;
 
+import fr.kbertet.util.BitSetList;
+import fr.kbertet.util.BitSets;
+import fr.kbertet.util.CompressedBitSetList;
 import fr.kbertet.util.ComparableSet;
 import fr.kbertet.util.Couple;
+import fr.kbertet.util.DenseBitSetList;
+import fr.kbertet.util.Index;
 import fr.kbertet.dgraph.Node;
 import fr.kbertet.lattice.ClosureSystem;
 import fr.kbertet.lattice.ArrowRelation;
@@ -42,9 +46,24 @@ import fr.kbertet.io.Serializer;
  *
  * - attributes, a treeset of comparable objects;
  * - observations, a treeset of comparable objects;
- * - a Galois connexion (extent,intent) between objects and attributes where
- * `extent` is a TreeMap that associates to each attribute a TreeSet of observations and
- * `intent` is a TreeMap that associates  to each observation a TreeSet of attributes.
+ * - a Galois connexion (extent,intent) between objects and attributes.
+ *
+ * Observations and attributes are densely numbered by an {@link Index}, and the binary relation
+ * is stored twice as packed bit sets of `long` (see {@link BitSets}): `intent` associates to
+ * each observation index the bits of its attributes, and `extent` associates to each attribute
+ * index the bits of its observations. Therefore, testing an incidence is performed in O(1),
+ * and extents, intents and closures are computed by word-parallel intersections
+ * without allocating intermediate sets. Methods returning sets of observations or attributes
+ * build them from the bit sets.
+ *
+ * Both structures are incrementally updated by each modification of this component, that is
+ * always ready to be queried: adding an incidence, an attribute or an observation is performed in O(1)
+ * (besides the insertion in the sorted sets), and removing an attribute or an observation only
+ * handles the incidences of the removed element and of the element taking its index.
+ *
+ * Bit sets are dense by default. For very sparse contexts, method {@link #setCompressed} switches to
+ * compressed bit sets (see {@link fr.kbertet.util.CompressedBitSet}), on which extents, their cardinality and closures
+ * are directly computed.
  *
  * This class provides methods implementing classical operation on a context:
  * closure, reduction, reverse, ...
@@ -95,36 +114,34 @@ public class Context extends ClosureSystem {
     private TreeSet<Comparable> attributes;
 
     /**
-     * A map to associate a set of attributes to each observation.
+     * A dense numbering of observations.
      */
-    private TreeMap<Comparable, TreeSet<Comparable>> intent;
+    private Index observationIndex;
 
     /**
-     * A map to associate a set of observations to each attribute.
+     * A dense numbering of attributes.
      */
-    private TreeMap<Comparable, TreeSet<Comparable>> extent;
-
-    /* ------------- BITSET ADDON ------------------ */
+    private Index attributeIndex;
 
     /**
-     * A bit set for intent.
+     * A packed bit set of attribute indexes associated to each observation index.
      */
-    private TreeMap<Comparable, BitSet> bitsetIntent;
+    private BitSetList intent;
 
     /**
-     * A bit set for extent.
+     * A packed bit set of observation indexes associated to each attribute index.
      */
-    private TreeMap<Comparable, BitSet> bitsetExtent;
+    private BitSetList extent;
 
     /**
-     * An array for observations.
+     * A per-thread buffer of observation bits used by closure computations.
      */
-    private ArrayList<Comparable> arrayObservations;
+    private ThreadLocal<long[]> observationBuffer;
 
     /**
-     * An array for attributes.
+     * A per-thread buffer of attribute bits used by closure computations.
      */
-    private ArrayList<Comparable> arrayAttributes;
+    private ThreadLocal<long[]> attributeBuffer;
 
     /* ------------- CONSTRUCTORS ------------------ */
 
@@ -142,15 +159,12 @@ public class Context extends ClosureSystem {
      */
     public Context(Context context) {
         this();
-        this.attributes.addAll(context.getAttributes());
-        this.observations.addAll(context.getObservations());
-        for (Comparable o : context.getObservations()) {
-            this.intent.put(o, new TreeSet(context.getIntent(o)));
-        }
-        for (Comparable a : context.getAttributes()) {
-            this.extent.put(a, new TreeSet(context.getExtent(a)));
-        }
-        this.setBitSets();
+        this.attributes.addAll(context.attributes);
+        this.observations.addAll(context.observations);
+        this.observationIndex = new Index(context.observationIndex);
+        this.attributeIndex = new Index(context.attributeIndex);
+        this.intent = context.intent.copy();
+        this.extent = context.extent.copy();
     }
 
     /**
@@ -190,12 +204,17 @@ public class Context extends ClosureSystem {
     public Context init() {
         this.observations = new TreeSet();
         this.attributes = new TreeSet();
-        this.intent = new TreeMap();
-        this.extent = new TreeMap();
-        this.bitsetIntent = new TreeMap();
-        this.bitsetExtent = new TreeMap();
-        this.arrayObservations = new ArrayList();
-        this.arrayAttributes = new ArrayList();
+        this.observationIndex = new Index();
+        this.attributeIndex = new Index();
+        if (this.intent == null) {
+            this.intent = new DenseBitSetList();
+            this.extent = new DenseBitSetList();
+        } else {
+            this.intent = this.intent.create();
+            this.extent = this.extent.create();
+        }
+        this.observationBuffer = new ThreadLocal<long[]>();
+        this.attributeBuffer = new ThreadLocal<long[]>();
         return this;
     }
 
@@ -245,7 +264,6 @@ public class Context extends ClosureSystem {
                attr = r.nextInt(nbAttrPerGrp) + 1;
             }
         }
-        ctx.setBitSets();
         return ctx;
     }
 
@@ -262,12 +280,11 @@ public class Context extends ClosureSystem {
         ctx.addAllToObservations(obs);
         for (Comparable o : obs) {
             for (Comparable a : attr) {
-                if (this.getIntent(o).contains(a)) {
+                if (this.containAsIntent(o, a)) {
                     ctx.addExtentIntent(o, a);
                 }
             }
         }
-        ctx.setBitSets();
         return ctx;
     }
     /**
@@ -320,7 +337,7 @@ public class Context extends ClosureSystem {
             boolean cross = false; // If there is a cross, it is not empty.
             for (Comparable o : obsComp) {
                 for (Comparable a : attrComp) {
-                    cross = cross || this.getIntent(o).contains(a);
+                    cross = cross || this.containAsIntent(o, a);
                 }
             }
             if (!cross) {
@@ -393,11 +410,11 @@ public class Context extends ClosureSystem {
      * @return  true if the attribute was successfully added
      */
     public boolean addToAttributes(Comparable att) {
-        if (!this.containsAttribute(att)) {
-            this.extent.put(att, new TreeSet<Comparable>());
-        }
         boolean ok = this.attributes.add(att);
-        this.setBitSets();
+        if (ok) {
+            this.attributeIndex.add(att);
+            this.extent.add();
+        }
         return ok;
     }
 
@@ -415,7 +432,6 @@ public class Context extends ClosureSystem {
                 all = false;
             }
         }
-        this.setBitSets();
         return all;
     }
 
@@ -428,13 +444,14 @@ public class Context extends ClosureSystem {
      * @return  true if the attribute was successfully removed
      */
     public boolean removeFromAttributes(Comparable att) {
-        this.extent.remove(att);
-        for (Comparable o : this.getObservations()) {
-            this.intent.get(o).remove(att);
+        int a = this.attributeIndex.indexOf(att);
+        if (a < 0) {
+            return false;
         }
-        boolean ok = this.attributes.remove(att);
-        this.setBitSets();
-        return ok;
+        this.attributes.remove(att);
+        removeIndex(a, this.extent, this.intent);
+        this.attributeIndex.remove(att);
+        return true;
     }
 
    /**
@@ -476,11 +493,11 @@ public class Context extends ClosureSystem {
      * @return  true if the observation was successfully added
      */
     public boolean addToObservations(Comparable obs) {
-        if (!this.containsObservation(obs)) {
-            this.intent.put(obs, new TreeSet<Comparable>());
-        }
         boolean ok = this.observations.add(obs);
-        this.setBitSets();
+        if (ok) {
+            this.observationIndex.add(obs);
+            this.intent.add();
+        }
         return ok;
     }
 
@@ -498,7 +515,6 @@ public class Context extends ClosureSystem {
                 all = false;
             }
         }
-        this.setBitSets();
         return all;
     }
 
@@ -511,66 +527,145 @@ public class Context extends ClosureSystem {
      * @return  true if the observation was removed
      */
     public boolean removeFromObservations(Comparable obs) {
-        this.intent.remove(obs);
-        for (Comparable att : this.getAttributes()) {
-            this.extent.get(att).remove(obs);
+        int o = this.observationIndex.indexOf(obs);
+        if (o < 0) {
+            return false;
         }
-        boolean ok = this.observations.remove(obs);
-        this.setBitSets();
-        return ok;
+        this.observations.remove(obs);
+        removeIndex(o, this.intent, this.extent);
+        this.observationIndex.remove(obs);
+        return true;
     }
 
     /**
-     * Set the needed structures for the bitset optimization.
-     * WARNING: this must be called each time your dataset change
+     * Removes the incidences of the element of the specified index, and moves the last element
+     * of the same kind to this index, as done by method {@link Index#remove}.
+     *
+     * This treatment is performed in O(k+l) where k and l are the number of incidences of the removed
+     * and of the moved elements.
+     *
+     * @param   i       the index of the removed element
+     * @param   lines   the bit sets of elements of the same kind as the removed element
+     * @param   others  the bit sets of elements of the other kind
      */
-    public void setBitSets() {
-        this.setMaps();
-        this.setBitSetsIntentExtent();
+    private static void removeIndex(int i, BitSetList lines, BitSetList others) {
+        for (int j = lines.nextSetBit(i, 0); j >= 0; j = lines.nextSetBit(i, j + 1)) {
+            others.clear(j, i);
+        }
+        int last = lines.size() - 1;
+        if (i < last) {
+            for (int j = lines.nextSetBit(last, 0); j >= 0; j = lines.nextSetBit(last, j + 1)) {
+                others.clear(j, last);
+                others.set(j, i);
+            }
+        }
+        lines.remove(i);
     }
 
     /**
-     * Set the mapping structure for the bitset optimization.
+     * Renumbers observations and attributes following their order, and compacts the bit sets.
+     *
+     * Since bit sets are incrementally updated by each modification of this component,
+     * calling this method is never required. It only makes indexes follow the order of elements
+     * and shrinks bit sets after many removals.
+     * This treatment is performed in O(|O|+|A|+r) where r is the size of the binary relation.
      */
-    private void setMaps() {
-        this.arrayAttributes = new ArrayList();
-        this.arrayObservations = new ArrayList();
-        Iterator<Comparable> i = this.attributes.iterator();
-        while (i.hasNext()) {
-            this.arrayAttributes.add(i.next());
+    public void setBitSets() {
+        int[] observationMap = renumber(this.observationIndex, this.observations);
+        int[] attributeMap = renumber(this.attributeIndex, this.attributes);
+        int nbObservations = this.observations.size();
+        int nbAttributes = this.attributes.size();
+        BitSetList rows = this.intent.create();
+        for (int o = 0; o < nbObservations; o++) {
+            rows.add();
         }
-        i = this.observations.iterator();
-        while (i.hasNext()) {
-            this.arrayObservations.add(i.next());
+        BitSetList columns = this.extent.create();
+        for (int a = 0; a < nbAttributes; a++) {
+            columns.add();
         }
+        for (int i = 0; i < this.intent.size(); i++) {
+            int o = observationMap[i];
+            if (o >= 0) {
+                for (int j = this.intent.nextSetBit(i, 0); j >= 0; j = this.intent.nextSetBit(i, j + 1)) {
+                    int a = attributeMap[j];
+                    if (a >= 0) {
+                        rows.set(o, a);
+                        columns.set(a, o);
+                    }
+                }
+            }
+        }
+        rows.optimize();
+        columns.optimize();
+        this.intent = rows;
+        this.extent = columns;
+    }
+
+    /**
+     * Checks if the incidences of this component are stored as compressed bit sets.
+     *
+     * @return  true if the incidences are compressed
+     */
+    public boolean isCompressed() {
+        return this.intent instanceof CompressedBitSetList;
     }
 
     /**
-     * Set the extent and intent structures for the bitset optimization.
+     * Selects the representation of the incidences of this component.
+     *
+     * Dense bit sets (the default) use one bit per possible incidence and suit dense contexts.
+     * Compressed bit sets (see {@link fr.kbertet.util.CompressedBitSet}) switch between sorted arrays, bitmaps and runs
+     * chunk by chunk, and use a memory proportional to the number of incidences on very sparse contexts.
+     * Extents, intents and closures are computed directly on the selected representation.
+     * This treatment is performed in O(|O|+|A|+r) where r is the size of the binary relation.
+     *
+     * @param   compressed  true for compressed bit sets, false for dense bit sets
+     *
+     * @return  this for chaining
      */
-    private void setBitSetsIntentExtent() {
-        this.bitsetIntent = new TreeMap();
-        this.bitsetExtent = new TreeMap();
-        Iterator<Comparable> i = this.attributes.iterator();
-        BitSet b = new BitSet(this.observations.size());
-        while (i.hasNext()) {
-            Comparable att = i.next();
-            for (Comparable c : this.extent.get(att)) {
-                b.set(this.arrayObservations.indexOf(c));
+    public Context setCompressed(boolean compressed) {
+        if (compressed != this.isCompressed()) {
+            BitSetList rows;
+            BitSetList columns;
+            if (compressed) {
+                rows = new CompressedBitSetList();
+                columns = new CompressedBitSetList();
+            } else {
+                rows = new DenseBitSetList();
+                columns = new DenseBitSetList();
             }
-            this.bitsetExtent.put(att, (BitSet) b.clone());
-            b.clear();
+            this.intent = rows.addAll(this.intent);
+            this.extent = columns.addAll(this.extent);
+            this.intent.optimize();
+            this.extent.optimize();
         }
-        i = this.observations.iterator();
-        b = new BitSet(this.attributes.size());
-        while (i.hasNext()) {
-            Comparable obs = i.next();
-            for (Comparable c : this.intent.get(obs)) {
-                b.set(this.arrayAttributes.indexOf(c));
+        return this;
+    }
+
+    /**
+     * Renumbers the specified index following the order of the specified set.
+     *
+     * @param   index  the index to be renumbered
+     * @param   set    the elements to be kept
+     *
+     * @return  the new index of each former index, or -1 for elements not belonging to the set
+     */
+    private static int[] renumber(Index index, TreeSet<Comparable> set) {
+        int[] map = new int[index.size()];
+        Arrays.fill(map, -1);
+        int k = 0;
+        for (Comparable element : set) {
+            int i = index.indexOf(element);
+            if (i >= 0) {
+                map[i] = k;
             }
-            this.bitsetIntent.put(obs, (BitSet) b.clone());
-            b.clear();
+            k++;
         }
+        index.clear();
+        for (Comparable element : set) {
+            index.add(element);
+        }
+        return map;
     }
 
     /* --------------- HANDLING METHODS FOR INTENT AND EXTENT ------------ */
@@ -578,16 +673,20 @@ public class Context extends ClosureSystem {
     /**
      * Returns the set of attributes that are intent of the specified observation.
      *
+     * The returned set is a new copy built from the bit set of the observation: it does not follow
+     * later modifications of this component, and modifying it does not modify this component.
+     * This treatment is performed in O(|A|/64+k log(k)) where k is the size of the intent.
+     *
      * @param   obs  an observation
      *
      * @return  the set of attributes
      */
     public TreeSet<Comparable> getIntent(Comparable obs) {
-        if (this.containsObservation(obs)) {
-            return this.intent.get(obs);
-        } else {
+        int o = this.observationIndex.indexOf(obs);
+        if (o < 0) {
             return new TreeSet();
         }
+        return elements(this.attributeIndex, this.intent, o);
     }
 
     /**
@@ -598,32 +697,22 @@ public class Context extends ClosureSystem {
      * @return  the set of observations
      */
     public TreeSet<Comparable> getIntent(TreeSet<Comparable> set) {
-        TreeSet<Comparable> resIntent = new TreeSet(this.getAttributes());
-        for (Comparable obs : set) {
-            resIntent.retainAll(this.getIntent(obs));
-        }
-        return resIntent;
+        long[] bits = this.intentBits(set);
+        return elements(this.attributeIndex, bits, BitSets.words(this.attributeIndex.size()));
     }
 
     /**
      * Return the number of attributes that are all intent of observations of the specified set.
      *
+     * This treatment is performed in O(|X||A|/64) where X is the specified set, without any allocation.
+     *
      * @param   set  set of observations
      *
      * @return  the number of attributes
      */
     public int getIntentNb(TreeSet<Comparable> set) {
-        int size = this.getAttributes().size();
-        BitSet obsIntent = new BitSet(size);
-        obsIntent.set(0, size);
-        for (Comparable obs : set) {
-            try {
-                obsIntent.and(this.bitsetIntent.get(obs));
-            } catch (NullPointerException e) {
-                return 0;
-            }
-        }
-        return obsIntent.cardinality();
+        long[] bits = this.intentBits(set);
+        return BitSets.cardinality(bits, BitSets.words(this.attributeIndex.size()));
     }
 
     /**
@@ -635,26 +724,28 @@ public class Context extends ClosureSystem {
      * @return  true if the attribute is an intent of the observation
      */
     public boolean containAsIntent(Comparable obs, Comparable att) {
-        if (this.containsObservation(obs) && this.containsAttribute(att)) {
-            return this.intent.get(obs).contains(att);
-        } else {
-            return false;
-        }
+        int o = this.observationIndex.indexOf(obs);
+        int a = this.attributeIndex.indexOf(att);
+        return o >= 0 && a >= 0 && this.intent.get(o, a);
     }
 
     /**
      * Returns the set of observations that are intent of the specified attribute.
      *
+     * The returned set is a new copy built from the bit set of the attribute: it does not follow
+     * later modifications of this component, and modifying it does not modify this component.
+     * This treatment is performed in O(|O|/64+k log(k)) where k is the size of the extent.
+     *
      * @param   att  an attribute
      *
      * @return  the set of observations
      */
     public TreeSet<Comparable> getExtent(Comparable att) {
-        if (this.containsAttribute(att)) {
-            return this.extent.get(att);
-        } else {
+        int a = this.attributeIndex.indexOf(att);
+        if (a < 0) {
             return new TreeSet();
         }
+        return elements(this.observationIndex, this.extent, a);
     }
 
     /**
@@ -665,32 +756,90 @@ public class Context extends ClosureSystem {
      * @return  the set of observations
      */
     public TreeSet<Comparable> getExtent(TreeSet<Comparable> set) {
-        TreeSet<Comparable> attExtent = new TreeSet(this.getObservations());
-        for (Comparable att : set) {
-            attExtent.retainAll(this.getExtent(att));
-        }
-        return attExtent;
+        long[] bits = this.extentBits(set);
+        return elements(this.observationIndex, bits, BitSets.words(this.observationIndex.size()));
     }
 
     /**
      * Return the number of observations that are all intent of attributes of the specified set.
      *
+     * This treatment is performed in O(|X||O|/64) where X is the specified set, without any allocation.
+     *
      * @param   set  set of attributes
      *
      * @return  the number of observations
      */
     public int getExtentNb(TreeSet<Comparable> set) {
-        int size = this.getObservations().size();
-        BitSet attExtent = new BitSet(size);
-        attExtent.set(0, size);
-        for (Comparable att : set) {
-            try {
-                attExtent.and(this.bitsetExtent.get(att));
-            } catch (NullPointerException e) {
-                return 0;
+        if (set.size() == 1) {
+            int a = this.attributeIndex.indexOf(set.first());
+            if (a >= 0) {
+                return this.extent.cardinality(a);
+            }
+        }
+        long[] bits = this.extentBits(set);
+        return BitSets.cardinality(bits, BitSets.words(this.observationIndex.size()));
+    }
+
+    /**
+     * Returns the attribute sets of the immediate successors of the concept of the specified intent,
+     * computed with the LOA algorithm.
+     *
+     * The extent of the intent `A` is computed once. Then, for each attribute `x` not in `A`, the cardinality
+     * of the extent of `A+x`, and of `A+X+x` for each candidate successor `A+X`, is obtained by a single
+     * intersection count of the column of `x` with the extent of `A`, or with the extent kept by the candidate.
+     * No set is allocated while testing a candidate.
+     *
+     * This treatment is performed in O(|A||O|/64+|M||S||O|/64) where M is the set of attributes
+     * and S the set of candidate successors.
+     *
+     * @param   set  the intent of a concept of this component
+     *
+     * @return  the intents of the immediate successors
+     */
+    public ArrayList<TreeSet<Comparable>> immediateSuccessorsLOA(TreeSet<Comparable> set) {
+        int n = BitSets.words(this.observationIndex.size());
+        long[] ext = Arrays.copyOf(this.extentBits(set), n);
+        ArrayList<Candidate> candidates = new ArrayList<Candidate>();
+        for (Comparable x : this.attributes) {
+            if (set.contains(x)) {
+                continue;
+            }
+            int a = this.attributeIndex.indexOf(x);
+            int cBx = this.extent.andCardinality(a, ext, n);
+            boolean add = true;
+            for (int k = 0; k < candidates.size(); k++) {
+                Candidate candidate = candidates.get(k);
+                int cBX = candidate.cardinality;
+                int cBXx = this.extent.andCardinality(a, candidate.extent, n);
+                if (cBx == cBX && cBXx == cBx) {
+                    // x is added to the candidate, whose extent is unchanged
+                    candidates.remove(k);
+                    candidate.attributes.add(x);
+                    candidates.add(candidate);
+                    add = false;
+                    break;
+                }
+                if (cBx < cBX && cBXx == cBx) {
+                    add = false;
+                    break;
+                }
+                if (cBx > cBX && cBXx == cBX) {
+                    candidates.remove(k);
+                    k--;
+                }
+            }
+            if (add) {
+                Candidate candidate = new Candidate(x, Arrays.copyOf(ext, n), cBx);
+                this.extent.and(a, candidate.extent, n);
+                candidates.add(candidate);
             }
         }
-        return attExtent.cardinality();
+        ArrayList<TreeSet<Comparable>> succB = new ArrayList<TreeSet<Comparable>>();
+        for (Candidate candidate : candidates) {
+            candidate.attributes.addAll(set);
+            succB.add(candidate.attributes);
+        }
+        return succB;
     }
 
     /**
@@ -702,11 +851,9 @@ public class Context extends ClosureSystem {
      * @return  true if the proposition is true
      */
     public boolean containAsExtent(Comparable att, Comparable obs) {
-        if (this.containsObservation(obs) && this.containsAttribute(att)) {
-            return this.extent.get(att).contains(obs);
-        } else {
-            return false;
-        }
+        int o = this.observationIndex.indexOf(obs);
+        int a = this.attributeIndex.indexOf(att);
+        return o >= 0 && a >= 0 && this.extent.get(a, o);
     }
 
     /**
@@ -721,10 +868,12 @@ public class Context extends ClosureSystem {
      * @return  true if both were added
      */
     public boolean addExtentIntent(Comparable obs, Comparable att) {
-        if (this.containsObservation(obs) && this.containsAttribute(att)) {
-            boolean ok = this.intent.get(obs).add(att) && this.extent.get(att).add(obs);
-            this.setBitSets();
-            return ok;
+        int o = this.observationIndex.indexOf(obs);
+        int a = this.attributeIndex.indexOf(att);
+        if (o >= 0 && a >= 0 && !this.intent.get(o, a)) {
+            this.intent.set(o, a);
+            this.extent.set(a, o);
+            return true;
         } else {
             return false;
         }
@@ -742,15 +891,116 @@ public class Context extends ClosureSystem {
      * @return  true if both were removed
      */
     public boolean removeExtentIntent(Comparable obs, Comparable att) {
-        if (this.containsObservation(obs) && this.containsAttribute(att)) {
-            boolean ok = this.intent.get(obs).remove(att) && this.extent.get(att).remove(obs);
-            this.setBitSets();
-            return ok;
+        int o = this.observationIndex.indexOf(obs);
+        int a = this.attributeIndex.indexOf(att);
+        if (o >= 0 && a >= 0 && this.intent.get(o, a)) {
+            this.intent.clear(o, a);
+            this.extent.clear(a, o);
+            return true;
         } else {
             return false;
         }
     }
 
+    /**
+     * Returns the bits of the attributes shared by all observations of the specified set.
+     *
+     * The result is stored in a buffer of the current thread, that is overwritten by the next call.
+     *
+     * @param   set  set of observations
+     *
+     * @return  the packed bit set of attribute indexes
+     */
+    private long[] intentBits(TreeSet<Comparable> set) {
+        int n = BitSets.words(this.attributeIndex.size());
+        long[] bits = buffer(this.attributeBuffer, n);
+        BitSets.fill(bits, this.attributeIndex.size(), n);
+        for (Comparable obs : set) {
+            int o = this.observationIndex.indexOf(obs);
+            if (o < 0) {
+                BitSets.clearAll(bits, n);
+                break;
+            }
+            this.intent.and(o, bits, n);
+        }
+        return bits;
+    }
+
+    /**
+     * Returns the bits of the observations sharing all attributes of the specified set.
+     *
+     * The result is stored in a buffer of the current thread, that is overwritten by the next call.
+     *
+     * @param   set  set of attributes
+     *
+     * @return  the packed bit set of observation indexes
+     */
+    private long[] extentBits(TreeSet<Comparable> set) {
+        int n = BitSets.words(this.observationIndex.size());
+        long[] bits = buffer(this.observationBuffer, n);
+        BitSets.fill(bits, this.observationIndex.size(), n);
+        for (Comparable att : set) {
+            int a = this.attributeIndex.indexOf(att);
+            if (a < 0) {
+                BitSets.clearAll(bits, n);
+                break;
+            }
+            this.extent.and(a, bits, n);
+        }
+        return bits;
+    }
+
+    /**
+     * Returns the buffer of the current thread, allocating it when it is shorter than `n` words.
+     *
+     * @param   local  a per-thread buffer
+     * @param   n      the number of words needed
+     *
+     * @return  the buffer of the current thread
+     */
+    private static long[] buffer(ThreadLocal<long[]> local, int n) {
+        long[] buffer = local.get();
+        if (buffer == null || buffer.length < n) {
+            buffer = new long[n];
+            local.set(buffer);
+        }
+        return buffer;
+    }
+
+    /**
+     * Returns the set of elements whose index is set in the specified line of the specified list.
+     *
+     * @param   index  the index of elements
+     * @param   lines  a list of bit sets
+     * @param   i      a line index
+     *
+     * @return  the set of elements
+     */
+    private static TreeSet<Comparable> elements(Index index, BitSetList lines, int i) {
+        TreeSet<Comparable> set = new TreeSet<Comparable>();
+        for (int j = lines.nextSetBit(i, 0); j >= 0; j = lines.nextSetBit(i, j + 1)) {
+            set.add(index.get(j));
+        }
+        return set;
+    }
+
+    /**
+     * Returns the set of elements whose index is set in the `n` first words of the specified bit set.
+     *
+     * @param   index  the index of elements
+     * @param   bits   a packed bit set
+     * @param   n      the number of words
+     *
+     * @return  the set of elements
+     */
+    private static TreeSet<Comparable> elements(Index index, long[] bits, int n) {
+        TreeSet<Comparable> set = new TreeSet<Comparable>();
+        for (int i = BitSets.nextSetBit(bits, 0, n); i >= 0; i = BitSets.nextSetBit(bits, i + 1, n)) {
+            set.add(index.get(i));
+        }
+        return set;
+    }
+
     /* --------------- CONTEXT HANDLING METHODS ------------ */
 
     /**
@@ -909,9 +1159,15 @@ public class Context extends ClosureSystem {
         TreeSet<Comparable> tmp = this.attributes;
         this.attributes = this.observations;
         this.observations = tmp;
-        TreeMap<Comparable, TreeSet<Comparable>> sauv = this.intent;
+        Index index = this.attributeIndex;
+        this.attributeIndex = this.observationIndex;
+        this.observationIndex = index;
+        BitSetList sauv = this.intent;
         this.intent = this.extent;
         this.extent = sauv;
+        ThreadLocal<long[]> buffer = this.attributeBuffer;
+        this.attributeBuffer = this.observationBuffer;
+        this.observationBuffer = buffer;
     }
 
     /**
@@ -922,7 +1178,6 @@ public class Context extends ClosureSystem {
     public Context getReverseContext() {
         Context context = new Context(this);
         context.reverse();
-        context.setBitSets();
         return context;
     }
 
@@ -1073,7 +1328,9 @@ public class Context extends ClosureSystem {
      * The closure corresponds to the maximal set of attributes having the
      * same intent as the specified one.
      *
-     * This treatment is performed in O(|A||O|)
+     * The extent of the set is computed by intersecting the bit sets of its attributes,
+     * then the closure by intersecting the bit sets of the observations of the extent.
+     * This treatment is performed in O(|X||O|/64+|O||A|/64) where X is the specified set.
      *
      * @param   set  a TreeSet of indexed elements
      *
@@ -1081,7 +1338,69 @@ public class Context extends ClosureSystem {
      */
     @Override
     public TreeSet<Comparable> closure(TreeSet<Comparable> set) {
-        return this.getIntent(this.getExtent(set));
+        long[] ext = this.extentBits(set);
+        int n = BitSets.words(this.attributeIndex.size());
+        long[] bits = buffer(this.attributeBuffer, n);
+        this.intentBits(ext, bits);
+        return elements(this.attributeIndex, bits, n);
+    }
+
+    /**
+     * Returns the numbering of attributes, that are the elements of this closure system.
+     *
+     * @return  the numbering of attributes
+     */
+    @Override
+    public Index getIndex() {
+        return this.attributeIndex;
+    }
+
+    /**
+     * Returns the number of words needed to store the extent computed by
+     * method {@link #closure(long[], long[], long[])}.
+     *
+     * @return  the number of words of the scratch buffer
+     */
+    @Override
+    public int getScratchSize() {
+        return BitSets.words(this.observationIndex.size());
+    }
+
+    /**
+     * Computes the closure of a packed bit set of attribute indexes.
+     *
+     * The extent of the set is stored in `scratch`, then the closure is obtained by intersecting
+     * intents of observations of the extent. This treatment is performed in
+     * O(|X||O|/64+|O||A|/64) where X is the specified set, without any allocation.
+     *
+     * @param   in       the bit set whose closure is computed
+     * @param   out      the bit set receiving the closure
+     * @param   scratch  a buffer of at least {@link #getScratchSize} words
+     */
+    @Override
+    public void closure(long[] in, long[] out, long[] scratch) {
+        int n = BitSets.words(this.attributeIndex.size());
+        int m = BitSets.words(this.observationIndex.size());
+        BitSets.fill(scratch, this.observationIndex.size(), m);
+        for (int a = BitSets.nextSetBit(in, 0, n); a >= 0; a = BitSets.nextSetBit(in, a + 1, n)) {
+            this.extent.and(a, scratch, m);
+        }
+        this.intentBits(scratch, out);
+    }
+
+    /**
+     * Stores in `bits` the attributes shared by all observations of the specified bit set.
+     *
+     * @param   ext   a packed bit set of observation indexes
+     * @param   bits  the packed bit set receiving attribute indexes
+     */
+    private void intentBits(long[] ext, long[] bits) {
+        int m = BitSets.words(this.observationIndex.size());
+        int n = BitSets.words(this.attributeIndex.size());
+        BitSets.fill(bits, this.attributeIndex.size(), n);
+        for (int o = BitSets.nextSetBit(ext, 0, m); o >= 0; o = BitSets.nextSetBit(ext, o + 1, m)) {
+            this.intent.and(o, bits, n);
+        }
     }
 
     /**
@@ -1294,4 +1613,39 @@ public class Context extends ClosureSystem {
     public ConceptLattice lattice() {
         return this.conceptLattice(true);
     }
+
+    /**
+     * This class gives a candidate immediate successor `A+X` of the LOA algorithm,
+     * with the extent of `A+X` kept as a packed bit set of observation indexes.
+     */
+    private static final class Candidate {
+        /**
+         * The attributes `X` added to the intent.
+         */
+        private final TreeSet<Comparable> attributes;
+
+        /**
+         * The extent of `A+X`.
+         */
+        private final long[] extent;
+
+        /**
+         * The cardinality of the extent.
+         */
+        private final int cardinality;
+
+        /**
+         * Constructs a candidate for a single attribute.
+         *
+         * @param   x            an attribute
+         * @param   extent       the extent of `A+x`
+         * @param   cardinality  the cardinality of the extent
+         */
+        private Candidate(Comparable x, long[] extent, int cardinality) {
+            this.attributes = new TreeSet<Comparable>();
+            this.attributes.add(x);
+            this.extent = extent;
+            this.cardinality = cardinality;
+        }
+    }
 }
@@ -0,0 +1,848 @@
+package fr.kbertet.context;
+
+/*
+ * MappedContext.java
+ *
+ * Copyright: 2010-2014 Karell Bertet, France
+ *
+ * License: http://www.cecill.info/licences/Licence_CeCILL-B_V1-en.html CeCILL-B license
+ *
+ * This file is part of java-lattices, free package. You can redistribute it and/or modify
+ * it under the terms of CeCILL-B license.
+ */
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.LongBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.SortedSet;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+import fr.kbertet.lattice.ClosureSystem;
+import fr.kbertet.util.BitSets;
+import fr.kbertet.util.Index;
+
+/**
+ * This class gives a read-only context whose binary relation is stored out of the heap,
+ * in a memory-mapped file.
+ *
+ * A mapped context is opened in O(|A|): the file is mapped by NIO, only the attribute names are
+ * decoded to build the index of attributes, and the binary relation is not parsed. Pages are loaded by the operating system when they are accessed, and
+ * are shared by all the processes mapping the same file. Therefore, this class handles contexts that
+ * are larger than the heap.
+ *
+ * Observations and attributes are stored as strings, sorted in their natural order, and the binary
+ * relation is stored twice as packed bit sets of `long` (see {@link BitSets}): a row of attribute bits
+ * for each observation, and a column of observation bits for each attribute. Extents, intents,
+ * their cardinality and closures are computed by intersecting words read from the mapping.
+ * Elements are retrieved by a binary search in the mapped names, in O(log n).
+ *
+ * A mapped file is created from a context by method {@link #write}:
+ *
+ * ~~~Java
+ * MappedContext.write(context, "context.map");
+ * MappedContext mapped = new MappedContext("context.map");
+ * ~~~
+ *
+ * The file starts with a header composed of a magic number, a version, the number of observations
+ * and attributes, and the offsets of the four following sections: observation names, attribute names,
+ * rows and columns. A names section is composed of the offsets of the names, followed by their UTF-8
+ * encoding.
+ *
+ * ![MappedContext](MappedContext.png)
+ *
+ * @uml MappedContext.png
+ * !include resources/fr/kbertet/context/MappedContext.iuml
+ * !include resources/fr/kbertet/lattice/ClosureSystem.iuml
+ *
+ * hide members
+ * show MappedContext members
+ * class MappedContext #LightCyan
+ * title MappedContext UML graph
+ */
+public class MappedContext extends ClosureSystem {
+    /* ------------- CONSTANTS ------------------ */
+
+    /**
+     * The magic number of a mapped file.
+     */
+    private static final int MAGIC = 0x4A4C4D43;
+
+    /**
+     * The version of the format of a mapped file.
+     */
+    private static final int VERSION = 1;
+
+    /**
+     * The size of the header of a mapped file.
+     */
+    private static final int HEADER = 48;
+
+    /**
+     * The maximal size of a single mapping.
+     */
+    private static final long MAX_MAPPING = 1L << 30;
+
+    /**
+     * The charset of names.
+     */
+    private static final Charset UTF8 = Charset.forName("UTF-8");
+
+    /* ------------- FIELDS ------------------ */
+
+    /**
+     * The name of the mapped file.
+     */
+    private String filename;
+
+    /**
+     * The number of observations.
+     */
+    private int nbObservations;
+
+    /**
+     * The number of attributes.
+     */
+    private int nbAttributes;
+
+    /**
+     * The mapped names of observations.
+     */
+    private ByteBuffer observationNames;
+
+    /**
+     * The mapped names of attributes.
+     */
+    private ByteBuffer attributeNames;
+
+    /**
+     * The mapped row of each observation.
+     */
+    private Lines rows;
+
+    /**
+     * The mapped column of each attribute.
+     */
+    private Lines columns;
+
+    /**
+     * The index of attributes, built once when the file is opened.
+     */
+    private final Index index;
+
+    /**
+     * The set of observations, lazily built.
+     */
+    private TreeSet<Comparable> observations;
+
+    /**
+     * The set of attributes, lazily built.
+     */
+    private TreeSet<Comparable> attributes;
+
+    /* ------------- CONSTRUCTORS ------------------ */
+
+    /**
+     * Opens the specified mapped file.
+     *
+     * This treatment is performed in O(|A|), whatever the number of observations: the attribute
+     * names are decoded once to build the index of attributes.
+     *
+     * @param   filename  the name of a file created by method {@link #write}
+     *
+     * @throws  IOException  When an IOException occurs or when the file is not a mapped context
+     */
+    public MappedContext(String filename) throws IOException {
+        this.filename = filename;
+        RandomAccessFile file = new RandomAccessFile(filename, "r");
+        try {
+            FileChannel channel = file.getChannel();
+            ByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0, HEADER);
+            if (header.getInt() != MAGIC || header.getInt() != VERSION) {
+                throw new IOException(filename + " is not a mapped context");
+            }
+            this.nbObservations = header.getInt();
+            this.nbAttributes = header.getInt();
+            long observationNamesOffset = header.getLong();
+            long attributeNamesOffset = header.getLong();
+            long rowsOffset = header.getLong();
+            long columnsOffset = header.getLong();
+            this.observationNames = channel.map(FileChannel.MapMode.READ_ONLY, observationNamesOffset,
+                attributeNamesOffset - observationNamesOffset);
+            this.attributeNames = channel.map(FileChannel.MapMode.READ_ONLY, attributeNamesOffset,
+                rowsOffset - attributeNamesOffset);
+            this.rows = new Lines(channel, rowsOffset, this.nbObservations, BitSets.words(this.nbAttributes));
+            this.columns = new Lines(channel, columnsOffset, this.nbAttributes, BitSets.words(this.nbObservations));
+        } finally {
+            file.close();
+        }
+        this.index = new Index();
+        for (int a = 0; a < this.nbAttributes; a++) {
+            this.index.add(name(this.attributeNames, a));
+        }
+    }
+
+    /* ------------- WRITER ------------------ */
+
+    /**
+     * Writes the specified context in the specified file, using the format of mapped contexts.
+     *
+     * Observations and attributes are written as strings, that have to be distinct.
+     * This treatment is performed in O(|O||A|/64), and writes the file sequentially.
+     *
+     * @param   context   a context
+     * @param   filename  the name of the file
+     *
+     * @throws  IOException  When an IOException occurs
+     */
+    public static void write(Context context, String filename) throws IOException {
+        TreeMap<String, Comparable> observations = names(context.getObservations());
+        TreeMap<String, Comparable> attributes = names(context.getAttributes());
+        byte[][] observationNames = encode(observations);
+        byte[][] attributeNames = encode(attributes);
+        int m = BitSets.words(attributes.size());
+        int n = BitSets.words(observations.size());
+        long observationNamesOffset = HEADER;
+        long attributeNamesOffset = observationNamesOffset + size(observationNames);
+        long rowsOffset = align(attributeNamesOffset + size(attributeNames));
+        long columnsOffset = rowsOffset + 8L * m * observations.size();
+        DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(filename)));
+        try {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(observations.size());
+            out.writeInt(attributes.size());
+            out.writeLong(observationNamesOffset);
+            out.writeLong(attributeNamesOffset);
+            out.writeLong(rowsOffset);
+            out.writeLong(columnsOffset);
+            writeNames(out, observationNames);
+            writeNames(out, attributeNames);
+            for (long i = attributeNamesOffset + size(attributeNames); i < rowsOffset; i++) {
+                out.writeByte(0);
+            }
+            Index attributeIndex = index(attributes);
+            for (Comparable observation : observations.values()) {
+                writeLine(out, attributeIndex.bits(context.getIntent(observation)), m);
+            }
+            Index observationIndex = index(observations);
+            for (Comparable attribute : attributes.values()) {
+                writeLine(out, observationIndex.bits(context.getExtent(attribute)), n);
+            }
+        } finally {
+            out.close();
+        }
+    }
+
+    /**
+     * Returns the specified elements, associated to their distinct names.
+     *
+     * @param   set  a set of elements
+     *
+     * @return  the elements sorted by name
+     */
+    private static TreeMap<String, Comparable> names(TreeSet<Comparable> set) {
+        TreeMap<String, Comparable> names = new TreeMap<String, Comparable>();
+        for (Comparable element : set) {
+            if (names.put(element.toString(), element) != null) {
+                throw new IllegalArgumentException("Duplicate name " + element);
+            }
+        }
+        return names;
+    }
+
+    /**
+     * Returns the UTF-8 encoding of the specified names.
+     *
+     * @param   names  the sorted names
+     *
+     * @return  the encoding of each name
+     */
+    private static byte[][] encode(TreeMap<String, Comparable> names) {
+        byte[][] bytes = new byte[names.size()][];
+        int i = 0;
+        for (String name : names.keySet()) {
+            bytes[i] = name.getBytes(UTF8);
+            i++;
+        }
+        return bytes;
+    }
+
+    /**
+     * Returns the index of the elements of the specified map, following the order of their names.
+     *
+     * @param   names  the sorted names
+     *
+     * @return  an index of elements
+     */
+    private static Index index(TreeMap<String, Comparable> names) {
+        Index index = new Index();
+        for (Comparable element : names.values()) {
+            index.add(element);
+        }
+        return index;
+    }
+
+    /**
+     * Returns the size of a names section.
+     *
+     * @param   names  the encoding of each name
+     *
+     * @return  the number of bytes of the section
+     */
+    private static long size(byte[][] names) {
+        long size = 4L * (names.length + 1);
+        for (byte[] name : names) {
+            size += name.length;
+        }
+        return size;
+    }
+
+    /**
+     * Returns the smallest multiple of 8 greater or equal to the specified offset.
+     *
+     * @param   offset  an offset
+     *
+     * @return  the aligned offset
+     */
+    private static long align(long offset) {
+        return (offset + 7) & ~7L;
+    }
+
+    /**
+     * Writes a names section.
+     *
+     * @param   out    the output stream
+     * @param   names  the encoding of each name
+     *
+     * @throws  IOException  When an IOException occurs
+     */
+    private static void writeNames(DataOutputStream out, byte[][] names) throws IOException {
+        int offset = 4 * (names.length + 1);
+        out.writeInt(offset);
+        for (byte[] name : names) {
+            offset += name.length;
+            out.writeInt(offset);
+        }
+        for (byte[] name : names) {
+            out.write(name);
+        }
+    }
+
+    /**
+     * Writes the `n` first words of the specified packed bit set.
+     *
+     * @param   out    the output stream
+     * @param   words  a packed bit set
+     * @param   n      the number of words
+     *
+     * @throws  IOException  When an IOException occurs
+     */
+    private static void writeLine(DataOutputStream out, long[] words, int n) throws IOException {
+        for (int w = 0; w < n; w++) {
+            out.writeLong(words[w]);
+        }
+    }
+
+    /* ------------- ACCESSORS ------------------ */
+
+    /**
+     * Returns the number of observations of this component.
+     *
+     * @return  the number of observations
+     */
+    public int getObservationsNb() {
+        return this.nbObservations;
+    }
+
+    /**
+     * Returns the number of attributes of this component.
+     *
+     * @return  the number of attributes
+     */
+    public int getAttributesNb() {
+        return this.nbAttributes;
+    }
+
+    /**
+     * Returns the set of observations of this component.
+     *
+     * The set is built by the first call, in O(|O| log |O|).
+     *
+     * @return  the set of observations
+     */
+    public synchronized TreeSet<Comparable> getObservations() {
+        if (this.observations == null) {
+            this.observations = names(this.observationNames, this.nbObservations);
+        }
+        return this.observations;
+    }
+
+    /**
+     * Returns the set of attributes of this component.
+     *
+     * The set is built by the first call, in O(|A| log |A|).
+     *
+     * @return  the set of attributes
+     */
+    public synchronized TreeSet<Comparable> getAttributes() {
+        if (this.attributes == null) {
+            this.attributes = names(this.attributeNames, this.nbAttributes);
+        }
+        return this.attributes;
+    }
+
+    /**
+     * Returns the set of attributes of this component.
+     *
+     * @return  the set of attributes
+     */
+    public SortedSet<Comparable> getSet() {
+        return this.getAttributes();
+    }
+
+    /**
+     * Returns the index of attributes of this component, following their order.
+     *
+     * @return  the index of attributes
+     */
+    public Index getIndex() {
+        return this.index;
+    }
+
+    /**
+     * Returns a context on the heap, equal to this component.
+     *
+     * @return  a context
+     */
+    public Context toContext() {
+        Context context = new Context();
+        context.addAllToObservations(this.getObservations());
+        context.addAllToAttributes(this.getAttributes());
+        for (int o = 0; o < this.nbObservations; o++) {
+            String observation = name(this.observationNames, o);
+            for (int a = this.rows.nextSetBit(o, 0); a >= 0; a = this.rows.nextSetBit(o, a + 1)) {
+                context.addExtentIntent(observation, name(this.attributeNames, a));
+            }
+        }
+        return context;
+    }
+
+    /* --------------- HANDLING METHODS FOR INTENT AND EXTENT ------------ */
+
+    /**
+     * Returns the set of attributes that are intent of the specified observation.
+     *
+     * @param   obs  an observation
+     *
+     * @return  the set of attributes
+     */
+    public TreeSet<Comparable> getIntent(Comparable obs) {
+        TreeSet<Comparable> set = new TreeSet<Comparable>();
+        int o = find(this.observationNames, this.nbObservations, obs);
+        if (o >= 0) {
+            for (int a = this.rows.nextSetBit(o, 0); a >= 0; a = this.rows.nextSetBit(o, a + 1)) {
+                set.add(name(this.attributeNames, a));
+            }
+        }
+        return set;
+    }
+
+    /**
+     * Returns the set of attributes that are all intent of observations of the specified set.
+     *
+     * @param   set  set of observations
+     *
+     * @return  the set of attributes
+     */
+    public TreeSet<Comparable> getIntent(TreeSet<Comparable> set) {
+        return names(this.attributeNames, this.intentBits(set), BitSets.words(this.nbAttributes));
+    }
+
+    /**
+     * Return the number of attributes that are all intent of observations of the specified set.
+     *
+     * @param   set  set of observations
+     *
+     * @return  the number of attributes
+     */
+    public int getIntentNb(TreeSet<Comparable> set) {
+        return BitSets.cardinality(this.intentBits(set), BitSets.words(this.nbAttributes));
+    }
+
+    /**
+     * Returns the set of observations that are extent of the specified attribute.
+     *
+     * @param   att  an attribute
+     *
+     * @return  the set of observations
+     */
+    public TreeSet<Comparable> getExtent(Comparable att) {
+        TreeSet<Comparable> set = new TreeSet<Comparable>();
+        int a = find(this.attributeNames, this.nbAttributes, att);
+        if (a >= 0) {
+            for (int o = this.columns.nextSetBit(a, 0); o >= 0; o = this.columns.nextSetBit(a, o + 1)) {
+                set.add(name(this.observationNames, o));
+            }
+        }
+        return set;
+    }
+
+    /**
+     * Returns the set of observations that are all extent of attributes of the specified set.
+     *
+     * @param   set  set of attributes
+     *
+     * @return  the set of observations
+     */
+    public TreeSet<Comparable> getExtent(TreeSet<Comparable> set) {
+        return names(this.observationNames, this.extentBits(set), BitSets.words(this.nbObservations));
+    }
+
+    /**
+     * Return the number of observations that are all extent of attributes of the specified set.
+     *
+     * This treatment is performed in O(|X||O|/64) where X is the specified set.
+     *
+     * @param   set  set of attributes
+     *
+     * @return  the number of observations
+     */
+    public int getExtentNb(TreeSet<Comparable> set) {
+        return BitSets.cardinality(this.extentBits(set), BitSets.words(this.nbObservations));
+    }
+
+    /**
+     * Checks if the second specified element is an intent of the first specified element.
+     *
+     * @param   obs  an observation
+     * @param   att  an attribute
+     *
+     * @return  true if the attribute is an intent of the observation
+     */
+    public boolean containAsIntent(Comparable obs, Comparable att) {
+        int o = find(this.observationNames, this.nbObservations, obs);
+        int a = find(this.attributeNames, this.nbAttributes, att);
+        return o >= 0 && a >= 0 && this.rows.get(o, a);
+    }
+
+    /**
+     * Returns the bits of the attributes shared by all observations of the specified set.
+     *
+     * @param   set  set of observations
+     *
+     * @return  the packed bit set of attribute indexes
+     */
+    private long[] intentBits(TreeSet<Comparable> set) {
+        int n = BitSets.words(this.nbAttributes);
+        long[] bits = new long[n];
+        BitSets.fill(bits, this.nbAttributes, n);
+        for (Comparable obs : set) {
+            int o = find(this.observationNames, this.nbObservations, obs);
+            if (o < 0) {
+                BitSets.clearAll(bits, n);
+                break;
+            }
+            this.rows.and(o, bits);
+        }
+        return bits;
+    }
+
+    /**
+     * Returns the bits of the observations sharing all attributes of the specified set.
+     *
+     * @param   set  set of attributes
+     *
+     * @return  the packed bit set of observation indexes
+     */
+    private long[] extentBits(TreeSet<Comparable> set) {
+        int n = BitSets.words(this.nbObservations);
+        long[] bits = new long[n];
+        BitSets.fill(bits, this.nbObservations, n);
+        for (Comparable att : set) {
+            int a = find(this.attributeNames, this.nbAttributes, att);
+            if (a < 0) {
+                BitSets.clearAll(bits, n);
+                break;
+            }
+            this.columns.and(a, bits);
+        }
+        return bits;
+    }
+
+    /* --------------- NAMES ------------ */
+
+    /**
+     * Returns the name of the specified index in the specified names section.
+     *
+     * @param   names  a names section
+     * @param   i      an index
+     *
+     * @return  the name
+     */
+    private static String name(ByteBuffer names, int i) {
+        int start = names.getInt(4 * i);
+        int end = names.getInt(4 * i + 4);
+        byte[] bytes = new byte[end - start];
+        for (int k = 0; k < bytes.length; k++) {
+            bytes[k] = names.get(start + k);
+        }
+        return new String(bytes, UTF8);
+    }
+
+    /**
+     * Returns the index of the specified element in the specified names section, or -1 if it does not belong to it.
+     *
+     * This treatment is performed in O(log n) by a binary search.
+     *
+     * @param   names    a names section
+     * @param   n        the number of names
+     * @param   element  an element
+     *
+     * @return  the index of the element, or -1
+     */
+    private static int find(ByteBuffer names, int n, Comparable element) {
+        String key = element.toString();
+        int lo = 0;
+        int hi = n - 1;
+        while (lo <= hi) {
+            int mid = (lo + hi) >>> 1;
+            int cmp = name(names, mid).compareTo(key);
+            if (cmp < 0) {
+                lo = mid + 1;
+            } else if (cmp > 0) {
+                hi = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Returns the set of all names of the specified names section.
+     *
+     * @param   names  a names section
+     * @param   n      the number of names
+     *
+     * @return  the set of names
+     */
+    private static TreeSet<Comparable> names(ByteBuffer names, int n) {
+        TreeSet<Comparable> set = new TreeSet<Comparable>();
+        for (int i = 0; i < n; i++) {
+            set.add(name(names, i));
+        }
+        return set;
+    }
+
+    /**
+     * Returns the set of names whose index is set in the `n` first words of the specified bit set.
+     *
+     * @param   names  a names section
+     * @param   bits   a packed bit set
+     * @param   n      the number of words
+     *
+     * @return  the set of names
+     */
+    private static TreeSet<Comparable> names(ByteBuffer names, long[] bits, int n) {
+        TreeSet<Comparable> set = new TreeSet<Comparable>();
+        for (int i = BitSets.nextSetBit(bits, 0, n); i >= 0; i = BitSets.nextSetBit(bits, i + 1, n)) {
+            set.add(name(names, i));
+        }
+        return set;
+    }
+
+    /* --------------- CLOSURE METHODS ------------ */
+
+    /**
+     * Returns the closure of the specified set of attributes.
+     *
+     * @param   set  a set of attributes
+     *
+     * @return  the closure
+     */
+    public TreeSet<Comparable> closure(TreeSet<Comparable> set) {
+        long[] ext = this.extentBits(set);
+        long[] bits = new long[BitSets.words(this.nbAttributes)];
+        this.intentBits(ext, bits);
+        return names(this.attributeNames, bits, bits.length);
+    }
+
+    /**
+     * Returns the number of words needed to store an extent.
+     *
+     * @return  the number of words of the scratch buffer
+     */
+    public int getScratchSize() {
+        return BitSets.words(this.nbObservations);
+    }
+
+    /**
+     * Computes the closure of a packed bit set of attribute indexes, without any allocation.
+     *
+     * The extent of the set is stored in `scratch`, then the closure is obtained by intersecting
+     * rows of observations of the extent, read from the mapping.
+     *
+     * @param   in       a packed bit set of attribute indexes
+     * @param   out      the packed bit set receiving the closure
+     * @param   scratch  a buffer of {@link #getScratchSize} words
+     */
+    public void closure(long[] in, long[] out, long[] scratch) {
+        int n = BitSets.words(this.nbAttributes);
+        BitSets.fill(scratch, this.nbObservations, scratch.length);
+        for (int a = BitSets.nextSetBit(in, 0, n); a >= 0; a = BitSets.nextSetBit(in, a + 1, n)) {
+            this.columns.and(a, scratch);
+        }
+        this.intentBits(scratch, out);
+    }
+
+    /**
+     * Computes in `bits` the attributes shared by all observations of the packed bit set `ext`.
+     *
+     * @param   ext   a packed bit set of observation indexes
+     * @param   bits  the packed bit set receiving attribute indexes
+     */
+    private void intentBits(long[] ext, long[] bits) {
+        int m = BitSets.words(this.nbObservations);
+        BitSets.fill(bits, this.nbAttributes, BitSets.words(this.nbAttributes));
+        for (int o = BitSets.nextSetBit(ext, 0, m); o >= 0; o = BitSets.nextSetBit(ext, o + 1, m)) {
+            this.rows.and(o, bits);
+        }
+    }
+
+    /* --------------- SAVING METHODS ------------ */
+
+    /**
+     * Copies the mapped file of this component to the specified file.
+     *
+     * @param   filename  the name of the file
+     *
+     * @throws  IOException  When an IOException occurs
+     */
+    public void save(String filename) throws IOException {
+        Files.copy(Paths.get(this.filename), Paths.get(filename), StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    /* --------------- MAPPED LINES ------------ */
+
+    /**
+     * This class gives read-only access to mapped lines of packed bit sets having the same number of words.
+     *
+     * Since a single mapping is limited to 2^31 bytes, lines are split in several mappings,
+     * each one containing whole lines.
+     */
+    private static final class Lines {
+        /**
+         * The number of words of a line.
+         */
+        private int words;
+
+        /**
+         * The number of lines of a mapping.
+         */
+        private int linesPerMapping;
+
+        /**
+         * The mappings.
+         */
+        private ArrayList<LongBuffer> mappings;
+
+        /**
+         * Maps the specified lines.
+         *
+         * @param   channel  the channel of the file
+         * @param   offset   the offset of the first line
+         * @param   size     the number of lines
+         * @param   words    the number of words of a line
+         *
+         * @throws  IOException  When an IOException occurs
+         */
+        Lines(FileChannel channel, long offset, int size, int words) throws IOException {
+            this.words = words;
+            this.linesPerMapping = (int) Math.max(1, MAX_MAPPING / Math.max(1, 8L * words));
+            this.mappings = new ArrayList<LongBuffer>();
+            if (words > 0) {
+                for (int first = 0; first < size; first += this.linesPerMapping) {
+                    int nb = Math.min(this.linesPerMapping, size - first);
+                    long start = offset + 8L * words * first;
+                    this.mappings.add(channel.map(FileChannel.MapMode.READ_ONLY, start, 8L * words * nb).asLongBuffer());
+                }
+            }
+        }
+
+        /**
+         * Returns the specified word of the specified line.
+         *
+         * @param   i  a line index
+         * @param   w  a word index
+         *
+         * @return  the word
+         */
+        long word(int i, int w) {
+            return this.mappings.get(i / this.linesPerMapping).get((i % this.linesPerMapping) * this.words + w);
+        }
+
+        /**
+         * Checks if the specified bit of the specified line is set.
+         *
+         * @param   i    a line index
+         * @param   bit  a bit index
+         *
+         * @return  true if the bit is set
+         */
+        boolean get(int i, int bit) {
+            return (this.word(i, bit / BitSets.WORD_SIZE) & (1L << bit)) != 0;
+        }
+
+        /**
+         * Returns the index of the first bit set at or after the specified index in the specified line,
+         * or -1 if there is none.
+         *
+         * @param   i     a line index
+         * @param   from  the starting bit index
+         *
+         * @return  the index of the next bit set, or -1
+         */
+        int nextSetBit(int i, int from) {
+            int w = from / BitSets.WORD_SIZE;
+            if (w >= this.words) {
+                return -1;
+            }
+            LongBuffer mapping = this.mappings.get(i / this.linesPerMapping);
+            int base = (i % this.linesPerMapping) * this.words;
+            long word = mapping.get(base + w) & (-1L << from);
+            while (word == 0) {
+                w++;
+                if (w == this.words) {
+                    return -1;
+                }
+                word = mapping.get(base + w);
+            }
+            return w * BitSets.WORD_SIZE + Long.numberOfTrailingZeros(word);
+        }
+
+        /**
+         * Replaces the words of the specified packed bit set by their intersection with the specified line.
+         *
+         * @param   i     a line index
+         * @param   bits  a packed bit set of at least the number of words of a line
+         */
+        void and(int i, long[] bits) {
+            LongBuffer mapping = this.mappings.get(i / this.linesPerMapping);
+            int base = (i % this.linesPerMapping) * this.words;
+            for (int w = 0; w < this.words; w++) {
+                bits[w] &= mapping.get(base + w);
+            }
+        }
+    }
+}
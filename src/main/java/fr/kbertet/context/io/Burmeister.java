@@ -145,7 +145,6 @@ public final class Burmeister implements Reader<Context>, Writer<Context> {
                 }
             }
         }
-        context.setBitSets();
     }
 
     /**
@@ -215,7 +214,7 @@ public final class Burmeister implements Reader<Context>, Writer<Context> {
         for (Comparable observation : observations) {
             String line = "";
             for (Comparable attribute : attributes) {
-                if (context.getIntent(observation).contains(attribute)) {
+                if (context.containAsIntent(observation, attribute)) {
                     line = line + "X";
                 } else {
                     line = line + ".";
@@ -180,7 +180,6 @@ public final class Csv implements Reader<Context>, Writer<Context> {
 
         // Close the parser
         parser.close();
-        context.setBitSets();
     }
 
     /**
@@ -226,7 +225,7 @@ public final class Csv implements Reader<Context>, Writer<Context> {
 
             // Write the extent/intents
             for (Comparable attribute : attributes) {
-                if (context.getIntent(observation).contains(attribute)) {
+                if (context.containAsIntent(observation, attribute)) {
                     printer.print(1);
                 } else {
                     printer.print(0);
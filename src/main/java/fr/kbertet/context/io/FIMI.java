@@ -123,7 +123,6 @@ public final class FIMI implements Reader<Context>, Writer<Context> {
                 context.addExtentIntent(identifier, attribute);
             }
         }
-        context.setBitSets();
     }
 
     /**
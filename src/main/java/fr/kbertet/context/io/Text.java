@@ -163,7 +163,6 @@ public final class Text implements Reader<Context>, Writer<Context> {
             }
             line = file.readLine();
         }
-        context.setBitSets();
     }
 
     /**
@@ -0,0 +1,692 @@
+package fr.kbertet.dgraph;
+
+/*
+ * CSRGraph.java
+ *
+ * Copyright: 2010-2014 Karell Bertet, France
+ *
+ * License: http://www.cecill.info/licences/Licence_CeCILL-B_V1-en.html CeCILL-B license
+ *
+ * This file is part of java-lattices, free package. You can redistribute it and/or modify
+ * it under the terms of CeCILL-B license.
+ */
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.TreeSet;
+
+/**
+ * This class gives an immutable representation of a directed graph in compressed sparse row (CSR) format.
+ *
+ * Nodes are numbered from 0 to n-1 in the order of their identifiers, and the successors of the node `i`
+ * are the targets stored at positions `offset[i]` to `offset[i+1]-1` of a single array of edges, sorted by increasing number.
+ * Predecessors are stored in the same way, and the content of the edges, when at least one edge has a content,
+ * is stored in an array parallel to the successors. A graph of m edges thus uses a few integers per edge,
+ * and its traversals only read arrays.
+ *
+ * This class provides the classical treatments of class {@link DGraph} and {@link DAGraph}:
+ *
+ * - topological sort
+ * - sinks and wells
+ * - reachability
+ * - transitive closure and reduction
+ * - strongly connected components
+ *
+ * Their results are given by node numbers, that are mapped back to the nodes of the original graph
+ * by methods {@link #getNode(int)} and {@link #getNodes(BitSet)}, or by method {@link #toDGraph()}.
+ *
+ * ![CSRGraph](CSRGraph.png)
+ *
+ * @uml CSRGraph.png
+ * !include resources/fr/kbertet/dgraph/CSRGraph.iuml
+ * !include resources/fr/kbertet/dgraph/DGraph.iuml
+ * !include resources/fr/kbertet/dgraph/Node.iuml
+ *
+ * hide members
+ * show CSRGraph members
+ * class CSRGraph #LightCyan
+ * title CSRGraph UML graph
+ */
+public final class CSRGraph {
+    /* ------------- FIELDS ------------------ */
+
+    /**
+     * The node of each number.
+     */
+    private final Node[] nodes;
+
+    /**
+     * The number of each node.
+     */
+    private final HashMap<Node, Integer> numbers;
+
+    /**
+     * The position of the first successor of each node, followed by the number of edges.
+     */
+    private final int[] successorOffsets;
+
+    /**
+     * The successors of all the nodes.
+     */
+    private final int[] successorTargets;
+
+    /**
+     * The position of the first predecessor of each node, followed by the number of edges.
+     */
+    private final int[] predecessorOffsets;
+
+    /**
+     * The predecessors of all the nodes.
+     */
+    private final int[] predecessorTargets;
+
+    /**
+     * The content of each edge, parallel to the successors, or null when no edge has a content.
+     */
+    private final Object[] contents;
+
+    /* ------------- CONSTRUCTORS ------------------ */
+
+    /**
+     * Constructs the CSR representation of the specified directed graph.
+     *
+     * The specified graph is not referenced by this component, and can be modified afterwards.
+     *
+     * @param   graph  a directed graph
+     */
+    public CSRGraph(DGraph graph) {
+        int n = graph.sizeNodes();
+        this.nodes = graph.getNodes().toArray(new Node[n]);
+        this.numbers = numbers(this.nodes);
+        int[] offsets = new int[n + 1];
+        for (int i = 0; i < n; i++) {
+            offsets[i + 1] = offsets[i] + graph.getSuccessorEdges(this.nodes[i]).size();
+        }
+        int[] targets = new int[offsets[n]];
+        Object[] edgeContents = null;
+        int k = 0;
+        for (int i = 0; i < n; i++) {
+            // successor edges are sorted by the identifier of their target, that is by number
+            for (Edge edge : graph.getSuccessorEdges(this.nodes[i])) {
+                if (edge.hasContent()) {
+                    if (edgeContents == null) {
+                        edgeContents = new Object[targets.length];
+                    }
+                    edgeContents[k] = edge.getContent();
+                }
+                targets[k++] = this.numbers.get(edge.getTo());
+            }
+        }
+        this.successorOffsets = offsets;
+        this.successorTargets = targets;
+        this.contents = edgeContents;
+        this.predecessorOffsets = new int[n + 1];
+        this.predecessorTargets = new int[targets.length];
+        this.transpose();
+    }
+
+    /**
+     * Constructs a graph on the nodes of the specified one with the specified successors.
+     *
+     * @param   graph     a graph whose nodes are kept
+     * @param   offsets   the position of the first successor of each node, followed by the number of edges
+     * @param   targets   the successors of all the nodes, sorted by increasing number for each node
+     * @param   contents  the content of each edge, or null
+     */
+    private CSRGraph(CSRGraph graph, int[] offsets, int[] targets, Object[] contents) {
+        this.nodes = graph.nodes;
+        this.numbers = graph.numbers;
+        this.successorOffsets = offsets;
+        this.successorTargets = targets;
+        this.contents = contents;
+        this.predecessorOffsets = new int[graph.nodes.length + 1];
+        this.predecessorTargets = new int[targets.length];
+        this.transpose();
+    }
+
+    /**
+     * Returns the number of each node of the specified array.
+     *
+     * @param   nodes  an array of nodes
+     *
+     * @return  the map from each node to its position in the array
+     */
+    private static HashMap<Node, Integer> numbers(Node[] nodes) {
+        HashMap<Node, Integer> numbers = new HashMap<Node, Integer>();
+        for (int i = 0; i < nodes.length; i++) {
+            numbers.put(nodes[i], i);
+        }
+        return numbers;
+    }
+
+    /**
+     * Fills the predecessors of this component from its successors.
+     *
+     * Predecessors of each node are sorted by increasing number since successors are scanned in that order.
+     */
+    private void transpose() {
+        int n = this.nodes.length;
+        for (int k = 0; k < this.successorTargets.length; k++) {
+            this.predecessorOffsets[this.successorTargets[k] + 1]++;
+        }
+        for (int i = 0; i < n; i++) {
+            this.predecessorOffsets[i + 1] += this.predecessorOffsets[i];
+        }
+        int[] next = Arrays.copyOf(this.predecessorOffsets, n);
+        for (int i = 0; i < n; i++) {
+            for (int k = this.successorOffsets[i]; k < this.successorOffsets[i + 1]; k++) {
+                this.predecessorTargets[next[this.successorTargets[k]]++] = i;
+            }
+        }
+    }
+
+    /* ------------- ACCESSORS ------------------ */
+
+    /**
+     * Returns the number of nodes of this component.
+     *
+     * @return  the number of nodes
+     */
+    public int sizeNodes() {
+        return this.nodes.length;
+    }
+
+    /**
+     * Returns the number of edges of this component.
+     *
+     * @return  the number of edges
+     */
+    public int sizeEdges() {
+        return this.successorTargets.length;
+    }
+
+    /**
+     * Returns the node of the specified number.
+     *
+     * @param   i  a node number
+     *
+     * @return  the node
+     */
+    public Node getNode(int i) {
+        return this.nodes[i];
+    }
+
+    /**
+     * Returns the nodes whose number is set in the specified bit set.
+     *
+     * @param   set  a set of node numbers
+     *
+     * @return  the set of nodes
+     */
+    public TreeSet<Node> getNodes(BitSet set) {
+        TreeSet<Node> result = new TreeSet<Node>();
+        for (int i = set.nextSetBit(0); i >= 0; i = set.nextSetBit(i + 1)) {
+            result.add(this.nodes[i]);
+        }
+        return result;
+    }
+
+    /**
+     * Returns the nodes of the specified numbers, in the same order.
+     *
+     * @param   numbers  an array of node numbers
+     *
+     * @return  the list of nodes
+     */
+    public ArrayList<Node> getNodes(int[] numbers) {
+        ArrayList<Node> result = new ArrayList<Node>(numbers.length);
+        for (int i : numbers) {
+            result.add(this.nodes[i]);
+        }
+        return result;
+    }
+
+    /**
+     * Returns the number of the specified node.
+     *
+     * @param   node  a node
+     *
+     * @return  the number of the node, or -1 if it does not belong to this component
+     */
+    public int indexOf(Node node) {
+        Integer i = this.numbers.get(node);
+        if (i == null) {
+            return -1;
+        }
+        return i;
+    }
+
+    /**
+     * Returns the number of successors of the specified node.
+     *
+     * @param   i  a node number
+     *
+     * @return  the number of successors
+     */
+    public int outDegree(int i) {
+        return this.successorOffsets[i + 1] - this.successorOffsets[i];
+    }
+
+    /**
+     * Returns the `k`-th successor of the specified node, successors being sorted by increasing number.
+     *
+     * @param   i  a node number
+     * @param   k  a position between 0 and the number of successors of the node
+     *
+     * @return  the number of the successor
+     */
+    public int successor(int i, int k) {
+        return this.successorTargets[this.successorOffsets[i] + k];
+    }
+
+    /**
+     * Returns the content of the edge from the specified node to its `k`-th successor.
+     *
+     * @param   i  a node number
+     * @param   k  a position between 0 and the number of successors of the node
+     *
+     * @return  the content of the edge, or null
+     */
+    public Object getContent(int i, int k) {
+        if (this.contents == null) {
+            return null;
+        }
+        return this.contents[this.successorOffsets[i] + k];
+    }
+
+    /**
+     * Returns the number of predecessors of the specified node.
+     *
+     * @param   i  a node number
+     *
+     * @return  the number of predecessors
+     */
+    public int inDegree(int i) {
+        return this.predecessorOffsets[i + 1] - this.predecessorOffsets[i];
+    }
+
+    /**
+     * Returns the `k`-th predecessor of the specified node, predecessors being sorted by increasing number.
+     *
+     * @param   i  a node number
+     * @param   k  a position between 0 and the number of predecessors of the node
+     *
+     * @return  the number of the predecessor
+     */
+    public int predecessor(int i, int k) {
+        return this.predecessorTargets[this.predecessorOffsets[i] + k];
+    }
+
+    /**
+     * Checks if there exists an edge between the specified nodes.
+     *
+     * This treatment is performed in O(log d) where d is the number of successors of `from`.
+     *
+     * @param   from  the number of the origin node
+     * @param   to    the number of the destination node
+     *
+     * @return  true if the edge belongs to this component
+     */
+    public boolean containsEdge(int from, int to) {
+        return Arrays.binarySearch(this.successorTargets, this.successorOffsets[from], this.successorOffsets[from + 1], to) >= 0;
+    }
+
+    /**
+     * Returns the sinks of this component, the nodes without predecessors.
+     *
+     * @return  the numbers of the sinks
+     */
+    public int[] getSinks() {
+        int[] sinks = new int[this.nodes.length];
+        int size = 0;
+        for (int i = 0; i < this.nodes.length; i++) {
+            if (this.inDegree(i) == 0) {
+                sinks[size++] = i;
+            }
+        }
+        return Arrays.copyOf(sinks, size);
+    }
+
+    /**
+     * Returns the wells of this component, the nodes without successors.
+     *
+     * @return  the numbers of the wells
+     */
+    public int[] getWells() {
+        int[] wells = new int[this.nodes.length];
+        int size = 0;
+        for (int i = 0; i < this.nodes.length; i++) {
+            if (this.outDegree(i) == 0) {
+                wells[size++] = i;
+            }
+        }
+        return Arrays.copyOf(wells, size);
+    }
+
+    /**
+     * Returns a directed graph with the nodes and the edges of this component.
+     *
+     * @return  the directed graph
+     */
+    public DGraph toDGraph() {
+        DGraph graph = new DGraph();
+        for (Node node : this.nodes) {
+            graph.addNode(node);
+        }
+        for (int i = 0; i < this.nodes.length; i++) {
+            for (int k = this.successorOffsets[i]; k < this.successorOffsets[i + 1]; k++) {
+                Object content = null;
+                if (this.contents != null) {
+                    content = this.contents[k];
+                }
+                graph.addEdge(this.nodes[i], this.nodes[this.successorTargets[k]], content);
+            }
+        }
+        return graph;
+    }
+
+    /* ------------- TREATMENTS ------------------ */
+
+    /**
+     * Returns a topological sort of the nodes of this component.
+     *
+     * If the graph is not acyclic, the nodes belonging to a cycle, or reachable from a cycle,
+     * don't belong to the sort. This treatment is performed in O(n+m).
+     *
+     * @return  the numbers of the sorted nodes
+     */
+    public int[] topologicalSort() {
+        int n = this.nodes.length;
+        int[] size = new int[n];
+        int[] sort = new int[n];
+        int last = 0;
+        for (int i = 0; i < n; i++) {
+            size[i] = this.inDegree(i);
+            if (size[i] == 0) {
+                sort[last++] = i;
+            }
+        }
+        for (int first = 0; first < last; first++) {
+            int x = sort[first];
+            for (int k = this.successorOffsets[x]; k < this.successorOffsets[x + 1]; k++) {
+                int y = this.successorTargets[k];
+                size[y]--;
+                if (size[y] == 0) {
+                    sort[last++] = y;
+                }
+            }
+        }
+        return Arrays.copyOf(sort, last);
+    }
+
+    /**
+     * Checks if this component is acyclic.
+     *
+     * @return  true if the component is acyclic
+     */
+    public boolean isAcyclic() {
+        return this.topologicalSort().length == this.nodes.length;
+    }
+
+    /**
+     * Returns the nodes reachable from the specified node by a non empty path,
+     * i.e. its successors in the transitive closure.
+     *
+     * This treatment is performed in O(n+m) by a breadth first search.
+     *
+     * @param   source  a node number
+     *
+     * @return  the set of the reachable node numbers
+     */
+    public BitSet reachable(int source) {
+        BitSet reached = new BitSet(this.nodes.length);
+        int[] queue = new int[this.nodes.length];
+        int last = this.reach(source, reached, queue);
+        reached.clear();
+        for (int q = 0; q < last; q++) {
+            reached.set(queue[q]);
+        }
+        return reached;
+    }
+
+    /**
+     * Fills a queue with the nodes reachable from the specified node by a non empty path.
+     *
+     * @param   source   a node number
+     * @param   reached  a set of node numbers, empty before the call
+     * @param   queue    an array receiving the reachable node numbers
+     *
+     * @return  the number of reachable nodes
+     */
+    private int reach(int source, BitSet reached, int[] queue) {
+        int last = 0;
+        for (int k = this.successorOffsets[source]; k < this.successorOffsets[source + 1]; k++) {
+            int y = this.successorTargets[k];
+            if (!reached.get(y)) {
+                reached.set(y);
+                queue[last++] = y;
+            }
+        }
+        for (int first = 0; first < last; first++) {
+            int x = queue[first];
+            for (int k = this.successorOffsets[x]; k < this.successorOffsets[x + 1]; k++) {
+                int y = this.successorTargets[k];
+                if (!reached.get(y)) {
+                    reached.set(y);
+                    queue[last++] = y;
+                }
+            }
+        }
+        return last;
+    }
+
+    /**
+     * Returns the transitive closure of this component.
+     *
+     * The closure contains an edge from `x` to `y` when `y` is reachable from `x` by a non empty path.
+     * Edges of this component keep their content. This treatment is performed in O(nm+m_c),
+     * where m_c corresponds to the number of edges of the closure.
+     *
+     * @return  the transitive closure
+     */
+    public CSRGraph transitiveClosure() {
+        int n = this.nodes.length;
+        int[] offsets = new int[n + 1];
+        int[] targets = new int[this.successorTargets.length];
+        BitSet reached = new BitSet(n);
+        int[] queue = new int[n];
+        for (int x = 0; x < n; x++) {
+            int last = this.reach(x, reached, queue);
+            Arrays.sort(queue, 0, last);
+            if (offsets[x] + last > targets.length) {
+                targets = Arrays.copyOf(targets, Math.max(2 * targets.length, offsets[x] + last));
+            }
+            for (int q = 0; q < last; q++) {
+                targets[offsets[x] + q] = queue[q];
+                reached.clear(queue[q]);
+            }
+            offsets[x + 1] = offsets[x] + last;
+        }
+        targets = Arrays.copyOf(targets, offsets[n]);
+        return new CSRGraph(this, offsets, targets, this.contents(offsets, targets));
+    }
+
+    /**
+     * Returns the transitive reduction of this component, that must be acyclic.
+     *
+     * The reduction is the Hasse diagram of the acyclic graph, obtained with the Goralcikova-Koubek algorithm:
+     * successors of each node are treated according to the topological sort, and a successor is kept when
+     * it is not reachable from a successor already treated. Edges of this component keep their content,
+     * and loops are removed. This treatment is performed in O(nm+m_c),
+     * where m_c corresponds to the number of edges of the transitive closure.
+     * An IllegalStateException is thrown when this component is not acyclic.
+     *
+     * @return  the transitive reduction
+     */
+    public CSRGraph transitiveReduction() {
+        int n = this.nodes.length;
+        // loops are removed before checking the acyclic property
+        CSRGraph graph = this.reflexiveReduction();
+        int[] sort = graph.topologicalSort();
+        if (sort.length != n) {
+            throw new IllegalStateException("the graph is not acyclic");
+        }
+        int[] rank = new int[n];
+        for (int r = 0; r < n; r++) {
+            rank[sort[r]] = r;
+        }
+        CSRGraph closure = graph.transitiveClosure();
+        int[] offsets = new int[n + 1];
+        int[] targets = new int[graph.successorTargets.length];
+        int[] mark = new int[n];
+        int[] bucket = new int[n];
+        Arrays.fill(mark, -1);
+        for (int x = 0; x < n; x++) {
+            // successors of x sorted by topological rank
+            int size = 0;
+            for (int k = graph.successorOffsets[x]; k < graph.successorOffsets[x + 1]; k++) {
+                bucket[size++] = rank[graph.successorTargets[k]];
+            }
+            Arrays.sort(bucket, 0, size);
+            int kept = offsets[x];
+            for (int b = 0; b < size; b++) {
+                int y = sort[bucket[b]];
+                if (mark[y] != x) {
+                    targets[kept++] = y;
+                    for (int k = closure.successorOffsets[y]; k < closure.successorOffsets[y + 1]; k++) {
+                        mark[closure.successorTargets[k]] = x;
+                    }
+                }
+            }
+            Arrays.sort(targets, offsets[x], kept);
+            offsets[x + 1] = kept;
+        }
+        targets = Arrays.copyOf(targets, offsets[n]);
+        return new CSRGraph(this, offsets, targets, this.contents(offsets, targets));
+    }
+
+    /**
+     * Returns the strongly connected component of each node of this component.
+     *
+     * Components are computed by an iterative version of Tarjan's algorithm in O(n+m),
+     * and are numbered in a reverse topological order of the graph of the components:
+     * when there is an edge from a component to another one, the former has the greater number.
+     *
+     * @return  the number of the component of each node
+     */
+    public int[] getStronglyConnectedComponents() {
+        int n = this.nodes.length;
+        int[] index = new int[n];
+        int[] low = new int[n];
+        int[] component = new int[n];
+        int[] position = new int[n];
+        int[] stack = new int[n];
+        int[] calls = new int[n];
+        Arrays.fill(index, -1);
+        Arrays.fill(component, -1);
+        int counter = 0;
+        int components = 0;
+        int stackSize = 0;
+        for (int s = 0; s < n; s++) {
+            if (index[s] >= 0) {
+                continue;
+            }
+            int callsSize = 0;
+            index[s] = counter;
+            low[s] = counter++;
+            position[s] = this.successorOffsets[s];
+            stack[stackSize++] = s;
+            calls[callsSize++] = s;
+            while (callsSize > 0) {
+                int v = calls[callsSize - 1];
+                if (position[v] < this.successorOffsets[v + 1]) {
+                    int w = this.successorTargets[position[v]++];
+                    if (index[w] < 0) {
+                        index[w] = counter;
+                        low[w] = counter++;
+                        position[w] = this.successorOffsets[w];
+                        stack[stackSize++] = w;
+                        calls[callsSize++] = w;
+                    } else if (component[w] < 0) {
+                        low[v] = Math.min(low[v], index[w]);
+                    }
+                } else {
+                    callsSize--;
+                    if (low[v] == index[v]) {
+                        int w;
+                        do {
+                            w = stack[--stackSize];
+                            component[w] = components;
+                        } while (w != v);
+                        components++;
+                    }
+                    if (callsSize > 0) {
+                        int u = calls[callsSize - 1];
+                        low[u] = Math.min(low[u], low[v]);
+                    }
+                }
+            }
+        }
+        return component;
+    }
+
+    /**
+     * Returns this component without its loops.
+     *
+     * @return  this component when it has no loop, or a copy without loops
+     */
+    private CSRGraph reflexiveReduction() {
+        int n = this.nodes.length;
+        int loops = 0;
+        for (int x = 0; x < n; x++) {
+            if (this.containsEdge(x, x)) {
+                loops++;
+            }
+        }
+        if (loops == 0) {
+            return this;
+        }
+        int[] offsets = new int[n + 1];
+        int[] targets = new int[this.successorTargets.length - loops];
+        int kept = 0;
+        for (int x = 0; x < n; x++) {
+            for (int k = this.successorOffsets[x]; k < this.successorOffsets[x + 1]; k++) {
+                if (this.successorTargets[k] != x) {
+                    targets[kept++] = this.successorTargets[k];
+                }
+            }
+            offsets[x + 1] = kept;
+        }
+        return new CSRGraph(this, offsets, targets, this.contents(offsets, targets));
+    }
+
+    /**
+     * Returns the contents of the specified edges that belong to this component.
+     *
+     * @param   offsets  the position of the first successor of each node, followed by the number of edges
+     * @param   targets  the successors of all the nodes, sorted by increasing number for each node
+     *
+     * @return  the content of each edge, or null when this component has no content
+     */
+    private Object[] contents(int[] offsets, int[] targets) {
+        if (this.contents == null) {
+            return null;
+        }
+        Object[] result = new Object[targets.length];
+        for (int x = 0; x < this.nodes.length; x++) {
+            // both rows are sorted: they are merged
+            int k = this.successorOffsets[x];
+            for (int j = offsets[x]; j < offsets[x + 1]; j++) {
+                while (k < this.successorOffsets[x + 1] && this.successorTargets[k] < targets[j]) {
+                    k++;
+                }
+                if (k < this.successorOffsets[x + 1] && this.successorTargets[k] == targets[j]) {
+                    result[j] = this.contents[k];
+                }
+            }
+        }
+        return result;
+    }
+}
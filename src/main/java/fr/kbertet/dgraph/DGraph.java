@@ -12,6 +12,7 @@ package fr.kbertet.dgraph;
  */
 
 import java.util.Collections;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.TreeMap;
 import java.util.TreeSet;
@@ -26,6 +27,7 @@ import java.io.IOException;
 
 import fr.kbertet.dgraph.io.DGraphWriterFactory;
 import fr.kbertet.dgraph.io.DGraphWriterDot;
+import fr.kbertet.util.Index;
 
 /**
  * This class gives a standard representation for a directed graph
@@ -37,6 +39,10 @@ import fr.kbertet.dgraph.io.DGraphWriterDot;
  * - a treemap of successors that associates to each node a treeset of successors, defined by class {@link Edge};
  * - a treemap of predecessors that associates to each node a treeset of predecessors, defined by class {@link Edge}.
  *
+ * Each graph also gives a dense numbering of its own nodes, between `0` and `sizeNodes() - 1`, maintained
+ * when nodes are added or removed (see {@link #indexOf}). Graph treatments use it to store their marks
+ * and counters in arrays instead of maps, and graphs built by distinct threads share no numbering state.
+ *
  * This class provides methods implementing classical operation on a directed graph:
  *
  * - sinks
@@ -88,6 +94,16 @@ public class DGraph implements Cloneable {
      */
     private TreeMap<Node, TreeSet<Edge>> predecessors;
 
+    /**
+     * The dense numbering of the nodes.
+     */
+    private Index index;
+
+    /**
+     * The number of modifications of this component, allowing derived structures to detect they are outdated.
+     */
+    private int modifications;
+
     /**
      * This class implements a sorted set of the edges.
      */
@@ -678,6 +694,7 @@ public class DGraph implements Cloneable {
         this.nodes = new TreeSet<Node>();
         this.successors = new TreeMap<Node, TreeSet<Edge>>();
         this.predecessors = new TreeMap<Node, TreeSet<Edge>>();
+        this.index = new Index();
     }
 
     /**
@@ -697,6 +714,7 @@ public class DGraph implements Cloneable {
         for (Node node : this.nodes) {
             this.predecessors.put(node, new TreeSet<Edge>());
         }
+        this.index = index(this.nodes);
     }
 
     /**
@@ -712,6 +730,22 @@ public class DGraph implements Cloneable {
             this.successors.put(node, new TreeSet<Edge>(graph.successors.get(node)));
             this.predecessors.put(node, new TreeSet<Edge>(graph.predecessors.get(node)));
         }
+        this.index = new Index(graph.index);
+    }
+
+    /**
+     * Returns a dense numbering of the specified nodes.
+     *
+     * @param   nodes  a set of nodes
+     *
+     * @return  the numbering
+     */
+    private static Index index(Set<Node> nodes) {
+        Index index = new Index();
+        for (Node node : nodes) {
+            index.add(node);
+        }
+        return index;
     }
 
     /* ----------- STATIC GENERATION METHODS ------------- */
@@ -782,6 +816,8 @@ public class DGraph implements Cloneable {
      */
     protected DGraph setNodes(final TreeSet<Node> nodes) {
         this.nodes = nodes;
+        this.index = index(nodes);
+        this.modifications++;
         return this;
     }
 
@@ -803,6 +839,7 @@ public class DGraph implements Cloneable {
      */
     protected DGraph setSuccessors(final TreeMap<Node, TreeSet<Edge>> successors) {
         this.successors = successors;
+        this.modifications++;
         return this;
     }
 
@@ -824,6 +861,7 @@ public class DGraph implements Cloneable {
      */
     protected DGraph setPredecessors(final TreeMap<Node, TreeSet<Edge>> predecessors) {
         this.predecessors = predecessors;
+        this.modifications++;
         return this;
     }
 
@@ -976,6 +1014,40 @@ public class DGraph implements Cloneable {
         return null;
     }
 
+    /**
+     * Returns the number of the specified node in the dense numbering of this component.
+     *
+     * Nodes are numbered between `0` and `sizeNodes() - 1`. When a node is removed,
+     * the last numbered node takes its number. This treatment is performed in O(1).
+     *
+     * @param   node  a node
+     *
+     * @return  the number of the node, or -1 if it does not belong to this component
+     */
+    public int indexOf(final Node node) {
+        return this.index.indexOf(node);
+    }
+
+    /**
+     * Returns the node of the specified number in the dense numbering of this component.
+     *
+     * @param   i  a number between `0` and `sizeNodes() - 1`
+     *
+     * @return  the node
+     */
+    public Node getNodeByIndex(int i) {
+        return (Node) this.index.get(i);
+    }
+
+    /**
+     * Returns the number of modifications of the nodes and edges of this component since its construction.
+     *
+     * @return  the number of modifications
+     */
+    int modifications() {
+        return this.modifications;
+    }
+
     /**
      * Returns the number of nodes of this component.
      *
@@ -1061,6 +1133,8 @@ public class DGraph implements Cloneable {
             this.nodes.add(node);
             this.successors.put(node, new TreeSet<Edge>());
             this.predecessors.put(node, new TreeSet<Edge>());
+            this.index.add(node);
+            this.modifications++;
             return true;
         }
         return false;
@@ -1099,6 +1173,8 @@ public class DGraph implements Cloneable {
             }
             // Remove node
             this.nodes.remove(node);
+            this.index.remove(node);
+            this.modifications++;
             return true;
         }
         return false;
@@ -1165,6 +1241,7 @@ public class DGraph implements Cloneable {
             Edge edge = new Edge(from, to, content);
             this.successors.get(from).add(edge);
             this.predecessors.get(to).add(edge);
+            this.modifications++;
             return true;
         }
         return false;
@@ -1201,6 +1278,7 @@ public class DGraph implements Cloneable {
         if (this.containsNode(edge.getFrom()) && this.containsNode(edge.getTo())) {
             this.successors.get(edge.getFrom()).add(edge);
             this.predecessors.get(edge.getTo()).add(edge);
+            this.modifications++;
             return true;
         }
         return false;
@@ -1222,6 +1300,7 @@ public class DGraph implements Cloneable {
             Edge edge = new Edge(from, to);
             this.successors.get(from).remove(edge);
             this.predecessors.get(to).remove(edge);
+            this.modifications++;
             return true;
         }
         return false;
@@ -1239,6 +1318,7 @@ public class DGraph implements Cloneable {
         if (this.containsEdge(edge)) {
             this.successors.get(edge.getFrom()).remove(edge);
             this.predecessors.get(edge.getTo()).remove(edge);
+            this.modifications++;
             return true;
         }
         return false;
@@ -1268,21 +1348,21 @@ public class DGraph implements Cloneable {
      */
     public ArrayList<Node> topologicalSort() {
         TreeSet<Node> sinks = new TreeSet<Node>(this.getSinks());
-        // initialise a map with the number of predecessors (value) for each node (key);
-        TreeMap<Node, Integer> size = new TreeMap<Node, Integer>();
+        // initialise the number of predecessors of each node
+        int[] size = new int[this.index.size()];
         for (Node node : this.nodes) {
-            size.put(node, new Integer(this.getPredecessorNodes(node).size()));
+            size[this.index.indexOf(node)] = this.predecessors.get(node).size();
         }
         ArrayList<Node> sort = new ArrayList<Node>();
         while (!sinks.isEmpty()) {
             Node node = sinks.pollFirst();
             sort.add(node);
             // updating of the set min by considering the successors of node
-            for (Node successor : this.getSuccessorNodes(node)) {
-                int newSize = size.get(successor).intValue() - 1;
-                size.put(successor, new Integer(newSize));
-                if (newSize == 0) {
-                    sinks.add(successor);
+            for (Edge edge : this.successors.get(node)) {
+                int i = this.index.indexOf(edge.getTo());
+                size[i]--;
+                if (size[i] == 0) {
+                    sinks.add(edge.getTo());
                 }
             }
         }
@@ -1434,104 +1514,36 @@ public class DGraph implements Cloneable {
     public int transitiveClosure() {
         int size = 0;
         // mark each node to false
-        TreeMap<Node, Boolean> mark = new TreeMap<Node, Boolean>();
-        for (Node node : this.nodes) {
-            mark.put(node, new Boolean(false));
-        }
+        boolean[] mark = new boolean[this.index.size()];
+        ArrayDeque<Node> list = new ArrayDeque<Node>();
+        ArrayList<Node> marked = new ArrayList<Node>();
         // treatment of nodes
         for (Node x : this.nodes) {
-            ArrayList<Node> list = new ArrayList<Node>();
             list.add(x);
             while (!list.isEmpty()) {
-                Node y = list.remove(0);
-                for (Node z : this.getSuccessorNodes(y)) {
-                    // treatment of y when not marked
-                    if (!mark.get(z).booleanValue()) {
-                        mark.put(z, new Boolean(true));
-                        this.addEdge(x, z);
-                        size++;
+                Node y = list.poll();
+                for (Edge edge : this.successors.get(y)) {
+                    Node z = edge.getTo();
+                    int i = this.index.indexOf(z);
+                    // treatment of z when not marked
+                    if (!mark[i]) {
+                        mark[i] = true;
+                        marked.add(z);
                         list.add(z);
                     }
                 }
             }
-            for (Node y : this.getSuccessorNodes(x)) {
-                mark.put(y, new Boolean(false));
+            // edges are added once the traversal is done since it does not change the reached nodes
+            for (Node z : marked) {
+                this.addEdge(x, z);
+                mark[this.index.indexOf(z)] = false;
             }
+            size += marked.size();
+            marked.clear();
         }
         return size;
     }
 
-     /**
-      * Returns a two cells array containing the first visited sort on the nodes,
-      * and the last visited sort on the nodes, by a depth first traverse issued from
-      * the specified node.
-      *
-      * @param   source   The source node
-      * @param   visited  The visited nodes
-      * @param   sort     The sort parameter
-      *
-      * @return  The array
-      *
-      * @todo  Do we change that to iterators?
-      *        Change to private and add a method that return an iterator
-      */
-     private ArrayList<Node>[] depthFirstSearch(Node source, TreeSet<Node> visited, ArrayList<Node> sort) {
-        ArrayList<Node> first = new ArrayList<Node>();
-        ArrayList<Node> last = new ArrayList<Node>();
-        first.add(source);
-        visited.add(source);
-        ArrayList<Node>[] arrayVisited = new ArrayList[2];
-        if (sort != null) {
-            // search according to a sort
-            for (Node node : sort) {
-                if (this.getSuccessorNodes(source).contains(node) && !visited.contains(node)) {
-                    arrayVisited = this.depthFirstSearch(node, visited, sort);
-                    visited.addAll(arrayVisited[0]);
-                    first.addAll(arrayVisited[0]);
-                    last.addAll(arrayVisited[1]);
-                }
-            }
-        } else {
-            // classical search
-            for (Node node : this.getSuccessorNodes(source)) {
-                if (!visited.contains(node)) {
-                    arrayVisited = this.depthFirstSearch(node, visited, sort);
-                    visited.addAll(arrayVisited[0]);
-                    first.addAll(arrayVisited[0]);
-                    last.addAll(arrayVisited[1]);
-                }
-            }
-        }
-        last.add(source);
-        arrayVisited[0] = first;
-        arrayVisited[1] = last;
-        return arrayVisited;
-    }
-
-     /**
-      * Returns a two cells array containing the first visited sort on the nodes,
-      * and the last visited sort on the nodes, by a depth first search.
-      *
-      * @return  The array
-      */
-    private ArrayList<Node>[] depthFirstSearch() {
-        TreeSet<Node> visited = new TreeSet<Node>();
-        ArrayList<Node>[] arrayVisited = new ArrayList[2];
-        ArrayList<Node> first = new ArrayList<Node>();
-        ArrayList<Node> last = new ArrayList<Node>();
-        for (Node node : this.nodes) {
-            if (!visited.contains(node)) {
-                arrayVisited = this.depthFirstSearch(node, visited, null);
-                visited.addAll(arrayVisited[0]);
-                first.addAll(arrayVisited[0]);
-                last.addAll(arrayVisited[1]);
-            }
-        }
-        arrayVisited[0] = first;
-        arrayVisited[1] = last;
-        return arrayVisited;
-    }
-
     /**
      * Transposes this component by replacing for each node
      * its successor set by its predecessor set, and its predecessor set
@@ -1549,51 +1561,49 @@ public class DGraph implements Cloneable {
      * Returns the directed acyclic graph where each node corresponds to a
      * strongly connected component (SCC) of this component stored in a TreeSet of nodes.
      *
-     * When two nodes in two different SCC are in relation, the same is for the SCC
-     * they belongs to.
+     * The resulting graph is the condensation of this component: there is an edge from a SCC to another one
+     * if and only if this component has an edge from a node of the first SCC to a node of the second one.
+     * The resulting graph has no loop and is not transitively closed: two SCC whose nodes are only related
+     * by a path are related by a path of the resulting graph, not by an edge. Its transitive closure
+     * (see {@link DAGraph#transitiveClosure}) gives the relation between SCC induced by the paths of this component.
+     *
+     * Components are computed by an iterative version of Tarjan's algorithm
+     * (see {@link CSRGraph#getStronglyConnectedComponents}) in O(n+m), where n is the number of nodes
+     * and m the number of edges, edges of the resulting graph being inserted in O(log n).
+     * Components are added in a topological order of the resulting graph.
      *
      * @return  The directed acyclic graph
      */
     public DAGraph getStronglyConnectedComponent() {
         DAGraph cc = new DAGraph();
-        // first depth first search
-        DGraph tmp = new DGraph(this);
-        tmp.transitiveClosure();
-        ArrayList<Node> last = tmp.depthFirstSearch()[1];
-        // transposition of the graph
-        DGraph transposedGraph = new DGraph(this);
-        transposedGraph.transpose();
-        // sort nodes according to the reverse last sort
-        ArrayList<Node> sort = new ArrayList<Node>();
-        Object [] array = last.toArray();
-        for (int i = array.length - 1; i >= 0; i--) {
-            sort.add((Node) array[i]);
-        }
-        // second depth first search according to sort
-        TreeSet<Node> visited = new TreeSet<Node>();
-        for (Node n : sort) {
-            if (!visited.contains(n)) {
-                last = transposedGraph.depthFirstSearch(n, visited, sort)[1];
-                visited.addAll(last);
-                TreeSet<Node> sCC = new TreeSet<Node>(last);
-                // a strongly connected component is generated
-                cc.addNode(new Node(sCC));    // addition of
-            }
-        }
-        // edges between strongly connected component
-        for (Node ccFrom : cc.getNodes()) {
-            for (Node ccTo : cc.getNodes()) {
-                for (Node from : (TreeSet<Node>) ccFrom.getContent()) {
-                    for (Node to : (TreeSet<Node>) ccTo.getContent()) {
-                        if (tmp.getSuccessorNodes(from).contains(to)) {
-                            cc.addEdge(ccFrom, ccTo);
-                        }
-                    }
+        CSRGraph csr = new CSRGraph(this);
+        int[] component = csr.getStronglyConnectedComponents();
+        int size = 0;
+        for (int c : component) {
+            size = Math.max(size, c + 1);
+        }
+        ArrayList<TreeSet<Node>> sets = new ArrayList<TreeSet<Node>>(size);
+        for (int c = 0; c < size; c++) {
+            sets.add(new TreeSet<Node>());
+        }
+        for (int i = 0; i < component.length; i++) {
+            sets.get(component[i]).add(csr.getNode(i));
+        }
+        // components are numbered in a reverse topological order
+        Node[] nodes = new Node[size];
+        for (int c = size - 1; c >= 0; c--) {
+            nodes[c] = new Node(sets.get(c));
+            cc.addNode(nodes[c]);
+        }
+        // edges between strongly connected components
+        for (int i = 0; i < component.length; i++) {
+            for (int k = 0; k < csr.outDegree(i); k++) {
+                int j = csr.successor(i, k);
+                if (component[i] != component[j]) {
+                    cc.addEdge(nodes[component[i]], nodes[component[j]]);
                 }
             }
         }
-        cc.reflexiveReduction();
         return cc;
     }
 }
-
@@ -11,6 +11,8 @@
 
 package fr.kbertet.dgraph;
 
+import java.util.concurrent.atomic.AtomicInteger;
+
 /**
  * This class gives a standard representation for a node of a graph.
  *
@@ -51,9 +53,10 @@ public class Node implements Comparable<Object>, Cloneable {
      * The total number of nodes.
      *
      * Initialised to 0, it is incremented by the constructor,
-     * and used to inialize the identifier.
+     * and used to inialize the identifier. It is atomic so that
+     * nodes can be created concurrently.
      */
-   private static int count = 0;
+   private static AtomicInteger count = new AtomicInteger();
 
     /* ------------- CONSTRUCTORS ------------------ */
 
@@ -66,7 +69,7 @@ public class Node implements Comparable<Object>, Cloneable {
      * @param   content  Content for this node
      */
     public Node(final Object content) {
-        this.identifier = ++count;
+        this.identifier = count.incrementAndGet();
         this.content = content;
     }
 
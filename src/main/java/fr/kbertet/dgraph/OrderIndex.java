@@ -0,0 +1,161 @@
+package fr.kbertet.dgraph;
+
+/*
+ * OrderIndex.java
+ *
+ * Copyright: 2010-2014 Karell Bertet, France
+ *
+ * License: http://www.cecill.info/licences/Licence_CeCILL-B_V1-en.html CeCILL-B license
+ *
+ * This file is part of java-lattices, free package. You can redistribute it and/or modify
+ * it under the terms of CeCILL-B license.
+ */
+
+import fr.kbertet.util.BitSets;
+
+/**
+ * This class indexes the order of a directed acyclic graph, i.e. its reachability relation,
+ * in order to compare two nodes in constant time and to enumerate the majorants and the minorants
+ * of a node without allocation.
+ *
+ * Nodes are numbered by the dense numbering of the graph (see {@link DGraph#indexOf}). The index is a matrix
+ * of packed bit sets whose row of a node contains its majorants, computed by class {@link Reachability}
+ * in O(n+mn/64) word operations, and using `n^2/8` bytes. Loops are ignored, and a node is never one of its
+ * own majorants. When the graph is not acyclic, rows are computed by a traversal from each node.
+ *
+ * Since its construction is quadratic, an index is meant to be built once by a treatment performing many
+ * comparisons on a same graph; a single comparison is better performed by method {@link DAGraph#isLessOrEqual}.
+ * The index is computed again at the first query following a modification of the graph.
+ *
+ * ![OrderIndex](OrderIndex.png)
+ *
+ * @uml OrderIndex.png
+ * !include resources/fr/kbertet/dgraph/OrderIndex.iuml
+ *
+ * hide members
+ * show OrderIndex members
+ * class OrderIndex #LightCyan
+ * title OrderIndex UML graph
+ */
+public final class OrderIndex {
+    /**
+     * The indexed graph.
+     */
+    private final DAGraph graph;
+
+    /**
+     * The number of modifications of the graph when the rows were computed.
+     */
+    private int modifications;
+
+    /**
+     * The majorants of each node number.
+     */
+    private long[][] rows;
+
+    /**
+     * Constructs the index of the order of the specified graph.
+     *
+     * @param   graph  a directed graph
+     */
+    public OrderIndex(DAGraph graph) {
+        this.graph = graph;
+        this.build();
+    }
+
+    /**
+     * Checks if a node is less or equal than another one in the order of the graph,
+     * i.e. if they are equal or if the second one is a majorant of the first one.
+     *
+     * This treatment is performed in O(1).
+     *
+     * @param   x  the first node
+     * @param   y  the second node
+     *
+     * @return  true if `x` is less or equal than `y`
+     */
+    public boolean isLessOrEqual(final Node x, final Node y) {
+        long[][] matrix = this.rows();
+        int i = this.graph.indexOf(x);
+        int j = this.graph.indexOf(y);
+        return i >= 0 && j >= 0 && (i == j || BitSets.get(matrix[i], j));
+    }
+
+    /**
+     * Returns the number of the first majorant of the specified node whose number is at or after the specified one,
+     * in order to enumerate the majorants without allocation: this method is called from `0`, then from
+     * the number following the last returned one, until `-1` is returned.
+     *
+     * Numbers are those of the dense numbering of the graph (see {@link DGraph#getNodeByIndex}).
+     *
+     * @param   node  the specified node
+     * @param   from  the starting number
+     *
+     * @return  the number of the majorant, or -1 if there is none
+     */
+    public int nextMajorant(final Node node, int from) {
+        long[][] matrix = this.rows();
+        int i = this.graph.indexOf(node);
+        if (i < 0) {
+            return -1;
+        }
+        return BitSets.nextSetBit(matrix[i], Math.max(from, 0));
+    }
+
+    /**
+     * Returns the number of the first minorant of the specified node whose number is at or after the specified one,
+     * in order to enumerate the minorants without allocation (see {@link #nextMajorant}).
+     *
+     * Minorants are found by scanning the column of the node, so that the enumeration of all the minorants
+     * of a node is performed in O(n).
+     *
+     * @param   node  the specified node
+     * @param   from  the starting number
+     *
+     * @return  the number of the minorant, or -1 if there is none
+     */
+    public int nextMinorant(final Node node, int from) {
+        long[][] matrix = this.rows();
+        int j = this.graph.indexOf(node);
+        if (j >= 0) {
+            for (int i = Math.max(from, 0); i < matrix.length; i++) {
+                if (BitSets.get(matrix[i], j)) {
+                    return i;
+                }
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Returns the rows of the index, computing them again when the graph has been modified.
+     *
+     * @return  the majorants of each node number
+     */
+    private long[][] rows() {
+        if (this.modifications != this.graph.modifications()) {
+            this.build();
+        }
+        return this.rows;
+    }
+
+    /**
+     * Computes the rows of the index from the graph.
+     */
+    private void build() {
+        this.modifications = this.graph.modifications();
+        Reachability reachability = new Reachability(this.graph);
+        if (reachability.isAcyclic()) {
+            this.rows = reachability.matrix(null);
+        } else {
+            int n = this.graph.sizeNodes();
+            this.rows = new long[n][BitSets.words(n)];
+            for (int x = 0; x < n; x++) {
+                for (Node y : this.graph.majorants(this.graph.getNodeByIndex(x))) {
+                    BitSets.set(this.rows[x], this.graph.indexOf(y));
+                }
+                BitSets.clear(this.rows[x], x);
+            }
+        }
+    }
+}
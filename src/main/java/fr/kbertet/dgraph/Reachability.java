@@ -0,0 +1,327 @@
+package fr.kbertet.dgraph;
+
+/*
+ * Reachability.java
+ *
+ * Copyright: 2010-2014 Karell Bertet, France
+ *
+ * License: http://www.cecill.info/licences/Licence_CeCILL-B_V1-en.html CeCILL-B license
+ *
+ * This file is part of java-lattices, free package. You can redistribute it and/or modify
+ * it under the terms of CeCILL-B license.
+ */
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+
+import fr.kbertet.util.BitSets;
+
+/**
+ * This class computes the reachability relation of a directed acyclic graph as a matrix of packed bit sets,
+ * in order to compute its transitive closure and its transitive reduction.
+ *
+ * Nodes are numbered by the dense numbering of the graph (see {@link DGraph#indexOf}), and loops are ignored.
+ * The row of a node is the union of the rows of its successors and of the successors themselves.
+ * Rows are thus computed level by level, the level of a node being the length of the longest path to a well,
+ * and the rows of the nodes of a same level are independent, so that they can be computed
+ * concurrently on a `ForkJoinPool`. An edge from `x` to `y` is redundant when `y` belongs to the row
+ * of another successor of `x`.
+ *
+ * In order to bound the memory used, the matrix is computed by blocks of columns, at most 2^24 words being
+ * allocated for the rows of a block. Each block needs a traversal of the edges of the graph.
+ *
+ * ![Reachability](Reachability.png)
+ *
+ * @uml Reachability.png
+ * !include resources/fr/kbertet/dgraph/Reachability.iuml
+ *
+ * hide members
+ * show Reachability members
+ * class Reachability #LightCyan
+ * title Reachability UML graph
+ */
+final class Reachability {
+    /**
+     * Maximal number of words allocated for the rows of a block of columns.
+     */
+    private static final int BLOCK_MEMORY = 1 << 24;
+
+    /**
+     * The graph.
+     */
+    private final DAGraph graph;
+
+    /**
+     * The node of each number.
+     */
+    private final Node[] nodes;
+
+    /**
+     * The successor edges of each node, loops excepted.
+     */
+    private final Edge[][] edges;
+
+    /**
+     * The numbers of the successors of each node, loops excepted.
+     */
+    private final int[][] successors;
+
+    /**
+     * The node numbers sorted by increasing level, or null if the graph is not acyclic.
+     */
+    private final int[] order;
+
+    /**
+     * The position in the order of the first node of each level, followed by the number of nodes.
+     */
+    private final int[] levels;
+
+    /**
+     * The number of words of a block of columns.
+     */
+    private final int blockWords;
+
+    /**
+     * The rows of the current block of columns.
+     */
+    private final long[][] rows;
+
+    /**
+     * The number of the first column of the current block.
+     */
+    private int base;
+
+    /**
+     * Constructs the reachability relation of the specified graph.
+     *
+     * @param   graph  a directed graph
+     */
+    Reachability(DAGraph graph) {
+        this.graph = graph;
+        int n = graph.sizeNodes();
+        this.nodes = new Node[n];
+        this.edges = new Edge[n][];
+        this.successors = new int[n][];
+        int[] size = new int[n];
+        for (int x = 0; x < n; x++) {
+            this.nodes[x] = graph.getNodeByIndex(x);
+        }
+        for (int x = 0; x < n; x++) {
+            int loops = 0;
+            if (graph.getSuccessors().get(this.nodes[x]).contains(new Edge(this.nodes[x], this.nodes[x]))) {
+                loops = 1;
+            }
+            this.edges[x] = new Edge[graph.getSuccessorEdges(this.nodes[x]).size() - loops];
+            this.successors[x] = new int[this.edges[x].length];
+            int k = 0;
+            for (Edge edge : graph.getSuccessorEdges(this.nodes[x])) {
+                int y = graph.indexOf(edge.getTo());
+                if (y != x) {
+                    this.edges[x][k] = edge;
+                    this.successors[x][k++] = y;
+                    size[y]++;
+                }
+            }
+        }
+        // topological sort of the graph without loops
+        int[] sort = new int[n];
+        int last = 0;
+        for (int x = 0; x < n; x++) {
+            if (size[x] == 0) {
+                sort[last++] = x;
+            }
+        }
+        for (int first = 0; first < last; first++) {
+            for (int y : this.successors[sort[first]]) {
+                size[y]--;
+                if (size[y] == 0) {
+                    sort[last++] = y;
+                }
+            }
+        }
+        if (last < n) {
+            this.order = null;
+            this.levels = null;
+        } else {
+            // level of each node, computed in the reverse topological order, and counting sort by level
+            int[] level = size;
+            int height = 0;
+            for (int p = n - 1; p >= 0; p--) {
+                int x = sort[p];
+                level[x] = 0;
+                for (int y : this.successors[x]) {
+                    level[x] = Math.max(level[x], level[y] + 1);
+                }
+                height = Math.max(height, level[x] + 1);
+            }
+            this.levels = new int[height + 1];
+            for (int x = 0; x < n; x++) {
+                this.levels[level[x] + 1]++;
+            }
+            for (int l = 0; l < height; l++) {
+                this.levels[l + 1] += this.levels[l];
+            }
+            this.order = new int[n];
+            int[] next = Arrays.copyOf(this.levels, height);
+            for (int x = 0; x < n; x++) {
+                this.order[next[level[x]]++] = x;
+            }
+        }
+        this.blockWords = Math.max(1, Math.min(BitSets.words(n), BLOCK_MEMORY / Math.max(1, n)));
+        if (this.order == null) {
+            this.rows = null;
+        } else {
+            this.rows = new long[n][this.blockWords];
+        }
+    }
+
+    /**
+     * Checks if the graph is acyclic when its loops are ignored.
+     *
+     * @return  true if the graph is acyclic
+     */
+    boolean isAcyclic() {
+        return this.order != null;
+    }
+
+    /**
+     * Adds to the graph an edge from each node to each node reachable from it, loops excepted.
+     *
+     * The graph must be acyclic.
+     *
+     * @param   pool  a pool computing the rows of a level in parallel, or null
+     *
+     * @return  the number of added edges
+     */
+    int closure(ForkJoinPool pool) {
+        int number = 0;
+        int words = BitSets.words(this.nodes.length);
+        for (int first = 0; first < words; first += this.blockWords) {
+            this.block(first, pool, null);
+            for (int x = 0; x < this.nodes.length; x++) {
+                long[] row = this.rows[x];
+                int before = this.graph.getSuccessors().get(this.nodes[x]).size();
+                for (int b = BitSets.nextSetBit(row, 0); b >= 0; b = BitSets.nextSetBit(row, b + 1)) {
+                    this.graph.addEdge(this.nodes[x], this.nodes[this.base + b]);
+                }
+                number += this.graph.getSuccessors().get(this.nodes[x]).size() - before;
+            }
+        }
+        return number;
+    }
+
+    /**
+     * Returns the redundant successor edges of each node, those whose destination is reachable
+     * from another successor.
+     *
+     * The graph must be acyclic.
+     *
+     * @param   pool  a pool computing the rows of a level in parallel, or null
+     *
+     * @return  for each node, the redundant edges among its successor edges, loops excepted
+     */
+    Edge[][] redundant(ForkJoinPool pool) {
+        boolean[][] redundant = new boolean[this.nodes.length][];
+        for (int x = 0; x < this.nodes.length; x++) {
+            redundant[x] = new boolean[this.successors[x].length];
+        }
+        int words = BitSets.words(this.nodes.length);
+        for (int first = 0; first < words; first += this.blockWords) {
+            this.block(first, pool, redundant);
+        }
+        Edge[][] result = new Edge[this.nodes.length][];
+        for (int x = 0; x < this.nodes.length; x++) {
+            int size = 0;
+            result[x] = new Edge[redundant[x].length];
+            for (int k = 0; k < redundant[x].length; k++) {
+                if (redundant[x][k]) {
+                    result[x][size++] = this.edges[x][k];
+                }
+            }
+            result[x] = Arrays.copyOf(result[x], size);
+        }
+        return result;
+    }
+
+    /**
+     * Returns the matrix of the nodes reachable from each node by a non empty path, loops excepted.
+     *
+     * The graph must be acyclic. Rows are computed block by block and copied in rows of `n` bits,
+     * so that the matrix uses `n^2/8` bytes.
+     *
+     * @param   pool  a pool computing the rows of a level in parallel, or null
+     *
+     * @return  the row of each node number
+     */
+    long[][] matrix(ForkJoinPool pool) {
+        int words = BitSets.words(this.nodes.length);
+        if (this.blockWords >= words) {
+            this.block(0, pool, null);
+            return this.rows;
+        }
+        long[][] matrix = new long[this.nodes.length][words];
+        for (int first = 0; first < words; first += this.blockWords) {
+            this.block(first, pool, null);
+            for (int x = 0; x < this.nodes.length; x++) {
+                System.arraycopy(this.rows[x], 0, matrix[x], first, Math.min(this.blockWords, words - first));
+            }
+        }
+        return matrix;
+    }
+
+    /**
+     * Computes the rows of a block of columns, level by level.
+     *
+     * @param   first      the first word of the block
+     * @param   pool       a pool computing the rows of a level in parallel, or null
+     * @param   redundant  the flags of the redundant successor edges of each node, or null
+     */
+    private void block(int first, ForkJoinPool pool, boolean[][] redundant) {
+        this.base = first * BitSets.WORD_SIZE;
+        for (long[] row : this.rows) {
+            Arrays.fill(row, 0L);
+        }
+        for (int l = 0; l + 1 < this.levels.length; l++) {
+            if (pool == null) {
+                this.rows(this.levels[l], this.levels[l + 1], redundant);
+            } else {
+                pool.invoke(new ReachabilityTask(this, this.levels[l], this.levels[l + 1], redundant));
+            }
+        }
+    }
+
+    /**
+     * Computes the rows of the current block for a range of the nodes sorted by level,
+     * whose successors have a lower level.
+     *
+     * @param   from       the first position of the range
+     * @param   to         the position following the range
+     * @param   redundant  the flags of the redundant successor edges of each node, or null
+     */
+    void rows(int from, int to, boolean[][] redundant) {
+        int end = this.base + this.blockWords * BitSets.WORD_SIZE;
+        for (int p = from; p < to; p++) {
+            int x = this.order[p];
+            long[] row = this.rows[x];
+            int[] succ = this.successors[x];
+            for (int y : succ) {
+                BitSets.or(row, this.rows[y], this.blockWords);
+            }
+            for (int k = 0; k < succ.length; k++) {
+                int y = succ[k];
+                if (y >= this.base && y < end) {
+                    int b = y - this.base;
+                    if (redundant != null && (row[b >>> 6] & (1L << b)) != 0) {
+                        redundant[x][k] = true;
+                    }
+                }
+            }
+            for (int y : succ) {
+                if (y >= this.base && y < end) {
+                    int b = y - this.base;
+                    row[b >>> 6] |= 1L << b;
+                }
+            }
+        }
+    }
+}
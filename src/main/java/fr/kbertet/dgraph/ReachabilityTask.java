@@ -0,0 +1,92 @@
+package fr.kbertet.dgraph;
+
+/*
+ * ReachabilityTask.java
+ *
+ * Copyright: 2010-2014 Karell Bertet, France
+ *
+ * License: http://www.cecill.info/licences/Licence_CeCILL-B_V1-en.html CeCILL-B license
+ *
+ * This file is part of java-lattices, free package. You can redistribute it and/or modify
+ * it under the terms of CeCILL-B license.
+ */
+
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * This class defines a task computing the rows of the reachability matrix for a range of nodes of a same level,
+ * in order to compute the transitive closure or reduction of a directed acyclic graph in parallel on a `ForkJoinPool`.
+ *
+ * The range of positions is split into halves until it is small enough, each range being computed
+ * by method {@link Reachability#rows(int, int, boolean[][])}.
+ *
+ * ![ReachabilityTask](ReachabilityTask.png)
+ *
+ * @uml ReachabilityTask.png
+ * !include resources/fr/kbertet/dgraph/ReachabilityTask.iuml
+ * !include resources/fr/kbertet/dgraph/Reachability.iuml
+ *
+ * hide members
+ * show ReachabilityTask members
+ * class ReachabilityTask #LightCyan
+ * title ReachabilityTask UML graph
+ */
+final class ReachabilityTask extends RecursiveAction {
+    /**
+     * The serialization version of this class.
+     */
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * Maximal number of nodes of a range computed without forking.
+     */
+    private static final int FORK_THRESHOLD = 64;
+
+    /**
+     * The reachability relation.
+     */
+    private final Reachability reachability;
+
+    /**
+     * The first position of the range.
+     */
+    private final int from;
+
+    /**
+     * The position following the range.
+     */
+    private final int to;
+
+    /**
+     * The flags of the redundant successor edges of each node, or null.
+     */
+    private final boolean[][] redundant;
+
+    /**
+     * Constructs a task computing the rows of the specified range.
+     *
+     * @param   reachability  the reachability relation
+     * @param   from          the first position of the range
+     * @param   to            the position following the range
+     * @param   redundant     the flags of the redundant successor edges of each node, or null
+     */
+    ReachabilityTask(Reachability reachability, int from, int to, boolean[][] redundant) {
+        this.reachability = reachability;
+        this.from = from;
+        this.to = to;
+        this.redundant = redundant;
+    }
+
+    /**
+     * Computes the rows of the range of this task.
+     */
+    protected void compute() {
+        if (this.to - this.from <= FORK_THRESHOLD) {
+            this.reachability.rows(this.from, this.to, this.redundant);
+        } else {
+            int middle = (this.from + this.to) >>> 1;
+            invokeAll(new ReachabilityTask(this.reachability, this.from, middle, this.redundant),
+                new ReachabilityTask(this.reachability, middle, this.to, this.redundant));
+        }
+    }
+}
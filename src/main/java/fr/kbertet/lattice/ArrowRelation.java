@@ -22,6 +22,7 @@ import fr.kbertet.lattice.io.ArrowRelationWriterTeX;
 import fr.kbertet.dgraph.Edge;
 import fr.kbertet.dgraph.DGraph;
 import fr.kbertet.dgraph.Node;
+import fr.kbertet.dgraph.OrderIndex;
 
 /**
  * The ArrowRelation class encodes arrow relation between meet & join-irreductibles of a lattice.
@@ -98,8 +99,7 @@ public class ArrowRelation extends DGraph  {
         for (Node n : meets) {
             this.addNode(n);
         }
-        Lattice transitiveClosure = new Lattice(lattice);
-        transitiveClosure.transitiveClosure();
+        OrderIndex order = new OrderIndex(lattice);
         Lattice transitiveReduction = new Lattice(lattice);
         transitiveReduction.transitiveReduction();
         Node jminus = new Node();
@@ -111,16 +111,16 @@ public class ArrowRelation extends DGraph  {
             for (Node m : meets) {
                 mplus = transitiveReduction.getSuccessorNodes(m).first();
                 jminus = transitiveReduction.getPredecessorNodes(j).first();
-                if (transitiveClosure.getSuccessorNodes(j).contains(m) || j.equals(m)) {
+                if (order.isLessOrEqual(j, m)) {
                     arrow = ArrowRelation.cross;
                 } else {
-                    if (transitiveClosure.getSuccessorNodes(jminus).contains(m) || jminus.equals(m)) {
+                    if (order.isLessOrEqual(jminus, m)) {
                         arrow = ArrowRelation.down;
-                        if (transitiveClosure.getPredecessorNodes(mplus).contains(j) || mplus.equals(j)) {
+                        if (order.isLessOrEqual(j, mplus)) {
                             arrow = ArrowRelation.updown;
                         }
                     } else {
-                        if (transitiveClosure.getPredecessorNodes(mplus).contains(j)) {
+                        if (mplus.compareTo(j) != 0 && order.isLessOrEqual(j, mplus)) {
                             arrow = ArrowRelation.up;
                         } else {
                             arrow = ArrowRelation.circ;
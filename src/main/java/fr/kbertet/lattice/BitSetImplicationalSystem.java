@@ -0,0 +1,738 @@
+package fr.kbertet.lattice;
+
+/*
+ * BitSetImplicationalSystem.java
+ *
+ * Copyright: 2010-2014 Karell Bertet, France
+ *
+ * License: http://www.cecill.info/licences/Licence_CeCILL-B_V1-en.html CeCILL-B license
+ *
+ * This file is part of java-lattices, free package. You can redistribute it and/or modify
+ * it under the terms of CeCILL-B license.
+ */
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.SortedSet;
+import java.util.TreeSet;
+
+import fr.kbertet.util.BitSets;
+import fr.kbertet.util.Index;
+
+/**
+ * This class gives a compact representation for an implicational system (I,S).
+ *
+ * This component owns a dictionary numbering the elements of the set S, and stores each rule of I
+ * as a {@link BitSetRule}, i.e. a pair of packed bit sets of element indexes with a cached hash code.
+ * Rules are stored in a hash set, so that adding, removing or finding a rule is performed in O(|S|/64)
+ * instead of the several lectic comparisons needed by the `TreeSet` of {@link ImplicationalSystem}.
+ *
+ * Inclusion, union and difference between premises and conclusions needed by the normalisation
+ * treatments are word operations. This representation is thus suitable for systems containing
+ * millions of rules.
+ *
+ * Closures are computed by the LinClosure algorithm, as for {@link ImplicationalSystem}, from a numbering
+ * of the rules recomputed after a modification of this component. The proper, unary, compact, left-minimal,
+ * direct, right-maximal and minimum forms, the canonical direct basis and the canonical basis are provided,
+ * and give the same rules as the methods of {@link ImplicationalSystem}, except for the minimum form that
+ * depends on the order in which redundant rules are deleted. These treatments are performed sequentially.
+ *
+ * Conversions from and to an {@link ImplicationalSystem} are provided by the constructor
+ * {@link #BitSetImplicationalSystem(ImplicationalSystem)} and method {@link #toImplicationalSystem}.
+ *
+ * ![BitSetImplicationalSystem](BitSetImplicationalSystem.png)
+ *
+ * @uml BitSetImplicationalSystem.png
+ * !include resources/fr/kbertet/lattice/ClosureSystem.iuml
+ * !include resources/fr/kbertet/lattice/BitSetImplicationalSystem.iuml
+ * !include resources/fr/kbertet/lattice/BitSetRule.iuml
+ *
+ * hide members
+ * show BitSetImplicationalSystem members
+ * class BitSetImplicationalSystem #LightCyan
+ * title BitSetImplicationalSystem UML graph
+ */
+public class BitSetImplicationalSystem extends ClosureSystem {
+    /* ------------- FIELDS ------------------ */
+
+    /**
+     * The set of rules.
+     */
+    private HashSet<BitSetRule> sigma;
+
+    /**
+     * The set of elements.
+     */
+    private TreeSet<Comparable> set;
+
+    /**
+     * The numbering of the elements.
+     */
+    private Index index;
+
+    /**
+     * The rules in the order of their numbers, built on demand for bit set closures.
+     *
+     * A null value indicates that the numbering of rules has to be recomputed.
+     */
+    private volatile BitSetRule[] encodedRules;
+
+    /**
+     * The LinClosure operator of the numbered rules, built on demand for bit set closures.
+     */
+    private LinClosure linClosure;
+
+    /* ------------- CONSTRUCTORS ------------------ */
+
+    /**
+     * Constructs a new empty component.
+     */
+    public BitSetImplicationalSystem() {
+        this.sigma = new HashSet<BitSetRule>();
+        this.set = new TreeSet<Comparable>();
+        this.index = new Index();
+        this.encodedRules = null;
+    }
+
+    /**
+     * Constructs this component as the encoding of the specified implicational system.
+     *
+     * Elements are numbered following their order.
+     *
+     * @param   is  the implicational system to be encoded
+     */
+    public BitSetImplicationalSystem(ImplicationalSystem is) {
+        this();
+        for (Comparable e : is.getSet()) {
+            this.addElement(e);
+        }
+        for (Rule rule : is.getRules()) {
+            this.addRule(this.encode(rule));
+        }
+    }
+
+    /**
+     * Constructs this component as a copy of the specified one.
+     *
+     * Rules are shared since they are immutable.
+     *
+     * @param   is  the component to be copied
+     */
+    public BitSetImplicationalSystem(BitSetImplicationalSystem is) {
+        this.sigma = new HashSet<BitSetRule>(is.sigma);
+        this.set = new TreeSet<Comparable>(is.set);
+        this.index = new Index(is.index);
+        this.encodedRules = null;
+    }
+
+    /* ------------- ACCESSORS METHODS ------------------ */
+
+    /**
+     * Returns the set of rules of this component.
+     *
+     * @return  an unmodifiable view of the rules
+     */
+    public Set<BitSetRule> getRules() {
+        return Collections.unmodifiableSet(this.sigma);
+    }
+
+    /**
+     * Returns the set of elements of this component.
+     *
+     * @return  the set of elements
+     */
+    public SortedSet<Comparable> getSet() {
+        return Collections.unmodifiableSortedSet((SortedSet<Comparable>) this.set);
+    }
+
+    /**
+     * Returns the dictionary numbering the elements of this component.
+     *
+     * @return  the numbering of the elements
+     */
+    @Override
+    public Index getIndex() {
+        return this.index;
+    }
+
+    /**
+     * Returns the number of elements of this component.
+     *
+     * @return  the number of elements
+     */
+    public int sizeElements() {
+        return this.set.size();
+    }
+
+    /**
+     * Returns the number of rules of this component.
+     *
+     * @return  the number of rules
+     */
+    public int sizeRules() {
+        return this.sigma.size();
+    }
+
+    /**
+     * Returns the number of words of the packed bit sets of this component.
+     *
+     * @return  the number of words
+     */
+    public int getWords() {
+        return BitSets.words(this.index.size());
+    }
+
+    /* ------------- CONVERSION METHODS ------------------ */
+
+    /**
+     * Returns the encoding of the specified rule using the dictionary of this component.
+     *
+     * Elements that do not belong to this component are ignored.
+     *
+     * @param   rule  a rule
+     *
+     * @return  the encoded rule
+     */
+    public BitSetRule encode(Rule rule) {
+        return new BitSetRule(this.index.bits(rule.getPremise()), this.index.bits(rule.getConclusion()));
+    }
+
+    /**
+     * Returns the rule encoded by the specified one using the dictionary of this component.
+     *
+     * @param   rule  an encoded rule
+     *
+     * @return  the decoded rule
+     */
+    public Rule decode(BitSetRule rule) {
+        return new Rule(this.index.elements(rule.getPremise()), this.index.elements(rule.getConclusion()));
+    }
+
+    /**
+     * Returns the implicational system represented by this component.
+     *
+     * @return  a new implicational system
+     */
+    public ImplicationalSystem toImplicationalSystem() {
+        ImplicationalSystem is = new ImplicationalSystem();
+        is.addAllElements(this.set);
+        for (BitSetRule rule : this.sigma) {
+            is.addRule(this.decode(rule));
+        }
+        return is;
+    }
+
+    /**
+     * Saves this component in the specified file using the format of {@link ImplicationalSystem}.
+     *
+     * @param   filename  the name of the file
+     *
+     * @throws  IOException  When an IOException occurs
+     */
+    public void save(String filename) throws IOException {
+        this.toImplicationalSystem().save(filename);
+    }
+
+    /* ------------- MODIFICATION METHODS ------------------ */
+
+    /**
+     * Adds the specified element to the set S of this component.
+     *
+     * @param   e  the element to be added
+     *
+     * @return  true if the element has been added
+     */
+    public boolean addElement(Comparable e) {
+        if (this.set.add(e)) {
+            this.index.add(e);
+            this.encodedRules = null;
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Checks if the specified rule only contains indexes of elements of this component.
+     *
+     * @param   rule  the rule to be checked
+     *
+     * @return  true if the indexes of the rule are lower than the number of elements
+     */
+    public boolean checkRuleElements(BitSetRule rule) {
+        int n = this.index.size();
+        return BitSets.nextSetBit(rule.getPremise(), n) == -1 && BitSets.nextSetBit(rule.getConclusion(), n) == -1;
+    }
+
+    /**
+     * Checks if this component contains the specified rule.
+     *
+     * @param   rule  the rule to be checked
+     *
+     * @return  true if the rule belongs to this component
+     */
+    public boolean containsRule(BitSetRule rule) {
+        return this.sigma.contains(rule);
+    }
+
+    /**
+     * Adds the specified rule to this component when its elements belong to this component.
+     *
+     * @param   rule  the rule to be added
+     *
+     * @return  true if the rule has been added
+     */
+    public boolean addRule(BitSetRule rule) {
+        if (this.checkRuleElements(rule) && this.sigma.add(rule)) {
+            this.encodedRules = null;
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Removes the specified rule from this component.
+     *
+     * @param   rule  the rule to be removed
+     *
+     * @return  true if the rule has been removed
+     */
+    public boolean removeRule(BitSetRule rule) {
+        if (this.sigma.remove(rule)) {
+            this.encodedRules = null;
+            return true;
+        }
+        return false;
+    }
+
+    /* ------------- NORMALISATION METHODS ------------------ */
+
+    /**
+     * Makes this component a proper system.
+     *
+     * Elements of the premise are removed from the conclusion of each rule,
+     * and rules with an empty conclusion are deleted.
+     *
+     * @return  the difference between the number of rules of this component before and after this treatment
+     */
+    public int makeProper() {
+        int s = this.sizeRules();
+        int n = this.getWords();
+        long[] conclusion = new long[n];
+        for (BitSetRule rule : new ArrayList<BitSetRule>(this.sigma)) {
+            BitSets.copy(rule.getConclusion(), conclusion, n);
+            BitSets.andNot(conclusion, rule.getPremise(), n);
+            if (BitSets.nextSetBit(conclusion, 0) == -1) {
+                this.sigma.remove(rule);
+            } else if (!BitSets.equals(conclusion, rule.getConclusion(), n)) {
+                this.sigma.remove(rule);
+                this.sigma.add(new BitSetRule(rule.getPremise(), conclusion));
+            }
+        }
+        this.encodedRules = null;
+        return s - this.sizeRules();
+    }
+
+    /**
+     * Makes this component an unary system.
+     *
+     * A rule with a non singleton as conclusion is replaced with one rule for each element of its conclusion.
+     *
+     * @return  the difference between the number of rules of this component before and after this treatment
+     */
+    public int makeUnary() {
+        int s = this.sizeRules();
+        int n = this.getWords();
+        long[] conclusion = new long[n];
+        for (BitSetRule rule : new ArrayList<BitSetRule>(this.sigma)) {
+            if (BitSets.cardinality(rule.getConclusion(), n) > 1) {
+                this.sigma.remove(rule);
+                long[] words = rule.getConclusion();
+                for (int i = BitSets.nextSetBit(words, 0); i >= 0; i = BitSets.nextSetBit(words, i + 1)) {
+                    BitSets.clearAll(conclusion, n);
+                    conclusion = BitSets.set(conclusion, i);
+                    this.sigma.add(new BitSetRule(rule.getPremise(), conclusion));
+                }
+            }
+        }
+        this.encodedRules = null;
+        return s - this.sizeRules();
+    }
+
+    /**
+     * Replaces rules of same premise by only one rule.
+     *
+     * Rules are grouped by premise in a hash map, so that this treatment is performed in O(|sigma||S|/64).
+     *
+     * @return  the difference between the number of rules of this component before and after this treatment
+     */
+    public int makeCompact() {
+        int s = this.sizeRules();
+        int n = this.getWords();
+        long[] empty = new long[0];
+        HashMap<BitSetRule, long[]> conclusions = new HashMap<BitSetRule, long[]>();
+        for (BitSetRule rule : this.sigma) {
+            BitSetRule key = new BitSetRule(rule.getPremise(), empty);
+            long[] conclusion = conclusions.get(key);
+            if (conclusion == null) {
+                conclusion = new long[n];
+                conclusions.put(key, conclusion);
+            }
+            BitSets.or(conclusion, rule.getConclusion(), n);
+        }
+        this.sigma.clear();
+        for (BitSetRule key : conclusions.keySet()) {
+            this.sigma.add(new BitSetRule(key.getPremise(), conclusions.get(key)));
+        }
+        this.encodedRules = null;
+        return s - this.sizeRules();
+    }
+
+    /**
+     * Makes this component a left-minimal system.
+     *
+     * The unary form of this component is first computed. Then, rules are grouped by conclusion,
+     * and a rule is deleted when another rule of its group has a smaller premise.
+     * The compact form of this component is finally computed.
+     *
+     * @return  the difference between the number of rules of this component before and after this treatment
+     */
+    public int makeLeftMinimal() {
+        this.makeUnary();
+        int s = this.sizeRules();
+        int n = this.getWords();
+        long[] empty = new long[0];
+        HashMap<BitSetRule, ArrayList<BitSetRule>> groups = new HashMap<BitSetRule, ArrayList<BitSetRule>>();
+        for (BitSetRule rule : this.sigma) {
+            BitSetRule key = new BitSetRule(empty, rule.getConclusion());
+            ArrayList<BitSetRule> group = groups.get(key);
+            if (group == null) {
+                group = new ArrayList<BitSetRule>();
+                groups.put(key, group);
+            }
+            group.add(rule);
+        }
+        for (ArrayList<BitSetRule> group : groups.values()) {
+            for (BitSetRule rule1 : group) {
+                for (BitSetRule rule2 : group) {
+                    if (rule1 != rule2 && BitSets.isSubset(rule1.getPremise(), rule2.getPremise(), n)) {
+                        this.sigma.remove(rule2);
+                    }
+                }
+            }
+        }
+        this.encodedRules = null;
+        this.makeCompact();
+        return s - this.sizeRules();
+    }
+
+    /**
+     * Makes this component a compact and direct system.
+     *
+     * The unary and proper form of this component is first computed. Then, for two rules rule1 and rule2
+     * such that the premise of rule2 meets the conclusion of rule1 outside of the premise of rule1, the rule
+     * whose premise is the union of the premise of rule1 with the premise of rule2 minus the conclusion of rule1,
+     * and whose conclusion is the conclusion of rule2, is added until no more rule can be added.
+     * The compact form of this component is finally computed.
+     *
+     * The saturation is semi-naive, as for method {@link ImplicationalSystem#makeDirect()}: each round only combines
+     * the rules derived by the previous round with the rules of this component, the candidates being found
+     * by indexing rules by the elements of their premise and of their conclusion. Each test is performed
+     * with word operations.
+     *
+     * @return  the difference between the number of rules of this component before and after this treatment
+     */
+    public int makeDirect() {
+        this.makeUnary();
+        this.makeProper();
+        int s = this.sizeRules();
+        int n = this.getWords();
+        ArrayList<ArrayList<BitSetRule>> withPremise = new ArrayList<ArrayList<BitSetRule>>();
+        ArrayList<ArrayList<BitSetRule>> withConclusion = new ArrayList<ArrayList<BitSetRule>>();
+        for (int e = 0; e < this.index.size(); e++) {
+            withPremise.add(new ArrayList<BitSetRule>());
+            withConclusion.add(new ArrayList<BitSetRule>());
+        }
+        ArrayList<BitSetRule> frontier = new ArrayList<BitSetRule>(this.sigma);
+        long[] premise = new long[n];
+        long[] meet = new long[n];
+        while (!frontier.isEmpty()) {
+            // the rules of this component are only modified between two rounds
+            for (BitSetRule rule : frontier) {
+                index(rule.getPremise(), rule, withPremise);
+                index(rule.getConclusion(), rule, withConclusion);
+            }
+            HashSet<BitSetRule> derived = new HashSet<BitSetRule>();
+            for (BitSetRule rule : frontier) {
+                // rule as rule1: the premise of rule2 has to meet the conclusion of rule
+                long[] words = rule.getConclusion();
+                for (int b = BitSets.nextSetBit(words, 0); b >= 0; b = BitSets.nextSetBit(words, b + 1)) {
+                    for (BitSetRule rule2 : withPremise.get(b)) {
+                        this.overlap(rule, rule2, premise, meet, derived);
+                    }
+                }
+                // rule as rule2: the conclusion of rule1 has to meet the premise of rule
+                words = rule.getPremise();
+                for (int a = BitSets.nextSetBit(words, 0); a >= 0; a = BitSets.nextSetBit(words, a + 1)) {
+                    for (BitSetRule rule1 : withConclusion.get(a)) {
+                        this.overlap(rule1, rule, premise, meet, derived);
+                    }
+                }
+            }
+            frontier = new ArrayList<BitSetRule>(derived);
+            this.sigma.addAll(frontier);
+        }
+        this.encodedRules = null;
+        this.makeCompact();
+        return s - this.sizeRules();
+    }
+
+    /**
+     * Adds the specified rule to the list of each element of the specified bit set.
+     *
+     * @param   words  a packed bit set of element indexes
+     * @param   rule   a rule
+     * @param   lists  the rules indexed by element index
+     */
+    private static void index(long[] words, BitSetRule rule, ArrayList<ArrayList<BitSetRule>> lists) {
+        for (int e = BitSets.nextSetBit(words, 0); e >= 0; e = BitSets.nextSetBit(words, e + 1)) {
+            lists.get(e).add(rule);
+        }
+    }
+
+    /**
+     * Adds to the specified set the rule derived from the two specified rules by the direct treatment, if any,
+     * when it does not belong to this component.
+     *
+     * @param   rule1    a rule whose conclusion is used in the premise of rule2
+     * @param   rule2    a rule
+     * @param   premise  a buffer receiving the premise of the derived rule
+     * @param   meet     a working buffer
+     * @param   derived  the set receiving the new derived rule
+     */
+    private void overlap(BitSetRule rule1, BitSetRule rule2, long[] premise, long[] meet, HashSet<BitSetRule> derived) {
+        int n = premise.length;
+        if (!rule1.equals(rule2) && !BitSets.isSubset(rule2.getConclusion(), rule1.getPremise(), n)) {
+            // the new premise does not contain the premise of rule2 when they meet outside of rule1 premise
+            BitSets.copy(rule2.getPremise(), meet, n);
+            BitSets.and(meet, rule1.getConclusion(), n);
+            if (!BitSets.isSubset(meet, rule1.getPremise(), n)) {
+                BitSets.copy(rule2.getPremise(), premise, n);
+                BitSets.andNot(premise, rule1.getConclusion(), n);
+                BitSets.or(premise, rule1.getPremise(), n);
+                BitSetRule rule = new BitSetRule(premise, rule2.getConclusion());
+                if (!this.sigma.contains(rule)) {
+                    derived.add(rule);
+                }
+            }
+        }
+    }
+
+    /**
+     * Replaces the conclusion of each rule with the closure of its premise.
+     *
+     * The compact form of this component is first computed, and the closures of all the premises
+     * are computed before conclusions are replaced, since this replacement does not modify closures.
+     * This treatment is performed in O(|sigma|cl), where O(cl) is the computation of a closure.
+     *
+     * @return  the difference between the number of rules of this component before and after this treatment
+     */
+    public int makeRightMaximal() {
+        int s = this.sizeRules();
+        this.makeCompact();
+        BitSetRule[] rules = this.numberRules();
+        int n = this.getWords();
+        long[] scratch = new long[this.getScratchSize()];
+        long[][] closures = new long[rules.length][n];
+        for (int r = 0; r < rules.length; r++) {
+            this.closure(rules[r].getPremise(), closures[r], scratch, null);
+        }
+        for (int r = 0; r < rules.length; r++) {
+            this.sigma.remove(rules[r]);
+            this.sigma.add(new BitSetRule(rules[r].getPremise(), closures[r]));
+        }
+        this.encodedRules = null;
+        return s - this.sizeRules();
+    }
+
+    /**
+     * Makes this component a minimum system.
+     *
+     * The right-maximal form of this component is first computed. Then, a rule is deleted when the closure
+     * of its premise remains the same even if this rule is suppressed. Rules are suppressed by masking their
+     * number in method {@link #closure(long[], long[], long[], long[])}, without copying this component, so that
+     * this treatment is performed in O(|sigma|cl), where O(cl) is the computation of a closure.
+     *
+     * Rules are tested in the order of their numbers, that follows the iteration order of the hash set of rules.
+     *
+     * @return  the difference between the number of rules of this component before and after this treatment
+     */
+    public int makeMinimum() {
+        this.makeRightMaximal();
+        int s = this.sizeRules();
+        BitSetRule[] rules = this.numberRules();
+        int n = this.getWords();
+        long[] removed = new long[BitSets.words(rules.length)];
+        long[] closure = new long[n];
+        long[] scratch = new long[this.getScratchSize()];
+        for (int r = 0; r < rules.length; r++) {
+            BitSets.set(removed, r);
+            this.closure(rules[r].getPremise(), closure, scratch, removed);
+            if (!BitSets.isSubset(rules[r].getConclusion(), closure, n)) {
+                BitSets.clear(removed, r);
+            }
+        }
+        for (int r = BitSets.nextSetBit(removed, 0); r >= 0; r = BitSets.nextSetBit(removed, r + 1)) {
+            this.sigma.remove(rules[r]);
+        }
+        this.encodedRules = null;
+        return s - this.sizeRules();
+    }
+
+    /**
+     * Replaces this component by its canonical direct basis.
+     *
+     * The proper and left-minimal form of this component is first computed,
+     * before to apply the direct treatment, then the left-minimal treatment.
+     *
+     * @return  the difference between the number of rules of this component before and after this treatment
+     */
+    public int makeCanonicalDirectBasis() {
+        int s = this.sizeRules();
+        this.makeProper();
+        this.makeLeftMinimal();
+        this.makeDirect();
+        this.makeLeftMinimal();
+        this.makeCompact();
+        return s - this.sizeRules();
+    }
+
+    /**
+     * Replaces this component by the canonical basis.
+     *
+     * The minimum form of this component is first computed. Then, the premise of each rule is replaced
+     * by its closure in this component without this rule. Once this component is minimum, this replacement
+     * does not modify the closure of the other premises, so that all these closures are computed before
+     * premises are replaced. The proper form of this component is finally computed.
+     *
+     * @return  the difference between the number of rules of this component before and after this treatment
+     */
+    public int makeCanonicalBasis() {
+        this.makeMinimum();
+        int s = this.sizeRules();
+        BitSetRule[] rules = this.numberRules();
+        int n = this.getWords();
+        long[] mask = new long[BitSets.words(rules.length)];
+        long[] scratch = new long[this.getScratchSize()];
+        long[][] closures = new long[rules.length][n];
+        for (int r = 0; r < rules.length; r++) {
+            BitSets.set(mask, r);
+            this.closure(rules[r].getPremise(), closures[r], scratch, mask);
+            BitSets.clear(mask, r);
+        }
+        for (int r = 0; r < rules.length; r++) {
+            this.sigma.remove(rules[r]);
+        }
+        for (int r = 0; r < rules.length; r++) {
+            this.sigma.add(new BitSetRule(closures[r], rules[r].getConclusion()));
+        }
+        this.encodedRules = null;
+        this.makeProper();
+        return s - this.sizeRules();
+    }
+
+    /* ------------- CLOSURE METHODS ------------------ */
+
+    /**
+     * Returns the closure of the specified set of elements.
+     *
+     * Elements of the set that do not belong to this component are kept in the closure.
+     *
+     * @param   x  a set of elements
+     *
+     * @return  the closure of the set
+     */
+    public TreeSet<Comparable> closure(TreeSet<Comparable> x) {
+        long[] bits = this.index.bits(x);
+        this.closure(bits, bits, new long[this.getScratchSize()]);
+        TreeSet<Comparable> closure = this.index.elements(bits);
+        closure.addAll(x);
+        return closure;
+    }
+
+    /**
+     * Returns the number of words of the buffer used by method {@link #closure(long[], long[], long[])}:
+     * a counter for each rule, and a stack of element indexes.
+     *
+     * @return  the number of words of the scratch buffer
+     */
+    @Override
+    public int getScratchSize() {
+        this.numberRules();
+        return this.linClosure.getScratchSize();
+    }
+
+    /**
+     * Computes the closure of a packed bit set of element indexes.
+     *
+     * This treatment is the LinClosure algorithm of method {@link ImplicationalSystem#closure(long[], long[], long[])}:
+     * `scratch` stores, for each rule, the number of elements of its premise not yet in the closure, followed
+     * by a stack of elements added to the closure whose rules have not been updated. It is performed in
+     * O(|S|+|Sigma|+s) where s is the total size of the premises, without any allocation once rules have been
+     * numbered after a modification of this component.
+     *
+     * @param   in       the bit set whose closure is computed
+     * @param   out      the bit set receiving the closure
+     * @param   scratch  a buffer of at least {@link #getScratchSize} words
+     */
+    @Override
+    public void closure(long[] in, long[] out, long[] scratch) {
+        this.closure(in, out, scratch, null);
+    }
+
+    /**
+     * Computes the closure of a packed bit set of element indexes, skipping the specified rules.
+     *
+     * Rules are numbered in the order of the hash set of rules, and the rules whose number belongs to the packed
+     * bit set `excluded` are not used. This treatment can be called from several threads with distinct buffers.
+     *
+     * @param   in        the bit set whose closure is computed
+     * @param   out       the bit set receiving the closure
+     * @param   scratch   a buffer of at least {@link #getScratchSize} words
+     * @param   excluded  the packed bit set of the numbers of the skipped rules, or null
+     */
+    private void closure(long[] in, long[] out, long[] scratch, long[] excluded) {
+        this.numberRules();
+        this.linClosure.closure(in, out, scratch, excluded);
+    }
+
+    /**
+     * Numbers the rules of this component and indexes them by the elements of their premise
+     * when this component has been modified.
+     *
+     * @return  the rules in the order of their numbers
+     */
+    private BitSetRule[] numberRules() {
+        BitSetRule[] rules = this.encodedRules;
+        if (rules == null) {
+            synchronized (this) {
+                rules = this.encodedRules;
+                if (rules == null) {
+                    rules = this.sigma.toArray(new BitSetRule[this.sigma.size()]);
+                    long[][] premises = new long[rules.length][];
+                    long[][] conclusions = new long[rules.length][];
+                    for (int r = 0; r < rules.length; r++) {
+                        premises[r] = rules[r].getPremise();
+                        conclusions[r] = rules[r].getConclusion();
+                    }
+                    this.linClosure = new LinClosure(this.index.size(), premises, conclusions);
+                    this.encodedRules = rules;
+                }
+            }
+        }
+        return rules;
+    }
+}
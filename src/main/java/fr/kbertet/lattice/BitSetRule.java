@@ -0,0 +1,161 @@
+package fr.kbertet.lattice;
+
+/*
+ * BitSetRule.java
+ *
+ * Copyright: 2010-2014 Karell Bertet, France
+ *
+ * License: http://www.cecill.info/licences/Licence_CeCILL-B_V1-en.html CeCILL-B license
+ *
+ * This file is part of java-lattices, free package. You can redistribute it and/or modify
+ * it under the terms of CeCILL-B license.
+ */
+
+import java.util.Arrays;
+
+import fr.kbertet.util.BitSets;
+
+/**
+ * This class gives a compact representation for an implicational rule.
+ *
+ * The premise and the conclusion are packed bit sets of element indexes (see {@link fr.kbertet.util.BitSets}),
+ * whose numbering is given by the {@link BitSetImplicationalSystem} owning the rule.
+ * Trailing zero words are removed so that two rules with the same bits are equal,
+ * and the hash code is computed once at construction.
+ *
+ * A rule is immutable: arrays returned by its accessors must not be modified.
+ *
+ * ![BitSetRule](BitSetRule.png)
+ *
+ * @uml BitSetRule.png
+ * !include resources/fr/kbertet/lattice/BitSetRule.iuml
+ *
+ * hide members
+ * show BitSetRule members
+ * class BitSetRule #LightCyan
+ * title BitSetRule UML graph
+ */
+public class BitSetRule {
+    /* ------------- FIELDS ------------------ */
+
+    /**
+     * The premise of the rule.
+     */
+    private long[] premise;
+
+    /**
+     * The conclusion of the rule.
+     */
+    private long[] conclusion;
+
+    /**
+     * The cached hash code of the rule.
+     */
+    private int hash;
+
+    /* ------------- CONSTRUCTORS ------------------ */
+
+    /**
+     * Constructs a new rule with the premise and the conclusion given in parameters.
+     *
+     * The specified arrays are copied.
+     *
+     * @param   premise     a packed bit set of element indexes
+     * @param   conclusion  a packed bit set of element indexes
+     */
+    public BitSetRule(long[] premise, long[] conclusion) {
+        this.premise = trim(premise);
+        this.conclusion = trim(conclusion);
+        this.hash = 1013 * Arrays.hashCode(this.premise) ^ 1009 * Arrays.hashCode(this.conclusion);
+    }
+
+    /* ------------- ACCESSORS METHODS ------------------ */
+
+    /**
+     * Returns the premise of this component.
+     *
+     * @return  the packed bit set of the premise
+     */
+    public long[] getPremise() {
+        return this.premise;
+    }
+
+    /**
+     * Returns the conclusion of this component.
+     *
+     * @return  the packed bit set of the conclusion
+     */
+    public long[] getConclusion() {
+        return this.conclusion;
+    }
+
+    /* ------------- OVERRIDDEN METHODS ------------------ */
+
+    /**
+     * Returns a string representation of this component.
+     *
+     * Element indexes of the premise and of the conclusion are separated by `->`.
+     *
+     * @return  a string made of premise indexes followed by -> and the conclusion indexes
+     */
+    public String toString() {
+        StringBuilder builder = new StringBuilder();
+        append(builder, this.premise);
+        builder.append(" -> ");
+        append(builder, this.conclusion);
+        return builder.toString();
+    }
+
+    /**
+     * Returns the hash code of this component.
+     *
+     * @return  hash code of this component
+     */
+    public int hashCode() {
+        return this.hash;
+    }
+
+    /**
+     * Compares this component with the specified one.
+     *
+     * @param   o  object to compare to this component.
+     *
+     * @return  true or false as this component is equals to the specified object.
+     */
+    public boolean equals(Object o) {
+        if (!(o instanceof BitSetRule)) {
+            return false;
+        }
+        BitSetRule r = (BitSetRule) o;
+        return this.hash == r.hash && Arrays.equals(this.premise, r.premise) && Arrays.equals(this.conclusion, r.conclusion);
+    }
+
+    /* ------------- PRIVATE METHODS ------------------ */
+
+    /**
+     * Returns a copy of the specified bit set without its trailing zero words.
+     *
+     * @param   words  a packed bit set
+     *
+     * @return  the trimmed copy
+     */
+    private static long[] trim(long[] words) {
+        int n = words.length;
+        while (n > 0 && words[n - 1] == 0L) {
+            n--;
+        }
+        return Arrays.copyOf(words, n);
+    }
+
+    /**
+     * Appends the indexes of the specified bit set separated by a space.
+     *
+     * @param   builder  a string builder
+     * @param   words    a packed bit set
+     */
+    private static void append(StringBuilder builder, long[] words) {
+        for (int i = BitSets.nextSetBit(words, 0); i >= 0; i = BitSets.nextSetBit(words, i + 1)) {
+            builder.append(i).append(' ');
+        }
+    }
+}
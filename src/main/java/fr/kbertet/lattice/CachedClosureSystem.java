@@ -0,0 +1,336 @@
+package fr.kbertet.lattice;
+
+/*
+ * CachedClosureSystem.java
+ *
+ * Copyright: 2010-2014 Karell Bertet, France
+ *
+ * License: http://www.cecill.info/licences/Licence_CeCILL-B_V1-en.html CeCILL-B license
+ *
+ * This file is part of java-lattices, free package. You can redistribute it and/or modify
+ * it under the terms of CeCILL-B license.
+ */
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.SortedSet;
+import java.util.TreeSet;
+
+import fr.kbertet.util.BitSets;
+import fr.kbertet.util.Index;
+
+/**
+ * This class gives a closure system memoizing the closures computed by another closure system.
+ *
+ * Closures are kept in a cache keyed by the packed bit set of the set to be closed, whose number of entries is bounded:
+ * when the cache is full, the least recently used closure is evicted. Algorithms closing the same sets several
+ * times, such as the computation of the immediate successors of concepts by Bordat's algorithm, or the precedence
+ * graph computed for each concept, can thus be given this component instead of the initial closure system.
+ *
+ * The cache is safe for concurrent use, closures being computed outside of its lock. The numbers of hits,
+ * misses and evictions are counted in order to tune the capacity. The initial closure system must not be
+ * modified while this component is used, or method {@link #clear} has to be called.
+ *
+ * ![CachedClosureSystem](CachedClosureSystem.png)
+ *
+ * @uml CachedClosureSystem.png
+ * !include resources/fr/kbertet/lattice/ClosureSystem.iuml
+ * !include resources/fr/kbertet/lattice/CachedClosureSystem.iuml
+ *
+ * hide members
+ * show CachedClosureSystem members
+ * class CachedClosureSystem #LightCyan
+ * title CachedClosureSystem UML graph
+ */
+public class CachedClosureSystem extends ClosureSystem {
+    /* ------------- FIELDS ------------------ */
+
+    /**
+     * The initial closure system.
+     */
+    private ClosureSystem init;
+
+    /**
+     * The numbering of the elements of the initial closure system.
+     *
+     * It is replaced by method {@link #clear} and read without lock by closures.
+     */
+    private volatile Index index;
+
+    /**
+     * The maximal number of closures kept in the cache.
+     */
+    private int capacity;
+
+    /**
+     * The closures, in the order of their last access.
+     */
+    private LinkedHashMap<Key, long[]> cache;
+
+    /**
+     * The number of closures found in the cache.
+     */
+    private long hits;
+
+    /**
+     * The number of closures computed by the initial closure system.
+     */
+    private long misses;
+
+    /**
+     * The number of closures evicted from the cache.
+     */
+    private long evictions;
+
+    /* ------------- CONSTRUCTORS ------------------ */
+
+    /**
+     * Constructs a new cache of the specified capacity for the specified closure system.
+     *
+     * @param   init      the initial closure system
+     * @param   capacity  the maximal number of closures kept in the cache
+     */
+    public CachedClosureSystem(ClosureSystem init, int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("capacity must be positive");
+        }
+        this.init = init;
+        this.index = init.getIndex();
+        this.capacity = capacity;
+        this.cache = new LinkedHashMap<Key, long[]>(16, 0.75f, true) {
+            /**
+             * Evicts the least recently used closure when the cache is full.
+             *
+             * @param   eldest  the least recently used entry
+             *
+             * @return  true if the entry has to be removed
+             */
+            protected boolean removeEldestEntry(Map.Entry<Key, long[]> eldest) {
+                if (this.size() > CachedClosureSystem.this.capacity) {
+                    CachedClosureSystem.this.evictions++;
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    /* ------------- ACCESSORS METHODS ------------------ */
+
+    /**
+     * Returns the initial closure system.
+     *
+     * @return  the initial closure system
+     */
+    public ClosureSystem getClosureSystem() {
+        return this.init;
+    }
+
+    /**
+     * Returns the maximal number of closures kept in the cache.
+     *
+     * @return  the capacity of the cache
+     */
+    public int getCapacity() {
+        return this.capacity;
+    }
+
+    /**
+     * Returns the number of closures kept in the cache.
+     *
+     * @return  the number of closures
+     */
+    public synchronized int size() {
+        return this.cache.size();
+    }
+
+    /**
+     * Returns the number of closures found in the cache.
+     *
+     * @return  the number of hits
+     */
+    public synchronized long getHits() {
+        return this.hits;
+    }
+
+    /**
+     * Returns the number of closures computed by the initial closure system.
+     *
+     * @return  the number of misses
+     */
+    public synchronized long getMisses() {
+        return this.misses;
+    }
+
+    /**
+     * Returns the number of closures evicted from the cache.
+     *
+     * @return  the number of evictions
+     */
+    public synchronized long getEvictions() {
+        return this.evictions;
+    }
+
+    /* ------------- MODIFICATION METHODS ------------------ */
+
+    /**
+     * Removes all the closures of the cache, and resets the counters.
+     *
+     * The numbering of the elements is recomputed, so that this method has to be called
+     * after a modification of the initial closure system.
+     */
+    public synchronized void clear() {
+        this.cache.clear();
+        this.index = this.init.getIndex();
+        this.hits = 0;
+        this.misses = 0;
+        this.evictions = 0;
+    }
+
+    /* ------------- CLOSURE SYSTEM METHODS ------------------ */
+
+    /**
+     * Returns the set of elements of the initial closure system.
+     *
+     * @return  the set of elements
+     */
+    public SortedSet<Comparable> getSet() {
+        return this.init.getSet();
+    }
+
+    /**
+     * Returns the closure of the specified set, found in the cache when it has already been computed.
+     *
+     * Elements of the set that do not belong to the closure system are kept in the closure.
+     *
+     * @param   set  a set of elements
+     *
+     * @return  the closure of the set
+     */
+    public TreeSet<Comparable> closure(TreeSet<Comparable> set) {
+        Index elements = this.index;
+        long[] bits = elements.bits(set);
+        this.closure(bits, bits, new long[this.getScratchSize()]);
+        TreeSet<Comparable> closure = new TreeSet<Comparable>(set);
+        closure.addAll(elements.elements(bits));
+        return closure;
+    }
+
+    /**
+     * Saves the initial closure system in the specified file.
+     *
+     * @param   file  the name of the file
+     *
+     * @throws  IOException  When an IOException occurs
+     */
+    public void save(String file) throws IOException {
+        this.init.save(file);
+    }
+
+    /**
+     * Returns the numbering of the elements of the initial closure system.
+     *
+     * @return  the numbering of the elements
+     */
+    @Override
+    public Index getIndex() {
+        return this.index;
+    }
+
+    /**
+     * Returns the number of words of the scratch buffer of the initial closure system.
+     *
+     * @return  the number of words of the scratch buffer
+     */
+    @Override
+    public int getScratchSize() {
+        return this.init.getScratchSize();
+    }
+
+    /**
+     * Computes the closure of a packed bit set of element indexes, found in the cache when it has already been computed.
+     *
+     * @param   in       the bit set whose closure is computed
+     * @param   out      the bit set receiving the closure
+     * @param   scratch  a working buffer for the initial closure system
+     */
+    @Override
+    public void closure(long[] in, long[] out, long[] scratch) {
+        int n = BitSets.words(this.index.size());
+        Key key = new Key(in, n);
+        long[] closure;
+        synchronized (this) {
+            closure = this.cache.get(key);
+            if (closure != null) {
+                this.hits++;
+            } else {
+                this.misses++;
+            }
+        }
+        if (closure == null) {
+            this.init.closure(in, out, scratch);
+            closure = Arrays.copyOf(out, n);
+            synchronized (this) {
+                this.cache.put(key, closure);
+            }
+        } else {
+            BitSets.copy(closure, out, n);
+        }
+    }
+
+    /**
+     * This class gives the key of a set in the cache: a copy of its packed bit set with a cached hash code.
+     */
+    private static final class Key {
+        /**
+         * The packed bit set, without trailing zero words.
+         */
+        private final long[] words;
+
+        /**
+         * The hash code of the bit set.
+         */
+        private final int hash;
+
+        /**
+         * Constructs the key of the `n` first words of the specified bit set.
+         *
+         * @param   words  a packed bit set
+         * @param   n      the number of words
+         */
+        Key(long[] words, int n) {
+            int m = Math.min(n, words.length);
+            while (m > 0 && words[m - 1] == 0L) {
+                m--;
+            }
+            this.words = Arrays.copyOf(words, m);
+            this.hash = Arrays.hashCode(this.words);
+        }
+
+        /**
+         * Returns the hash code of this key.
+         *
+         * @return  the hash code
+         */
+        public int hashCode() {
+            return this.hash;
+        }
+
+        /**
+         * Checks if this key is equal to the specified object.
+         *
+         * @param   o  an object
+         *
+         * @return  true if the object is a key of the same bit set
+         */
+        public boolean equals(Object o) {
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key key = (Key) o;
+            return this.hash == key.hash && Arrays.equals(this.words, key.words);
+        }
+    }
+}
@@ -0,0 +1,255 @@
+package fr.kbertet.lattice;
+
+/*
+ * CanonicalBasis.java
+ *
+ * Copyright: 2010-2014 Karell Bertet, France
+ *
+ * License: http://www.cecill.info/licences/Licence_CeCILL-B_V1-en.html CeCILL-B license
+ *
+ * This file is part of java-lattices, free package. You can redistribute it and/or modify
+ * it under the terms of CeCILL-B license.
+ */
+
+import java.util.Arrays;
+
+import fr.kbertet.util.BitSets;
+import fr.kbertet.util.Index;
+
+/**
+ * This class generates the canonical basis (Duquenne-Guigues basis) of a closure system
+ * directly from its closure operator, without computing its closed set lattice.
+ *
+ * The rules of the canonical basis are the rules `P -> P'' \ P` where `P` is a pseudo-closed set.
+ * Following Ganter's algorithm, the sets closed under both the closure operator and the rules already generated
+ * are enumerated in the lectic order by Next Closure, where the closure `L(X)` of a set `X` under the rules `L`
+ * already generated adds the conclusion of each rule whose premise is strictly included in `X`, until a fixpoint is reached.
+ * Such a set is either closed, or pseudo-closed and then gives a new rule.
+ *
+ * The closure under the rules already generated is computed in linear time by the LinClosure algorithm shared with
+ * {@link ImplicationalSystem}, with a strict inclusion of premises: each rule keeps the number of elements of its premise
+ * not yet reached, and each element keeps the rules whose premise contains it. Memory is thus proportional to the size of the basis, and rules are given to
+ * a {@link RuleVisitor} as soon as they are generated.
+ *
+ * Closures are computed on packed bit sets by method {@link ClosureSystem#closure(long[], long[], long[])},
+ * so that a `Context` is used without any conversion.
+ *
+ * ![CanonicalBasis](CanonicalBasis.png)
+ *
+ * @uml CanonicalBasis.png
+ * !include resources/fr/kbertet/lattice/CanonicalBasis.iuml
+ *
+ * hide members
+ * show CanonicalBasis members
+ * class CanonicalBasis #LightCyan
+ * title CanonicalBasis UML graph
+ */
+public final class CanonicalBasis {
+    /**
+     * This class is not designed to be publicly instantiated.
+     */
+    private CanonicalBasis() {
+    }
+
+    /**
+     * The singleton instance.
+     */
+    private static CanonicalBasis instance = null;
+
+    /**
+     * Return the singleton instance of this class.
+     *
+     * @return  the singleton instance
+     */
+    public static CanonicalBasis getInstance() {
+        if (instance == null) {
+            instance = new CanonicalBasis();
+        }
+        return instance;
+    }
+
+    /**
+     * Returns the canonical basis of the specified closure system.
+     *
+     * The returned implicational system contains all the elements of the closure system.
+     *
+     * @param   init  a closure system (an ImplicationalSystem or a Context)
+     *
+     * @return  the canonical basis
+     */
+    public ImplicationalSystem canonicalBasis(ClosureSystem init) {
+        final ImplicationalSystem basis = new ImplicationalSystem();
+        for (Comparable e : init.getSet()) {
+            basis.addElement(e);
+        }
+        this.enumerate(init, new RuleVisitor() {
+            /**
+             * Adds the specified rule to the basis.
+             *
+             * @param   rule  a rule of the canonical basis
+             *
+             * @return  true
+             */
+            public boolean visit(Rule rule) {
+                basis.addRule(rule);
+                return true;
+            }
+        });
+        return basis;
+    }
+
+    /**
+     * Enumerates the rules of the canonical basis of the specified closure system in the lectic order of their premises.
+     *
+     * Each rule is given to the visitor as soon as its premise is found to be pseudo-closed.
+     *
+     * @param   init     a closure system (an ImplicationalSystem or a Context)
+     * @param   visitor  the visitor receiving rules
+     */
+    public void enumerate(ClosureSystem init, RuleVisitor visitor) {
+        new Generation(init, visitor).generate();
+    }
+
+    /**
+     * This class gathers the data of an enumeration: the rules already generated and the buffers of their closure.
+     */
+    private static final class Generation {
+        /**
+         * The closure system.
+         */
+        private final ClosureSystem init;
+
+        /**
+         * The visitor receiving rules.
+         */
+        private final RuleVisitor visitor;
+
+        /**
+         * The numbering of the elements.
+         */
+        private final Index index;
+
+        /**
+         * The indexes of elements in the lectic order.
+         */
+        private final int[] order;
+
+        /**
+         * The rank of each index in the lectic order.
+         */
+        private final int[] rank;
+
+        /**
+         * The number of words of the bit sets.
+         */
+        private final int words;
+
+        /**
+         * A working buffer for the closure operator of the closure system.
+         */
+        private final long[] scratch;
+
+        /**
+         * The closure operator `L` of the rules already generated.
+         */
+        private final LinClosure rules;
+
+        /**
+         * A working buffer for the closure operator of the rules already generated.
+         */
+        private long[] rulesScratch;
+
+        /**
+         * Constructs the data of an enumeration.
+         *
+         * @param   init     a closure system
+         * @param   visitor  the visitor receiving rules
+         */
+        Generation(ClosureSystem init, RuleVisitor visitor) {
+            this.init = init;
+            this.visitor = visitor;
+            this.index = init.getIndex();
+            this.order = init.lecticOrder(this.index);
+            this.rank = ClosureSystem.ranks(this.order);
+            this.words = BitSets.words(this.order.length);
+            this.scratch = new long[init.getScratchSize()];
+            this.rules = new LinClosure(this.order.length, true);
+            this.rulesScratch = new long[this.rules.getScratchSize()];
+        }
+
+        /**
+         * Enumerates the sets closed under the generated rules in the lectic order, and generates
+         * a rule for each of them that is not closed.
+         */
+        void generate() {
+            long[] set = new long[this.words];
+            long[] next = new long[this.words];
+            long[] closed = new long[this.words];
+            this.closure(set, set);
+            do {
+                this.init.closure(set, closed, this.scratch);
+                if (!BitSets.equals(set, closed, this.words)) {
+                    // set is pseudo-closed: it remains closed under the rules once its own rule is added
+                    BitSets.andNot(closed, set, this.words);
+                    this.add(set, Arrays.copyOf(closed, this.words));
+                    Rule rule = new Rule(this.index.elements(set), this.index.elements(closed));
+                    if (!this.visitor.visit(rule)) {
+                        return;
+                    }
+                }
+            } while (this.next(set, next));
+        }
+
+        /**
+         * Replaces the specified set closed under the generated rules by the lecticaly next one.
+         *
+         * @param   set   a set closed under the generated rules, replaced by the next one
+         * @param   next  a buffer receiving closures
+         *
+         * @return  false if the specified set was the last one, true otherwise
+         */
+        private boolean next(long[] set, long[] next) {
+            for (int k = this.order.length - 1; k >= 0; k--) {
+                int i = this.order[k];
+                if (BitSets.get(set, i)) {
+                    BitSets.clear(set, i);
+                } else {
+                    BitSets.set(set, i);
+                    this.closure(set, next);
+                    if (ClosureSystem.isCanonical(set, next, this.rank, k, this.words)) {
+                        BitSets.copy(next, set, this.words);
+                        return true;
+                    }
+                    BitSets.clear(set, i);
+                }
+            }
+            return false;
+        }
+
+        /**
+         * Computes the closure of a set under the generated rules.
+         *
+         * The conclusion of a rule is added once all the elements of its premise are reached and the closure
+         * is strictly greater than its premise.
+         *
+         * @param   in   the bit set whose closure is computed
+         * @param   out  the bit set receiving the closure
+         */
+        private void closure(long[] in, long[] out) {
+            this.rules.closure(in, out, this.rulesScratch, null);
+        }
+
+        /**
+         * Adds a rule to the generated rules.
+         *
+         * @param   premise     the premise of the rule
+         * @param   conclusion  the conclusion of the rule
+         */
+        private void add(long[] premise, long[] conclusion) {
+            this.rules.add(premise, conclusion);
+            if (this.rulesScratch.length < this.rules.getScratchSize()) {
+                this.rulesScratch = new long[2 * this.rules.getScratchSize()];
+            }
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package fr.kbertet.lattice;
+
+/*
+ * ClosureEnumerator.java
+ *
+ * Copyright: 2010-2014 Karell Bertet, France
+ *
+ * License: http://www.cecill.info/licences/Licence_CeCILL-B_V1-en.html CeCILL-B license
+ *
+ * This file is part of java-lattices, free package. You can redistribute it and/or modify
+ * it under the terms of CeCILL-B license.
+ */
+
+import java.util.Vector;
+
+/**
+ * This interface defines a standard way for enumerating all the closed sets of a closure system.
+ *
+ * An enumerator can be given to methods {@link ClosureSystem#closedSetLattice(ClosureEnumerator)}
+ * and {@link ConceptLattice#completeLattice(ClosureSystem, ClosureEnumerator)} in order to choose
+ * the algorithm generating the closed sets:
+ *
+ * - {@link NextClosure} implements Ganter's Next Closure algorithm;
+ * - {@link FastCloseByOne} implements the Close-by-One algorithm with failure-set pruning (FCbO).
+ *
+ * ![ClosureEnumerator](ClosureEnumerator.png)
+ *
+ * @uml ClosureEnumerator.png
+ * !include resources/fr/kbertet/lattice/ClosureEnumerator.iuml
+ * !include resources/fr/kbertet/lattice/NextClosure.iuml
+ * !include resources/fr/kbertet/lattice/FastCloseByOne.iuml
+ *
+ * hide members
+ * show ClosureEnumerator members
+ * class ClosureEnumerator #LightCyan
+ * title ClosureEnumerator UML graph
+ */
+public interface ClosureEnumerator {
+    /**
+     * Returns all the closed sets of the specified closure system.
+     *
+     * @param   init  a closure system (an ImplicationalSystem or a Context)
+     *
+     * @return  all the closed sets
+     */
+    Vector<Concept> allClosures(ClosureSystem init);
+
+    /**
+     * Enumerates the closed sets of the specified closure system, and gives each one to the specified
+     * visitor as soon as it is generated.
+     *
+     * The enumeration stops when all closed sets have been visited, or when the visitor returns false.
+     *
+     * @param   init     a closure system (an ImplicationalSystem or a Context)
+     * @param   visitor  the visitor receiving closed sets
+     */
+    void enumerate(ClosureSystem init, ClosureVisitor visitor);
+}
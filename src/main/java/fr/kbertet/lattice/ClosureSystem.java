@@ -11,13 +11,19 @@ package fr.kbertet.lattice;
  * it under the terms of CeCILL-B license.
  */
 
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
 import java.util.TreeMap;
 import java.util.TreeSet;
 import java.util.SortedSet;
 import java.util.Vector;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ForkJoinPool;
 import java.io.IOException;
 
-import fr.kbertet.util.ComparableSet;
+import fr.kbertet.util.BitSets;
+import fr.kbertet.util.Index;
 import fr.kbertet.dgraph.DAGraph;
 import fr.kbertet.dgraph.DGraph;
 import fr.kbertet.dgraph.Node;
@@ -44,6 +50,12 @@ import fr.kbertet.dgraph.Node;
  * invoked by method {@link #allClosures}
  * and the main method {@link #closedSetLattice} (where lattice can be transitively closed or reduced).
  *
+ * Elements are also numbered by an {@link Index} (method {@link #getIndex}), so that sets of elements can
+ * be encoded as packed bit sets of `long` (see {@link BitSets}). Method {@link #closure(long[], long[], long[])}
+ * computes the closure of such a bit set without allocating memory. Its default implementation relies
+ * on method {@link #closure(TreeSet)}, and is overridden by contexts and implicational systems.
+ * Enumeration methods are based on this bit set closure.
+ *
  *
  * ![ClosureSystem](ClosureSystem.png)
  *
@@ -84,6 +96,150 @@ public abstract class ClosureSystem {
      */
     public abstract void save(String file) throws IOException;
 
+    /* ------------- INDEXED CLOSURE METHODS ------------------ */
+
+    /**
+     * Returns the numbering of the elements of this component used by
+     * method {@link #closure(long[], long[], long[])}.
+     *
+     * The returned index must not be modified. By default, a new index numbering the elements
+     * following their order is returned.
+     *
+     * @return  the numbering of the elements
+     */
+    public Index getIndex() {
+        Index index = new Index();
+        for (Comparable element : this.getSet()) {
+            index.add(element);
+        }
+        return index;
+    }
+
+    /**
+     * Returns the number of words of the scratch buffer needed by method
+     * {@link #closure(long[], long[], long[])}.
+     *
+     * @return  the number of words of the scratch buffer
+     */
+    public int getScratchSize() {
+        return 0;
+    }
+
+    /**
+     * Computes the closure of a packed bit set of element indexes.
+     *
+     * Bits are indexes of elements given by method {@link #getIndex}. Arrays `in` and `out` must have
+     * at least `BitSets.words(getIndex().size())` words, and `scratch` at least {@link #getScratchSize}
+     * words. Arrays `in` and `out` may be the same array. Extended classes implement this method without
+     * any allocation, whereas this default implementation uses method {@link #closure(TreeSet)}.
+     *
+     * Since this default implementation builds a new index by method {@link #getIndex} and converts sets
+     * at each call, it performs O(|S|) allocations per closure. Extended classes used by enumerators
+     * have to override this method, together with {@link #getIndex} and {@link #getScratchSize},
+     * to give them allocation-free closures.
+     *
+     * @param   in       the bit set whose closure is computed
+     * @param   out      the bit set receiving the closure
+     * @param   scratch  a working buffer
+     */
+    public void closure(long[] in, long[] out, long[] scratch) {
+        Index index = this.getIndex();
+        int n = BitSets.words(index.size());
+        long[] bits = index.bits(this.closure(index.elements(in)));
+        BitSets.copy(bits, out, n);
+    }
+
+    /**
+     * Returns the indexes of the elements of this component sorted following the order of the elements.
+     *
+     * @param   index  the numbering of the elements
+     *
+     * @return  the array of indexes in the order of elements
+     */
+    int[] lecticOrder(Index index) {
+        int[] order = new int[index.size()];
+        int k = 0;
+        for (Comparable element : this.getSet()) {
+            order[k] = index.indexOf(element);
+            k++;
+        }
+        return order;
+    }
+
+    /**
+     * Returns the position of each index in the specified order.
+     *
+     * @param   order  an array of indexes
+     *
+     * @return  the array of positions
+     */
+    static int[] ranks(int[] order) {
+        int[] rank = new int[order.length];
+        for (int k = 0; k < order.length; k++) {
+            rank[order[k]] = k;
+        }
+        return rank;
+    }
+
+    /**
+     * Replaces the specified closed set by its lecticaly next closed set.
+     *
+     * This treatment is the Ganter's Next Closure algorithm performed on bit sets without allocation.
+     * The closure `next` of the candidate set obtained by adding the element of rank `k` is accepted when it
+     * contains no new element of rank lower than `k`.
+     *
+     * @param   set      a closed set, replaced by the next closed set
+     * @param   next     a buffer receiving closures
+     * @param   scratch  a working buffer for the closure operator
+     * @param   order    the indexes of elements in the lectic order
+     * @param   rank     the rank of each index in the lectic order
+     *
+     * @return  false if the specified closed set was the last one, true otherwise
+     */
+    boolean nextClosure(long[] set, long[] next, long[] scratch, int[] order, int[] rank) {
+        int n = BitSets.words(order.length);
+        for (int k = order.length - 1; k >= 0; k--) {
+            int i = order[k];
+            if (BitSets.get(set, i)) {
+                BitSets.clear(set, i);
+            } else {
+                BitSets.set(set, i);
+                this.closure(set, next, scratch);
+                if (isCanonical(set, next, rank, k, n)) {
+                    BitSets.copy(next, set, n);
+                    return true;
+                }
+                BitSets.clear(set, i);
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Checks that the closure of a candidate set contains no new element of rank lower than `k`.
+     *
+     * @param   set      the candidate set
+     * @param   closure  the closure of the candidate set
+     * @param   rank     the rank of each index in the lectic order
+     * @param   k        the rank of the added element
+     * @param   n        the number of words
+     *
+     * @return  true if the closure is the lecticaly next closed set
+     */
+    static boolean isCanonical(long[] set, long[] closure, int[] rank, int k, int n) {
+        for (int w = 0; w < n; w++) {
+            long diff = closure[w] & ~set[w];
+            while (diff != 0) {
+                int i = (w * BitSets.WORD_SIZE) + Long.numberOfTrailingZeros(diff);
+                if (rank[i] < k) {
+                    return false;
+                }
+                diff &= diff - 1;
+            }
+        }
+        return true;
+    }
+
     /* ------------- IMPLEMENTED METHODS ------------------ */
 
     /**
@@ -114,6 +270,28 @@ public abstract class ClosureSystem {
         }
     }
 
+    /**
+     * Returns the complete closed set lattice of this component, whose closed sets are generated
+     * by the specified enumerator.
+     *
+     * @param   enumerator  the algorithm enumerating closed sets
+     *
+     * @return  The concept lattice
+     */
+    public ConceptLattice closedSetLattice(ClosureEnumerator enumerator) {
+        return ConceptLattice.completeLattice(this, enumerator);
+    }
+
+    /**
+     * Returns the canonical basis of this component, generated from its closure operator
+     * without computing its closed set lattice (see {@link CanonicalBasis}).
+     *
+     * @return  the canonical basis
+     */
+    public ImplicationalSystem canonicalBasis() {
+        return CanonicalBasis.getInstance().canonicalBasis(this);
+    }
+
     /**
      * Returns the lattice of this component.
      *
@@ -139,24 +317,106 @@ public abstract class ClosureSystem {
     * @return  all the closeds set in the lectically order.
     */
     public Vector<Concept> allClosures() {
-        Vector<Concept> allclosure = new Vector<Concept>();
+        final Vector<Concept> allclosure = new Vector<Concept>();
+        this.closures(new ClosureVisitor() {
+            /**
+             * Adds the specified closed set to the vector.
+             *
+             * @param   closure  a closed set
+             *
+             * @return  true
+             */
+            public boolean visit(Concept closure) {
+                return allclosure.add(closure);
+            }
+        });
+        return allclosure;
+    }
+
+    /**
+     * Enumerates the closed sets of this component in the lectic order, and gives each one
+     * to the specified visitor as soon as it is generated.
+     *
+     * Closed sets are generated by Ganter's Next Closure algorithm on packed bit sets:
+     * the enumeration stops after the lecticaly last closed set, or when the visitor returns false.
+     * Besides the closed sets kept by the visitor, this treatment is performed in O(|S|) memory.
+     *
+     * @param   visitor  the visitor receiving closed sets
+     */
+    public void closures(ClosureVisitor visitor) {
+        Index index = this.getIndex();
+        int[] order = this.lecticOrder(index);
+        int[] rank = ranks(order);
+        long[] set = new long[BitSets.words(index.size())];
+        long[] next = new long[set.length];
+        long[] scratch = new long[this.getScratchSize()];
         // first closure: closure of the empty set
-        allclosure.add(new Concept(this.closure(new ComparableSet()), false));
-        Concept cl = allclosure.firstElement();
+        this.closure(set, set, scratch);
+        boolean more = visitor.visit(new Concept(index.elements(set), false));
         // next closures in lectically order
-        boolean continu = true;
-        do {
-            cl = this.nextClosure(cl);
-            if (allclosure.contains(cl)) {
-                continu = false;
-            } else {
-                allclosure.add(cl);
-            }
-        } while (continu);
+        while (more && this.nextClosure(set, next, scratch, order, rank)) {
+            more = visitor.visit(new Concept(index.elements(set), false));
+        }
+    }
+
+    /**
+     * Returns an iterator over the closed sets of this component in the lectic order.
+     *
+     * Closed sets are lazily generated by Ganter's Next Closure algorithm, each call to method `next`
+     * computing the following one. This component must not be modified during the iteration.
+     *
+     * @return  an iterator over the closed sets
+     */
+    public Iterator<Concept> closureIterator() {
+        return new LecticIterator();
+    }
 
+    /**
+     * Returns all the closed sets of this component, enumerated in parallel on the specified pool.
+     *
+     * The lectic search space is decomposed into independent subtrees by the canonicity test of
+     * Ganter's Next Closure algorithm, that are explored by tasks of the pool (see {@link ClosureTask}).
+     * The closed sets are the same as those returned by method {@link #allClosures()}, and are returned
+     * in the same lectic order.
+     *
+     * Method {@link #closure(long[], long[], long[])} of this component is called from several threads,
+     * and this component must not be modified during the enumeration.
+     *
+     * @param   pool  a fork/join pool
+     *
+     * @return  all the closeds set in the lectically order.
+     */
+    public Vector<Concept> allClosures(ForkJoinPool pool) {
+        Index index = this.getIndex();
+        int[] order = this.lecticOrder(index);
+        int[] rank = ranks(order);
+        long[] set = new long[BitSets.words(index.size())];
+        this.closure(set, set, new long[this.getScratchSize()]);
+        ConcurrentLinkedQueue<long[]> closures = new ConcurrentLinkedQueue<long[]>();
+        pool.invoke(new ClosureTask(this, set, 0, order, rank, closures));
+        long[][] sorted = closures.toArray(new long[closures.size()][]);
+        Arrays.sort(sorted, ClosureTask.lecticComparator(rank));
+        Vector<Concept> allclosure = new Vector<Concept>(sorted.length);
+        for (long[] closed : sorted) {
+            allclosure.add(new Concept(index.elements(closed), false));
+        }
         return allclosure;
     }
 
+    /**
+     * Returns all the closed sets of this component, enumerated in parallel on all available processors.
+     *
+     * @return  all the closeds set in the lectically order.
+     */
+    public Vector<Concept> allClosuresParallel() {
+        ForkJoinPool pool = new ForkJoinPool();
+        try {
+            return this.allClosures(pool);
+        } finally {
+            pool.shutdown();
+        }
+    }
+
     /**
      * Returns the lecticaly next closed set of the specified one.
      *
@@ -169,28 +429,11 @@ public abstract class ClosureSystem {
      * @return  the lecticaly next closed set
      */
     public Concept nextClosure(Concept cl) {
-        TreeSet<Comparable> set = new TreeSet(this.getSet());
-        boolean success = false;
-        TreeSet setA = new TreeSet(cl.getSetA());
-        Comparable ni = set.last();
-        do {
-            ni = (Comparable) set.last();
-            set.remove(ni);
-            if (!setA.contains(ni)) {
-                setA.add(ni);
-                TreeSet setB = this.closure(setA);
-                setB.removeAll(setA);
-                if (setB.isEmpty() || ((Comparable) setB.first()).compareTo(ni) >= 1) {
-                    setA = this.closure(setA);
-                    success = true;
-                } else {
-                    setA.remove(ni);
-                }
-            } else {
-                setA.remove(ni);
-            }
-        } while (!success && ni.compareTo(this.getSet().first()) >= 1);
-        return new Concept(setA, false);
+        Index index = this.getIndex();
+        int[] order = this.lecticOrder(index);
+        long[] set = index.bits(cl.getSetA());
+        this.nextClosure(set, new long[set.length], new long[this.getScratchSize()], order, ranks(order));
+        return new Concept(index.elements(set), false);
     }
 
 
@@ -208,29 +451,27 @@ public abstract class ClosureSystem {
     * @return  the precedence graph
     */
     public DGraph precedenceGraph() {
-        // compute a TreeMap of closures for each element of the component
-        TreeMap<Comparable, TreeSet<Comparable>> closures = new TreeMap<Comparable, TreeSet<Comparable>>();
-        for (Comparable x : this.getSet()) {
-            ComparableSet setX = new ComparableSet();
-            setX.add(x);
-            closures.put(x, this.closure(setX));
-        }
+        Index index = this.getIndex();
         // nodes of the graph are elements
         DGraph prec = new DGraph();
-        TreeMap<Comparable, Node> nodeCreated = new TreeMap<Comparable, Node>();
+        Node[] nodes = new Node[index.size()];
         for (Comparable x : this.getSet()) {
             Node n = new Node(x);
             prec.addNode(n);
-            nodeCreated.put(x, n);
+            nodes[index.indexOf(x)] = n;
         }
-        // edges of the graph are closures containments
-        for (Comparable from : this.getSet()) {
-            for (Comparable to : this.getSet()) {
-                if (!from.equals(to)) {
-                    // check if from belongs to the closure of to
-                    if (closures.get(to).contains(from)) {
-                        prec.addEdge(nodeCreated.get(from), nodeCreated.get(to));
-                    }
+        // edges of the graph are closures containments:
+        // there is an edge from each element of the closure of to, distinct from to
+        long[] single = new long[BitSets.words(index.size())];
+        long[] closure = new long[single.length];
+        long[] scratch = new long[this.getScratchSize()];
+        for (int to = 0; to < nodes.length; to++) {
+            BitSets.set(single, to);
+            this.closure(single, closure, scratch);
+            BitSets.clear(single, to);
+            for (int from = BitSets.nextSetBit(closure, 0); from >= 0; from = BitSets.nextSetBit(closure, from + 1)) {
+                if (from != to) {
+                    prec.addEdge(nodes[from], nodes[to]);
                 }
             }
         }
@@ -311,5 +552,84 @@ public abstract class ClosureSystem {
         // Finally, return the list of reducible elements with their equivalent attributes.
         return red;
     }
-}
 
+    /**
+     * This class gives an iterator over the closed sets of this component in the lectic order.
+     */
+    private final class LecticIterator implements Iterator<Concept> {
+        /**
+         * The numbering of the elements.
+         */
+        private Index index;
+
+        /**
+         * The indexes of elements in the lectic order.
+         */
+        private int[] order;
+
+        /**
+         * The rank of each index in the lectic order.
+         */
+        private int[] rank;
+
+        /**
+         * The next closed set to be returned, or null at the end of the iteration.
+         */
+        private long[] set;
+
+        /**
+         * A buffer receiving closures.
+         */
+        private long[] next;
+
+        /**
+         * A working buffer for the closure operator.
+         */
+        private long[] scratch;
+
+        /**
+         * Constructs a new iterator starting from the closure of the empty set.
+         */
+        LecticIterator() {
+            this.index = ClosureSystem.this.getIndex();
+            this.order = ClosureSystem.this.lecticOrder(this.index);
+            this.rank = ranks(this.order);
+            this.set = new long[BitSets.words(this.index.size())];
+            this.next = new long[this.set.length];
+            this.scratch = new long[ClosureSystem.this.getScratchSize()];
+            ClosureSystem.this.closure(this.set, this.set, this.scratch);
+        }
+
+        /**
+         * Checks if there is a next closed set.
+         *
+         * @return  true if there is a next closed set
+         */
+        public boolean hasNext() {
+            return this.set != null;
+        }
+
+        /**
+         * Returns the next closed set and computes the following one.
+         *
+         * @return  the next closed set
+         */
+        public Concept next() {
+            if (this.set == null) {
+                throw new NoSuchElementException();
+            }
+            Concept closure = new Concept(this.index.elements(this.set), false);
+            if (!ClosureSystem.this.nextClosure(this.set, this.next, this.scratch, this.order, this.rank)) {
+                this.set = null;
+            }
+            return closure;
+        }
+
+        /**
+         * Closed sets can not be removed.
+         */
+        public void remove() {
+            throw new UnsupportedOperationException();
+        }
+    }
+}
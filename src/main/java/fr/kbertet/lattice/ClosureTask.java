@@ -0,0 +1,193 @@
+package fr.kbertet.lattice;
+
+/*
+ * ClosureTask.java
+ *
+ * Copyright: 2010-2014 Karell Bertet, France
+ *
+ * License: http://www.cecill.info/licences/Licence_CeCILL-B_V1-en.html CeCILL-B license
+ *
+ * This file is part of java-lattices, free package. You can redistribute it and/or modify
+ * it under the terms of CeCILL-B license.
+ */
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.concurrent.RecursiveAction;
+
+import fr.kbertet.util.BitSets;
+
+/**
+ * This class defines a task enumerating the closed sets of a subtree of the lectic search space,
+ * in order to enumerate closed sets in parallel on a `ForkJoinPool`.
+ *
+ * The search space is decomposed as a tree by the canonicity test of Ganter's Next Closure algorithm:
+ * the children of a closed set `B` explored from rank `k` are the closures `D` of `B + {i}`, for each element `i`
+ * of rank greater or equal to `k` not belonging to `B`, such that `D` contains no new element of rank lower than the
+ * rank of `i`. Each child is then explored from the rank following the one of `i`.
+ * Each closed set is generated exactly once in this tree, whose subtrees are independent:
+ * a task forks a new task for each child whose subtree is large enough, and explores the other children itself,
+ * idle threads of the pool stealing forked tasks.
+ *
+ * Closures are computed on packed bit sets by method {@link ClosureSystem#closure(long[], long[], long[])},
+ * that must be safe to call from several threads with distinct buffers.
+ *
+ * ![ClosureTask](ClosureTask.png)
+ *
+ * @uml ClosureTask.png
+ * !include resources/fr/kbertet/lattice/ClosureTask.iuml
+ * !include resources/fr/kbertet/lattice/ClosureSystem.iuml
+ *
+ * hide members
+ * show ClosureTask members
+ * class ClosureTask #LightCyan
+ * title ClosureTask UML graph
+ */
+final class ClosureTask extends RecursiveAction {
+    /**
+     * The serialization version of this class.
+     */
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * Minimal number of ranks remaining to explore in a subtree for it to be explored by a forked task.
+     */
+    private static final int FORK_THRESHOLD = 4;
+
+    /**
+     * The closure system.
+     */
+    private final ClosureSystem system;
+
+    /**
+     * The closed set at the root of the subtree.
+     */
+    private final long[] set;
+
+    /**
+     * The first rank explored.
+     */
+    private final int from;
+
+    /**
+     * The indexes of elements in the lectic order.
+     */
+    private final int[] order;
+
+    /**
+     * The rank of each index in the lectic order.
+     */
+    private final int[] rank;
+
+    /**
+     * The thread-safe collection receiving closed sets.
+     */
+    private final Collection<long[]> closures;
+
+    /**
+     * Constructs a new task exploring the subtree of the specified closed set.
+     *
+     * @param   system    the closure system
+     * @param   set       a closed set
+     * @param   from      the first rank explored
+     * @param   order     the indexes of elements in the lectic order
+     * @param   rank      the rank of each index in the lectic order
+     * @param   closures  the thread-safe collection receiving closed sets
+     */
+    ClosureTask(ClosureSystem system, long[] set, int from, int[] order, int[] rank, Collection<long[]> closures) {
+        this.system = system;
+        this.set = set;
+        this.from = from;
+        this.order = order;
+        this.rank = rank;
+        this.closures = closures;
+    }
+
+    /**
+     * Explores the subtree of this component.
+     */
+    protected void compute() {
+        long[] scratch = new long[this.system.getScratchSize()];
+        ArrayList<ClosureTask> forked = new ArrayList<ClosureTask>();
+        this.explore(this.set, this.from, scratch, forked);
+        for (ClosureTask task : forked) {
+            task.join();
+        }
+    }
+
+    /**
+     * Adds the specified closed set, then explores its children from the specified rank.
+     *
+     * @param   closed   a closed set
+     * @param   start    the first rank explored
+     * @param   scratch  a working buffer for the closure operator
+     * @param   forked   the list receiving forked tasks
+     */
+    private void explore(long[] closed, int start, long[] scratch, ArrayList<ClosureTask> forked) {
+        this.closures.add(closed);
+        int n = BitSets.words(this.order.length);
+        for (int k = start; k < this.order.length; k++) {
+            int i = this.order[k];
+            if (!BitSets.get(closed, i)) {
+                long[] candidate = new long[n];
+                BitSets.copy(closed, candidate, n);
+                BitSets.set(candidate, i);
+                long[] next = new long[n];
+                this.system.closure(candidate, next, scratch);
+                if (ClosureSystem.isCanonical(candidate, next, this.rank, k, n)) {
+                    if (this.order.length - k - 1 >= FORK_THRESHOLD) {
+                        ClosureTask task = new ClosureTask(this.system, next, k + 1, this.order, this.rank, this.closures);
+                        task.fork();
+                        forked.add(task);
+                    } else {
+                        this.explore(next, k + 1, scratch, forked);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns a comparator of packed bit sets following the lectic order.
+     *
+     * A set is lecticaly lower than another one when the element of lowest rank of their
+     * symmetric difference belongs to the second one.
+     *
+     * @param   rank  the rank of each index in the lectic order
+     *
+     * @return  the comparator
+     */
+    static Comparator<long[]> lecticComparator(final int[] rank) {
+        return new Comparator<long[]>() {
+            /**
+             * Compares two packed bit sets following the lectic order.
+             *
+             * @param   a  a packed bit set
+             * @param   b  a packed bit set
+             *
+             * @return  a negative, zero or positive integer as `a` is lower, equal or greater than `b`
+             */
+            public int compare(long[] a, long[] b) {
+                int min = rank.length;
+                int sign = 0;
+                for (int w = 0; w < a.length; w++) {
+                    long diff = a[w] ^ b[w];
+                    while (diff != 0) {
+                        int i = (w * BitSets.WORD_SIZE) + Long.numberOfTrailingZeros(diff);
+                        if (rank[i] < min) {
+                            min = rank[i];
+                            if (BitSets.get(b, i)) {
+                                sign = -1;
+                            } else {
+                                sign = 1;
+                            }
+                        }
+                        diff &= diff - 1;
+                    }
+                }
+                return sign;
+            }
+        };
+    }
+}
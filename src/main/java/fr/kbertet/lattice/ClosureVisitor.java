@@ -0,0 +1,40 @@
+package fr.kbertet.lattice;
+
+/*
+ * ClosureVisitor.java
+ *
+ * Copyright: 2010-2014 Karell Bertet, France
+ *
+ * License: http://www.cecill.info/licences/Licence_CeCILL-B_V1-en.html CeCILL-B license
+ *
+ * This file is part of java-lattices, free package. You can redistribute it and/or modify
+ * it under the terms of CeCILL-B license.
+ */
+
+/**
+ * This interface defines a callback receiving closed sets as soon as they are enumerated.
+ *
+ * A visitor is given to method {@link ClosureSystem#closures(ClosureVisitor)} or to method
+ * {@link ClosureEnumerator#enumerate}, so that closed sets can be written or aggregated without
+ * holding the whole family of closed sets in memory.
+ *
+ * ![ClosureVisitor](ClosureVisitor.png)
+ *
+ * @uml ClosureVisitor.png
+ * !include resources/fr/kbertet/lattice/ClosureVisitor.iuml
+ *
+ * hide members
+ * show ClosureVisitor members
+ * class ClosureVisitor #LightCyan
+ * title ClosureVisitor UML graph
+ */
+public interface ClosureVisitor {
+    /**
+     * Receives a closed set.
+     *
+     * @param   closure  a closed set
+     *
+     * @return  false to stop the enumeration, true to continue it
+     */
+    boolean visit(Concept closure);
+}
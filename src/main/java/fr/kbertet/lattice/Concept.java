@@ -13,16 +13,16 @@ package fr.kbertet.lattice;
  */
 
 import java.util.ArrayList;
-import java.util.Iterator;
 import java.util.StringTokenizer;
 import java.util.TreeSet;
 import java.util.SortedSet;
 
+import fr.kbertet.util.BitSets;
 import fr.kbertet.util.ComparableSet;
+import fr.kbertet.util.Index;
 import fr.kbertet.dgraph.Node;
 import fr.kbertet.dgraph.DGraph;
 import fr.kbertet.dgraph.DAGraph;
-import fr.kbertet.dgraph.Edge;
 import fr.kbertet.context.Context;
 
 /**
@@ -494,75 +494,14 @@ public class Concept extends Node {
     /**
      * Computes the immediate successors of this component with the LOA algorithm.
      *
+     * Extents are computed on the bit sets of the context (see {@link Context#immediateSuccessorsLOA(TreeSet)}).
+     *
      * @param init context from which successor of this component are computed.
      *
      * @return immediate successors of this component.
      */
-     public ArrayList<TreeSet<Comparable>> immediateSuccessorsLOA(Context init) {
-        ArrayList<TreeSet<Comparable>> succB = new ArrayList();
-        TreeSet<Comparable> attributes = (TreeSet<Comparable>) init.getSet().clone();
-        attributes.removeAll(this.getSetA());
-
-        boolean add;
-        for (Comparable x : attributes) {
-            add = true;
-            Iterator it = succB.iterator();
-            while (it.hasNext()) {
-                TreeSet tX = (TreeSet) it.next();
-                TreeSet<Comparable> bx = (TreeSet<Comparable>) this.getSetA().clone();
-                bx.add(x);
-                TreeSet<Comparable> bX = (TreeSet<Comparable>) this.getSetA().clone();
-                bX.addAll(tX);
-                TreeSet<Comparable> bXx = (TreeSet<Comparable>) bX.clone();
-                bXx.add(x);
-                int cBx = count(init, bx);
-                int cBX = count(init, bX);
-                int cBXx = count(init, bXx);
-                if (cBx == cBX) { // Try to group tests by pairs.
-                    if (cBXx == cBx) {
-                        it.remove(); // Update present potential successor.
-                        TreeSet<Comparable> xX = new TreeSet();
-                        xX.addAll(tX);
-                        xX.add(x);
-                        succB.add(xX);
-                        add = false;
-                        break;
-                    }
-                }
-                if (cBx < cBX) {
-                    if (cBXx == cBx) {
-                        add = false;
-                        break;
-                    }
-                }
-                if (cBx > cBX) {
-                    if (cBXx == cBX) {
-                        it.remove();
-                    }
-                }
-            }
-            if (add) {
-                TreeSet<Comparable> t = new TreeSet();
-                t.add(x);
-                succB.add(new TreeSet(t));
-            }
-        }
-        for (TreeSet t : succB) {
-            t.addAll(this.getSetA());
-        }
-        return succB;
-    }
-
-    /**
-     * Returns the number of observations corresponding to the set of attributes in the init context.
-     *
-     * @param   init        initial context from which attributes are count.
-     * @param   attributes  attributes from which observations are counted.
-     *
-     * @return  number of observations corresponding to the set of attributes in init context.
-     */
-    private int count(Context init, TreeSet<Comparable> attributes) {
-        return init.getExtentNb(attributes);
+    public ArrayList<TreeSet<Comparable>> immediateSuccessorsLOA(Context init) {
+        return init.immediateSuccessorsLOA(this.getSetA());
     }
 
     /**
@@ -590,104 +529,41 @@ public class Concept extends Node {
      * @return  the list of immediate successors of this component.
      */
     public ArrayList<TreeSet<Comparable>> immediateSuccessors(ClosureSystem init) {
-        // Initialisation of the dependance graph when not initialised by method recursiveDiagramLattice
-        DGraph dependanceGraph = null;
-        dependanceGraph = new DGraph();
-        for (Comparable c : init.getSet()) {
-            dependanceGraph.addNode(new Node(c));
-        }
-        // computes newVal, the subset to be used to valuate every new dependance relation
-        // newVal = F\predecessors of F in the precedence graph of the closure system
-        // For a non reduced closure system, the precedence graph is not acyclic,
-        // and therefore strongly connected components have to be used.
+        // The dependance graph is restricted to the nodes of S\F: its valuations, and thus the precedence
+        // graph of the closure system, are only needed when the dependance graph is kept by a lattice
+        // (see ConceptLattice.immediateSuccessors)
         ComparableSet f = new ComparableSet(this.getSetA());
-        long start = System.currentTimeMillis();
-        System.out.print("Precedence graph... ");
-        DGraph prec = init.precedenceGraph();
-        System.out.println(System.currentTimeMillis() - start + "ms");
-        start = System.currentTimeMillis();
-        System.out.print("Srongly connected component... ");
-        DAGraph acyclPrec = prec.getStronglyConnectedComponent();
-        System.out.println(System.currentTimeMillis() - start + "ms");
-        ComparableSet newVal = new ComparableSet();
-        newVal.addAll(f);
-        for (Object x : f)  {
-            // computes nx, the strongly connected component containing x
-            Node nx = null;
-            for (Node cc : acyclPrec.getNodes()) {
-                TreeSet<Node> cC = (TreeSet<Node>) cc.getContent();
-                for (Node y : cC) {
-                    if (x.equals(y.getContent())) {
-                        nx = cc;
-                    }
-                }
-            }
-            // computes the minorants of nx in the acyclic graph
-            SortedSet<Node> ccMinNx = acyclPrec.minorants(nx);
-            // removes from newVal every minorants of nx
-            for (Node cc : ccMinNx) {
-                TreeSet<Node> cC = (TreeSet<Node>) cc.getContent();
-                for (Node y : cC) {
-                    newVal.remove(y.getContent());
-                }
-            }
-        }
-        // computes the node belonging in S\F
-        TreeSet<Node> n = new TreeSet<Node>();
-        for (Node in : dependanceGraph.getNodes()) {
-            if (!f.contains(in.getContent())) {
-                n.add(in);
+        Index index = init.getIndex();
+        DGraph delta = new DGraph();
+        Node[] n = new Node[index.size()];
+        for (Comparable c : init.getSet()) {
+            if (!f.contains(c)) {
+                Node node = new Node(c);
+                delta.addNode(node);
+                n[index.indexOf(c)] = node;
             }
         }
-        System.out.print("Dependance... ");
-        start = System.currentTimeMillis();
-        // computes the dependance relation between nodes in S\F
-        // and valuated this relation by the subset of S\F
-        TreeSet<Edge> e = new TreeSet<Edge>();
-        for (Node from : n) {
-            for (Node to : n) {
-               if (!from.equals(to)) {
-                // check if from is in dependance relation with to
-                // i.e. "from" belongs to the closure of "F+to"
-                ComparableSet fPlusTo = new ComparableSet(f);
-                fPlusTo.add(to.getContent());
-                fPlusTo = new ComparableSet(init.closure(fPlusTo));
-                if (fPlusTo.contains(from.getContent())) {
-                    // there is a dependance relation between from and to
-                    // search for an existing edge between from and to
-                    Edge ed = dependanceGraph.getEdge(from, to);
-                    if (ed == null) {
-                        ed = new Edge(from, to, new TreeSet<ComparableSet>());
-                        dependanceGraph.addEdge(ed);
-                    }
-                    e.add(ed);
-                    // check if F is a minimal set closed for dependance relation between from and to
-                    ((TreeSet<ComparableSet>) ed.getContent()).add(newVal);
-                    TreeSet<ComparableSet> valEd = new TreeSet<ComparableSet>((TreeSet<ComparableSet>) ed.getContent());
-                        for (ComparableSet x1 : valEd) {
-                            if (x1.containsAll(newVal) && !newVal.containsAll(x1)) {
-                                ((TreeSet<ComparableSet>) ed.getContent()).remove(x1);
-                            }
-                            if (!x1.containsAll(newVal) && newVal.containsAll(x1)) {
-                                ((TreeSet<ComparableSet>) ed.getContent()).remove(newVal);
-                            }
-                        }
+        // computes the dependance relation between nodes in S\F:
+        // "from" is in dependance relation with "to" when it belongs to the closure of "F+to"
+        long[] fPlusTo = index.bits(f);
+        long[] closure = new long[fPlusTo.length];
+        long[] scratch = new long[init.getScratchSize()];
+        for (int t = 0; t < n.length; t++) {
+            if (n[t] != null) {
+                BitSets.set(fPlusTo, t);
+                init.closure(fPlusTo, closure, scratch);
+                BitSets.clear(fPlusTo, t);
+                for (int from = BitSets.nextSetBit(closure, 0); from >= 0; from = BitSets.nextSetBit(closure, from + 1)) {
+                    if (from != t && n[from] != null) {
+                        delta.addEdge(n[from], n[t]);
                     }
                 }
             }
         }
-        System.out.println(System.currentTimeMillis() - start + "ms");
-        System.out.print("Subgraph... ");
-        start = System.currentTimeMillis();
-        // computes the dependance subgraph of the closed set F as the reduction
-        // of the dependance graph composed of nodes in S\A and edges of the dependance relation
-        DGraph sub = dependanceGraph.getSubgraphByNodes(n);
-        DGraph delta = sub.getSubgraphByEdges(e);
         // computes the sources of the CFC of the dependance subgraph
         // that corresponds to successors of the closed set F
         DAGraph cfc = delta.getStronglyConnectedComponent();
         SortedSet<Node> sccmin = cfc.getSinks();
-        System.out.println(System.currentTimeMillis() - start + "ms");
         ArrayList<TreeSet<Comparable>> immSucc = new ArrayList<TreeSet<Comparable>>();
         for (Node n1 : sccmin) {
             TreeSet s = new TreeSet(f);
@@ -11,16 +11,22 @@ package fr.kbertet.lattice;
  * it under the terms of CeCILL-B license.
  */
 
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
 import java.util.SortedSet;
 import java.util.TreeMap;
 import java.util.TreeSet;
 import java.util.Vector;
+import java.util.concurrent.ForkJoinPool;
 import java.io.BufferedWriter;
 import java.io.FileWriter;
 import java.io.IOException;
 
+import fr.kbertet.util.BitSets;
 import fr.kbertet.util.ComparableSet;
+import fr.kbertet.util.Index;
 import fr.kbertet.dgraph.DAGraph;
 import fr.kbertet.dgraph.DGraph;
 import fr.kbertet.dgraph.Edge;
@@ -717,9 +723,25 @@ public class ConceptLattice extends Lattice {
      * @return  a concept lattice
      */
     public static ConceptLattice completeLattice(ClosureSystem init) {
+        return completeLattice(init, NextClosure.getInstance());
+    }
+
+    /**
+     * Generates and returns the complete (i.e. transitively closed) closed set lattice of the
+     * specified closure system, whose closed sets are generated by the specified enumerator
+     * (see {@link ClosureEnumerator}).
+     *
+     * Then, all concepts are ordered by inclusion.
+     *
+     * @param   init        a closure system (an ImplicationalSystem or a Context)
+     * @param   enumerator  the algorithm enumerating closed sets
+     *
+     * @return  a concept lattice
+     */
+    public static ConceptLattice completeLattice(ClosureSystem init, ClosureEnumerator enumerator) {
         ConceptLattice lattice = new ConceptLattice();
-        // compute all the closed set with allClosures
-        Vector<Concept> allclosure = init.allClosures();
+        // compute all the closed set with the enumerator
+        Vector<Concept> allclosure = enumerator.allClosures(init);
         for (Concept cl : allclosure) {
             lattice.addNode(cl);
         }
@@ -736,6 +758,48 @@ public class ConceptLattice extends Lattice {
         return lattice;
     }
 
+    /**
+     * Generates and returns the Hasse diagram of the closed set lattice of the
+     * specified closure system, whose closed sets are generated by Next Closure.
+     *
+     * @param   init  a closure system (an ImplicationalSystem or a Context)
+     *
+     * @return  a concept lattice
+     */
+    public static ConceptLattice coverLattice(ClosureSystem init) {
+        return coverLattice(init, NextClosure.getInstance());
+    }
+
+    /**
+     * Generates and returns the Hasse diagram of the closed set lattice of the
+     * specified closure system, whose closed sets are generated by the specified enumerator
+     * (see {@link ClosureEnumerator}).
+     *
+     * Unlike method {@link #completeLattice(ClosureSystem, ClosureEnumerator)}, only the edges of the cover relation
+     * are computed, by the iPred algorithm (see {@link IPred}), so that neither the comparable pairs of closed sets
+     * nor a transitive reduction are needed. The dependance graph of the lattice isn't computed.
+     *
+     * @param   init        a closure system (an ImplicationalSystem or a Context)
+     * @param   enumerator  the algorithm enumerating closed sets
+     *
+     * @return  a concept lattice
+     */
+    public static ConceptLattice coverLattice(ClosureSystem init, ClosureEnumerator enumerator) {
+        ConceptLattice lattice = new ConceptLattice();
+        Vector<Concept> allclosure = enumerator.allClosures(init);
+        for (Concept cl : allclosure) {
+            lattice.addNode(cl);
+        }
+        // an edge corresponds to a cover between two closed sets
+        int[][] covers = IPred.getInstance().lowerCovers(init.getIndex(), allclosure);
+        for (int i = 0; i < covers.length; i++) {
+            for (int j : covers[i]) {
+                lattice.addEdge(allclosure.get(j), allclosure.get(i));
+            }
+        }
+        return lattice;
+    }
+
     /**
      * Generates and returns the Hasse diagram of the closed set lattice of the
      * specified closure system, that can be an implicational system (ImplicationalSystem) or a context.
@@ -771,7 +835,7 @@ public class ConceptLattice extends Lattice {
             Concept bot = new Concept(init.closure(new ComparableSet()), false);
             lattice.addNode(bot);
             // recursive genaration from the botom element with diagramLattice
-            lattice.recursiveDiagramLattice(bot, init);
+            lattice.recursiveDiagramLattice(bot, new Precedence(init));
             // minimalisation of edge's content to get only inclusion-minimal valuation for each edge
             /**for (Edge ed : lattice.dependanceGraph.getEdges()) {
                 TreeSet<ComparableSet> valEd = new TreeSet<ComparableSet>(((TreeSet<ComparableSet>)ed.getContent()));
@@ -783,6 +847,69 @@ public class ConceptLattice extends Lattice {
         return lattice;
     }
 
+    /**
+     * Returns the Hasse diagramme of the closed set lattice of the specified closure system,
+     * computing the immediate successors of concepts in parallel on the specified pool.
+     *
+     * The lattice is generated by frontiers: the immediate successors of all the concepts of a frontier are
+     * computed concurrently, and the concepts generated for the first time give the next frontier.
+     * Concepts are deduplicated by a concurrent index of their intents, and the valuations of the dependance graph
+     * are updated concurrently. The edges of each frontier are then added to the lattice, so that the generated lattice and
+     * dependance graph have the same concepts, edges and valuations as those computed by {@link #diagramLattice(ClosureSystem)}.
+     *
+     * The closure system must support concurrent invocations of method {@link ClosureSystem#closure(long[], long[], long[])}.
+     * When the specified pool is null, frontiers are computed sequentially.
+     *
+     * @param   init  a closure system (an ImplicationalSystem or a Context)
+     * @param   pool  a fork/join pool, or null
+     *
+     * @return  a concept lattice
+     */
+    public static ConceptLattice diagramLattice(ClosureSystem init, ForkJoinPool pool) {
+        DiagramGeneration generation = new DiagramGeneration(new Precedence(init));
+        ConceptLattice lattice = new ConceptLattice();
+        Concept bot = generation.bottom();
+        lattice.addNode(bot);
+        Concept[] frontier = new Concept[] {bot};
+        while (frontier.length > 0) {
+            Concept[][] successors = new Concept[frontier.length][];
+            if (pool == null) {
+                generation.successors(frontier, successors, 0, frontier.length);
+            } else {
+                pool.invoke(new SuccessorsTask(generation, frontier, successors, 0, frontier.length));
+            }
+            ArrayList<Concept> next = new ArrayList<Concept>();
+            for (int i = 0; i < frontier.length; i++) {
+                for (Concept c : successors[i]) {
+                    if (lattice.addNode(c)) {
+                        next.add(c);
+                    }
+                    lattice.addEdge(frontier[i], c);
+                }
+            }
+            frontier = next.toArray(new Concept[next.size()]);
+        }
+        lattice.setDependencyGraph(generation.dependencyGraph());
+        return lattice;
+    }
+
+    /**
+     * Returns the Hasse diagramme of the closed set lattice of the specified closure system,
+     * computing the immediate successors of concepts in parallel on a new pool.
+     *
+     * @param   init  a closure system (an ImplicationalSystem or a Context)
+     *
+     * @return  a concept lattice
+     */
+    public static ConceptLattice diagramLatticeParallel(ClosureSystem init) {
+        ForkJoinPool pool = new ForkJoinPool();
+        try {
+            return diagramLattice(init, pool);
+        } finally {
+            pool.shutdown();
+        }
+    }
+
     /**
      * Returns the Hasse diagramme of the closed set lattice of the specified closure system
      * issued from the specified concept.
@@ -801,19 +928,124 @@ public class ConceptLattice extends Lattice {
      * @param   init  a closure system
      */
     public void recursiveDiagramLattice(Concept n, ClosureSystem init) {
-        Vector<TreeSet<Comparable>> immSucc = this.immediateSuccessors(n, init);
-        for (TreeSet<Comparable> setX : immSucc) {
-            Concept c = new Concept(new TreeSet(setX), false);
-            Concept ns = (Concept) this.getNode(c);
-            if (ns != null)  {
-                // when ns already exists, addition of a new edge
-                this.addEdge(n, ns);
-            } else { // when ns don't already exists, addition of a new node and recursive treatment
-                this.addNode(c);
-                this.addEdge(n, c);
-                this.recursiveDiagramLattice(c, init);
+        this.recursiveDiagramLattice(n, new Precedence(init));
+    }
+
+    /**
+     * Returns the Hasse diagramme of the closed set lattice of the closure system
+     * of the specified precedence issued from the specified concept.
+     *
+     * The precedence relation of the closure system is shared by all the immediate successors computations.
+     * The depth-first traversal uses an explicit stack rather than the call stack, so that long chains
+     * of concepts do not overflow it.
+     *
+     * @param   n           a concept
+     * @param   precedence  the precedence relation of a closure system
+     */
+    public void recursiveDiagramLattice(Concept n, Precedence precedence) {
+        // the recursion is replaced by an explicit stack of the successors remaining to explore,
+        // so that the concepts are generated in the same depth-first order whatever the length of the chains
+        HashMap<TreeSet<Comparable>, Concept> concepts = this.intents();
+        ArrayDeque<Concept> nodes = new ArrayDeque<Concept>();
+        ArrayDeque<Iterator<TreeSet<Comparable>>> immSucc = new ArrayDeque<Iterator<TreeSet<Comparable>>>();
+        nodes.push(n);
+        immSucc.push(this.immediateSuccessors(n, precedence).iterator());
+        while (!nodes.isEmpty()) {
+            if (immSucc.peek().hasNext()) {
+                Concept c = this.addSuccessor(concepts, nodes.peek(), immSucc.peek().next());
+                if (c != null) {
+                    // when c don't already exists, treatment of its successors before the next ones
+                    nodes.push(c);
+                    immSucc.push(this.immediateSuccessors(c, precedence).iterator());
+                }
+            } else {
+                nodes.pop();
+                immSucc.pop();
+            }
+        }
+    }
+
+    /**
+     * Generates and returns the Hasse diagram of the closed set lattice of the
+     * specified closure system by a breadth-first traversal.
+     *
+     * Concepts are generated as by method {@link #diagramLattice(ClosureSystem)}, but the immediate
+     * successors of all the concepts of a given depth are computed before those of the next depth.
+     * The concepts whose successors remain to compute are kept in a queue by their number in the dense numbering
+     * of the lattice (see {@link #indexOf}): at most `2 * capacity` numbers are kept in memory, the others being
+     * written in temporary files, so that the memory used by the traversal besides the lattice itself is bounded.
+     * A number read back from a file gives its concept again without allocating its intent.
+     *
+     * @param   init      a closure system (an ImplicationalSystem or a Context)
+     * @param   capacity  the maximal number of concepts of the queue kept in memory at its head and at its tail
+     *
+     * @return  a concept lattice
+     *
+     * @throws  IOException  When an IOException occurs
+     */
+    public static ConceptLattice diagramLatticeBreadthFirst(ClosureSystem init, int capacity) throws IOException {
+        Precedence precedence = new Precedence(init);
+        ConceptLattice lattice = new ConceptLattice();
+        Concept bot = new Concept(init.closure(new ComparableSet()), false);
+        lattice.addNode(bot);
+        HashMap<TreeSet<Comparable>, Concept> concepts = lattice.intents();
+        FrontierQueue queue = new FrontierQueue(capacity);
+        try {
+            queue.add(lattice.indexOf(bot));
+            for (int number = queue.poll(); number >= 0; number = queue.poll()) {
+                Concept n = (Concept) lattice.getNodeByIndex(number);
+                for (TreeSet<Comparable> setX : lattice.immediateSuccessors(n, precedence)) {
+                    Concept c = lattice.addSuccessor(concepts, n, setX);
+                    if (c != null) {
+                        queue.add(lattice.indexOf(c));
+                    }
+                }
+            }
+        } finally {
+            queue.close();
+        }
+        return lattice;
+    }
+
+    /**
+     * Returns the concepts of this component defined only by their intent, indexed by their intent.
+     *
+     * @return  the concepts indexed by their intent
+     */
+    private HashMap<TreeSet<Comparable>, Concept> intents() {
+        HashMap<TreeSet<Comparable>, Concept> concepts = new HashMap<TreeSet<Comparable>, Concept>();
+        for (Node node : this.getNodes()) {
+            if (node instanceof Concept && ((Concept) node).hasSetA() && !((Concept) node).hasSetB()) {
+                concepts.put(((Concept) node).getSetA(), (Concept) node);
             }
         }
+        return concepts;
+    }
+
+    /**
+     * Adds an edge from the specified concept to the concept of the specified immediate successor,
+     * and adds this concept to this component when it does not already exist.
+     *
+     * @param   concepts  the concepts of this component indexed by their intent, updated by this method
+     * @param   n         a concept
+     * @param   setX      the intent of an immediate successor of n
+     *
+     * @return  the new concept, or null if the concept already exists
+     */
+    private Concept addSuccessor(HashMap<TreeSet<Comparable>, Concept> concepts, Concept n, TreeSet<Comparable> setX) {
+        ComparableSet intent = new ComparableSet(setX);
+        Concept ns = concepts.get(intent);
+        if (ns != null) {
+            // when ns already exists, addition of a new edge
+            this.addEdge(n, ns);
+            return null;
+        }
+        // when ns don't already exists, addition of a new node
+        Concept c = new Concept(intent, false);
+        concepts.put(c.getSetA(), c);
+        this.addNode(c);
+        this.addEdge(n, c);
+        return c;
     }
 
     /**
@@ -840,6 +1072,24 @@ public class ConceptLattice extends Lattice {
      * @return  a set of immediate successors
      */
     public Vector<TreeSet<Comparable>> immediateSuccessors(Node n, ClosureSystem init) {
+        return this.immediateSuccessors(n, new Precedence(init));
+    }
+
+    /**
+     * Returns the list of immediate successors of a given node of the lattice
+     * using the precedence relation of a closure system.
+     *
+     * The precedence graph, its strongly connected components and their minorants are given by
+     * the specified precedence, so that they are computed once for all the nodes of the lattice.
+     *
+     * @param   n           a node
+     * @param   precedence  the precedence relation of a closure system
+     *
+     * @return  a set of immediate successors
+     */
+    public Vector<TreeSet<Comparable>> immediateSuccessors(Node n, Precedence precedence) {
+        ClosureSystem init = precedence.getClosureSystem();
+        Index index = precedence.getIndex();
         // Initialisation of the dependance graph when not initialised by method recursiveDiagramLattice
         if (!this.hasDependencyGraph()) {
             DGraph graph = new DGraph();
@@ -853,70 +1103,44 @@ public class ConceptLattice extends Lattice {
         // For a non reduced closure system, the precedence graph is not acyclic,
         // and therefore strongly connected components have to be used.
         ComparableSet setF = new ComparableSet(((Concept) n).getSetA());
-        DGraph prec = init.precedenceGraph();
-        DAGraph acyclPrec = prec.getStronglyConnectedComponent();
-        ComparableSet newVal = new ComparableSet();
-        newVal.addAll(setF);
-        for (Object x : setF)  {
-            // computes nx, the strongly connected component containing x
-            Node nx = null;
-            for (Node cc : acyclPrec.getNodes()) {
-                TreeSet<Node> setCC = (TreeSet<Node>) cc.getContent();
-                for (Node y : setCC) {
-                    if (x.equals(y.getContent())) {
-                        nx = cc;
-                    }
-                }
-            }
-            // computes the minorants of nx in the acyclic graph
-            SortedSet<Node> ccMinNx = acyclPrec.minorants(nx);
-            // removes from newVal every minorants of nx
-            for (Node cc : ccMinNx) {
-                TreeSet<Node> setCC = (TreeSet<Node>) cc.getContent();
-                for (Node y : setCC) {
-                    newVal.remove(y.getContent());
-                }
-            }
-        }
+        ComparableSet newVal = precedence.valuation(setF);
         // computes the node belonging in S\F
         TreeSet<Node> nodes = new TreeSet<Node>();
+        Node[] byIndex = new Node[index.size()];
         for (Node in : this.getDependencyGraph().getNodes()) {
             if (!setF.contains(in.getContent())) {
                 nodes.add(in);
+                int i = index.indexOf((Comparable) in.getContent());
+                if (i >= 0) {
+                    byIndex[i] = in;
+                }
             }
         }
         // computes the dependance relation between nodes in S\F
-        // and valuated this relation by the subset of S\F
+        // and valuated this relation by the subset of S\F:
+        // "from" is in dependance relation with "to" when it belongs to the closure of "F+to"
+        long[] fPlusTo = index.bits(setF);
+        long[] closure = new long[fPlusTo.length];
+        long[] scratch = new long[init.getScratchSize()];
         TreeSet<Edge> edges = new TreeSet<Edge>();
-        for (Node from : nodes) {
-            for (Node to : nodes) {
-                if (!from.equals(to)) {
-                    // check if from is in dependance relation with to
-                    // i.e. "from" belongs to the closure of "F+to"
-                    ComparableSet fPlusTo = new ComparableSet(setF);
-                    fPlusTo.add(to.getContent());
-                    fPlusTo = new ComparableSet(init.closure(fPlusTo));
-                    if (fPlusTo.contains(from.getContent())) {
-                        // there is a dependance relation between from and to
-                        // search for an existing edge between from and to
-                        Edge ed = this.getDependencyGraph().getEdge(from, to);
-                        if (ed == null) {
-                            ed = new Edge(from, to, new TreeSet<ComparableSet>());
-                            this.getDependencyGraph().addEdge(ed);
-                        }
-                        edges.add(ed);
-                        // check if F is a minimal set closed for dependance relation between from and to
-                        ((TreeSet<ComparableSet>) ed.getContent()).add(newVal);
-                        TreeSet<ComparableSet> valEd = new TreeSet<ComparableSet>((TreeSet<ComparableSet>) ed.getContent());
-                        for (ComparableSet x1 : valEd) {
-                            if (x1.containsAll(newVal) && !newVal.containsAll(x1)) {
-                                ((TreeSet<ComparableSet>) ed.getContent()).remove(x1);
-                            }
-                            if (!x1.containsAll(newVal) && newVal.containsAll(x1)) {
-                                ((TreeSet<ComparableSet>) ed.getContent()).remove(newVal);
-                            }
-                        }
+        for (Node to : nodes) {
+            int t = index.indexOf((Comparable) to.getContent());
+            BitSets.set(fPlusTo, t);
+            init.closure(fPlusTo, closure, scratch);
+            BitSets.clear(fPlusTo, t);
+            for (int i = BitSets.nextSetBit(closure, 0); i >= 0; i = BitSets.nextSetBit(closure, i + 1)) {
+                Node from = byIndex[i];
+                if (from != null && i != t) {
+                    // there is a dependance relation between from and to
+                    // search for an existing edge between from and to
+                    Edge ed = this.getDependencyGraph().getEdge(from, to);
+                    if (ed == null) {
+                        ed = new Edge(from, to, new TreeSet<ComparableSet>());
+                        this.getDependencyGraph().addEdge(ed);
                     }
+                    edges.add(ed);
+                    // check if F is a minimal set closed for dependance relation between from and to
+                    addValuation((TreeSet<ComparableSet>) ed.getContent(), newVal);
                 }
             }
         }
@@ -940,6 +1164,26 @@ public class ConceptLattice extends Lattice {
        return immSucc;
     }
 
+    /**
+     * Adds the specified valuation to the valuations of an edge of the dependance graph,
+     * keeping only the inclusion-minimal valuations.
+     *
+     * @param   valuations  the valuations of an edge
+     * @param   newVal      a new valuation
+     */
+    static void addValuation(TreeSet<ComparableSet> valuations, ComparableSet newVal) {
+        valuations.add(newVal);
+        TreeSet<ComparableSet> valEd = new TreeSet<ComparableSet>(valuations);
+        for (ComparableSet x1 : valEd) {
+            if (x1.containsAll(newVal) && !newVal.containsAll(x1)) {
+                valuations.remove(x1);
+            }
+            if (!x1.containsAll(newVal) && newVal.containsAll(x1)) {
+                valuations.remove(newVal);
+            }
+        }
+    }
+
     /**
      * Save the description of this component in a file whose name is specified.
      *
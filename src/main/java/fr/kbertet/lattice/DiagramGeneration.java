@@ -0,0 +1,224 @@
+package fr.kbertet.lattice;
+
+/*
+ * DiagramGeneration.java
+ *
+ * Copyright: 2010-2014 Karell Bertet, France
+ *
+ * License: http://www.cecill.info/licences/Licence_CeCILL-B_V1-en.html CeCILL-B license
+ *
+ * This file is part of java-lattices, free package. You can redistribute it and/or modify
+ * it under the terms of CeCILL-B license.
+ */
+
+import java.util.ArrayList;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+
+import fr.kbertet.dgraph.DGraph;
+import fr.kbertet.dgraph.Edge;
+import fr.kbertet.dgraph.Node;
+import fr.kbertet.util.BitSets;
+import fr.kbertet.util.ComparableSet;
+import fr.kbertet.util.Index;
+
+/**
+ * This class gathers the data shared by the immediate successors computations of a concurrent
+ * generation of the Hasse diagram of a closed set lattice by Bordat's algorithm.
+ *
+ * Immediate successors of a closed set `F` are computed on packed bit sets: for each element `t` not in `F`,
+ * the closure `C(t)` of `F+t` is computed, and `C(t)` is an immediate successor of `F` when `t` belongs to the closure
+ * `C(x)` of each element `x` of `C(t)\F`. This is the case when `C(t)\F` is a minimal strongly connected component
+ * of the dependance graph of `F`, whose edges from `x` to `t` are given by the closures `C(t)`.
+ *
+ * Concepts are deduplicated by a concurrent index from their intent to the unique concept generated for it,
+ * and the valuations of the dependance graph are shared in a concurrent map, each valuation being updated under its own lock.
+ * Successors of distinct concepts can thus be computed by several threads.
+ *
+ * ![DiagramGeneration](DiagramGeneration.png)
+ *
+ * @uml DiagramGeneration.png
+ * !include resources/fr/kbertet/lattice/DiagramGeneration.iuml
+ *
+ * hide members
+ * show DiagramGeneration members
+ * class DiagramGeneration #LightCyan
+ * title DiagramGeneration UML graph
+ */
+final class DiagramGeneration {
+    /**
+     * The precedence relation of the closure system.
+     */
+    private final Precedence precedence;
+
+    /**
+     * The closure system.
+     */
+    private final ClosureSystem init;
+
+    /**
+     * The numbering of the elements of the closure system.
+     */
+    private final Index index;
+
+    /**
+     * The concepts already generated, indexed by their intent.
+     */
+    private final ConcurrentHashMap<ComparableSet, Concept> concepts;
+
+    /**
+     * The valuations of the edges of the dependance graph, indexed by `from * n + to`.
+     */
+    private final ConcurrentHashMap<Long, TreeSet<ComparableSet>> valuations;
+
+    /**
+     * Constructs the data of a generation.
+     *
+     * @param   precedence  the precedence relation of a closure system
+     */
+    DiagramGeneration(Precedence precedence) {
+        this.precedence = precedence;
+        this.init = precedence.getClosureSystem();
+        this.index = precedence.getIndex();
+        this.concepts = new ConcurrentHashMap<ComparableSet, Concept>();
+        this.valuations = new ConcurrentHashMap<Long, TreeSet<ComparableSet>>();
+    }
+
+    /**
+     * Returns the bottom concept of the lattice, the closure of the empty set.
+     *
+     * @return  the bottom concept
+     */
+    Concept bottom() {
+        return this.concept(new ComparableSet(this.init.closure(new ComparableSet())));
+    }
+
+    /**
+     * Computes the immediate successors of the concepts of a range of the specified frontier.
+     *
+     * @param   frontier    an array of concepts
+     * @param   successors  the array receiving the immediate successors of each concept
+     * @param   from        the first position of the range
+     * @param   to          the position following the range
+     */
+    void successors(Concept[] frontier, Concept[][] successors, int from, int to) {
+        long[] scratch = new long[this.init.getScratchSize()];
+        for (int i = from; i < to; i++) {
+            successors[i] = this.successors(frontier[i], scratch);
+        }
+    }
+
+    /**
+     * Returns the immediate successors of the specified concept.
+     *
+     * Dependance relations found between elements not belonging to the intent of the concept
+     * are valuated as by method {@link ConceptLattice#immediateSuccessors(Node, Precedence)}.
+     *
+     * @param   c        a concept
+     * @param   scratch  a working buffer for the closure system
+     *
+     * @return  the immediate successors
+     */
+    private Concept[] successors(Concept c, long[] scratch) {
+        ComparableSet setF = new ComparableSet(c.getSetA());
+        ComparableSet newVal = this.precedence.valuation(setF);
+        int n = this.index.size();
+        long[] f = this.index.bits(setF);
+        long[][] closures = new long[n][];
+        for (int t = 0; t < n; t++) {
+            if (!BitSets.get(f, t)) {
+                BitSets.set(f, t);
+                closures[t] = new long[f.length];
+                this.init.closure(f, closures[t], scratch);
+                BitSets.clear(f, t);
+            }
+        }
+        ArrayList<Concept> successors = new ArrayList<Concept>();
+        for (int t = 0; t < n; t++) {
+            if (closures[t] != null) {
+                boolean minimal = true;
+                int first = -1;
+                for (int x = BitSets.nextSetBit(closures[t], 0); x >= 0; x = BitSets.nextSetBit(closures[t], x + 1)) {
+                    if (!BitSets.get(f, x)) {
+                        if (x != t) {
+                            // x is in dependance relation with t
+                            this.addValuation((long) x * n + t, newVal);
+                        }
+                        minimal = minimal && BitSets.get(closures[x], t);
+                        if (first < 0) {
+                            first = x;
+                        }
+                    }
+                }
+                // the component of t is kept once, by its first element
+                if (minimal && first == t) {
+                    ComparableSet intent = new ComparableSet(setF);
+                    intent.addAll(this.index.elements(closures[t]));
+                    successors.add(this.concept(intent));
+                }
+            }
+        }
+        return successors.toArray(new Concept[successors.size()]);
+    }
+
+    /**
+     * Returns the dependance graph computed by this generation.
+     *
+     * @return  the dependance graph
+     */
+    DGraph dependencyGraph() {
+        DGraph graph = new DGraph();
+        int n = this.index.size();
+        Node[] nodes = new Node[n];
+        for (Comparable c : this.init.getSet()) {
+            Node node = new Node(c);
+            graph.addNode(node);
+            nodes[this.index.indexOf(c)] = node;
+        }
+        for (Map.Entry<Long, TreeSet<ComparableSet>> entry : this.valuations.entrySet()) {
+            long key = entry.getKey();
+            graph.addEdge(new Edge(nodes[(int) (key / n)], nodes[(int) (key % n)], entry.getValue()));
+        }
+        return graph;
+    }
+
+    /**
+     * Returns the unique concept of the specified intent, creating it when it has not yet been generated.
+     *
+     * @param   intent  a closed set
+     *
+     * @return  the concept
+     */
+    private Concept concept(ComparableSet intent) {
+        Concept concept = this.concepts.get(intent);
+        if (concept == null) {
+            Concept created = new Concept(intent, false);
+            concept = this.concepts.putIfAbsent(intent, created);
+            if (concept == null) {
+                concept = created;
+            }
+        }
+        return concept;
+    }
+
+    /**
+     * Adds a valuation to the specified edge of the dependance graph.
+     *
+     * @param   key     the key of the edge
+     * @param   newVal  the valuation
+     */
+    private void addValuation(long key, ComparableSet newVal) {
+        TreeSet<ComparableSet> valuation = this.valuations.get(key);
+        if (valuation == null) {
+            TreeSet<ComparableSet> created = new TreeSet<ComparableSet>();
+            valuation = this.valuations.putIfAbsent(key, created);
+            if (valuation == null) {
+                valuation = created;
+            }
+        }
+        synchronized (valuation) {
+            ConceptLattice.addValuation(valuation, newVal);
+        }
+    }
+}
@@ -0,0 +1,112 @@
+package fr.kbertet.lattice;
+
+/*
+ * DirectTask.java
+ *
+ * Copyright: 2010-2014 Karell Bertet, France
+ *
+ * License: http://www.cecill.info/licences/Licence_CeCILL-B_V1-en.html CeCILL-B license
+ *
+ * This file is part of java-lattices, free package. You can redistribute it and/or modify
+ * it under the terms of CeCILL-B license.
+ */
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * This class defines a task deriving the rules of a round of the direct treatment of an implicational system,
+ * in order to saturate an implicational system in parallel on a `ForkJoinPool`.
+ *
+ * The rules derived by the previous round are split into halves until a range is small enough,
+ * each range being combined with the rules of the implicational system by method
+ * {@link ImplicationalSystem#overlaps(Rule, Set, Set)}. The implicational system and the set of known
+ * rules are not modified during the computation of a task.
+ *
+ * ![DirectTask](DirectTask.png)
+ *
+ * @uml DirectTask.png
+ * !include resources/fr/kbertet/lattice/DirectTask.iuml
+ * !include resources/fr/kbertet/lattice/ImplicationalSystem.iuml
+ *
+ * hide members
+ * show DirectTask members
+ * class DirectTask #LightCyan
+ * title DirectTask UML graph
+ */
+final class DirectTask extends RecursiveTask<Set<Rule>> {
+    /**
+     * The serialization version of this class.
+     */
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * Maximal number of rules of a range combined without forking.
+     */
+    private static final int FORK_THRESHOLD = 64;
+
+    /**
+     * The implicational system.
+     */
+    private final ImplicationalSystem system;
+
+    /**
+     * The rules already derived.
+     */
+    private final Set<Rule> known;
+
+    /**
+     * The rules derived by the previous round.
+     */
+    private final List<Rule> frontier;
+
+    /**
+     * The first position of the range.
+     */
+    private final int from;
+
+    /**
+     * The position following the range.
+     */
+    private final int to;
+
+    /**
+     * Constructs a task combining the rules of the specified range with the rules of the implicational system.
+     *
+     * @param   system    the implicational system
+     * @param   known     the rules already derived
+     * @param   frontier  the rules derived by the previous round
+     * @param   from      the first position of the range
+     * @param   to        the position following the range
+     */
+    DirectTask(ImplicationalSystem system, Set<Rule> known, List<Rule> frontier, int from, int to) {
+        this.system = system;
+        this.known = known;
+        this.frontier = frontier;
+        this.from = from;
+        this.to = to;
+    }
+
+    /**
+     * Returns the rules derived from the range of this task.
+     *
+     * @return  the new derived rules
+     */
+    protected Set<Rule> compute() {
+        if (this.to - this.from <= FORK_THRESHOLD) {
+            Set<Rule> derived = new HashSet<Rule>();
+            for (int i = this.from; i < this.to; i++) {
+                this.system.overlaps(this.frontier.get(i), this.known, derived);
+            }
+            return derived;
+        }
+        int middle = (this.from + this.to) >>> 1;
+        DirectTask left = new DirectTask(this.system, this.known, this.frontier, this.from, middle);
+        left.fork();
+        Set<Rule> derived = new DirectTask(this.system, this.known, this.frontier, middle, this.to).compute();
+        derived.addAll(left.join());
+        return derived;
+    }
+}
@@ -0,0 +1,213 @@
+package fr.kbertet.lattice;
+
+/*
+ * FastCloseByOne.java
+ *
+ * Copyright: 2010-2014 Karell Bertet, France
+ *
+ * License: http://www.cecill.info/licences/Licence_CeCILL-B_V1-en.html CeCILL-B license
+ *
+ * This file is part of java-lattices, free package. You can redistribute it and/or modify
+ * it under the terms of CeCILL-B license.
+ */
+
+import java.util.ArrayList;
+import java.util.Vector;
+
+import fr.kbertet.util.BitSets;
+import fr.kbertet.util.Index;
+
+/**
+ * This class enumerates closed sets using the Close-by-One algorithm with failure-set pruning
+ * (FCbO, Outrata and Vychodil).
+ *
+ * Close-by-One explores the same tree of closed sets as the one decomposing the lectic search space
+ * (see {@link ClosureTask}): the children of a closed set `B` explored from rank `y` are the closures `D`
+ * of `B + {j}`, for each element `j` of rank greater or equal to `y` not belonging to `B`, such that `D`
+ * contains no new element of rank lower than the rank of `j`. Unlike Next Closure, each closed set is reached
+ * from its parent without backtracking through the lectic order.
+ *
+ * Moreover, when the closure `D` of `B + {j}` fails the canonicity test, `D` is kept as the failure set of `j`
+ * and given to the descendants of `B`. A descendant `B'` of `B` skips element `j` without computing any closure
+ * when the failure set of `j` contains a new element, not in `B'`, of rank lower than `j`:
+ * the closure of `B' + {j}` contains the failure set, and would then also fail the canonicity test.
+ * The children of a closed set are explored once all of them are known (breadth-first at each level),
+ * so that they all benefit from the failures of their siblings.
+ *
+ * Closures are computed on packed bit sets by method {@link ClosureSystem#closure(long[], long[], long[])}.
+ *
+ * ![FastCloseByOne](FastCloseByOne.png)
+ *
+ * @uml FastCloseByOne.png
+ * !include resources/fr/kbertet/lattice/ClosureEnumerator.iuml
+ * !include resources/fr/kbertet/lattice/FastCloseByOne.iuml
+ *
+ * hide members
+ * show FastCloseByOne members
+ * class FastCloseByOne #LightCyan
+ * title FastCloseByOne UML graph
+ */
+public final class FastCloseByOne implements ClosureEnumerator {
+    /**
+     * This class is not designed to be publicly instantiated.
+     */
+    private FastCloseByOne() {
+    }
+
+    /**
+     * The singleton instance.
+     */
+    private static FastCloseByOne instance = null;
+
+    /**
+     * Return the singleton instance of this class.
+     *
+     * @return  the singleton instance
+     */
+    public static FastCloseByOne getInstance() {
+        if (instance == null) {
+            instance = new FastCloseByOne();
+        }
+        return instance;
+    }
+
+    /**
+     * Returns all the closed sets of the specified closure system.
+     *
+     * Closed sets are returned in the depth-first order of the Close-by-One tree,
+     * starting with the closure of the empty set.
+     * This treatment is performed in O(c|S|Cl) where S is the initial set of elements,
+     * c is the number of closed sets and Cl is the closure computation complexity,
+     * failure-set pruning avoiding most of the closure computations.
+     *
+     * @param   init  a closure system (an ImplicationalSystem or a Context)
+     *
+     * @return  all the closed sets
+     */
+    public Vector<Concept> allClosures(ClosureSystem init) {
+        final Vector<Concept> allclosure = new Vector<Concept>();
+        this.enumerate(init, new ClosureVisitor() {
+            /**
+             * Adds the specified closed set to the vector.
+             *
+             * @param   closure  a closed set
+             *
+             * @return  true
+             */
+            public boolean visit(Concept closure) {
+                return allclosure.add(closure);
+            }
+        });
+        return allclosure;
+    }
+
+    /**
+     * Enumerates the closed sets of the specified closure system in the depth-first order of the
+     * Close-by-One tree.
+     *
+     * Besides the closed sets kept by the visitor, memory is bounded by the closed sets and failure sets
+     * of the current branch and of the pending siblings of its nodes.
+     *
+     * @param   init     a closure system (an ImplicationalSystem or a Context)
+     * @param   visitor  the visitor receiving closed sets
+     */
+    public void enumerate(ClosureSystem init, ClosureVisitor visitor) {
+        Generation generation = new Generation(init, visitor);
+        long[] set = new long[BitSets.words(generation.order.length)];
+        init.closure(set, set, generation.scratch);
+        generation.generate(set, 0, new long[generation.order.length][]);
+    }
+
+    /**
+     * This class gathers the data shared by the recursive calls of an enumeration.
+     */
+    private static final class Generation {
+        /**
+         * The closure system.
+         */
+        private final ClosureSystem init;
+
+        /**
+         * The numbering of the elements.
+         */
+        private final Index index;
+
+        /**
+         * The indexes of elements in the lectic order.
+         */
+        private final int[] order;
+
+        /**
+         * The rank of each index in the lectic order.
+         */
+        private final int[] rank;
+
+        /**
+         * A working buffer for the closure operator.
+         */
+        private final long[] scratch;
+
+        /**
+         * The visitor receiving closed sets.
+         */
+        private final ClosureVisitor visitor;
+
+        /**
+         * Constructs a new enumeration of the closed sets of the specified closure system.
+         *
+         * @param   init     a closure system
+         * @param   visitor  the visitor receiving closed sets
+         */
+        Generation(ClosureSystem init, ClosureVisitor visitor) {
+            this.init = init;
+            this.index = init.getIndex();
+            this.order = init.lecticOrder(this.index);
+            this.rank = ClosureSystem.ranks(this.order);
+            this.scratch = new long[init.getScratchSize()];
+            this.visitor = visitor;
+        }
+
+        /**
+         * Adds the specified closed set, and recursively generates its descendants from the specified rank.
+         *
+         * @param   set       a closed set
+         * @param   from      the first rank explored
+         * @param   failures  the failure set of each rank, or null
+         *
+         * @return  false if the visitor stopped the enumeration
+         */
+        boolean generate(long[] set, int from, long[][] failures) {
+            if (!this.visitor.visit(new Concept(this.index.elements(set), false))) {
+                return false;
+            }
+            int n = BitSets.words(this.order.length);
+            long[][] childFailures = new long[this.order.length][];
+            ArrayList<long[]> children = new ArrayList<long[]>();
+            ArrayList<Integer> ranks = new ArrayList<Integer>();
+            long[] candidate = new long[n];
+            for (int j = from; j < this.order.length; j++) {
+                int i = this.order[j];
+                childFailures[j] = failures[j];
+                if (!BitSets.get(set, i)
+                    && (failures[j] == null || ClosureSystem.isCanonical(set, failures[j], this.rank, j, n))) {
+                    BitSets.copy(set, candidate, n);
+                    BitSets.set(candidate, i);
+                    long[] next = new long[n];
+                    this.init.closure(candidate, next, this.scratch);
+                    if (ClosureSystem.isCanonical(candidate, next, this.rank, j, n)) {
+                        children.add(next);
+                        ranks.add(j + 1);
+                    } else {
+                        childFailures[j] = next;
+                    }
+                }
+            }
+            for (int c = 0; c < children.size(); c++) {
+                if (!this.generate(children.get(c), ranks.get(c), childFailures)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+}
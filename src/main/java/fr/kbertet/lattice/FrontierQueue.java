@@ -0,0 +1,275 @@
+package fr.kbertet.lattice;
+
+/*
+ * FrontierQueue.java
+ *
+ * Copyright: 2010-2014 Karell Bertet, France
+ *
+ * License: http://www.cecill.info/licences/Licence_CeCILL-B_V1-en.html CeCILL-B license
+ *
+ * This file is part of java-lattices, free package. You can redistribute it and/or modify
+ * it under the terms of CeCILL-B license.
+ */
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayDeque;
+
+/**
+ * This class gives a first-in first-out queue of node numbers whose number of entries kept in memory is bounded,
+ * in order to generate a lattice by a breadth-first traversal with a predictable memory.
+ *
+ * Entries are numbers of the dense numbering of the generated graph (see {@link fr.kbertet.dgraph.DGraph#indexOf}),
+ * and not references to its nodes, so that an entry written in a temporary file holds no object in memory and an entry
+ * read back allocates none: the node is found again from its number. Entries are stored in two arrays of at most
+ * `capacity` integers, grown on demand, one for the head of the queue and one for its tail. When the tail is full,
+ * it is written in a temporary file as a chunk, chunks being read back in the order they were written once the head
+ * is empty.
+ * Temporary files are removed when read, or by method {@link #close}.
+ *
+ * ![FrontierQueue](FrontierQueue.png)
+ *
+ * @uml FrontierQueue.png
+ * !include resources/fr/kbertet/lattice/FrontierQueue.iuml
+ *
+ * hide members
+ * show FrontierQueue members
+ * class FrontierQueue #LightCyan
+ * title FrontierQueue UML graph
+ */
+final class FrontierQueue {
+    /**
+     * The initial length of the arrays of entries.
+     */
+    private static final int INITIAL_LENGTH = 16;
+
+    /**
+     * The maximal number of entries kept at the head and at the tail of the queue.
+     */
+    private final int capacity;
+
+    /**
+     * The entries at the head of the queue, as a circular buffer.
+     */
+    private int[] head;
+
+    /**
+     * The position of the first entry of the head.
+     */
+    private int first;
+
+    /**
+     * The number of entries of the head.
+     */
+    private int headSize;
+
+    /**
+     * The entries at the tail of the queue.
+     */
+    private int[] tail;
+
+    /**
+     * The number of entries of the tail.
+     */
+    private int tailSize;
+
+    /**
+     * The chunks of entries written in temporary files, in the order of the queue.
+     */
+    private final ArrayDeque<File> chunks;
+
+    /**
+     * The number of entries of the queue.
+     */
+    private long size;
+
+    /**
+     * The number of chunks written since the creation of the queue.
+     */
+    private int spills;
+
+    /**
+     * Constructs an empty queue.
+     *
+     * @param   capacity  the maximal number of entries kept at the head and at the tail of the queue
+     */
+    FrontierQueue(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("capacity must be positive");
+        }
+        this.capacity = capacity;
+        this.head = new int[Math.min(capacity, INITIAL_LENGTH)];
+        this.tail = new int[Math.min(capacity, INITIAL_LENGTH)];
+        this.chunks = new ArrayDeque<File>();
+        this.first = 0;
+        this.headSize = 0;
+        this.tailSize = 0;
+        this.size = 0;
+        this.spills = 0;
+    }
+
+    /**
+     * Returns the number of chunks written since the creation of this component.
+     *
+     * @return  the number of chunks
+     */
+    int spills() {
+        return this.spills;
+    }
+
+    /**
+     * Returns the number of entries of this component.
+     *
+     * @return  the number of entries
+     */
+    long size() {
+        return this.size;
+    }
+
+    /**
+     * Returns the number of entries of this component kept in memory, the others being in temporary files.
+     *
+     * @return  the number of entries kept in memory, at most twice the capacity
+     */
+    int resident() {
+        return this.headSize + this.tailSize;
+    }
+
+    /**
+     * Adds an entry at the end of this component.
+     *
+     * @param   number  a non negative node number
+     *
+     * @throws  IOException  When an IOException occurs
+     */
+    void add(int number) throws IOException {
+        if (this.chunks.isEmpty() && this.tailSize == 0 && this.headSize < this.capacity) {
+            if (this.headSize == this.head.length) {
+                this.head = this.unroll(2L * this.head.length);
+            }
+            this.head[(this.first + this.headSize) % this.head.length] = number;
+            this.headSize++;
+        } else {
+            if (this.tailSize == this.tail.length) {
+                int[] array = new int[(int) Math.min(this.capacity, 2L * this.tail.length)];
+                System.arraycopy(this.tail, 0, array, 0, this.tailSize);
+                this.tail = array;
+            }
+            this.tail[this.tailSize] = number;
+            this.tailSize++;
+            if (this.tailSize == this.capacity) {
+                this.spill();
+            }
+        }
+        this.size++;
+    }
+
+    /**
+     * Removes and returns the first entry of this component.
+     *
+     * @return  the first entry, or -1 if this component is empty
+     *
+     * @throws  IOException  When an IOException occurs
+     */
+    int poll() throws IOException {
+        if (this.headSize == 0) {
+            this.first = 0;
+            if (!this.chunks.isEmpty()) {
+                this.load(this.chunks.poll());
+            } else {
+                if (this.head.length < this.tailSize) {
+                    this.head = new int[this.tailSize];
+                }
+                System.arraycopy(this.tail, 0, this.head, 0, this.tailSize);
+                this.headSize = this.tailSize;
+                this.tailSize = 0;
+            }
+            if (this.headSize == 0) {
+                return -1;
+            }
+        }
+        int number = this.head[this.first];
+        this.first = (this.first + 1) % this.head.length;
+        this.headSize--;
+        this.size--;
+        return number;
+    }
+
+    /**
+     * Removes the temporary files of the chunks not yet read.
+     */
+    void close() {
+        for (File file : this.chunks) {
+            file.delete();
+        }
+        this.chunks.clear();
+    }
+
+    /**
+     * Writes the tail of this component in a new chunk.
+     *
+     * @throws  IOException  When an IOException occurs
+     */
+    private void spill() throws IOException {
+        File file = File.createTempFile("frontier", ".bin");
+        file.deleteOnExit();
+        DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file)));
+        try {
+            out.writeInt(this.tailSize);
+            for (int k = 0; k < this.tailSize; k++) {
+                out.writeInt(this.tail[k]);
+            }
+        } finally {
+            out.close();
+        }
+        this.chunks.add(file);
+        this.tailSize = 0;
+        this.spills++;
+    }
+
+    /**
+     * Reads a chunk in the empty head of this component, and removes its file.
+     *
+     * @param   file  the file of the chunk
+     *
+     * @throws  IOException  When an IOException occurs
+     */
+    private void load(File file) throws IOException {
+        DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)));
+        try {
+            this.headSize = in.readInt();
+            if (this.head.length < this.headSize) {
+                this.head = new int[this.headSize];
+            }
+            for (int k = 0; k < this.headSize; k++) {
+                this.head[k] = in.readInt();
+            }
+        } finally {
+            in.close();
+            file.delete();
+        }
+    }
+
+    /**
+     * Returns a new array containing the entries of the head in their order from its beginning,
+     * and sets the position of the first entry to `0`.
+     *
+     * @param   length  the wanted length, bounded by the capacity
+     *
+     * @return  the new array
+     */
+    private int[] unroll(long length) {
+        int[] array = new int[(int) Math.min(this.capacity, length)];
+        for (int k = 0; k < this.headSize; k++) {
+            array[k] = this.head[(this.first + k) % this.head.length];
+        }
+        this.first = 0;
+        return array;
+    }
+}
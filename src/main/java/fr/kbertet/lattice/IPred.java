@@ -0,0 +1,166 @@
+package fr.kbertet.lattice;
+
+/*
+ * IPred.java
+ *
+ * Copyright: 2010-2014 Karell Bertet, France
+ *
+ * License: http://www.cecill.info/licences/Licence_CeCILL-B_V1-en.html CeCILL-B license
+ *
+ * This file is part of java-lattices, free package. You can redistribute it and/or modify
+ * it under the terms of CeCILL-B license.
+ */
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+
+import fr.kbertet.util.BitSets;
+import fr.kbertet.util.Index;
+
+/**
+ * This class computes the cover relation of a family of closed sets ordered by inclusion,
+ * i.e. the edges of the Hasse diagram of their lattice, using the iPred algorithm
+ * of Baixeries, Szathmary, Valtchev and Godin.
+ *
+ * Closed sets are treated by increasing cardinality, which is a linear extension of the inclusion order.
+ * The border is the set of closed sets already treated that have no upper cover yet. The lower covers of a closed set
+ * `C` are among the intersections of `C` with the closed sets of the border, and such an intersection `D` is
+ * a lower cover of `C` when no element of `C\D` belongs to the set of faces `Delta(D)`, where
+ * `Delta(D)` is the union of the sets `E\D` for the upper covers `E` of `D` already found.
+ *
+ * The family must be closed under intersection, as the family of all the closed sets of a closure system.
+ * Sets are encoded as packed bit sets, so that the memory used is proportional to the number of closed sets
+ * and of cover edges, instead of the number of comparable pairs.
+ *
+ * ![IPred](IPred.png)
+ *
+ * @uml IPred.png
+ * !include resources/fr/kbertet/lattice/IPred.iuml
+ *
+ * hide members
+ * show IPred members
+ * class IPred #LightCyan
+ * title IPred UML graph
+ */
+public final class IPred {
+    /**
+     * This class is not designed to be publicly instantiated.
+     */
+    private IPred() {
+    }
+
+    /**
+     * The singleton instance.
+     */
+    private static IPred instance = null;
+
+    /**
+     * Return the singleton instance of this class.
+     *
+     * @return  the singleton instance
+     */
+    public static IPred getInstance() {
+        if (instance == null) {
+            instance = new IPred();
+        }
+        return instance;
+    }
+
+    /**
+     * Returns the lower covers of each closed set of the specified family.
+     *
+     * @param   index     the numbering of the elements of the closed sets
+     * @param   closures  a family of closed sets closed under intersection, without duplicates
+     *
+     * @return  the positions in the family of the lower covers of the closed set of each position
+     */
+    public int[][] lowerCovers(Index index, List<Concept> closures) {
+        int size = closures.size();
+        int words = BitSets.words(index.size());
+        long[][] sets = new long[size][];
+        HashMap<BitSet, Integer> positions = new HashMap<BitSet, Integer>();
+        for (int i = 0; i < size; i++) {
+            sets[i] = Arrays.copyOf(index.bits(closures.get(i).getSetA()), words);
+            positions.put(BitSet.valueOf(sets[i]), i);
+        }
+        int[] order = this.byCardinality(sets, index.size());
+        int[][] covers = new int[size][];
+        long[][] delta = new long[size][];
+        int[] border = new int[size];
+        int borderSize = 0;
+        // the last closed set for which each position was a candidate, and the positions having an upper cover
+        int[] candidate = new int[size];
+        boolean[] covered = new boolean[size];
+        Arrays.fill(candidate, -1);
+        int[] candidates = new int[size];
+        long[] intersection = new long[words];
+        for (int k = 0; k < size; k++) {
+            int i = order[k];
+            long[] set = sets[i];
+            int candidatesSize = 0;
+            for (int b = 0; b < borderSize; b++) {
+                BitSets.copy(set, intersection, words);
+                BitSets.and(intersection, sets[border[b]], words);
+                Integer j = positions.get(BitSet.valueOf(intersection));
+                if (j != null && candidate[j] != i) {
+                    candidate[j] = i;
+                    candidates[candidatesSize++] = j;
+                }
+            }
+            int coversSize = 0;
+            for (int c = 0; c < candidatesSize; c++) {
+                int j = candidates[c];
+                if (delta[j] == null || BitSets.andCardinality(delta[j], set, words) == 0) {
+                    // j is a lower cover of i: its faces are updated, and it leaves the border
+                    candidates[coversSize++] = j;
+                    if (delta[j] == null) {
+                        delta[j] = new long[words];
+                    }
+                    for (int e = BitSets.nextSetBit(set, 0); e >= 0; e = BitSets.nextSetBit(set, e + 1)) {
+                        if (!BitSets.get(sets[j], e)) {
+                            BitSets.set(delta[j], e);
+                        }
+                    }
+                    covered[j] = true;
+                }
+            }
+            covers[i] = Arrays.copyOf(candidates, coversSize);
+            int kept = 0;
+            for (int b = 0; b < borderSize; b++) {
+                if (!covered[border[b]]) {
+                    border[kept++] = border[b];
+                }
+            }
+            borderSize = kept;
+            border[borderSize++] = i;
+        }
+        return covers;
+    }
+
+    /**
+     * Returns the positions of the specified bit sets sorted by increasing cardinality.
+     *
+     * @param   sets  packed bit sets
+     * @param   max   the maximal cardinality of a bit set
+     *
+     * @return  the sorted positions
+     */
+    private int[] byCardinality(long[][] sets, int max) {
+        int[] cardinality = new int[sets.length];
+        int[] start = new int[max + 2];
+        for (int i = 0; i < sets.length; i++) {
+            cardinality[i] = BitSets.cardinality(sets[i], sets[i].length);
+            start[cardinality[i] + 1]++;
+        }
+        for (int c = 1; c < start.length; c++) {
+            start[c] += start[c - 1];
+        }
+        int[] order = new int[sets.length];
+        for (int i = 0; i < sets.length; i++) {
+            order[start[cardinality[i]]++] = i;
+        }
+        return order;
+    }
+}
@@ -11,12 +11,18 @@ package fr.kbertet.lattice;
  * it under the terms of CeCILL-B license.
  */
 
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
 import java.util.StringTokenizer;
 import java.util.TreeMap;
 import java.util.SortedSet;
 import java.util.TreeSet;
+import java.util.concurrent.ForkJoinPool;
 
 import java.io.BufferedReader;
 import java.io.BufferedWriter;
@@ -24,7 +30,9 @@ import java.io.FileReader;
 import java.io.FileWriter;
 import java.io.IOException;
 
+import fr.kbertet.util.BitSets;
 import fr.kbertet.util.ComparableSet;
+import fr.kbertet.util.Index;
 import fr.kbertet.lattice.io.ImplicationalSystemWriterFactory;
 import fr.kbertet.lattice.io.ImplicationalSystemWriterText;
 import fr.kbertet.lattice.io.ImplicationalSystemReaderFactory;
@@ -94,6 +102,43 @@ public class ImplicationalSystem extends ClosureSystem {
      */
     private TreeSet<Comparable> set;
 
+    /**
+     * The rules whose premise contains each element.
+     */
+    private TreeMap<Comparable, TreeSet<Rule>> premiseIndex;
+
+    /**
+     * The rules whose conclusion contains each element.
+     */
+    private TreeMap<Comparable, TreeSet<Rule>> conclusionIndex;
+
+    /**
+     * A dense numbering of elements, built on demand for bit set closures.
+     */
+    private Index index;
+
+    /**
+     * The packed bit set of the premise of each rule, built on demand for bit set closures.
+     *
+     * A null value indicates that the encoding of rules has to be recomputed.
+     */
+    private volatile long[][] premises;
+
+    /**
+     * The packed bit set of the conclusion of each rule, built on demand for bit set closures.
+     */
+    private long[][] conclusions;
+
+    /**
+     * The LinClosure operator of the encoded rules, built on demand for bit set closures.
+     */
+    private LinClosure linClosure;
+
+    /**
+     * The rules in the order of their encoding, built on demand for bit set closures.
+     */
+    private Rule[] encodedRules;
+
     /* --------------- CONSTRUCTORS -----------*/
 
     /**
@@ -111,9 +156,12 @@ public class ImplicationalSystem extends ClosureSystem {
     public ImplicationalSystem(Collection<Rule> sigma) {
         this.sigma = new TreeSet<Rule>(sigma);
         this.set = new TreeSet<Comparable>();
+        this.premiseIndex = new TreeMap<Comparable, TreeSet<Rule>>();
+        this.conclusionIndex = new TreeMap<Comparable, TreeSet<Rule>>();
         for (Rule rule : this.sigma) {
             set.addAll(rule.getPremise());
             set.addAll(rule.getConclusion());
+            this.indexRule(rule);
         }
     }
 
@@ -127,6 +175,8 @@ public class ImplicationalSystem extends ClosureSystem {
     public ImplicationalSystem(ImplicationalSystem is) {
         this.sigma = new TreeSet<Rule>(is.getRules());
         this.set = new TreeSet<Comparable>(is.getSet());
+        this.premiseIndex = copy(is.premiseIndex);
+        this.conclusionIndex = copy(is.conclusionIndex);
     }
 
     /**
@@ -164,6 +214,9 @@ public class ImplicationalSystem extends ClosureSystem {
     public ImplicationalSystem init() {
         this.sigma = new TreeSet<Rule>();
         this.set = new TreeSet<Comparable>();
+        this.premiseIndex = new TreeMap<Comparable, TreeSet<Rule>>();
+        this.conclusionIndex = new TreeMap<Comparable, TreeSet<Rule>>();
+        this.premises = null;
         return this;
     }
 
@@ -245,6 +298,150 @@ public class ImplicationalSystem extends ClosureSystem {
         return this.sigma.size();
     }
 
+    /**
+     * Returns the set of rules whose premise contains the specified element.
+     *
+     * This set is maintained by the modification methods of this component, and is returned in O(log |S|).
+     *
+     * @param   e  an element
+     *
+     * @return  the rules whose premise contains the element
+     */
+    public SortedSet<Rule> getRulesWithPremise(Comparable e) {
+        return rules(this.premiseIndex, e);
+    }
+
+    /**
+     * Returns the set of rules whose conclusion contains the specified element.
+     *
+     * This set is maintained by the modification methods of this component, and is returned in O(log |S|).
+     *
+     * @param   e  an element
+     *
+     * @return  the rules whose conclusion contains the element
+     */
+    public SortedSet<Rule> getRulesWithConclusion(Comparable e) {
+        return rules(this.conclusionIndex, e);
+    }
+
+    /**
+     * Returns an unmodifiable view of the rules associated to the specified element by the specified index.
+     *
+     * @param   index  an index of rules
+     * @param   e      an element
+     *
+     * @return  the rules associated to the element
+     */
+    private static SortedSet<Rule> rules(TreeMap<Comparable, TreeSet<Rule>> index, Comparable e) {
+        TreeSet<Rule> rules = index.get(e);
+        if (rules == null) {
+            return Collections.unmodifiableSortedSet(new TreeSet<Rule>());
+        }
+        return Collections.unmodifiableSortedSet((SortedSet<Rule>) rules);
+    }
+
+    /**
+     * Returns the rules whose premise contains all the elements of the specified set.
+     *
+     * Candidate rules are those of the smallest premise index among elements of the set.
+     * When the set is empty, all rules are returned.
+     *
+     * @param   x  a set of elements
+     *
+     * @return  a new set of rules
+     */
+    private TreeSet<Rule> rulesWithPremiseContaining(TreeSet<Comparable> x) {
+        if (x.isEmpty()) {
+            return new TreeSet<Rule>(this.sigma);
+        }
+        SortedSet<Rule> candidates = null;
+        for (Comparable e : x) {
+            SortedSet<Rule> rules = this.getRulesWithPremise(e);
+            if (candidates == null || rules.size() < candidates.size()) {
+                candidates = rules;
+            }
+        }
+        TreeSet<Rule> result = new TreeSet<Rule>();
+        for (Rule rule : candidates) {
+            if (rule.getPremise().containsAll(x)) {
+                result.add(rule);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Adds the specified rule to the premise and conclusion indexes.
+     *
+     * @param   rule  a rule
+     */
+    private void indexRule(Rule rule) {
+        index(this.premiseIndex, rule.getPremise(), rule);
+        index(this.conclusionIndex, rule.getConclusion(), rule);
+    }
+
+    /**
+     * Removes the specified rule from the premise and conclusion indexes.
+     *
+     * @param   rule  a rule
+     */
+    private void unindexRule(Rule rule) {
+        unindex(this.premiseIndex, rule.getPremise(), rule);
+        unindex(this.conclusionIndex, rule.getConclusion(), rule);
+    }
+
+    /**
+     * Associates the specified rule to each of the specified elements in the specified index.
+     *
+     * @param   index     an index of rules
+     * @param   elements  a set of elements
+     * @param   rule      a rule
+     */
+    private static void index(TreeMap<Comparable, TreeSet<Rule>> index, TreeSet<Comparable> elements, Rule rule) {
+        for (Comparable e : elements) {
+            TreeSet<Rule> rules = index.get(e);
+            if (rules == null) {
+                rules = new TreeSet<Rule>();
+                index.put(e, rules);
+            }
+            rules.add(rule);
+        }
+    }
+
+    /**
+     * Dissociates the specified rule from each of the specified elements in the specified index.
+     *
+     * @param   index     an index of rules
+     * @param   elements  a set of elements
+     * @param   rule      a rule
+     */
+    private static void unindex(TreeMap<Comparable, TreeSet<Rule>> index, TreeSet<Comparable> elements, Rule rule) {
+        for (Comparable e : elements) {
+            TreeSet<Rule> rules = index.get(e);
+            if (rules != null) {
+                rules.remove(rule);
+                if (rules.isEmpty()) {
+                    index.remove(e);
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns a copy of the specified index of rules.
+     *
+     * @param   index  an index of rules
+     *
+     * @return  a copy of the index
+     */
+    private static TreeMap<Comparable, TreeSet<Rule>> copy(TreeMap<Comparable, TreeSet<Rule>> index) {
+        TreeMap<Comparable, TreeSet<Rule>> copy = new TreeMap<Comparable, TreeSet<Rule>>();
+        for (Comparable e : index.keySet()) {
+            copy.put(e, new TreeSet<Rule>(index.get(e)));
+        }
+        return copy;
+    }
+
     /* ------------- MODIFICATION METHODS ------------------ */
 
     /**
@@ -255,6 +452,7 @@ public class ImplicationalSystem extends ClosureSystem {
      * @return  true if the element has been added to `S`
      */
     public boolean addElement(Comparable e) {
+        this.premises = null;
         return set.add(e);
     }
 
@@ -267,6 +465,7 @@ public class ImplicationalSystem extends ClosureSystem {
      */
     public boolean addAllElements(TreeSet<Comparable> x) {
         boolean all = true;
+        this.premises = null;
         for (Comparable e : x) {
             if (!set.add(e)) {
                 all = false;
@@ -285,8 +484,11 @@ public class ImplicationalSystem extends ClosureSystem {
     public boolean deleteElement(Comparable e) {
         if (set.contains(e)) {
             set.remove(e);
-            ImplicationalSystem save = new ImplicationalSystem(this);
-            for (Rule rule: save.sigma) {
+            this.premises = null;
+            // only rules containing the element are modified
+            TreeSet<Rule> rules = new TreeSet<Rule>(this.getRulesWithPremise(e));
+            rules.addAll(this.getRulesWithConclusion(e));
+            for (Rule rule : rules) {
                 Rule newR = new Rule(rule.getPremise(), rule.getConclusion());
                 newR.removeFromPremise(e);
                 newR.removeFromConclusion(e);
@@ -346,6 +548,8 @@ public class ImplicationalSystem extends ClosureSystem {
      */
     public boolean addRule(Rule rule) {
         if (!this.containsRule(rule) && this.checkRuleElements(rule)) {
+            this.premises = null;
+            this.indexRule(rule);
             return this.sigma.add(rule);
         }
         return false;
@@ -359,7 +563,12 @@ public class ImplicationalSystem extends ClosureSystem {
      * @return  true if the rule has been removed
      */
     public boolean removeRule(Rule rule) {
-        return this.sigma.remove(rule);
+        this.premises = null;
+        if (this.sigma.remove(rule)) {
+            this.unindexRule(rule);
+            return true;
+        }
+        return false;
     }
 
     /**
@@ -713,7 +922,9 @@ public class ImplicationalSystem extends ClosureSystem {
     /**
      * Replaces rules of same premise by only one rule.
      *
-     * This treatment is performed in O(|sigma|^2|S|)
+     * Rules having the same premise as a given rule are searched among the rules indexed by an element
+     * of its premise. This treatment is performed in O(|sigma|r|S|) where r is the maximal number of rules
+     * indexed by an element.
      *
      * @return  the difference between the number of rules of this component before and after this treatment
      */
@@ -722,10 +933,10 @@ public class ImplicationalSystem extends ClosureSystem {
         for (Rule rule1 : save.sigma) {
             if (this.containsRule(rule1)) {
                 ComparableSet newConc = new ComparableSet();
-                for (Rule rule2 : save.sigma) {
-                    if (this.containsRule(rule2) && !rule1.equals(rule2) && rule1.getPremise().equals(rule2.getPremise())) {
+                for (Rule rule2 : this.rulesWithPremiseContaining(rule1.getPremise())) {
+                    if (!rule1.equals(rule2) && rule1.getPremise().equals(rule2.getPremise())) {
                         newConc.addAll(rule2.getConclusion());
-                        boolean res = this.sigma.remove(rule2);
+                        this.removeRule(rule2);
                     }
                 }
                 if (newConc.size() > 0) {
@@ -767,7 +978,9 @@ public class ImplicationalSystem extends ClosureSystem {
      * The unary form of this componant is first computed: if two rules have the
      * same unary conclusion, the rule with the inclusion-maximal premise is deleted.
      *
-     * Then, the left-minimal treatment is performed in O(|sigma|^2|S|))
+     * Then, rules having the same conclusion as a given rule are searched among the rules indexed by
+     * its conclusion, and the left-minimal treatment is performed in O(|sigma|r|S|)) where r is the
+     * maximal number of rules indexed by an element.
      *
      * @return  the difference between the number of rules of this component before and after this treatment
      */
@@ -775,11 +988,15 @@ public class ImplicationalSystem extends ClosureSystem {
         this.makeUnary();
         ImplicationalSystem save = new ImplicationalSystem(this);
         for (Rule rule1 : save.sigma) {
-            for (Rule rule2 : save.sigma) {
+            SortedSet<Rule> rules = save.sigma;
+            if (!rule1.getConclusion().isEmpty()) {
+                rules = save.getRulesWithConclusion(rule1.getConclusion().first());
+            }
+            for (Rule rule2 : rules) {
                 if (!rule1.equals(rule2)
                     && rule2.getPremise().containsAll(rule1.getPremise())
                     && rule1.getConclusion().equals(rule2.getConclusion())) {
-                    this.sigma.remove(rule2);
+                    this.removeRule(rule2);
                 }
             }
         }
@@ -799,40 +1016,126 @@ public class ImplicationalSystem extends ClosureSystem {
      * This treatment is performed in O(d|S|), where d  corresponds to the number of rules
      * that have to be added by the direct treatment, that can be exponential in the worst case.
      *
+     * The saturation is semi-naive: each round only combines the rules derived by the previous round
+     * with the rules of this component, the candidates being found by the premise and conclusion indexes,
+     * and derived rules are checked for duplicates in a hash set.
+     *
      * @return  the difference between the number of rules of this component before and after this treatment
      */
     public int makeDirect() {
+        return this.saturate(null);
+    }
+
+    /**
+     * Makes this component a compact and direct ImplicationalSystem, deriving new rules in parallel on the specified pool.
+     *
+     * Each round of the saturation of {@link #makeDirect()} partitions the rules derived by the previous round
+     * between tasks of the pool (see {@link DirectTask}). The result is the same as the one of {@link #makeDirect()}.
+     *
+     * @param   pool  a fork/join pool
+     *
+     * @return  the difference between the number of rules of this component before and after this treatment
+     */
+    public int makeDirect(ForkJoinPool pool) {
+        return this.saturate(pool);
+    }
+
+    /**
+     * Makes this component a compact and direct ImplicationalSystem, deriving new rules in parallel on all available processors.
+     *
+     * @return  the difference between the number of rules of this component before and after this treatment
+     */
+    public int makeDirectParallel() {
+        ForkJoinPool pool = new ForkJoinPool();
+        try {
+            return this.makeDirect(pool);
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * Saturates this component by the direct treatment, sequentially when the specified pool is null.
+     *
+     * @param   pool  a fork/join pool, or null
+     *
+     * @return  the difference between the number of rules of this component before and after this treatment
+     */
+    private int saturate(ForkJoinPool pool) {
         this.makeUnary();
         this.makeProper();
         int s = this.sizeRules();
-        boolean ok = true;
-        while (ok) {
-            ImplicationalSystem save = new ImplicationalSystem(this);
-            for (Rule rule1 : save.sigma) {
-                for (Rule rule2 : save.sigma) {
-                    if (!rule1.equals(rule2) && !rule1.getPremise().containsAll(rule2.getConclusion())) {
-                        ComparableSet  c = new ComparableSet(rule2.getPremise());
-                        c.removeAll(rule1.getConclusion());
-                        c.addAll(rule1.getPremise());
-                        if (!c.containsAll(rule2.getPremise())) {
-                            Rule newR  = new Rule(c, rule2.getConclusion());
-                            // new_rule.addAllToPremise (rule1.getPremise());
-                            // new_rule.addAllToPremise (rule2.getPremise());
-                            // new_rule.removeAllFromPremise(rule1.getConclusion());
-                            // new_rule.addAllToConclusion(rule2.getConclusion() );
-                            this.addRule(newR);
-                        }
-                    }
+        HashSet<Rule> known = new HashSet<Rule>(this.sigma);
+        List<Rule> frontier = new ArrayList<Rule>(this.sigma);
+        while (!frontier.isEmpty()) {
+            Set<Rule> derived;
+            if (pool == null) {
+                derived = new HashSet<Rule>();
+                for (Rule rule : frontier) {
+                    this.overlaps(rule, known, derived);
                 }
+            } else {
+                derived = pool.invoke(new DirectTask(this, known, frontier, 0, frontier.size()));
             }
-            if (this.sizeRules() == save.sizeRules()) {
-                ok = false;
+            // the rules of this component are only modified between two rounds
+            frontier = new ArrayList<Rule>(derived);
+            for (Rule rule : frontier) {
+                known.add(rule);
+                this.addRule(rule);
             }
         }
         this.makeCompact();
         return s - this.sizeRules();
     }
 
+    /**
+     * Adds to the specified set the rules derived by the direct treatment from the specified rule
+     * combined with a rule of this component, in both orders, that are not already known.
+     *
+     * This component and the known rules are only read, so that this method can be called from several threads.
+     *
+     * @param   rule     a unary and proper rule
+     * @param   known    the rules already derived
+     * @param   derived  the set receiving the new derived rules
+     */
+    void overlaps(Rule rule, Set<Rule> known, Set<Rule> derived) {
+        // rule as rule1: the premise of rule2 has to meet the conclusion of rule
+        for (Comparable b : rule.getConclusion()) {
+            for (Rule rule2 : this.getRulesWithPremise(b)) {
+                overlap(rule, rule2, known, derived);
+            }
+        }
+        // rule as rule2: the conclusion of rule1 has to meet the premise of rule
+        for (Comparable a : rule.getPremise()) {
+            for (Rule rule1 : this.getRulesWithConclusion(a)) {
+                overlap(rule1, rule, known, derived);
+            }
+        }
+    }
+
+    /**
+     * Adds to the specified set the rule derived from the two specified rules by the direct treatment, if any,
+     * when it is not already known.
+     *
+     * @param   rule1    a rule whose conclusion is used in the premise of rule2
+     * @param   rule2    a rule
+     * @param   known    the rules already derived
+     * @param   derived  the set receiving the new derived rule
+     */
+    private static void overlap(Rule rule1, Rule rule2, Set<Rule> known, Set<Rule> derived) {
+        if (!rule1.equals(rule2) && !rule1.getPremise().containsAll(rule2.getConclusion())) {
+            ComparableSet c = new ComparableSet(rule2.getPremise());
+            c.removeAll(rule1.getConclusion());
+            c.addAll(rule1.getPremise());
+            if (!c.containsAll(rule2.getPremise())) {
+                Rule rule = new Rule(c, rule2.getConclusion());
+                if (!known.contains(rule)) {
+                    derived.add(rule);
+                }
+            }
+        }
+    }
+
     /**
      * Makes this component a minimum and proper ImplicationalSystem.
      *
@@ -840,21 +1143,68 @@ public class ImplicationalSystem extends ClosureSystem {
      * even if this rule is suppressed.
      *
      * This treatment is performed in O(|sigma||S|cl) where O(cl) is the
-     * computation of a closure.
+     * computation of a closure. Rules are suppressed by masking them in method
+     * {@link #closure(long[], long[], long[], long[])}, without copying this component.
      *
      * @return  the difference between the number of rules of this component before and after this treatment
      */
     public int makeMinimum() {
+        return this.makeMinimum(null);
+    }
+
+    /**
+     * Makes this component a minimum and proper ImplicationalSystem, testing rules in parallel on the specified pool.
+     *
+     * A rule that is not redundant in this component remains non redundant once other rules are deleted.
+     * Therefore, the redundancy of each rule is first tested in parallel against this component,
+     * and only the redundant rules are tested again in their order, against this component without the rules
+     * already deleted. The result is the same as the one of {@link #makeMinimum()}.
+     *
+     * @param   pool  a fork/join pool, or null to test rules sequentially
+     *
+     * @return  the difference between the number of rules of this component before and after this treatment
+     */
+    public int makeMinimum(ForkJoinPool pool) {
         this.makeRightMaximal();
-        ImplicationalSystem save = new ImplicationalSystem(this);
-        for (Rule rule : save.sigma) {
-            ImplicationalSystem epsilon = new ImplicationalSystem(this);
-            epsilon.removeRule(rule);
-            if (epsilon.closure(rule.getPremise()).equals(this.closure(rule.getPremise()))) {
-                this.removeRule(rule);
+        int s = this.sizeRules();
+        long[][] premise = this.encode();
+        long[][] conclusion = this.conclusions;
+        Rule[] rules = this.encodedRules;
+        int n = BitSets.words(this.index.size());
+        long[][] candidates = null;
+        if (pool != null) {
+            candidates = this.premiseClosures(null, pool);
+        }
+        long[] removed = new long[BitSets.words(premise.length)];
+        long[] closure = new long[n];
+        long[] scratch = new long[this.getScratchSize()];
+        for (int r = 0; r < premise.length; r++) {
+            if (candidates == null || BitSets.isSubset(conclusion[r], candidates[r], n)) {
+                BitSets.set(removed, r);
+                this.closure(premise[r], closure, scratch, removed);
+                if (!BitSets.isSubset(conclusion[r], closure, n)) {
+                    BitSets.clear(removed, r);
+                }
             }
         }
-        return save.sizeRules() - this.sizeRules();
+        for (int r = BitSets.nextSetBit(removed, 0); r >= 0; r = BitSets.nextSetBit(removed, r + 1)) {
+            this.removeRule(rules[r]);
+        }
+        return s - this.sizeRules();
+    }
+
+    /**
+     * Makes this component a minimum and proper ImplicationalSystem, testing rules in parallel on all available processors.
+     *
+     * @return  the difference between the number of rules of this component before and after this treatment
+     */
+    public int makeMinimumParallel() {
+        ForkJoinPool pool = new ForkJoinPool();
+        try {
+            return this.makeMinimum(pool);
+        } finally {
+            pool.shutdown();
+        }
     }
 
     /**
@@ -884,23 +1234,54 @@ public class ImplicationalSystem extends ClosureSystem {
      * Conclusion of each rule is first replaced by its closure.
      * Then, premise of each rule r is replaced by its closure in ImplicationalSystem \ rule.
      * This treatment is performed in (|Sigma||S|cl) where O(cl) is the
-     * computation of a closure.
+     * computation of a closure. Closures without a rule are computed by masking the rule in method
+     * {@link #closure(long[], long[], long[], long[])}, without copying this component.
      *
      * @return  the difference between the number of rules of this component before and after this treatment
      */
     public int makeCanonicalBasis() {
-        this.makeMinimum();
-        ImplicationalSystem save = new ImplicationalSystem(this);
-        for (Rule rule : save.sigma) {
-            ImplicationalSystem epsilon = new ImplicationalSystem(this);
-            epsilon.removeRule(rule);
-            Rule tmp = new Rule(epsilon.closure(rule.getPremise()), rule.getConclusion());
-            if (!rule.equals(tmp)) {
-                this.replaceRule(rule, tmp);
+        return this.makeCanonicalBasis(null);
+    }
+
+    /**
+     * Replace this component by the canonical basis, computing closures in parallel on the specified pool.
+     *
+     * Once this component is minimum, replacing the premise of a rule by its closure without the rule
+     * does not modify the closure of the other premises. Therefore, the closures of all the premises are
+     * computed in parallel against the minimum basis, before premises are replaced.
+     *
+     * @param   pool  a fork/join pool, or null to compute closures sequentially
+     *
+     * @return  the difference between the number of rules of this component before and after this treatment
+     */
+    public int makeCanonicalBasis(ForkJoinPool pool) {
+        this.makeMinimum(pool);
+        int s = this.sizeRules();
+        long[][] closures = this.premiseClosures(null, pool);
+        Rule[] rules = this.encodedRules;
+        Index elements = this.index;
+        for (int r = 0; r < rules.length; r++) {
+            Rule tmp = new Rule(elements.elements(closures[r]), rules[r].getConclusion());
+            if (!rules[r].equals(tmp)) {
+                this.replaceRule(rules[r], tmp);
             }
         }
         this.makeProper();
-        return save.sizeRules() - this.sizeRules();
+        return s - this.sizeRules();
+    }
+
+    /**
+     * Replace this component by the canonical basis, computing closures in parallel on all available processors.
+     *
+     * @return  the difference between the number of rules of this component before and after this treatment
+     */
+    public int makeCanonicalBasisParallel() {
+        ForkJoinPool pool = new ForkJoinPool();
+        try {
+            return this.makeCanonicalBasis(pool);
+        } finally {
+            pool.shutdown();
+        }
     }
 
     /* --------------- METHODS BASED ON GRAPH ------------ */
@@ -927,8 +1308,8 @@ public class ImplicationalSystem extends ClosureSystem {
             nodeCreated.put(x, n);
         }
         // an edge is added from b to a when there exists a rule X+a -> b or a -> b
-        for (Rule rule : tmp.getRules()) {
-            for (Object a : rule.getPremise()) {
+        for (Comparable a : tmp.getSet()) {
+            for (Rule rule : tmp.getRulesWithPremise(a)) {
                 ComparableSet diff = new ComparableSet(rule.getPremise());
                 diff.remove(a);
                 Node from = nodeCreated.get(rule.getConclusion().first());
@@ -1044,32 +1425,215 @@ public class ImplicationalSystem extends ClosureSystem {
      * Builds the closure of a set X of indexed elements.
      *
      * The closure is initialised with X. The closure is incremented with
-     * the conclusion of each rule whose premise is included in it.
-     * Iterations over the rules are performed until no new element has to be added
-     * in the closure.
-     *
-     * For direct ImplicationalSystem, only one iteration is needed, and the treatment is
-     * performed in O(|Sigma||S|).
+     * the conclusion of each rule whose premise is included in it,
+     * until no new element has to be added in the closure.
      *
-     * For non direct ImplicationalSystem, at most |S| iterations are needed, and this tratment
-     * is performed in O(|Sigma||S|^2).
+     * This treatment is the LinClosure algorithm of Beeri and Bernstein, performed by
+     * method {@link #closure(long[], long[], long[])} in O(|S|+|Sigma|+s) where s is the total size
+     * of the premises, once rules have been encoded after a modification of this component.
      *
      * @param   x  a TreeSet of indexed elements
      *
      * @return  the closure of X for this component
      */
     public TreeSet<Comparable> closure(TreeSet<Comparable> x) {
-        TreeSet<Comparable> oldES = new TreeSet<Comparable>();
-        // all the attributes are in their own closure
-        TreeSet<Comparable> newES = new TreeSet<Comparable>(x);
-        do {
-            oldES.addAll(newES);
-            for (Rule rule : this.sigma) {
-                if (newES.containsAll(rule.getPremise()) || rule.getPremise().isEmpty()) {
-                    newES.addAll(rule.getConclusion());
+        this.encode();
+        Index elements = this.index;
+        long[] bits = elements.bits(x);
+        this.closure(bits, bits, new long[this.getScratchSize()]);
+        // elements not belonging to S are kept in their own closure
+        TreeSet<Comparable> closure = new TreeSet<Comparable>(x);
+        closure.addAll(elements.elements(bits));
+        return closure;
+    }
+
+    /**
+     * Builds the closure of a set X of indexed elements in this component without the specified rule.
+     *
+     * This treatment is performed by method {@link #closure(long[], long[], long[], long[])} without copying
+     * this component.
+     *
+     * @param   x         a TreeSet of indexed elements
+     * @param   excluded  the rule to be skipped
+     *
+     * @return  the closure of X for this component without the rule
+     */
+    public TreeSet<Comparable> closure(TreeSet<Comparable> x, Rule excluded) {
+        this.encode();
+        Index elements = this.index;
+        long[] bits = elements.bits(x);
+        long[] mask = new long[BitSets.words(this.encodedRules.length)];
+        int r = this.indexOfRule(excluded);
+        if (r >= 0) {
+            mask = BitSets.set(mask, r);
+        }
+        this.closure(bits, bits, new long[this.getScratchSize()], mask);
+        TreeSet<Comparable> closure = new TreeSet<Comparable>(x);
+        closure.addAll(elements.elements(bits));
+        return closure;
+    }
+
+    /**
+     * Returns the number of the specified rule used by method {@link #closure(long[], long[], long[], long[])}.
+     *
+     * Rules are numbered following their order, and numbers are recomputed after a modification of this component.
+     *
+     * @param   rule  a rule
+     *
+     * @return  the number of the rule, or -1 if it does not belong to this component
+     */
+    public int indexOfRule(Rule rule) {
+        this.encode();
+        int r = Arrays.binarySearch(this.encodedRules, rule);
+        if (r < 0) {
+            return -1;
+        }
+        return r;
+    }
+
+    /**
+     * Returns the closure of the premise of each rule in this component without this rule and the specified rules.
+     *
+     * Closures are computed sequentially when the specified pool is null, and by tasks of the pool
+     * (see {@link PremiseClosureTask}) otherwise, this component being only read.
+     *
+     * @param   excluded  the packed bit set of the numbers of the skipped rules, or null
+     * @param   pool      a fork/join pool, or null
+     *
+     * @return  the packed bit set of the closure of the premise of each rule, in the order of their numbers
+     */
+    long[][] premiseClosures(long[] excluded, ForkJoinPool pool) {
+        long[][] premise = this.encode();
+        long[][] closures = new long[premise.length][];
+        if (pool == null) {
+            this.premiseClosures(excluded, closures, 0, premise.length);
+        } else {
+            pool.invoke(new PremiseClosureTask(this, excluded, closures, 0, premise.length));
+        }
+        return closures;
+    }
+
+    /**
+     * Computes the closure of the premise of each rule of the specified range in this component
+     * without this rule and the specified rules.
+     *
+     * @param   excluded  the packed bit set of the numbers of the skipped rules, or null
+     * @param   closures  the array receiving the closures
+     * @param   from      the first number of the range
+     * @param   to        the number following the range
+     */
+    void premiseClosures(long[] excluded, long[][] closures, int from, int to) {
+        long[][] premise = this.encode();
+        int n = BitSets.words(this.index.size());
+        long[] scratch = new long[this.getScratchSize()];
+        long[] mask = new long[BitSets.words(premise.length)];
+        if (excluded != null) {
+            BitSets.copy(excluded, mask, mask.length);
+        }
+        for (int r = from; r < to; r++) {
+            boolean skipped = BitSets.get(mask, r);
+            BitSets.set(mask, r);
+            closures[r] = new long[n];
+            this.closure(premise[r], closures[r], scratch, mask);
+            if (!skipped) {
+                BitSets.clear(mask, r);
+            }
+        }
+    }
+
+    /**
+     * Returns the numbering of elements used by method {@link #closure(long[], long[], long[])}.
+     *
+     * The numbering follows the order of elements, and is recomputed after a modification of this component.
+     *
+     * @return  the numbering of elements
+     */
+    @Override
+    public Index getIndex() {
+        this.encode();
+        return this.index;
+    }
+
+    /**
+     * Returns the number of words of the buffer used by method {@link #closure(long[], long[], long[])}:
+     * a counter for each rule, and a stack of element indexes.
+     *
+     * @return  the number of words of the scratch buffer
+     */
+    @Override
+    public int getScratchSize() {
+        this.encode();
+        return this.linClosure.getScratchSize();
+    }
+
+    /**
+     * Computes the closure of a packed bit set of element indexes.
+     *
+     * This treatment is the LinClosure algorithm of Beeri and Bernstein: `scratch` stores, for each rule,
+     * the number of elements of its premise not yet in the closure, followed by a stack of elements added
+     * to the closure whose rules have not been updated. Popping an element decrements the counter of
+     * the rules whose premise contains it, and a rule whose counter reaches zero adds its conclusion.
+     * Therefore, each rule is visited once per element of its premise, and this treatment is performed in
+     * O(|S|+|Sigma|+s) where s is the total size of the premises, without any allocation.
+     *
+     * @param   in       the bit set whose closure is computed
+     * @param   out      the bit set receiving the closure
+     * @param   scratch  a buffer of at least {@link #getScratchSize} words
+     */
+    @Override
+    public void closure(long[] in, long[] out, long[] scratch) {
+        this.closure(in, out, scratch, null);
+    }
+
+    /**
+     * Computes the closure of a packed bit set of element indexes, skipping the specified rules.
+     *
+     * Rules are numbered by method {@link #indexOfRule}, and the rules whose number belongs to the packed bit set
+     * `excluded` are not used, so that the closure of a set in this component without some rules is computed
+     * without copying this component. This treatment is the LinClosure algorithm of method
+     * {@link #closure(long[], long[], long[])}, and can be called from several threads with distinct buffers.
+     *
+     * @param   in        the bit set whose closure is computed
+     * @param   out       the bit set receiving the closure
+     * @param   scratch   a buffer of at least {@link #getScratchSize} words
+     * @param   excluded  the packed bit set of the numbers of the skipped rules, or null
+     */
+    public void closure(long[] in, long[] out, long[] scratch, long[] excluded) {
+        this.encode();
+        this.linClosure.closure(in, out, scratch, excluded);
+    }
+
+    /**
+     * Encodes elements and rules of this component as packed bit sets when they have been modified.
+     *
+     * @return  the packed bit set of the premise of each rule
+     */
+    private long[][] encode() {
+        long[][] premise = this.premises;
+        if (premise == null) {
+            synchronized (this) {
+                premise = this.premises;
+                if (premise == null) {
+                    Index elements = new Index();
+                    for (Comparable e : this.set) {
+                        elements.add(e);
+                    }
+                    premise = new long[this.sigma.size()][];
+                    long[][] conclusion = new long[this.sigma.size()][];
+                    int r = 0;
+                    for (Rule rule : this.sigma) {
+                        premise[r] = elements.bits(rule.getPremise());
+                        conclusion[r] = elements.bits(rule.getConclusion());
+                        r++;
+                    }
+                    this.index = elements;
+                    this.conclusions = conclusion;
+                    this.linClosure = new LinClosure(elements.size(), premise, conclusion);
+                    this.encodedRules = this.sigma.toArray(new Rule[premise.length]);
+                    this.premises = premise;
                 }
             }
-        } while (!oldES.equals(newES));
-        return newES;
+        }
+        return premise;
     }
 }
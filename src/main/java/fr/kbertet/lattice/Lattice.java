@@ -24,6 +24,7 @@ import fr.kbertet.dgraph.DAGraph;
 import fr.kbertet.dgraph.DGraph;
 import fr.kbertet.dgraph.Edge;
 import fr.kbertet.dgraph.Node;
+import fr.kbertet.dgraph.OrderIndex;
 
 /**
  * This class extends class {@link fr.kbertet.dgraph.DAGraph} to provide specific methods to manipulate a lattice.
@@ -133,6 +134,7 @@ public class Lattice extends DAGraph {
     * A lattice is a DAG if there exists a meet for each pair of node,
     * and a unique maximal node.
     *
+    * Meets are computed using a single index of the order of this component (see {@link OrderIndex}).
     * This treatment is performed in O(n^3), where n is the number of nodes.
     *
     * @return  the truth value for this property
@@ -141,9 +143,10 @@ public class Lattice extends DAGraph {
         if (!this.isAcyclic()) {
             return false;
         }
+        OrderIndex order = new OrderIndex(this);
         for (Node x : this.getNodes()) {
             for (Node y : this.getNodes()) {
-                if (this.meet(x, y) == null) {
+                if (this.bound(x, y, false, order) == null) {
                     return false;
                 }
             }
@@ -296,19 +299,7 @@ public class Lattice extends DAGraph {
      * @return  the node which is at the meet of the nodes or null if it does not exist
      */
     public Node meet(Node x, Node y) {
-        SortedSet<Node> xMinorants = this.minorants(x);
-        xMinorants.add(x);
-
-        SortedSet<Node> yMinorants = this.minorants(y);
-        yMinorants.add(y);
-
-        xMinorants.retainAll(yMinorants);
-        DAGraph graph = this.getSubgraphByNodes(xMinorants);
-        TreeSet<Node> meet = new TreeSet<Node>(graph.max());
-        if (meet.size() == 1) {
-            return meet.first();
-        }
-        return null;
+        return this.bound(x, y, false);
     }
 
     /**
@@ -320,19 +311,105 @@ public class Lattice extends DAGraph {
      * @return  the node which is at the join of the nodes or null if it does not exist
      */
     public Node join(Node x, Node y) {
-        SortedSet<Node> xMajorants = this.majorants(x);
-        xMajorants.add(x);
+        return this.bound(x, y, true);
+    }
+
+    /**
+     * Returns the least common majorant or the greatest common minorant of the two specified nodes if it exists.
+     *
+     * Common majorants (or minorants) are computed by two traversals. Since they are closed upward (or downward),
+     * a common majorant is minimal (or a common minorant is maximal) when none of its predecessors
+     * (or successors) is a common one, and the bound exists when it is the only one.
+     * This treatment is performed in O((n+m) log n).
+     *
+     * @param   x      the first node
+     * @param   y      the second node
+     * @param   upper  true for the least common majorant, false for the greatest common minorant
+     *
+     * @return  the bound, or null if it does not exist
+     */
+    private Node bound(Node x, Node y, boolean upper) {
+        if (!this.containsNode(x) || !this.containsNode(y)) {
+            return null;
+        }
+        SortedSet<Node> bounds = this.minorants(x);
+        SortedSet<Node> yBounds = this.minorants(y);
+        if (upper) {
+            bounds = this.majorants(x);
+            yBounds = this.majorants(y);
+        }
+        bounds.add(x);
+        yBounds.add(y);
+        bounds.retainAll(yBounds);
+        Node bound = null;
+        for (Node z : bounds) {
+            SortedSet<Node> neighbours = this.getSuccessorNodes(z);
+            if (upper) {
+                neighbours = this.getPredecessorNodes(z);
+            }
+            boolean extremal = true;
+            for (Node w : neighbours) {
+                extremal = extremal && (w.compareTo(z) == 0 || !bounds.contains(w));
+            }
+            if (extremal) {
+                if (bound != null) {
+                    return null;
+                }
+                bound = z;
+            }
+        }
+        return bound;
+    }
 
-        SortedSet<Node> yMajorants = this.majorants(y);
-        yMajorants.add(y);
+    /**
+     * Returns the least common majorant or the greatest common minorant of the two specified nodes if it exists,
+     * nodes being compared using the specified index of the order of this component.
+     *
+     * A first pass over the nodes keeps the last common bound found beyond the previously kept one,
+     * and a second pass checks that each common bound is below the kept one.
+     * This treatment is performed in O(n) comparisons.
+     *
+     * @param   x      the first node
+     * @param   y      the second node
+     * @param   upper  true for the least common majorant, false for the greatest common minorant
+     * @param   order  the index of the order of this component
+     *
+     * @return  the bound, or null if it does not exist
+     */
+    private Node bound(Node x, Node y, boolean upper, OrderIndex order) {
+        Node bound = null;
+        for (int i = 0; i < this.sizeNodes(); i++) {
+            Node z = this.getNodeByIndex(i);
+            if (precedes(order, z, x, upper) && precedes(order, z, y, upper) && (bound == null || precedes(order, bound, z, upper))) {
+                bound = z;
+            }
+        }
+        if (bound != null) {
+            for (int i = 0; i < this.sizeNodes(); i++) {
+                Node z = this.getNodeByIndex(i);
+                if (precedes(order, z, x, upper) && precedes(order, z, y, upper) && !precedes(order, z, bound, upper)) {
+                    return null;
+                }
+            }
+        }
+        return bound;
+    }
 
-        xMajorants.retainAll(yMajorants);
-        DAGraph graph = this.getSubgraphByNodes(xMajorants);
-        TreeSet<Node> join = new TreeSet<Node>(graph.min());
-        if (join.size() == 1) {
-            return join.first();
+    /**
+     * Checks if a node is less or equal than another one, or greater or equal when comparing upper bounds.
+     *
+     * @param   order  the index of an order
+     * @param   x      the first node
+     * @param   y      the second node
+     * @param   upper  true to check if `x` is greater or equal than `y`
+     *
+     * @return  the truth value of the comparison
+     */
+    private static boolean precedes(OrderIndex order, Node x, Node y, boolean upper) {
+        if (upper) {
+            return order.isLessOrEqual(y, x);
         }
-        return null;
+        return order.isLessOrEqual(x, y);
     }
 
     /* ------------- IRREDUCIBLES RELATIVE METHODS ------------------ */
@@ -454,13 +531,11 @@ public class Lattice extends DAGraph {
         // associates each node to a new closed set of join irreducibles
         TreeSet<Node> join = this.joinIrreducibles();
         TreeMap<Node, Concept> closure = new TreeMap<Node, Concept>();
-        Lattice lattice = new Lattice(this);
-        lattice.transitiveClosure();
-        lattice.reflexiveClosure();
-        for (Node to : lattice.getNodes()) {
+        OrderIndex order = new OrderIndex(this);
+        for (Node to : this.getNodes()) {
             ComparableSet jx = new ComparableSet();
-            for (Node from : lattice.getPredecessorNodes(to)) {
-                if (join.contains(from)) {
+            for (Node from : join) {
+                if (order.isLessOrEqual(from, to)) {
                     jx.add(from.getContent());
                 }
             }
@@ -490,13 +565,11 @@ public class Lattice extends DAGraph {
         // associates each node to a new closed set of join irreducibles
         TreeSet<Node> meet = this.meetIrreducibles();
         TreeMap<Node, Concept> closure = new TreeMap<Node, Concept>();
-        Lattice lattice = new Lattice(this);
-        lattice.transitiveClosure();
-        lattice.reflexiveClosure();
-        for (Node to : lattice.getNodes()) {
+        OrderIndex order = new OrderIndex(this);
+        for (Node to : this.getNodes()) {
             ComparableSet mx = new ComparableSet();
-            for (Node from : lattice.getSuccessorNodes(to)) {
-                if (meet.contains(from)) {
+            for (Node from : meet) {
+                if (order.isLessOrEqual(to, from)) {
                     mx.add(from);
                 }
             }
@@ -528,19 +601,17 @@ public class Lattice extends DAGraph {
         TreeSet<Node> meet = this.meetIrreducibles();
         TreeSet<Node> join = this.joinIrreducibles();
         TreeMap<Node, Concept> closure = new TreeMap<Node, Concept>();
-        Lattice lattice = new Lattice(this);
-        lattice.transitiveClosure();
-        lattice.reflexiveClosure();
-        for (Node to : lattice.getNodes()) {
+        OrderIndex order = new OrderIndex(this);
+        for (Node to : this.getNodes()) {
             ComparableSet jx = new ComparableSet();
-            for (Node from : lattice.getPredecessorNodes(to)) {
-                if (join.contains(from)) {
+            for (Node from : join) {
+                if (order.isLessOrEqual(from, to)) {
                     jx.add(from);
                 }
             }
             ComparableSet mx = new ComparableSet();
-            for (Node from : lattice.getSuccessorNodes(to)) {
-                if (meet.contains(from)) {
+            for (Node from : meet) {
+                if (order.isLessOrEqual(to, from)) {
                     mx.add(from);
                 }
             }
@@ -709,11 +780,10 @@ public class Lattice extends DAGraph {
         //    MeetContent.put(m,nm);
         }
         // generation of extent-intent
-        Lattice tmp = new Lattice(this);
-        tmp.transitiveClosure();
+        OrderIndex order = new OrderIndex(this);
         for (Node j : join) {
             for (Node m : meet) {
-                if (j.equals(m) || tmp.getSuccessorNodes(j).contains(m)) {
+                if (order.isLessOrEqual(j, m)) {
                     context.addExtentIntent(m, j);
                     //T.addExtentIntent(MeetContent.get(m),JoinContent.get(j));
                 }
@@ -815,36 +885,47 @@ public class Lattice extends DAGraph {
         for (Node j : joins) {
             this.dependencyGraph.addNode(j);
         }
-        // computes the transitive closure of the join-irreducibles subgraph of this compnent
-        DAGraph joinG = this.irreduciblesSubgraph();
-        joinG.transitiveClosure();
         // edges of the dependency graph are dependency relation between join-irreducibles
-        // they are first valuated by nodes of the lattice
+        // they are first valuated by nodes of the lattice, compared using a single index of the order
+        OrderIndex order = new OrderIndex(this);
         for (Node j1 : joins) {
-            SortedSet<Node> majj1 = this.majorants(j1);
             for (Node j2 : joins) {
                 if (!j1.equals(j2)) {
                     // computes the set S of nodes not greather than j1 and j2
-                    TreeSet<Node> set = new TreeSet<Node>(this.getNodes());
-                    set.removeAll(majj1);
-                    set.removeAll(this.majorants(j2));
-                    set.remove(j1);
-                    set.remove(j2);
+                    TreeSet<Node> set = new TreeSet<Node>();
+                    for (Node x : this.getNodes()) {
+                        if (!order.isLessOrEqual(j1, x) && !order.isLessOrEqual(j2, x)) {
+                            set.add(x);
+                        }
+                    }
                     for (Node x: set) {
                         // when j2 V x greather than j1 then add a new edge from j1 to J2
                         // or only a new valuation when the edge already exists
-                        if (majj1.contains(this.join(j2, x))) {
+                        Node join = this.bound(j2, x, true, order);
+                        if (join != null && join.compareTo(j1) != 0 && order.isLessOrEqual(j1, join)) {
                             Edge ed = this.dependencyGraph.getEdge(j1, j2);
                             if (ed == null) {
                                 ed = new Edge(j1, j2, new TreeSet<ComparableSet>());
                                 this.dependencyGraph.addEdge(ed);
                             }
-                            // add {Jx minus predecessors in joinG of j in Jx} as valuation of edge
+                            // add {Jx minus join-irreducibles less than a j in Jx} as valuation of edge
                             // from j1 to j2
                             TreeSet<ComparableSet> valEd = (TreeSet<ComparableSet>) ed.getContent();
-                            ComparableSet newValByNode = new ComparableSet(this.joinIrreducibles(x));
-                            for (Comparable j : this.joinIrreducibles(x)) {
-                                newValByNode.removeAll(joinG.getPredecessorNodes((Node) j));
+                            ArrayList<Node> jx = new ArrayList<Node>();
+                            for (Node j : joins) {
+                                if (order.isLessOrEqual(j, x)) {
+                                    jx.add(j);
+                                }
+                            }
+                            ComparableSet newValByNode = new ComparableSet();
+                            for (Node j : jx) {
+                                boolean maximal = true;
+                                for (Node k : jx) {
+                                    maximal = maximal && (k.compareTo(j) == 0 || !order.isLessOrEqual(j, k));
+                                }
+                                if (maximal) {
+                                    newValByNode.add(j);
+                                }
                             }
                             ComparableSet newVal = new ComparableSet();
                             for (Object j : newValByNode) {
@@ -16,6 +16,7 @@ import java.util.Iterator;
 import fr.kbertet.util.Couple;
 import fr.kbertet.dgraph.DAGraph;
 import fr.kbertet.dgraph.Node;
+import fr.kbertet.dgraph.OrderIndex;
 
 /**
  * This class provides a few methods to constructs lattice examples.
@@ -370,6 +371,7 @@ public class LatticeFactory {
         }
         return prod;
     }
+
     /**
      * Returns lattice l in which convex c has been doubled.
      *
@@ -395,7 +397,8 @@ public class LatticeFactory {
                 doubled.addNode(new Node(n.getContent()));
             }
         }
-        // Construct edges of doubled
+        // Construct edges of doubled, comparing nodes of l with a single index of its order
+        OrderIndex order = new OrderIndex(l);
         Couple test = new Couple(0, 0); // used to test class of contents
         for (Node x : doubled.getNodes()) {
             for (Node y : doubled.getNodes()) {
@@ -410,7 +413,7 @@ public class LatticeFactory {
                             // Same content means same node. x is of the form (cX, 0) and y is of the for (cX, 1) so x < y in doubled.
                             doubled.addEdge(x, y);
                         } else {
-                            if (l.majorants(l.getNodeByContent(cX.getLeft())).contains(l.getNodeByContent(cY.getLeft()))
+                            if (isLess(order, l.getNodeByContent(cX.getLeft()), l.getNodeByContent(cY.getLeft()))
                                     && (cX.getRight() == cY.getRight())) {
                                 // x < y in l and x & y have the same second component si x < y in doubled.
                                 doubled.addEdge(x, y);
@@ -419,7 +422,7 @@ public class LatticeFactory {
                     } else { // y wasn't in convex c
                         // x was in c & y wasn't
                         Couple cX = (Couple) x.getContent();
-                        if (l.majorants(l.getNodeByContent(cX.getLeft())).contains(l.getNodeByContent(y.getContent()))
+                        if (isLess(order, l.getNodeByContent(cX.getLeft()), l.getNodeByContent(y.getContent()))
                                 && (((Integer) cX.getRight()).intValue() == 1)) {
                             // x < y in l and second component of x is 1.
                             doubled.addEdge(x, y);
@@ -429,14 +432,14 @@ public class LatticeFactory {
                     if (y.getContent().getClass() == test.getClass()) { // y was in convex c
                         // x wasn't in c but y was
                         Couple cY = (Couple) y.getContent();
-                        if (l.majorants(l.getNodeByContent(x.getContent())).contains(l.getNodeByContent(cY.getLeft()))
+                        if (isLess(order, l.getNodeByContent(x.getContent()), l.getNodeByContent(cY.getLeft()))
                                 && (((Integer) cY.getRight()).intValue() == 0)) {
                                 // x < y in l and x & second component of y is 0.
                                 doubled.addEdge(x, y);
                             }
                     } else { // y wasn't in convex c
                         // x wasn't in c nor y
-                        if (l.majorants(l.getNodeByContent(x.getContent())).contains(l.getNodeByContent(y.getContent()))) {
+                        if (isLess(order, l.getNodeByContent(x.getContent()), l.getNodeByContent(y.getContent()))) {
                                 // x < y in l and x & second component of y is 0.
                                 doubled.addEdge(x, y);
                             }
@@ -447,4 +450,17 @@ public class LatticeFactory {
         doubled.transitiveReduction();
         return doubled;
     }
+
+    /**
+     * Checks if a node is strictly less than another one, using the index of the order of their lattice.
+     *
+     * @param   order  the index of the order of a lattice
+     * @param   x      the first node
+     * @param   y      the second node
+     *
+     * @return  true if `y` is a majorant of `x`
+     */
+    private static boolean isLess(OrderIndex order, Node x, Node y) {
+        return x.compareTo(y) != 0 && order.isLessOrEqual(x, y);
+    }
 }
@@ -0,0 +1,299 @@
+package fr.kbertet.lattice;
+
+/*
+ * LinClosure.java
+ *
+ * Copyright: 2010-2014 Karell Bertet, France
+ *
+ * License: http://www.cecill.info/licences/Licence_CeCILL-B_V1-en.html CeCILL-B license
+ *
+ * This file is part of java-lattices, free package. You can redistribute it and/or modify
+ * it under the terms of CeCILL-B license.
+ */
+
+import java.util.Arrays;
+
+import fr.kbertet.util.BitSets;
+
+/**
+ * This class computes closures of packed bit sets under a set of rules by the LinClosure algorithm of Beeri and Bernstein.
+ *
+ * Rules are numbered, and this class stores the packed bit set of the conclusion of each rule, the number of elements
+ * of its premise, and, for each element index, the rules whose premise contains it. A closure stores in a scratch buffer,
+ * for each rule, the number of elements of its premise not yet in the closure, followed by a stack of elements added
+ * to the closure whose rules have not been updated. Popping an element decrements the counter of the rules whose premise
+ * contains it, and a rule whose counter reaches zero adds its conclusion. Therefore, each rule is visited once per element
+ * of its premise, and a closure is performed in O(|S|+|Sigma|+s) where s is the total size of the premises, without any allocation.
+ *
+ * When inclusion is strict, the conclusion of a rule is only added once the closure is strictly greater than its premise,
+ * as needed by the closure `L(X)` of the canonical basis generation. Rules whose premise is equal to the closure wait
+ * in a third part of the scratch buffer until the closure grows.
+ *
+ * Rules are given either all at once, or one by one by method {@link #add}. This class is used by
+ * {@link ImplicationalSystem}, {@link BitSetImplicationalSystem} and {@link CanonicalBasis}.
+ *
+ * ![LinClosure](LinClosure.png)
+ *
+ * @uml LinClosure.png
+ * !include resources/fr/kbertet/lattice/LinClosure.iuml
+ *
+ * hide members
+ * show LinClosure members
+ * class LinClosure #LightCyan
+ * title LinClosure UML graph
+ */
+final class LinClosure {
+    /**
+     * The number of elements.
+     */
+    private final int nbElements;
+
+    /**
+     * The number of words of the bit sets.
+     */
+    private final int words;
+
+    /**
+     * Whether premises have to be strictly included in the closure.
+     */
+    private final boolean strict;
+
+    /**
+     * The number of rules.
+     */
+    private int size;
+
+    /**
+     * The packed bit set of the conclusion of each rule.
+     */
+    private long[][] conclusions;
+
+    /**
+     * The number of elements of the premise of each rule.
+     */
+    private int[] premiseSizes;
+
+    /**
+     * The rules whose premise contains each element index.
+     */
+    private int[][] premiseRules;
+
+    /**
+     * The number of rules whose premise contains each element index.
+     */
+    private int[] premiseRulesSizes;
+
+    /**
+     * Constructs a closure operator without any rule, whose rules are added by method {@link #add}.
+     *
+     * @param   nbElements  the number of elements
+     * @param   strict      whether premises have to be strictly included in the closure
+     */
+    LinClosure(int nbElements, boolean strict) {
+        this.nbElements = nbElements;
+        this.words = BitSets.words(nbElements);
+        this.strict = strict;
+        this.size = 0;
+        this.conclusions = new long[1][];
+        this.premiseSizes = new int[1];
+        this.premiseRules = new int[nbElements][];
+        this.premiseRulesSizes = new int[nbElements];
+        for (int e = 0; e < nbElements; e++) {
+            this.premiseRules[e] = new int[1];
+        }
+    }
+
+    /**
+     * Constructs a closure operator for the specified rules, numbered by their position.
+     *
+     * The conclusions are shared with this closure operator. This treatment is performed in O(|S|+|Sigma|+s).
+     *
+     * @param   nbElements   the number of elements
+     * @param   premises     the packed bit set of the premise of each rule
+     * @param   conclusions  the packed bit set of the conclusion of each rule
+     */
+    LinClosure(int nbElements, long[][] premises, long[][] conclusions) {
+        this.nbElements = nbElements;
+        this.words = BitSets.words(nbElements);
+        this.strict = false;
+        this.size = premises.length;
+        this.conclusions = conclusions;
+        this.premiseSizes = new int[premises.length];
+        this.premiseRulesSizes = new int[nbElements];
+        for (int r = 0; r < premises.length; r++) {
+            long[] premise = premises[r];
+            this.premiseSizes[r] = BitSets.cardinality(premise, premise.length);
+            for (int e = BitSets.nextSetBit(premise, 0); e >= 0; e = BitSets.nextSetBit(premise, e + 1)) {
+                this.premiseRulesSizes[e]++;
+            }
+        }
+        this.premiseRules = new int[nbElements][];
+        for (int e = 0; e < nbElements; e++) {
+            this.premiseRules[e] = new int[this.premiseRulesSizes[e]];
+            this.premiseRulesSizes[e] = 0;
+        }
+        for (int r = 0; r < premises.length; r++) {
+            long[] premise = premises[r];
+            for (int e = BitSets.nextSetBit(premise, 0); e >= 0; e = BitSets.nextSetBit(premise, e + 1)) {
+                this.premiseRules[e][this.premiseRulesSizes[e]] = r;
+                this.premiseRulesSizes[e]++;
+            }
+        }
+    }
+
+    /**
+     * Returns the number of rules.
+     *
+     * @return  the number of rules
+     */
+    int size() {
+        return this.size;
+    }
+
+    /**
+     * Returns the number of words of the buffer used by method {@link #closure}: a counter for each rule,
+     * a stack of element indexes and, when inclusion is strict, the rules waiting for the closure to grow.
+     *
+     * @return  the number of words of the scratch buffer
+     */
+    int getScratchSize() {
+        if (this.strict) {
+            return (2 * this.size) + this.nbElements;
+        }
+        return this.size + this.nbElements;
+    }
+
+    /**
+     * Adds a rule, numbered by the number of rules already added.
+     *
+     * Only the conclusion is kept, the premise being encoded by the rules of each element.
+     *
+     * @param   premise     the packed bit set of the premise of the rule
+     * @param   conclusion  the packed bit set of the conclusion of the rule
+     */
+    void add(long[] premise, long[] conclusion) {
+        if (this.size == this.conclusions.length) {
+            int capacity = Math.max(1, 2 * this.size);
+            this.conclusions = Arrays.copyOf(this.conclusions, capacity);
+            this.premiseSizes = Arrays.copyOf(this.premiseSizes, capacity);
+        }
+        int r = this.size;
+        this.conclusions[r] = conclusion;
+        this.premiseSizes[r] = BitSets.cardinality(premise, premise.length);
+        for (int e = BitSets.nextSetBit(premise, 0); e >= 0; e = BitSets.nextSetBit(premise, e + 1)) {
+            if (this.premiseRulesSizes[e] == this.premiseRules[e].length) {
+                this.premiseRules[e] = Arrays.copyOf(this.premiseRules[e], Math.max(1, 2 * this.premiseRulesSizes[e]));
+            }
+            this.premiseRules[e][this.premiseRulesSizes[e]] = r;
+            this.premiseRulesSizes[e]++;
+        }
+        this.size++;
+    }
+
+    /**
+     * Computes the closure of a packed bit set of element indexes, skipping the specified rules.
+     *
+     * The rules whose number belongs to the packed bit set `excluded` are not used: their counter is set to -1
+     * and never reaches zero. This treatment can be called from several threads with distinct buffers.
+     *
+     * @param   in        the bit set whose closure is computed
+     * @param   out       the bit set receiving the closure
+     * @param   scratch   a buffer of at least {@link #getScratchSize} words
+     * @param   excluded  the packed bit set of the numbers of the skipped rules, or null
+     */
+    void closure(long[] in, long[] out, long[] scratch, long[] excluded) {
+        int nbRules = this.size;
+        int n = this.words;
+        BitSets.copy(in, out, n);
+        int top = nbRules;
+        for (int e = BitSets.nextSetBit(out, 0, n); e >= 0; e = BitSets.nextSetBit(out, e + 1, n)) {
+            scratch[top] = e;
+            top++;
+        }
+        int card = top - nbRules;
+        int pending = nbRules + this.nbElements;
+        int waiting = pending;
+        for (int r = 0; r < nbRules; r++) {
+            if (excluded != null && BitSets.get(excluded, r)) {
+                // the counter of a skipped rule never reaches zero
+                scratch[r] = -1;
+            } else {
+                scratch[r] = this.premiseSizes[r];
+                if (this.premiseSizes[r] == 0) {
+                    if (this.strict && card == 0) {
+                        scratch[waiting] = r;
+                        waiting++;
+                    } else {
+                        int k = this.fire(r, out, scratch, top);
+                        card += k - top;
+                        top = k;
+                    }
+                }
+            }
+        }
+        while (true) {
+            // rules waiting for the closure to grow have a premise equal to the closure of the previous pass
+            int kept = pending;
+            for (int p = pending; p < waiting; p++) {
+                int r = (int) scratch[p];
+                if (this.premiseSizes[r] < card) {
+                    int k = this.fire(r, out, scratch, top);
+                    card += k - top;
+                    top = k;
+                } else {
+                    scratch[kept] = r;
+                    kept++;
+                }
+            }
+            waiting = kept;
+            if (top == nbRules) {
+                return;
+            }
+            top--;
+            int e = (int) scratch[top];
+            int[] rules = this.premiseRules[e];
+            for (int k = this.premiseRulesSizes[e] - 1; k >= 0; k--) {
+                int r = rules[k];
+                scratch[r]--;
+                if (scratch[r] == 0) {
+                    if (this.strict && this.premiseSizes[r] == card) {
+                        scratch[waiting] = r;
+                        waiting++;
+                    } else {
+                        int j = this.fire(r, out, scratch, top);
+                        card += j - top;
+                        top = j;
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Adds the elements of the conclusion of the specified rule to the closure, and pushes the new ones on the stack.
+     *
+     * @param   r      the number of a rule
+     * @param   out    the closure
+     * @param   stack  the stack of element indexes
+     * @param   top    the position of the top of the stack
+     *
+     * @return  the new position of the top of the stack
+     */
+    private int fire(int r, long[] out, long[] stack, int top) {
+        long[] conclusion = this.conclusions[r];
+        int k = top;
+        int m = Math.min(this.words, conclusion.length);
+        for (int w = 0; w < m; w++) {
+            long added = conclusion[w] & ~out[w];
+            if (added != 0) {
+                out[w] |= added;
+                while (added != 0) {
+                    stack[k] = (w * BitSets.WORD_SIZE) + Long.numberOfTrailingZeros(added);
+                    k++;
+                    added &= added - 1;
+                }
+            }
+        }
+        return k;
+    }
+}
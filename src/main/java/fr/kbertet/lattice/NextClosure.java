@@ -0,0 +1,75 @@
+package fr.kbertet.lattice;
+
+/*
+ * NextClosure.java
+ *
+ * Copyright: 2010-2014 Karell Bertet, France
+ *
+ * License: http://www.cecill.info/licences/Licence_CeCILL-B_V1-en.html CeCILL-B license
+ *
+ * This file is part of java-lattices, free package. You can redistribute it and/or modify
+ * it under the terms of CeCILL-B license.
+ */
+
+import java.util.Vector;
+
+/**
+ * This class enumerates closed sets using Ganter's Next Closure algorithm,
+ * as done by method {@link ClosureSystem#allClosures()}.
+ *
+ * ![NextClosure](NextClosure.png)
+ *
+ * @uml NextClosure.png
+ * !include resources/fr/kbertet/lattice/ClosureEnumerator.iuml
+ * !include resources/fr/kbertet/lattice/NextClosure.iuml
+ *
+ * hide members
+ * show NextClosure members
+ * class NextClosure #LightCyan
+ * title NextClosure UML graph
+ */
+public final class NextClosure implements ClosureEnumerator {
+    /**
+     * This class is not designed to be publicly instantiated.
+     */
+    private NextClosure() {
+    }
+
+    /**
+     * The singleton instance.
+     */
+    private static NextClosure instance = null;
+
+    /**
+     * Return the singleton instance of this class.
+     *
+     * @return  the singleton instance
+     */
+    public static NextClosure getInstance() {
+        if (instance == null) {
+            instance = new NextClosure();
+        }
+        return instance;
+    }
+
+    /**
+     * Returns all the closed sets of the specified closure system in the lectic order.
+     *
+     * @param   init  a closure system (an ImplicationalSystem or a Context)
+     *
+     * @return  all the closed sets in the lectic order
+     */
+    public Vector<Concept> allClosures(ClosureSystem init) {
+        return init.allClosures();
+    }
+
+    /**
+     * Enumerates the closed sets of the specified closure system in the lectic order.
+     *
+     * @param   init     a closure system (an ImplicationalSystem or a Context)
+     * @param   visitor  the visitor receiving closed sets
+     */
+    public void enumerate(ClosureSystem init, ClosureVisitor visitor) {
+        init.closures(visitor);
+    }
+}
@@ -0,0 +1,205 @@
+package fr.kbertet.lattice;
+
+/*
+ * Precedence.java
+ *
+ * Copyright: 2010-2014 Karell Bertet, France
+ *
+ * License: http://www.cecill.info/licences/Licence_CeCILL-B_V1-en.html CeCILL-B license
+ *
+ * This file is part of java-lattices, free package. You can redistribute it and/or modify
+ * it under the terms of CeCILL-B license.
+ */
+
+import java.util.Collection;
+import java.util.TreeSet;
+
+import fr.kbertet.dgraph.DAGraph;
+import fr.kbertet.dgraph.DGraph;
+import fr.kbertet.dgraph.Node;
+import fr.kbertet.util.BitSets;
+import fr.kbertet.util.ComparableSet;
+import fr.kbertet.util.Index;
+
+/**
+ * This class gives the precedence relation of a closure system, computed once
+ * and shared by all the immediate successors computations of Bordat's algorithm.
+ *
+ * The precedence graph of the closure system (see {@link ClosureSystem#precedenceGraph}),
+ * its strongly connected components, and the minorants of the component of each element
+ * are computed at construction. Minorants are kept as packed bit sets of element indexes
+ * given by the numbering of the closure system, so that the valuation of the dependance relation
+ * of a closed set is obtained by a few word operations.
+ *
+ * A precedence is never modified once constructed and can be shared by several threads.
+ * The closure system must not be modified while this component is used.
+ *
+ * ![Precedence](Precedence.png)
+ *
+ * @uml Precedence.png
+ * !include resources/fr/kbertet/lattice/Precedence.iuml
+ *
+ * hide members
+ * show Precedence members
+ * class Precedence #LightCyan
+ * title Precedence UML graph
+ */
+public class Precedence {
+    /* ------------- FIELDS ------------------ */
+
+    /**
+     * The closure system.
+     */
+    private ClosureSystem init;
+
+    /**
+     * The numbering of the elements of the closure system.
+     */
+    private Index index;
+
+    /**
+     * The precedence graph of the closure system.
+     */
+    private DGraph graph;
+
+    /**
+     * The acyclic graph of the strongly connected components of the precedence graph.
+     */
+    private DAGraph components;
+
+    /**
+     * The strongly connected component of each element index.
+     */
+    private Node[] component;
+
+    /**
+     * The elements of the minorants of the component of each element index.
+     */
+    private long[][] minorants;
+
+    /* ------------- CONSTRUCTORS ------------------ */
+
+    /**
+     * Constructs the precedence relation of the specified closure system.
+     *
+     * @param   init  a closure system (an ImplicationalSystem or a Context)
+     */
+    public Precedence(ClosureSystem init) {
+        this.init = init;
+        this.index = init.getIndex();
+        this.graph = init.precedenceGraph();
+        this.components = this.graph.getStronglyConnectedComponent();
+        int size = this.index.size();
+        this.component = new Node[size];
+        this.minorants = new long[size][];
+        // a single transitive closure gives the minorants of all the components
+        DAGraph closed = new DAGraph(this.components);
+        closed.transitiveClosure();
+        for (Node cc : this.components.getNodes()) {
+            long[] bits = new long[BitSets.words(size)];
+            for (Node minorant : closed.getPredecessorNodes(cc)) {
+                for (Node y : (TreeSet<Node>) minorant.getContent()) {
+                    BitSets.set(bits, this.index.indexOf((Comparable) y.getContent()));
+                }
+            }
+            for (Node y : (TreeSet<Node>) cc.getContent()) {
+                int i = this.index.indexOf((Comparable) y.getContent());
+                this.component[i] = cc;
+                this.minorants[i] = bits;
+            }
+        }
+    }
+
+    /* ------------- ACCESSORS METHODS ------------------ */
+
+    /**
+     * Returns the closure system of this component.
+     *
+     * @return  the closure system
+     */
+    public ClosureSystem getClosureSystem() {
+        return this.init;
+    }
+
+    /**
+     * Returns the numbering of the elements of the closure system.
+     *
+     * @return  the numbering of the elements
+     */
+    public Index getIndex() {
+        return this.index;
+    }
+
+    /**
+     * Returns the precedence graph of the closure system.
+     *
+     * The returned graph must not be modified.
+     *
+     * @return  the precedence graph
+     */
+    public DGraph getGraph() {
+        return this.graph;
+    }
+
+    /**
+     * Returns the acyclic graph of the strongly connected components of the precedence graph.
+     *
+     * The returned graph must not be modified.
+     *
+     * @return  the graph of the strongly connected components
+     */
+    public DAGraph getComponents() {
+        return this.components;
+    }
+
+    /**
+     * Returns the strongly connected component of the precedence graph containing the specified element.
+     *
+     * @param   element  an element of the closure system
+     *
+     * @return  the node of the component, or null if the element does not belong to the closure system
+     */
+    public Node getComponent(Comparable element) {
+        int i = this.index.indexOf(element);
+        if (i < 0) {
+            return null;
+        }
+        return this.component[i];
+    }
+
+    /**
+     * Returns the packed bit set of the elements belonging to the minorants of the component
+     * containing the element of the specified index.
+     *
+     * The returned array must not be modified.
+     *
+     * @param   i  the index of an element
+     *
+     * @return  the bit set of the minorants
+     */
+    public long[] minorants(int i) {
+        return this.minorants[i];
+    }
+
+    /* ------------- SUCCESSORS METHODS ------------------ */
+
+    /**
+     * Returns the valuation of the new dependance relations of the specified closed set.
+     *
+     * The valuation is the subset of the closed set F whose elements are not minorants,
+     * in the precedence graph, of the component of an element of F.
+     *
+     * @param   set  a closed set
+     *
+     * @return  the valuation of the dependance relations
+     */
+    public ComparableSet valuation(Collection<? extends Comparable> set) {
+        long[] bits = this.index.bits(set);
+        long[] removed = new long[bits.length];
+        for (int i = BitSets.nextSetBit(bits, 0); i >= 0; i = BitSets.nextSetBit(bits, i + 1)) {
+            BitSets.or(removed, this.minorants[i], removed.length);
+        }
+        BitSets.andNot(bits, removed, bits.length);
+        return this.index.elements(bits);
+    }
+}
@@ -0,0 +1,100 @@
+package fr.kbertet.lattice;
+
+/*
+ * PremiseClosureTask.java
+ *
+ * Copyright: 2010-2014 Karell Bertet, France
+ *
+ * License: http://www.cecill.info/licences/Licence_CeCILL-B_V1-en.html CeCILL-B license
+ *
+ * This file is part of java-lattices, free package. You can redistribute it and/or modify
+ * it under the terms of CeCILL-B license.
+ */
+
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * This class defines a task computing the closure of the premise of each rule of a range of an implicational
+ * system without this rule, in order to test rules of an implicational system in parallel on a `ForkJoinPool`.
+ *
+ * The range of rule numbers is split into halves until it is small enough, each range being computed
+ * by method {@link ImplicationalSystem#premiseClosures(long[], long[][], int, int)}.
+ * The implicational system is not modified during the computation of a task.
+ *
+ * ![PremiseClosureTask](PremiseClosureTask.png)
+ *
+ * @uml PremiseClosureTask.png
+ * !include resources/fr/kbertet/lattice/PremiseClosureTask.iuml
+ * !include resources/fr/kbertet/lattice/ImplicationalSystem.iuml
+ *
+ * hide members
+ * show PremiseClosureTask members
+ * class PremiseClosureTask #LightCyan
+ * title PremiseClosureTask UML graph
+ */
+final class PremiseClosureTask extends RecursiveAction {
+    /**
+     * The serialization version of this class.
+     */
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * Maximal number of rules of a range computed without forking.
+     */
+    private static final int FORK_THRESHOLD = 64;
+
+    /**
+     * The implicational system.
+     */
+    private final ImplicationalSystem system;
+
+    /**
+     * The packed bit set of the numbers of the skipped rules, or null.
+     */
+    private final long[] excluded;
+
+    /**
+     * The array receiving the closures.
+     */
+    private final long[][] closures;
+
+    /**
+     * The first number of the range.
+     */
+    private final int from;
+
+    /**
+     * The number following the range.
+     */
+    private final int to;
+
+    /**
+     * Constructs a task computing the closures of the premises of the rules of the specified range.
+     *
+     * @param   system    the implicational system
+     * @param   excluded  the packed bit set of the numbers of the skipped rules, or null
+     * @param   closures  the array receiving the closures
+     * @param   from      the first number of the range
+     * @param   to        the number following the range
+     */
+    PremiseClosureTask(ImplicationalSystem system, long[] excluded, long[][] closures, int from, int to) {
+        this.system = system;
+        this.excluded = excluded;
+        this.closures = closures;
+        this.from = from;
+        this.to = to;
+    }
+
+    /**
+     * Computes the closures of the premises of the rules of the range of this task.
+     */
+    protected void compute() {
+        if (this.to - this.from <= FORK_THRESHOLD) {
+            this.system.premiseClosures(this.excluded, this.closures, this.from, this.to);
+        } else {
+            int middle = (this.from + this.to) >>> 1;
+            invokeAll(new PremiseClosureTask(this.system, this.excluded, this.closures, this.from, middle),
+                new PremiseClosureTask(this.system, this.excluded, this.closures, middle, this.to));
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package fr.kbertet.lattice;
+
+/*
+ * RuleVisitor.java
+ *
+ * Copyright: 2010-2014 Karell Bertet, France
+ *
+ * License: http://www.cecill.info/licences/Licence_CeCILL-B_V1-en.html CeCILL-B license
+ *
+ * This file is part of java-lattices, free package. You can redistribute it and/or modify
+ * it under the terms of CeCILL-B license.
+ */
+
+/**
+ * This interface defines a callback receiving rules as soon as they are generated.
+ *
+ * A visitor is given to method {@link CanonicalBasis#enumerate}, so that rules can be written
+ * or aggregated without building an implicational system.
+ *
+ * ![RuleVisitor](RuleVisitor.png)
+ *
+ * @uml RuleVisitor.png
+ * !include resources/fr/kbertet/lattice/RuleVisitor.iuml
+ *
+ * hide members
+ * show RuleVisitor members
+ * class RuleVisitor #LightCyan
+ * title RuleVisitor UML graph
+ */
+public interface RuleVisitor {
+    /**
+     * Receives a rule.
+     *
+     * @param   rule  a rule
+     *
+     * @return  false to stop the generation, true to continue it
+     */
+    boolean visit(Rule rule);
+}
@@ -0,0 +1,99 @@
+package fr.kbertet.lattice;
+
+/*
+ * SuccessorsTask.java
+ *
+ * Copyright: 2010-2014 Karell Bertet, France
+ *
+ * License: http://www.cecill.info/licences/Licence_CeCILL-B_V1-en.html CeCILL-B license
+ *
+ * This file is part of java-lattices, free package. You can redistribute it and/or modify
+ * it under the terms of CeCILL-B license.
+ */
+
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * This class defines a task computing the immediate successors of a range of a frontier of concepts,
+ * in order to generate the Hasse diagram of a closed set lattice in parallel on a `ForkJoinPool`.
+ *
+ * The range of positions is split into halves until it is small enough, each range being computed
+ * by method {@link DiagramGeneration#successors(Concept[], Concept[][], int, int)}.
+ *
+ * ![SuccessorsTask](SuccessorsTask.png)
+ *
+ * @uml SuccessorsTask.png
+ * !include resources/fr/kbertet/lattice/SuccessorsTask.iuml
+ * !include resources/fr/kbertet/lattice/DiagramGeneration.iuml
+ *
+ * hide members
+ * show SuccessorsTask members
+ * class SuccessorsTask #LightCyan
+ * title SuccessorsTask UML graph
+ */
+final class SuccessorsTask extends RecursiveAction {
+    /**
+     * The serialization version of this class.
+     */
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * Maximal number of concepts of a range computed without forking.
+     */
+    private static final int FORK_THRESHOLD = 4;
+
+    /**
+     * The data of the generation.
+     */
+    private final DiagramGeneration generation;
+
+    /**
+     * The frontier of concepts.
+     */
+    private final Concept[] frontier;
+
+    /**
+     * The array receiving the immediate successors of each concept.
+     */
+    private final Concept[][] successors;
+
+    /**
+     * The first position of the range.
+     */
+    private final int from;
+
+    /**
+     * The position following the range.
+     */
+    private final int to;
+
+    /**
+     * Constructs a task computing the immediate successors of the concepts of the specified range.
+     *
+     * @param   generation  the data of the generation
+     * @param   frontier    the frontier of concepts
+     * @param   successors  the array receiving the immediate successors of each concept
+     * @param   from        the first position of the range
+     * @param   to          the position following the range
+     */
+    SuccessorsTask(DiagramGeneration generation, Concept[] frontier, Concept[][] successors, int from, int to) {
+        this.generation = generation;
+        this.frontier = frontier;
+        this.successors = successors;
+        this.from = from;
+        this.to = to;
+    }
+
+    /**
+     * Computes the immediate successors of the concepts of the range of this task.
+     */
+    protected void compute() {
+        if (this.to - this.from <= FORK_THRESHOLD) {
+            this.generation.successors(this.frontier, this.successors, this.from, this.to);
+        } else {
+            int middle = (this.from + this.to) >>> 1;
+            invokeAll(new SuccessorsTask(this.generation, this.frontier, this.successors, this.from, middle),
+                new SuccessorsTask(this.generation, this.frontier, this.successors, middle, this.to));
+        }
+    }
+}
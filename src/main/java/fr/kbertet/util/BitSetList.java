@@ -0,0 +1,168 @@
+package fr.kbertet.util;
+
+/*
+ * BitSetList.java
+ *
+ * Copyright: 2010-2014 Karell Bertet, France
+ *
+ * License: http://www.cecill.info/licences/Licence_CeCILL-B_V1-en.html CeCILL-B license
+ *
+ * This file is part of java-lattices, free package. You can redistribute it and/or modify
+ * it under the terms of CeCILL-B license.
+ */
+
+/**
+ * This class defines a list of bit sets, called lines, indexed from `0` to `size() - 1`.
+ *
+ * It abstracts the storage of a binary relation line by line, so that the representation of
+ * lines can be chosen according to their density: {@link DenseBitSetList} stores lines as
+ * packed bit sets of `long`, while {@link CompressedBitSetList} stores lines as
+ * {@link CompressedBitSet}.
+ *
+ * Whatever the representation, lines can be intersected with a packed bit set
+ * (see {@link BitSets}) by method {@link #and} without being decompressed.
+ *
+ * ![BitSetList](BitSetList.png)
+ *
+ * @uml BitSetList.png
+ * !include resources/fr/kbertet/util/BitSetList.iuml
+ * !include resources/fr/kbertet/util/DenseBitSetList.iuml
+ * !include resources/fr/kbertet/util/CompressedBitSetList.iuml
+ *
+ * hide members
+ * show BitSetList members
+ * class BitSetList #LightCyan
+ * title BitSetList UML graph
+ */
+public abstract class BitSetList {
+    /* ------------- ACCESSORS ------------------ */
+
+    /**
+     * Returns the number of lines of this component.
+     *
+     * @return  the number of lines
+     */
+    public abstract int size();
+
+    /**
+     * Checks if the specified bit of the specified line is set.
+     *
+     * @param   i    a line index
+     * @param   bit  a bit index
+     *
+     * @return  true if the bit is set
+     */
+    public abstract boolean get(int i, int bit);
+
+    /**
+     * Returns the index of the first bit set at or after the specified index in the specified line,
+     * or -1 if there is none.
+     *
+     * @param   i     a line index
+     * @param   from  the starting bit index
+     *
+     * @return  the index of the next bit set, or -1
+     */
+    public abstract int nextSetBit(int i, int from);
+
+    /**
+     * Returns the number of bits set in the specified line.
+     *
+     * @param   i  a line index
+     *
+     * @return  the cardinality of the line
+     */
+    public abstract int cardinality(int i);
+
+    /**
+     * Replaces the `n` first words of the specified packed bit set by their intersection
+     * with the specified line.
+     *
+     * @param   i      a line index
+     * @param   words  a packed bit set
+     * @param   n      the number of words
+     */
+    public abstract void and(int i, long[] words, int n);
+
+    /**
+     * Returns the number of bits set in both the specified line and the `n` first words
+     * of the specified packed bit set, without modifying it.
+     *
+     * @param   i      a line index
+     * @param   words  a packed bit set
+     * @param   n      the number of words
+     *
+     * @return  the cardinality of the intersection
+     */
+    public abstract int andCardinality(int i, long[] words, int n);
+
+    /**
+     * Returns a copy of this component using the same representation.
+     *
+     * @return  a copy of this component
+     */
+    public abstract BitSetList copy();
+
+    /**
+     * Returns a new empty list using the same representation as this component.
+     *
+     * @return  an empty list
+     */
+    public abstract BitSetList create();
+
+    /* ------------- MUTATORS ------------------ */
+
+    /**
+     * Appends an empty line to this component.
+     */
+    public abstract void add();
+
+    /**
+     * Sets the specified bit of the specified line.
+     *
+     * @param   i    a line index
+     * @param   bit  a bit index
+     */
+    public abstract void set(int i, int bit);
+
+    /**
+     * Clears the specified bit of the specified line.
+     *
+     * @param   i    a line index
+     * @param   bit  a bit index
+     */
+    public abstract void clear(int i, int bit);
+
+    /**
+     * Removes the specified line, the last line taking its index, as done by method {@link Index#remove}.
+     *
+     * @param   i  a line index
+     */
+    public abstract void remove(int i);
+
+    /**
+     * Compacts the memory used by the lines of this component.
+     *
+     * This method does nothing by default.
+     */
+    public void optimize() {
+    }
+
+    /**
+     * Appends to this component the lines of the specified list, whatever its representation.
+     *
+     * @param   list  a list of bit sets
+     *
+     * @return  this for chaining
+     */
+    public BitSetList addAll(BitSetList list) {
+        for (int i = 0; i < list.size(); i++) {
+            int k = this.size();
+            this.add();
+            for (int bit = list.nextSetBit(i, 0); bit >= 0; bit = list.nextSetBit(i, bit + 1)) {
+                this.set(k, bit);
+            }
+        }
+        return this;
+    }
+}
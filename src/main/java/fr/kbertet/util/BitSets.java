@@ -0,0 +1,330 @@
+package fr.kbertet.util;
+
+/*
+ * BitSets.java
+ *
+ * Copyright: 2010-2014 Karell Bertet, France
+ *
+ * License: http://www.cecill.info/licences/Licence_CeCILL-B_V1-en.html CeCILL-B license
+ *
+ * This file is part of java-lattices, free package. You can redistribute it and/or modify
+ * it under the terms of CeCILL-B license.
+ */
+
+import java.util.Arrays;
+
+/**
+ * This class provides static methods handling bit sets packed in arrays of `long`.
+ *
+ * Bit `i` of a packed bit set `words` is stored in `words[i >> 6]` at position `i & 63`.
+ * Arrays may be shorter than the number of bits they represent: missing words are considered as
+ * zero words. Therefore, a bit set can be lazily grown with method {@link #set(long[], int)}.
+ *
+ * Operations taking a number of words `n` only consider the `n` first words of their arguments,
+ * and never allocate memory. They are designed to be used in the inner loops of closure
+ * computations where buffers are reused.
+ *
+ * ![BitSets](BitSets.png)
+ *
+ * @uml BitSets.png
+ * !include resources/fr/kbertet/util/BitSets.iuml
+ *
+ * class BitSets #LightCyan
+ * title BitSets UML graph
+ */
+public final class BitSets {
+    /**
+     * Number of bits in a word.
+     */
+    public static final int WORD_SIZE = 64;
+
+    /**
+     * Logarithm of the number of bits in a word.
+     */
+    private static final int LOG_WORD_SIZE = 6;
+
+    /**
+     * This class is not designed to be publicly instantiated.
+     */
+    private BitSets() {
+    }
+
+    /**
+     * Returns the number of words needed to store the specified number of bits.
+     *
+     * @param   nbits  a number of bits
+     *
+     * @return  the number of words
+     */
+    public static int words(int nbits) {
+        return (nbits + WORD_SIZE - 1) >>> LOG_WORD_SIZE;
+    }
+
+    /**
+     * Checks if the specified bit is set.
+     *
+     * @param   words  a packed bit set
+     * @param   i      a bit index
+     *
+     * @return  true if the bit is set
+     */
+    public static boolean get(long[] words, int i) {
+        int w = i >>> LOG_WORD_SIZE;
+        return w < words.length && (words[w] & (1L << i)) != 0;
+    }
+
+    /**
+     * Sets the specified bit, growing the array when needed.
+     *
+     * @param   words  a packed bit set
+     * @param   i      a bit index
+     *
+     * @return  the specified array, or a larger copy of it when it was too short
+     */
+    public static long[] set(long[] words, int i) {
+        int w = i >>> LOG_WORD_SIZE;
+        long[] result = words;
+        if (w >= words.length) {
+            result = Arrays.copyOf(words, Math.max(w + 1, 2 * words.length));
+        }
+        result[w] |= 1L << i;
+        return result;
+    }
+
+    /**
+     * Clears the specified bit.
+     *
+     * @param   words  a packed bit set
+     * @param   i      a bit index
+     */
+    public static void clear(long[] words, int i) {
+        int w = i >>> LOG_WORD_SIZE;
+        if (w < words.length) {
+            words[w] &= ~(1L << i);
+        }
+    }
+
+    /**
+     * Sets the `nbits` first bits of the `n` first words, and clears the others.
+     *
+     * @param   words  a packed bit set
+     * @param   nbits  the number of bits to be set
+     * @param   n      the number of words
+     */
+    public static void fill(long[] words, int nbits, int n) {
+        int full = nbits >>> LOG_WORD_SIZE;
+        Arrays.fill(words, 0, full, -1L);
+        if (full < n) {
+            int rest = nbits & (WORD_SIZE - 1);
+            if (rest == 0) {
+                words[full] = 0L;
+            } else {
+                words[full] = -1L >>> (WORD_SIZE - rest);
+            }
+            Arrays.fill(words, full + 1, n, 0L);
+        }
+    }
+
+    /**
+     * Clears the `n` first words.
+     *
+     * @param   words  a packed bit set
+     * @param   n      the number of words
+     */
+    public static void clearAll(long[] words, int n) {
+        Arrays.fill(words, 0, n, 0L);
+    }
+
+    /**
+     * Copies the `n` first words of `src` into `dst`.
+     *
+     * @param   src  the source bit set
+     * @param   dst  the destination bit set
+     * @param   n    the number of words
+     */
+    public static void copy(long[] src, long[] dst, int n) {
+        int m = Math.min(n, src.length);
+        System.arraycopy(src, 0, dst, 0, m);
+        Arrays.fill(dst, m, n, 0L);
+    }
+
+    /**
+     * Replaces the `n` first words of `dst` by their intersection with `src`.
+     *
+     * @param   dst  the modified bit set
+     * @param   src  the intersected bit set
+     * @param   n    the number of words
+     */
+    public static void and(long[] dst, long[] src, int n) {
+        int m = Math.min(n, src.length);
+        for (int w = 0; w < m; w++) {
+            dst[w] &= src[w];
+        }
+        Arrays.fill(dst, m, n, 0L);
+    }
+
+    /**
+     * Replaces the `n` first words of `dst` by their union with `src`.
+     *
+     * @param   dst  the modified bit set
+     * @param   src  the united bit set
+     * @param   n    the number of words
+     */
+    public static void or(long[] dst, long[] src, int n) {
+        int m = Math.min(n, src.length);
+        for (int w = 0; w < m; w++) {
+            dst[w] |= src[w];
+        }
+    }
+
+    /**
+     * Removes from the `n` first words of `dst` the bits set in `src`.
+     *
+     * @param   dst  the modified bit set
+     * @param   src  the removed bit set
+     * @param   n    the number of words
+     */
+    public static void andNot(long[] dst, long[] src, int n) {
+        int m = Math.min(n, src.length);
+        for (int w = 0; w < m; w++) {
+            dst[w] &= ~src[w];
+        }
+    }
+
+    /**
+     * Returns the number of bits set in the `n` first words.
+     *
+     * @param   words  a packed bit set
+     * @param   n      the number of words
+     *
+     * @return  the number of bits set
+     */
+    public static int cardinality(long[] words, int n) {
+        int m = Math.min(n, words.length);
+        int count = 0;
+        for (int w = 0; w < m; w++) {
+            count += Long.bitCount(words[w]);
+        }
+        return count;
+    }
+
+    /**
+     * Returns the number of bits set in the intersection of the `n` first words of two bit sets.
+     *
+     * @param   a  a packed bit set
+     * @param   b  a packed bit set
+     * @param   n  the number of words
+     *
+     * @return  the number of bits set in both bit sets
+     */
+    public static int andCardinality(long[] a, long[] b, int n) {
+        int m = Math.min(n, Math.min(a.length, b.length));
+        int count = 0;
+        for (int w = 0; w < m; w++) {
+            count += Long.bitCount(a[w] & b[w]);
+        }
+        return count;
+    }
+
+    /**
+     * Checks if the `n` first words of `a` are included in those of `b`.
+     *
+     * @param   a  a packed bit set
+     * @param   b  a packed bit set
+     * @param   n  the number of words
+     *
+     * @return  true if each bit set in `a` is also set in `b`
+     */
+    public static boolean isSubset(long[] a, long[] b, int n) {
+        int m = Math.min(n, a.length);
+        int k = Math.min(m, b.length);
+        for (int w = 0; w < k; w++) {
+            if ((a[w] & ~b[w]) != 0) {
+                return false;
+            }
+        }
+        for (int w = k; w < m; w++) {
+            if (a[w] != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Checks if the `n` first words of two bit sets are equal.
+     *
+     * @param   a  a packed bit set
+     * @param   b  a packed bit set
+     * @param   n  the number of words
+     *
+     * @return  true if the same bits are set in both bit sets
+     */
+    public static boolean equals(long[] a, long[] b, int n) {
+        for (int w = 0; w < n; w++) {
+            long x = 0L;
+            if (w < a.length) {
+                x = a[w];
+            }
+            long y = 0L;
+            if (w < b.length) {
+                y = b[w];
+            }
+            if (x != y) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Returns the index of the first bit set at or after the specified index, or -1 if there is none.
+     *
+     * @param   words  a packed bit set
+     * @param   from   the starting bit index
+     *
+     * @return  the index of the next bit set, or -1
+     */
+    public static int nextSetBit(long[] words, int from) {
+        int w = from >>> LOG_WORD_SIZE;
+        if (w >= words.length) {
+            return -1;
+        }
+        long word = words[w] & (-1L << from);
+        while (word == 0) {
+            w++;
+            if (w == words.length) {
+                return -1;
+            }
+            word = words[w];
+        }
+        return (w << LOG_WORD_SIZE) + Long.numberOfTrailingZeros(word);
+    }
+
+    /**
+     * Returns the index of the first bit set at or after the specified index in the `n` first words,
+     * or -1 if there is none.
+     *
+     * @param   words  a packed bit set
+     * @param   from   the starting bit index
+     * @param   n      the number of words
+     *
+     * @return  the index of the next bit set, or -1
+     */
+    public static int nextSetBit(long[] words, int from, int n) {
+        int m = Math.min(n, words.length);
+        int w = from >>> LOG_WORD_SIZE;
+        if (w >= m) {
+            return -1;
+        }
+        long word = words[w] & (-1L << from);
+        while (word == 0) {
+            w++;
+            if (w == m) {
+                return -1;
+            }
+            word = words[w];
+        }
+        return (w << LOG_WORD_SIZE) + Long.numberOfTrailingZeros(word);
+    }
+}
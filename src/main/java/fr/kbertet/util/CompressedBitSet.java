@@ -0,0 +1,876 @@
+package fr.kbertet.util;
+
+/*
+ * CompressedBitSet.java
+ *
+ * Copyright: 2010-2014 Karell Bertet, France
+ *
+ * License: http://www.cecill.info/licences/Licence_CeCILL-B_V1-en.html CeCILL-B license
+ *
+ * This file is part of java-lattices, free package. You can redistribute it and/or modify
+ * it under the terms of CeCILL-B license.
+ */
+
+import java.util.Arrays;
+
+/**
+ * This class gives a compressed representation of a set of non negative integers,
+ * following the Roaring bitmap scheme.
+ *
+ * Integers are split into chunks of 2^16 values sharing the same 16 high bits (the key of the chunk).
+ * Only non empty chunks are stored, each one in the most compact container:
+ *
+ * - an array container stores at most 4096 sorted low bits in a `char` array;
+ * - a bitmap container stores a chunk as 1024 words;
+ * - a run container stores sorted intervals of consecutive values.
+ *
+ * Containers are switched between array and bitmap forms by modifications, while method
+ * {@link #optimize} converts containers to run containers when it saves memory.
+ *
+ * Intersections do not decompress the set: method {@link #andCardinality} counts common values
+ * container by container, and method {@link #and(long[], int)} intersects a packed bit set of `long`
+ * (see {@link BitSets}) in place, clearing whole words where no chunk is stored.
+ *
+ * ![CompressedBitSet](CompressedBitSet.png)
+ *
+ * @uml CompressedBitSet.png
+ * !include resources/fr/kbertet/util/CompressedBitSet.iuml
+ *
+ * class CompressedBitSet #LightCyan
+ * title CompressedBitSet UML graph
+ */
+public class CompressedBitSet {
+    /* ------------- CONSTANTS ------------------ */
+
+    /**
+     * Maximal cardinality of an array container.
+     */
+    private static final int ARRAY_MAX = 4096;
+
+    /**
+     * Number of words of a bitmap container.
+     */
+    private static final int CHUNK_WORDS = 1024;
+
+    /**
+     * Number of bits of the low part of a value.
+     */
+    private static final int LOW_BITS = 16;
+
+    /**
+     * Mask of the low part of a value.
+     */
+    private static final int LOW_MASK = 0xFFFF;
+
+    /* ------------- FIELDS ------------------ */
+
+    /**
+     * The sorted keys of non empty chunks.
+     */
+    private char[] keys;
+
+    /**
+     * The container of each chunk.
+     */
+    private Container[] containers;
+
+    /**
+     * The number of non empty chunks.
+     */
+    private int size;
+
+    /* ------------- CONSTRUCTORS ------------------ */
+
+    /**
+     * Constructs a new empty set.
+     */
+    public CompressedBitSet() {
+        this.keys = new char[0];
+        this.containers = new Container[0];
+        this.size = 0;
+    }
+
+    /**
+     * Constructs a new set as a copy of the specified one.
+     *
+     * @param   set  the set to be copied
+     */
+    public CompressedBitSet(CompressedBitSet set) {
+        this.keys = Arrays.copyOf(set.keys, set.size);
+        this.containers = new Container[set.size];
+        for (int i = 0; i < set.size; i++) {
+            this.containers[i] = set.containers[i].copy();
+        }
+        this.size = set.size;
+    }
+
+    /* ------------- ACCESSORS ------------------ */
+
+    /**
+     * Checks if the specified value belongs to this component.
+     *
+     * @param   x  a non negative integer
+     *
+     * @return  true if the value belongs to this component
+     */
+    public boolean get(int x) {
+        int i = this.find((char) (x >>> LOW_BITS));
+        return i >= 0 && this.containers[i].contains((char) (x & LOW_MASK));
+    }
+
+    /**
+     * Returns the number of values of this component.
+     *
+     * @return  the cardinality of this component
+     */
+    public int cardinality() {
+        int card = 0;
+        for (int i = 0; i < this.size; i++) {
+            card += this.containers[i].cardinality();
+        }
+        return card;
+    }
+
+    /**
+     * Checks if this component is empty.
+     *
+     * @return  true if this component contains no value
+     */
+    public boolean isEmpty() {
+        return this.size == 0;
+    }
+
+    /**
+     * Returns the smallest value of this component greater or equal to the specified one, or -1 if there is none.
+     *
+     * @param   from  a non negative integer
+     *
+     * @return  the next value, or -1
+     */
+    public int nextSetBit(int from) {
+        char key = (char) (from >>> LOW_BITS);
+        int i = this.find(key);
+        int low = from & LOW_MASK;
+        if (i < 0) {
+            i = -i - 1;
+            low = 0;
+        }
+        while (i < this.size) {
+            int next = this.containers[i].next(low);
+            if (next >= 0) {
+                return (this.keys[i] << LOW_BITS) | next;
+            }
+            i++;
+            low = 0;
+        }
+        return -1;
+    }
+
+    /**
+     * Returns the number of values belonging to both this component and the specified set.
+     *
+     * This treatment is performed chunk by chunk without any allocation.
+     *
+     * @param   set  a compressed set
+     *
+     * @return  the cardinality of the intersection
+     */
+    public int andCardinality(CompressedBitSet set) {
+        int card = 0;
+        int i = 0;
+        int j = 0;
+        while (i < this.size && j < set.size) {
+            if (this.keys[i] < set.keys[j]) {
+                i++;
+            } else if (this.keys[i] > set.keys[j]) {
+                j++;
+            } else {
+                card += this.containers[i].andCardinality(set.containers[j]);
+                i++;
+                j++;
+            }
+        }
+        return card;
+    }
+
+    /**
+     * Replaces the `n` first words of the specified packed bit set by their intersection with this component.
+     *
+     * Words that are not covered by a chunk of this component are cleared without being read.
+     *
+     * @param   words  a packed bit set
+     * @param   n      the number of words
+     */
+    public void and(long[] words, int n) {
+        int w = 0;
+        for (int i = 0; i < this.size && w < n; i++) {
+            int offset = this.keys[i] * CHUNK_WORDS;
+            if (offset >= n) {
+                break;
+            }
+            Arrays.fill(words, w, offset, 0L);
+            this.containers[i].and(words, offset, Math.min(n - offset, CHUNK_WORDS));
+            w = offset + CHUNK_WORDS;
+        }
+        if (w < n) {
+            Arrays.fill(words, w, n, 0L);
+        }
+    }
+
+    /**
+     * Returns the number of values belonging to both this component and the `n` first words
+     * of the specified packed bit set, without modifying it.
+     *
+     * Words that are not covered by a chunk of this component are not read.
+     *
+     * @param   words  a packed bit set
+     * @param   n      the number of words
+     *
+     * @return  the cardinality of the intersection
+     */
+    public int andCardinality(long[] words, int n) {
+        int m = Math.min(n, words.length);
+        int card = 0;
+        for (int i = 0; i < this.size; i++) {
+            int offset = this.keys[i] * CHUNK_WORDS;
+            if (offset >= m) {
+                break;
+            }
+            card += this.containers[i].andCardinality(words, offset, Math.min(m - offset, CHUNK_WORDS));
+        }
+        return card;
+    }
+
+    /**
+     * Returns the number of words needed to store this component as a packed bit set.
+     *
+     * @return  the number of words
+     */
+    public int words() {
+        if (this.size == 0) {
+            return 0;
+        }
+        int last = this.size - 1;
+        return this.keys[last] * CHUNK_WORDS + BitSets.words(this.containers[last].last() + 1);
+    }
+
+    /* ------------- MUTATORS ------------------ */
+
+    /**
+     * Adds the specified value to this component.
+     *
+     * @param   x  a non negative integer
+     */
+    public void set(int x) {
+        char key = (char) (x >>> LOW_BITS);
+        char low = (char) (x & LOW_MASK);
+        int i = this.find(key);
+        if (i >= 0) {
+            this.containers[i] = this.containers[i].add(low);
+        } else {
+            i = -i - 1;
+            if (this.size == this.keys.length) {
+                int length = Math.max(4, 2 * this.size);
+                this.keys = Arrays.copyOf(this.keys, length);
+                this.containers = Arrays.copyOf(this.containers, length);
+            }
+            System.arraycopy(this.keys, i, this.keys, i + 1, this.size - i);
+            System.arraycopy(this.containers, i, this.containers, i + 1, this.size - i);
+            this.keys[i] = key;
+            this.containers[i] = new ArrayContainer().add(low);
+            this.size++;
+        }
+    }
+
+    /**
+     * Removes the specified value from this component.
+     *
+     * @param   x  a non negative integer
+     */
+    public void clear(int x) {
+        int i = this.find((char) (x >>> LOW_BITS));
+        if (i >= 0) {
+            Container container = this.containers[i].remove((char) (x & LOW_MASK));
+            if (container.cardinality() == 0) {
+                System.arraycopy(this.keys, i + 1, this.keys, i, this.size - i - 1);
+                System.arraycopy(this.containers, i + 1, this.containers, i, this.size - i - 1);
+                this.size--;
+                this.containers[this.size] = null;
+            } else {
+                this.containers[i] = container;
+            }
+        }
+    }
+
+    /**
+     * Converts each container into its most compact form, including run containers, and trims arrays.
+     *
+     * @return  this for chaining
+     */
+    public CompressedBitSet optimize() {
+        for (int i = 0; i < this.size; i++) {
+            this.containers[i] = this.containers[i].optimize();
+        }
+        this.keys = Arrays.copyOf(this.keys, this.size);
+        this.containers = Arrays.copyOf(this.containers, this.size);
+        return this;
+    }
+
+    /**
+     * Returns the position of the specified key, or `-(insertion point) - 1` if it is not stored.
+     *
+     * @param   key  a chunk key
+     *
+     * @return  the position of the key
+     */
+    private int find(char key) {
+        return Arrays.binarySearch(this.keys, 0, this.size, key);
+    }
+
+    /* ------------- CONTAINERS ------------------ */
+
+    /**
+     * This class defines the common behavior of the containers of a chunk of 2^16 values.
+     *
+     * Modifications return the container that has to replace this one.
+     */
+    private abstract static class Container {
+        /**
+         * Checks if the specified low value belongs to this container.
+         *
+         * @param   x  a low value
+         *
+         * @return  true if the value belongs to this container
+         */
+        abstract boolean contains(char x);
+
+        /**
+         * Returns the number of values of this container.
+         *
+         * @return  the cardinality
+         */
+        abstract int cardinality();
+
+        /**
+         * Returns the smallest value greater or equal to the specified one, or -1 if there is none.
+         *
+         * @param   from  a low value
+         *
+         * @return  the next value, or -1
+         */
+        abstract int next(int from);
+
+        /**
+         * Returns the greatest value of this container.
+         *
+         * @return  the last value
+         */
+        abstract int last();
+
+        /**
+         * Adds the specified low value.
+         *
+         * @param   x  a low value
+         *
+         * @return  the container replacing this one
+         */
+        abstract Container add(char x);
+
+        /**
+         * Removes the specified low value.
+         *
+         * @param   x  a low value
+         *
+         * @return  the container replacing this one
+         */
+        abstract Container remove(char x);
+
+        /**
+         * Intersects words `offset` to `offset + n - 1` of a packed bit set with this container.
+         *
+         * @param   words   a packed bit set
+         * @param   offset  the first word of the chunk
+         * @param   n       the number of words of the chunk to be intersected
+         */
+        abstract void and(long[] words, int offset, int n);
+
+        /**
+         * Returns the number of values of this container whose bit is set in words `offset` to `offset + n - 1`
+         * of a packed bit set.
+         *
+         * @param   words   a packed bit set
+         * @param   offset  the first word of the chunk
+         * @param   n       the number of words of the chunk to be read
+         *
+         * @return  the cardinality of the intersection
+         */
+        int andCardinality(long[] words, int offset, int n) {
+            int card = 0;
+            for (int x = this.next(0); x >= 0 && (x >>> 6) < n; x = this.next(x + 1)) {
+                if ((words[offset + (x >>> 6)] & (1L << x)) != 0) {
+                    card++;
+                }
+            }
+            return card;
+        }
+
+        /**
+         * Returns a copy of this container.
+         *
+         * @return  a copy
+         */
+        abstract Container copy();
+
+        /**
+         * Returns the number of values belonging to this container and to the specified one.
+         *
+         * @param   other  a container
+         *
+         * @return  the cardinality of the intersection
+         */
+        int andCardinality(Container other) {
+            Container small = this;
+            Container large = other;
+            if (other.cardinality() < this.cardinality()) {
+                small = other;
+                large = this;
+            }
+            int card = 0;
+            for (int x = small.next(0); x >= 0; x = small.next(x + 1)) {
+                if (large.contains((char) x)) {
+                    card++;
+                }
+            }
+            return card;
+        }
+
+        /**
+         * Returns the number of runs of consecutive values of this container.
+         *
+         * @return  the number of runs
+         */
+        int runs() {
+            int runs = 0;
+            int previous = -2;
+            for (int x = this.next(0); x >= 0; x = this.next(x + 1)) {
+                if (x != previous + 1) {
+                    runs++;
+                }
+                previous = x;
+            }
+            return runs;
+        }
+
+        /**
+         * Returns the most compact container storing the values of this one.
+         *
+         * @return  an array, bitmap or run container
+         */
+        Container optimize() {
+            int card = this.cardinality();
+            int runs = this.runs();
+            if (2 * runs < Math.min(card, ARRAY_MAX)) {
+                return RunContainer.of(this, runs);
+            }
+            if (card <= ARRAY_MAX) {
+                return ArrayContainer.of(this, card);
+            }
+            return BitmapContainer.of(this);
+        }
+    }
+
+    /**
+     * This class stores the values of a chunk as a sorted array of at most 4096 low values.
+     */
+    private static final class ArrayContainer extends Container {
+        /**
+         * The sorted values.
+         */
+        private char[] content;
+
+        /**
+         * The number of values.
+         */
+        private int card;
+
+        /**
+         * Constructs a new empty container.
+         */
+        ArrayContainer() {
+            this.content = new char[4];
+            this.card = 0;
+        }
+
+        /**
+         * Returns a new array container storing the values of the specified container.
+         *
+         * @param   container  a container
+         * @param   card       its cardinality
+         *
+         * @return  an array container
+         */
+        static ArrayContainer of(Container container, int card) {
+            ArrayContainer array = new ArrayContainer();
+            array.content = new char[card];
+            for (int x = container.next(0); x >= 0; x = container.next(x + 1)) {
+                array.content[array.card] = (char) x;
+                array.card++;
+            }
+            return array;
+        }
+
+        @Override
+        boolean contains(char x) {
+            return Arrays.binarySearch(this.content, 0, this.card, x) >= 0;
+        }
+
+        @Override
+        int cardinality() {
+            return this.card;
+        }
+
+        @Override
+        int next(int from) {
+            int i = Arrays.binarySearch(this.content, 0, this.card, (char) Math.min(from, LOW_MASK));
+            if (i < 0) {
+                i = -i - 1;
+            }
+            if (i < this.card && this.content[i] >= from) {
+                return this.content[i];
+            }
+            return -1;
+        }
+
+        @Override
+        int last() {
+            return this.content[this.card - 1];
+        }
+
+        @Override
+        Container add(char x) {
+            int i = Arrays.binarySearch(this.content, 0, this.card, x);
+            if (i >= 0) {
+                return this;
+            }
+            if (this.card == ARRAY_MAX) {
+                return BitmapContainer.of(this).add(x);
+            }
+            i = -i - 1;
+            if (this.card == this.content.length) {
+                this.content = Arrays.copyOf(this.content, Math.min(ARRAY_MAX, 2 * this.card));
+            }
+            System.arraycopy(this.content, i, this.content, i + 1, this.card - i);
+            this.content[i] = x;
+            this.card++;
+            return this;
+        }
+
+        @Override
+        Container remove(char x) {
+            int i = Arrays.binarySearch(this.content, 0, this.card, x);
+            if (i >= 0) {
+                System.arraycopy(this.content, i + 1, this.content, i, this.card - i - 1);
+                this.card--;
+            }
+            return this;
+        }
+
+        @Override
+        void and(long[] words, int offset, int n) {
+            int k = 0;
+            for (int w = 0; w < n; w++) {
+                long mask = 0L;
+                while (k < this.card && (this.content[k] >>> 6) == w) {
+                    mask |= 1L << this.content[k];
+                    k++;
+                }
+                words[offset + w] &= mask;
+            }
+        }
+
+        @Override
+        Container copy() {
+            ArrayContainer array = new ArrayContainer();
+            array.content = Arrays.copyOf(this.content, Math.max(1, this.card));
+            array.card = this.card;
+            return array;
+        }
+    }
+
+    /**
+     * This class stores the values of a chunk as a bitmap of 1024 words.
+     */
+    private static final class BitmapContainer extends Container {
+        /**
+         * The bitmap.
+         */
+        private long[] bitmap;
+
+        /**
+         * The number of values.
+         */
+        private int card;
+
+        /**
+         * Constructs a new empty container.
+         */
+        BitmapContainer() {
+            this.bitmap = new long[CHUNK_WORDS];
+            this.card = 0;
+        }
+
+        /**
+         * Returns a new bitmap container storing the values of the specified container.
+         *
+         * @param   container  a container
+         *
+         * @return  a bitmap container
+         */
+        static BitmapContainer of(Container container) {
+            BitmapContainer bitmap = new BitmapContainer();
+            for (int x = container.next(0); x >= 0; x = container.next(x + 1)) {
+                bitmap.bitmap[x >>> 6] |= 1L << x;
+                bitmap.card++;
+            }
+            return bitmap;
+        }
+
+        @Override
+        boolean contains(char x) {
+            return (this.bitmap[x >>> 6] & (1L << x)) != 0;
+        }
+
+        @Override
+        int cardinality() {
+            return this.card;
+        }
+
+        @Override
+        int next(int from) {
+            if (from > LOW_MASK) {
+                return -1;
+            }
+            return BitSets.nextSetBit(this.bitmap, from);
+        }
+
+        @Override
+        int last() {
+            int w = CHUNK_WORDS - 1;
+            while (this.bitmap[w] == 0) {
+                w--;
+            }
+            return w * BitSets.WORD_SIZE + BitSets.WORD_SIZE - 1 - Long.numberOfLeadingZeros(this.bitmap[w]);
+        }
+
+        @Override
+        Container add(char x) {
+            if (!this.contains(x)) {
+                this.bitmap[x >>> 6] |= 1L << x;
+                this.card++;
+            }
+            return this;
+        }
+
+        @Override
+        Container remove(char x) {
+            if (this.contains(x)) {
+                this.bitmap[x >>> 6] &= ~(1L << x);
+                this.card--;
+                if (this.card <= ARRAY_MAX) {
+                    return ArrayContainer.of(this, this.card);
+                }
+            }
+            return this;
+        }
+
+        @Override
+        void and(long[] words, int offset, int n) {
+            for (int w = 0; w < n; w++) {
+                words[offset + w] &= this.bitmap[w];
+            }
+        }
+
+        @Override
+        int andCardinality(long[] words, int offset, int n) {
+            int card = 0;
+            for (int w = 0; w < n; w++) {
+                card += Long.bitCount(words[offset + w] & this.bitmap[w]);
+            }
+            return card;
+        }
+
+        @Override
+        int andCardinality(Container other) {
+            if (other instanceof BitmapContainer) {
+                return BitSets.andCardinality(this.bitmap, ((BitmapContainer) other).bitmap, CHUNK_WORDS);
+            }
+            return super.andCardinality(other);
+        }
+
+        @Override
+        Container copy() {
+            BitmapContainer bitmap = new BitmapContainer();
+            bitmap.bitmap = this.bitmap.clone();
+            bitmap.card = this.card;
+            return bitmap;
+        }
+    }
+
+    /**
+     * This class stores the values of a chunk as sorted runs of consecutive values.
+     *
+     * Run `i` starts at value `runs[2 * i]` and contains `runs[2 * i + 1] + 1` values.
+     * A run container is never modified in place: a modification converts it to another container.
+     */
+    private static final class RunContainer extends Container {
+        /**
+         * The start and the length minus one of each run.
+         */
+        private char[] runs;
+
+        /**
+         * The number of values.
+         */
+        private int card;
+
+        /**
+         * Constructs a new container from the specified runs.
+         *
+         * @param   runs  the start and the length minus one of each run
+         * @param   card  the number of values
+         */
+        private RunContainer(char[] runs, int card) {
+            this.runs = runs;
+            this.card = card;
+        }
+
+        /**
+         * Returns a new run container storing the values of the specified container.
+         *
+         * @param   container  a container
+         * @param   nbRuns     its number of runs
+         *
+         * @return  a run container
+         */
+        static RunContainer of(Container container, int nbRuns) {
+            char[] runs = new char[2 * nbRuns];
+            int r = -1;
+            int previous = -2;
+            int card = 0;
+            for (int x = container.next(0); x >= 0; x = container.next(x + 1)) {
+                if (x == previous + 1) {
+                    runs[2 * r + 1]++;
+                } else {
+                    r++;
+                    runs[2 * r] = (char) x;
+                }
+                previous = x;
+                card++;
+            }
+            return new RunContainer(runs, card);
+        }
+
+        /**
+         * Returns the position of the run containing the specified value or of the first run after it.
+         *
+         * @param   x  a low value
+         *
+         * @return  the position of a run, or the number of runs
+         */
+        private int run(int x) {
+            int lo = 0;
+            int hi = this.runs.length / 2;
+            while (lo < hi) {
+                int mid = (lo + hi) >>> 1;
+                if (this.runs[2 * mid] + this.runs[2 * mid + 1] < x) {
+                    lo = mid + 1;
+                } else {
+                    hi = mid;
+                }
+            }
+            return lo;
+        }
+
+        @Override
+        boolean contains(char x) {
+            int r = this.run(x);
+            return r < this.runs.length / 2 && this.runs[2 * r] <= x;
+        }
+
+        @Override
+        int cardinality() {
+            return this.card;
+        }
+
+        @Override
+        int next(int from) {
+            int r = this.run(from);
+            if (r == this.runs.length / 2) {
+                return -1;
+            }
+            return Math.max(from, this.runs[2 * r]);
+        }
+
+        @Override
+        int last() {
+            int r = this.runs.length - 2;
+            return this.runs[r] + this.runs[r + 1];
+        }
+
+        @Override
+        Container add(char x) {
+            if (this.contains(x)) {
+                return this;
+            }
+            return this.expand().add(x);
+        }
+
+        @Override
+        Container remove(char x) {
+            if (!this.contains(x)) {
+                return this;
+            }
+            return this.expand().remove(x);
+        }
+
+        /**
+         * Returns an array or bitmap container storing the values of this one.
+         *
+         * @return  a modifiable container
+         */
+        private Container expand() {
+            if (this.card <= ARRAY_MAX) {
+                return ArrayContainer.of(this, this.card);
+            }
+            return BitmapContainer.of(this);
+        }
+
+        @Override
+        void and(long[] words, int offset, int n) {
+            int nbRuns = this.runs.length / 2;
+            int r = 0;
+            for (int w = 0; w < n; w++) {
+                int lo = w * BitSets.WORD_SIZE;
+                int hi = lo + BitSets.WORD_SIZE - 1;
+                long mask = 0L;
+                while (r < nbRuns && this.runs[2 * r] <= hi) {
+                    int start = Math.max(this.runs[2 * r], lo);
+                    int end = this.runs[2 * r] + this.runs[2 * r + 1];
+                    if (end >= lo) {
+                        mask |= (-1L >>> (hi - Math.min(end, hi))) & (-1L << (start - lo));
+                    }
+                    if (end > hi) {
+                        break;
+                    }
+                    r++;
+                }
+                words[offset + w] &= mask;
+            }
+        }
+
+        @Override
+        Container copy() {
+            return new RunContainer(this.runs.clone(), this.card);
+        }
+    }
+}
@@ -0,0 +1,210 @@
+package fr.kbertet.util;
+
+/*
+ * CompressedBitSetList.java
+ *
+ * Copyright: 2010-2014 Karell Bertet, France
+ *
+ * License: http://www.cecill.info/licences/Licence_CeCILL-B_V1-en.html CeCILL-B license
+ *
+ * This file is part of java-lattices, free package. You can redistribute it and/or modify
+ * it under the terms of CeCILL-B license.
+ */
+
+import java.util.ArrayList;
+
+/**
+ * This class gives a list of bit sets stored as {@link CompressedBitSet}.
+ *
+ * The memory used by a line is proportional to its number of bits set rather than to its greatest bit set.
+ * This representation suits very sparse binary relations.
+ *
+ * ![CompressedBitSetList](CompressedBitSetList.png)
+ *
+ * @uml CompressedBitSetList.png
+ * !include resources/fr/kbertet/util/BitSetList.iuml
+ * !include resources/fr/kbertet/util/CompressedBitSetList.iuml
+ *
+ * hide members
+ * show CompressedBitSetList members
+ * class CompressedBitSetList #LightCyan
+ * title CompressedBitSetList UML graph
+ */
+public class CompressedBitSetList extends BitSetList {
+    /* ------------- FIELDS ------------------ */
+
+    /**
+     * The lines.
+     */
+    private ArrayList<CompressedBitSet> lines;
+
+    /* ------------- CONSTRUCTORS ------------------ */
+
+    /**
+     * Constructs a new empty list.
+     */
+    public CompressedBitSetList() {
+        this.lines = new ArrayList<CompressedBitSet>();
+    }
+
+    /* ------------- ACCESSORS ------------------ */
+
+    /**
+     * Returns the number of lines of this component.
+     *
+     * @return  the number of lines
+     */
+    public int size() {
+        return this.lines.size();
+    }
+
+    /**
+     * Returns the specified line.
+     *
+     * @param   i  a line index
+     *
+     * @return  the compressed line
+     */
+    public CompressedBitSet getLine(int i) {
+        return this.lines.get(i);
+    }
+
+    /**
+     * Checks if the specified bit of the specified line is set.
+     *
+     * @param   i    a line index
+     * @param   bit  a bit index
+     *
+     * @return  true if the bit is set
+     */
+    public boolean get(int i, int bit) {
+        return this.lines.get(i).get(bit);
+    }
+
+    /**
+     * Returns the index of the first bit set at or after the specified index in the specified line,
+     * or -1 if there is none.
+     *
+     * @param   i     a line index
+     * @param   from  the starting bit index
+     *
+     * @return  the index of the next bit set, or -1
+     */
+    public int nextSetBit(int i, int from) {
+        return this.lines.get(i).nextSetBit(from);
+    }
+
+    /**
+     * Returns the number of bits set in the specified line.
+     *
+     * @param   i  a line index
+     *
+     * @return  the cardinality of the line
+     */
+    public int cardinality(int i) {
+        return this.lines.get(i).cardinality();
+    }
+
+    /**
+     * Replaces the `n` first words of the specified packed bit set by their intersection
+     * with the specified line.
+     *
+     * Words outside the chunks of the line are cleared without being read.
+     *
+     * @param   i      a line index
+     * @param   words  a packed bit set
+     * @param   n      the number of words
+     */
+    public void and(int i, long[] words, int n) {
+        this.lines.get(i).and(words, n);
+    }
+
+    /**
+     * Returns the number of bits set in both the specified line and the `n` first words
+     * of the specified packed bit set, without modifying it.
+     *
+     * Words outside the chunks of the line are not read.
+     *
+     * @param   i      a line index
+     * @param   words  a packed bit set
+     * @param   n      the number of words
+     *
+     * @return  the cardinality of the intersection
+     */
+    public int andCardinality(int i, long[] words, int n) {
+        return this.lines.get(i).andCardinality(words, n);
+    }
+
+    /**
+     * Returns a copy of this component.
+     *
+     * @return  a copy of this component
+     */
+    public BitSetList copy() {
+        CompressedBitSetList list = new CompressedBitSetList();
+        for (CompressedBitSet line : this.lines) {
+            list.lines.add(new CompressedBitSet(line));
+        }
+        return list;
+    }
+
+    /**
+     * Returns a new empty compressed list.
+     *
+     * @return  an empty list
+     */
+    public BitSetList create() {
+        return new CompressedBitSetList();
+    }
+
+    /* ------------- MUTATORS ------------------ */
+
+    /**
+     * Appends an empty line to this component.
+     */
+    public void add() {
+        this.lines.add(new CompressedBitSet());
+    }
+
+    /**
+     * Sets the specified bit of the specified line.
+     *
+     * @param   i    a line index
+     * @param   bit  a bit index
+     */
+    public void set(int i, int bit) {
+        this.lines.get(i).set(bit);
+    }
+
+    /**
+     * Clears the specified bit of the specified line.
+     *
+     * @param   i    a line index
+     * @param   bit  a bit index
+     */
+    public void clear(int i, int bit) {
+        this.lines.get(i).clear(bit);
+    }
+
+    /**
+     * Removes the specified line, the last line taking its index.
+     *
+     * @param   i  a line index
+     */
+    public void remove(int i) {
+        int last = this.lines.size() - 1;
+        CompressedBitSet moved = this.lines.remove(last);
+        if (i < last) {
+            this.lines.set(i, moved);
+        }
+    }
+
+    /**
+     * Converts the containers of each line into their most compact form, including run containers.
+     */
+    public void optimize() {
+        for (CompressedBitSet line : this.lines) {
+            line.optimize();
+        }
+    }
+}
@@ -0,0 +1,195 @@
+package fr.kbertet.util;
+
+/*
+ * DenseBitSetList.java
+ *
+ * Copyright: 2010-2014 Karell Bertet, France
+ *
+ * License: http://www.cecill.info/licences/Licence_CeCILL-B_V1-en.html CeCILL-B license
+ *
+ * This file is part of java-lattices, free package. You can redistribute it and/or modify
+ * it under the terms of CeCILL-B license.
+ */
+
+import java.util.ArrayList;
+
+/**
+ * This class gives a list of bit sets stored as packed bit sets of `long` (see {@link BitSets}).
+ *
+ * Each line uses one bit per possible index up to its greatest bit set, and lines are lazily grown.
+ * This representation suits dense binary relations.
+ *
+ * ![DenseBitSetList](DenseBitSetList.png)
+ *
+ * @uml DenseBitSetList.png
+ * !include resources/fr/kbertet/util/BitSetList.iuml
+ * !include resources/fr/kbertet/util/DenseBitSetList.iuml
+ *
+ * hide members
+ * show DenseBitSetList members
+ * class DenseBitSetList #LightCyan
+ * title DenseBitSetList UML graph
+ */
+public class DenseBitSetList extends BitSetList {
+    /* ------------- FIELDS ------------------ */
+
+    /**
+     * The lines.
+     */
+    private ArrayList<long[]> lines;
+
+    /* ------------- CONSTRUCTORS ------------------ */
+
+    /**
+     * Constructs a new empty list.
+     */
+    public DenseBitSetList() {
+        this.lines = new ArrayList<long[]>();
+    }
+
+    /* ------------- ACCESSORS ------------------ */
+
+    /**
+     * Returns the number of lines of this component.
+     *
+     * @return  the number of lines
+     */
+    public int size() {
+        return this.lines.size();
+    }
+
+    /**
+     * Checks if the specified bit of the specified line is set.
+     *
+     * @param   i    a line index
+     * @param   bit  a bit index
+     *
+     * @return  true if the bit is set
+     */
+    public boolean get(int i, int bit) {
+        return BitSets.get(this.lines.get(i), bit);
+    }
+
+    /**
+     * Returns the index of the first bit set at or after the specified index in the specified line,
+     * or -1 if there is none.
+     *
+     * @param   i     a line index
+     * @param   from  the starting bit index
+     *
+     * @return  the index of the next bit set, or -1
+     */
+    public int nextSetBit(int i, int from) {
+        return BitSets.nextSetBit(this.lines.get(i), from);
+    }
+
+    /**
+     * Returns the number of bits set in the specified line.
+     *
+     * @param   i  a line index
+     *
+     * @return  the cardinality of the line
+     */
+    public int cardinality(int i) {
+        long[] line = this.lines.get(i);
+        return BitSets.cardinality(line, line.length);
+    }
+
+    /**
+     * Replaces the `n` first words of the specified packed bit set by their intersection
+     * with the specified line.
+     *
+     * This treatment is performed in O(n).
+     *
+     * @param   i      a line index
+     * @param   words  a packed bit set
+     * @param   n      the number of words
+     */
+    public void and(int i, long[] words, int n) {
+        BitSets.and(words, this.lines.get(i), n);
+    }
+
+    /**
+     * Returns the number of bits set in both the specified line and the `n` first words
+     * of the specified packed bit set, without modifying it.
+     *
+     * This treatment is performed in O(n).
+     *
+     * @param   i      a line index
+     * @param   words  a packed bit set
+     * @param   n      the number of words
+     *
+     * @return  the cardinality of the intersection
+     */
+    public int andCardinality(int i, long[] words, int n) {
+        return BitSets.andCardinality(words, this.lines.get(i), n);
+    }
+
+    /**
+     * Returns a copy of this component.
+     *
+     * @return  a copy of this component
+     */
+    public BitSetList copy() {
+        DenseBitSetList list = new DenseBitSetList();
+        for (long[] line : this.lines) {
+            list.lines.add(line.clone());
+        }
+        return list;
+    }
+
+    /**
+     * Returns a new empty dense list.
+     *
+     * @return  an empty list
+     */
+    public BitSetList create() {
+        return new DenseBitSetList();
+    }
+
+    /* ------------- MUTATORS ------------------ */
+
+    /**
+     * Appends an empty line to this component.
+     */
+    public void add() {
+        this.lines.add(new long[0]);
+    }
+
+    /**
+     * Sets the specified bit of the specified line, growing the line when needed.
+     *
+     * @param   i    a line index
+     * @param   bit  a bit index
+     */
+    public void set(int i, int bit) {
+        long[] line = this.lines.get(i);
+        long[] grown = BitSets.set(line, bit);
+        if (grown != line) {
+            this.lines.set(i, grown);
+        }
+    }
+
+    /**
+     * Clears the specified bit of the specified line.
+     *
+     * @param   i    a line index
+     * @param   bit  a bit index
+     */
+    public void clear(int i, int bit) {
+        BitSets.clear(this.lines.get(i), bit);
+    }
+
+    /**
+     * Removes the specified line, the last line taking its index.
+     *
+     * @param   i  a line index
+     */
+    public void remove(int i) {
+        int last = this.lines.size() - 1;
+        long[] moved = this.lines.remove(last);
+        if (i < last) {
+            this.lines.set(i, moved);
+        }
+    }
+}
@@ -0,0 +1,205 @@
+package fr.kbertet.util;
+
+/*
+ * Index.java
+ *
+ * Copyright: 2010-2014 Karell Bertet, France
+ *
+ * License: http://www.cecill.info/licences/Licence_CeCILL-B_V1-en.html CeCILL-B license
+ *
+ * This file is part of java-lattices, free package. You can redistribute it and/or modify
+ * it under the terms of CeCILL-B license.
+ */
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+
+/**
+ * This class gives a dense numbering of comparable elements.
+ *
+ * Each element added to an index is associated to an integer between `0` and `size() - 1`,
+ * so that elements can be used as positions in arrays or packed bit sets (see {@link BitSets}).
+ *
+ * Both directions of the mapping are performed in O(1): an array list gives the element of an index,
+ * and a hash map gives the index of an element.
+ *
+ * ![Index](Index.png)
+ *
+ * @uml Index.png
+ * !include resources/fr/kbertet/util/Index.iuml
+ *
+ * class Index #LightCyan
+ * title Index UML graph
+ */
+public class Index {
+    /* ------------- FIELDS ------------------ */
+
+    /**
+     * The elements, ordered by index.
+     */
+    private ArrayList<Comparable> elements;
+
+    /**
+     * The index of each element.
+     */
+    private HashMap<Comparable, Integer> indexes;
+
+    /* ------------- CONSTRUCTORS ------------------ */
+
+    /**
+     * Constructs a new empty index.
+     */
+    public Index() {
+        this.elements = new ArrayList<Comparable>();
+        this.indexes = new HashMap<Comparable, Integer>();
+    }
+
+    /**
+     * Constructs a new index as a copy of the specified one.
+     *
+     * @param   index  the index to be copied
+     */
+    public Index(Index index) {
+        this.elements = new ArrayList<Comparable>(index.elements);
+        this.indexes = new HashMap<Comparable, Integer>(index.indexes);
+    }
+
+    /* ------------- ACCESSORS ------------------ */
+
+    /**
+     * Returns the number of elements of this component.
+     *
+     * @return  the number of elements
+     */
+    public int size() {
+        return this.elements.size();
+    }
+
+    /**
+     * Returns the element associated to the specified index.
+     *
+     * @param   index  an index between `0` and `size() - 1`
+     *
+     * @return  the element
+     */
+    public Comparable get(int index) {
+        return this.elements.get(index);
+    }
+
+    /**
+     * Returns the index of the specified element, or -1 if it does not belong to this component.
+     *
+     * @param   element  an element
+     *
+     * @return  the index of the element, or -1
+     */
+    public int indexOf(Comparable element) {
+        Integer index = this.indexes.get(element);
+        if (index == null) {
+            return -1;
+        }
+        return index.intValue();
+    }
+
+    /**
+     * Checks if the specified element belongs to this component.
+     *
+     * @param   element  an element
+     *
+     * @return  true if the element has an index
+     */
+    public boolean contains(Comparable element) {
+        return this.indexes.containsKey(element);
+    }
+
+    /**
+     * Returns the packed bit set of the indexes of the specified elements.
+     *
+     * Elements that do not belong to this component are ignored.
+     * The returned array has exactly `BitSets.words(size())` words.
+     *
+     * @param   set  a collection of elements
+     *
+     * @return  the packed bit set of their indexes
+     */
+    public long[] bits(Collection<? extends Comparable> set) {
+        long[] bits = new long[BitSets.words(this.size())];
+        for (Comparable element : set) {
+            int index = this.indexOf(element);
+            if (index >= 0) {
+                bits = BitSets.set(bits, index);
+            }
+        }
+        return bits;
+    }
+
+    /**
+     * Returns the set of elements whose index is set in the specified packed bit set.
+     *
+     * @param   bits  a packed bit set of indexes of this component
+     *
+     * @return  the set of elements
+     */
+    public ComparableSet elements(long[] bits) {
+        ComparableSet set = new ComparableSet();
+        for (int i = BitSets.nextSetBit(bits, 0); i >= 0; i = BitSets.nextSetBit(bits, i + 1)) {
+            set.add(this.elements.get(i));
+        }
+        return set;
+    }
+
+    /* ------------- MUTATORS ------------------ */
+
+    /**
+     * Adds the specified element at the end of this component when it does not belong to it.
+     *
+     * @param   element  an element
+     *
+     * @return  the index of the element
+     */
+    public int add(Comparable element) {
+        Integer index = this.indexes.get(element);
+        if (index == null) {
+            index = this.elements.size();
+            this.elements.add(element);
+            this.indexes.put(element, index);
+        }
+        return index.intValue();
+    }
+
+    /**
+     * Removes the specified element from this component.
+     *
+     * In order to keep a dense numbering, the last element takes the index of the removed one.
+     * This treatment is performed in O(1).
+     *
+     * @param   element  an element
+     *
+     * @return  the former index of the element, or -1 if it did not belong to this component
+     */
+    public int remove(Comparable element) {
+        Integer index = this.indexes.remove(element);
+        if (index == null) {
+            return -1;
+        }
+        int last = this.elements.size() - 1;
+        Comparable moved = this.elements.remove(last);
+        if (index.intValue() < last) {
+            this.elements.set(index.intValue(), moved);
+            this.indexes.put(moved, index);
+        }
+        return index.intValue();
+    }
+
+    /**
+     * Removes all the elements of this component.
+     *
+     * @return  this for chaining
+     */
+    public Index clear() {
+        this.elements.clear();
+        this.indexes.clear();
+        return this;
+    }
+}
@@ -20,8 +20,10 @@ import java.io.File;
 import java.util.ArrayList;
 import java.util.TreeSet;
 
+import fr.kbertet.util.ComparableSet;
 import fr.kbertet.util.Couple;
 import fr.kbertet.dgraph.Node;
+import fr.kbertet.lattice.Concept;
 import fr.kbertet.lattice.Lattice;
 import fr.kbertet.lattice.ConceptLattice;
 import fr.kbertet.lattice.LatticeFactory;
@@ -313,6 +315,145 @@ public class ContextTest {
         assertTrue(context.getExtentNb(attributes) == 3);
     }
 
+    /**
+     * Test of closure.
+     */
+    @Test
+    public void testClosure() {
+        Context context = new Context();
+        context.addToAttributes("a");
+        context.addToAttributes("b");
+        context.addToAttributes("c");
+        context.addToObservations("1");
+        context.addToObservations("2");
+        context.addToObservations("3");
+        context.addExtentIntent("1", "a");
+        context.addExtentIntent("1", "b");
+        context.addExtentIntent("2", "a");
+        context.addExtentIntent("3", "b");
+        context.addExtentIntent("3", "c");
+        TreeSet<Comparable> set = new TreeSet();
+        assertEquals(new TreeSet(), context.closure(set));
+        set.add("c");
+        TreeSet<Comparable> closure = new TreeSet();
+        closure.add("b");
+        closure.add("c");
+        assertEquals(closure, context.closure(set));
+        set.add("a");
+        assertEquals(context.getAttributes(), context.closure(set));
+        set.add("d");
+        assertEquals(context.getAttributes(), context.closure(set));
+        for (int i = 0; i < 100; i++) {
+            context.addToAttributes("x" + i);
+            context.addExtentIntent("2", "x" + i);
+        }
+        set.clear();
+        set.add("x99");
+        closure = context.getIntent("2");
+        assertEquals(closure, context.closure(set));
+        assertEquals(closure.size(), context.getIntentNb(context.getExtent(set)));
+    }
+
+    /**
+     * Test that a context is consistent after each modification.
+     */
+    @Test
+    public void testIncrementalUpdates() {
+        Context context = new Context();
+        for (int i = 0; i < 70; i++) {
+            context.addToAttributes("a" + i);
+            context.addToObservations(i);
+        }
+        for (int i = 0; i < 70; i++) {
+            context.addExtentIntent(i, "a" + i);
+            context.addExtentIntent(i, "a" + ((i + 1) % 70));
+        }
+        assertTrue(context.removeFromAttributes("a0"));
+        assertFalse(context.removeFromAttributes("a0"));
+        assertFalse(context.containAsIntent(0, "a0"));
+        assertTrue(context.containAsIntent(68, "a69"));
+        assertTrue(context.containAsExtent("a69", 69));
+        TreeSet<Comparable> set = new TreeSet();
+        set.add("a69");
+        assertEquals(2, context.getExtentNb(set));
+        assertTrue(context.removeFromObservations(0));
+        assertTrue(context.containAsExtent("a69", 69));
+        assertEquals(2, context.getExtentNb(set));
+        assertEquals(context.getIntent(69), context.closure(context.getIntent(69)));
+        assertTrue(context.addToAttributes("b"));
+        assertTrue(context.addExtentIntent(69, "b"));
+        assertFalse(context.addExtentIntent(69, "b"));
+        set.add("b");
+        assertEquals(1, context.getExtentNb(set));
+        assertTrue(context.removeExtentIntent(69, "b"));
+        assertEquals(0, context.getExtentNb(set));
+        assertEquals(69, context.getObservations().size());
+        assertEquals(70, context.getAttributes().size());
+    }
+
+    /**
+     * Test of setCompressed.
+     */
+    @Test
+    public void testCompressed() {
+        Context dense = Context.random(40, 6, 4);
+        Context compressed = new Context(dense).setCompressed(true);
+        assertTrue(compressed.isCompressed());
+        assertFalse(dense.isCompressed());
+        for (Comparable att : dense.getAttributes()) {
+            TreeSet<Comparable> set = new TreeSet();
+            set.add(att);
+            assertEquals(dense.getExtent(att), compressed.getExtent(att));
+            assertEquals(dense.getExtentNb(set), compressed.getExtentNb(set));
+            assertEquals(dense.closure(set), compressed.closure(set));
+        }
+        for (Comparable obs : dense.getObservations()) {
+            TreeSet<Comparable> set = dense.getIntent(obs);
+            assertEquals(set, compressed.getIntent(obs));
+            assertEquals(dense.getExtentNb(set), compressed.getExtentNb(set));
+            assertEquals(dense.closure(set), compressed.closure(set));
+        }
+        Comparable att = dense.getAttributes().first();
+        compressed.removeFromAttributes(att);
+        compressed.setBitSets();
+        assertTrue(compressed.isCompressed());
+        assertEquals(dense.getAttributes().size() - 1, compressed.getAttributes().size());
+        compressed.setCompressed(false);
+        assertFalse(compressed.isCompressed());
+        for (Comparable obs : dense.getObservations()) {
+            TreeSet<Comparable> set = dense.getIntent(obs);
+            set.remove(att);
+            assertEquals(set, compressed.getIntent(obs));
+        }
+    }
+
+    /**
+     * Test of immediateSuccessorsLOA.
+     */
+    @Test
+    public void testImmediateSuccessorsLOA() {
+        Context dense = Context.random(30, 5, 3);
+        Context compressed = new Context(dense).setCompressed(true);
+        ArrayList<TreeSet<Comparable>> intents = new ArrayList<TreeSet<Comparable>>();
+        intents.add(dense.closure(new TreeSet<Comparable>()));
+        for (Comparable obs : dense.getObservations()) {
+            intents.add(dense.getIntent(obs));
+        }
+        for (TreeSet<Comparable> intent : intents) {
+            TreeSet<ComparableSet> expected = new TreeSet<ComparableSet>();
+            for (TreeSet<Comparable> succ : new Concept(intent, false).immediateSuccessors(dense)) {
+                expected.add(new ComparableSet(succ));
+            }
+            for (Context context : new Context[] {dense, compressed}) {
+                TreeSet<ComparableSet> successors = new TreeSet<ComparableSet>();
+                for (TreeSet<Comparable> succ : context.immediateSuccessorsLOA(intent)) {
+                    successors.add(new ComparableSet(succ));
+                }
+                assertEquals(expected, successors);
+            }
+        }
+    }
+
     /**
      * Test of getIntentNb.
      */
@@ -0,0 +1,74 @@
+package fr.kbertet.context;
+
+/*
+ * MappedContextTest.java
+ *
+ * Copyright: 2010-2014 Karell Bertet, France
+ *
+ * License: http://www.cecill.info/licences/Licence_CeCILL-B_V1-en.html CeCILL-B license
+ *
+ * This file is part of java-lattices, free package. You can redistribute it and/or modify
+ * it under the terms of CeCILL-B license.
+ */
+
+import org.junit.Test;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.TreeSet;
+
+import fr.kbertet.util.BitSets;
+import fr.kbertet.util.Index;
+
+/**
+ *
+ * @author cguerin
+ */
+public class MappedContextTest {
+    /**
+     * Test write and the queries of a mapped context.
+     *
+     * @throws  IOException  When an IOException occurs
+     */
+    @Test
+    public void testQueries() throws IOException {
+        File file = File.createTempFile("junit", ".map");
+        try {
+            Context context = Context.random(100, 8, 12);
+            MappedContext.write(context, file.getPath());
+            MappedContext mapped = new MappedContext(file.getPath());
+            assertEquals(context.getObservations().size(), mapped.getObservationsNb());
+            assertEquals(context.getAttributes().size(), mapped.getAttributesNb());
+            assertEquals(context.getObservations(), mapped.getObservations());
+            assertEquals(context.getAttributes(), mapped.getSet());
+            for (Comparable obs : context.getObservations()) {
+                TreeSet<Comparable> intent = context.getIntent(obs);
+                assertEquals(intent, mapped.getIntent(obs));
+                assertEquals(context.getExtent(intent), mapped.getExtent(intent));
+                assertEquals(context.getExtentNb(intent), mapped.getExtentNb(intent));
+                assertEquals(context.closure(intent), mapped.closure(intent));
+            }
+            for (Comparable att : context.getAttributes()) {
+                assertEquals(context.getExtent(att), mapped.getExtent(att));
+                assertEquals(context.getIntent(context.getExtent(att)), mapped.getIntent(mapped.getExtent(att)));
+            }
+            assertTrue(mapped.getExtent("unknown").isEmpty());
+            assertFalse(mapped.containAsIntent("unknown", context.getAttributes().first()));
+            assertEquals(context.allClosures().size(), mapped.allClosures().size());
+            Index index = mapped.getIndex();
+            long[] in = new long[BitSets.words(index.size())];
+            long[] out = new long[in.length];
+            mapped.closure(in, out, new long[mapped.getScratchSize()]);
+            assertEquals(context.closure(new TreeSet<Comparable>()), index.elements(out));
+            Context copy = mapped.toContext();
+            for (Comparable obs : context.getObservations()) {
+                assertEquals(context.getIntent(obs), copy.getIntent(obs));
+            }
+        } finally {
+            file.delete();
+        }
+    }
+}
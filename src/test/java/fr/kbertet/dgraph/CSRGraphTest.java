@@ -0,0 +1,153 @@
+package fr.kbertet.dgraph;
+
+/*
+ * CSRGraphTest.java
+ *
+ * Copyright: 2010-2014 Karell Bertet, France
+ *
+ * License: http://www.cecill.info/licences/Licence_CeCILL-B_V1-en.html CeCILL-B license
+ *
+ * This file is part of java-lattices, free package. You can redistribute it and/or modify
+ * it under the terms of CeCILL-B license.
+ */
+
+import org.junit.Test;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.TreeSet;
+
+/**
+ * Test the dgraph.CSRGraph class.
+ *
+ * @author cguerin
+ */
+public class CSRGraphTest {
+    /**
+     * Test the constructor and the accessors.
+     */
+    @Test
+    public void testConstructor() {
+        DGraph graph = new DGraph();
+        Node a = new Node("a");
+        Node b = new Node("b");
+        Node c = new Node("c");
+        graph.addNode(a);
+        graph.addNode(b);
+        graph.addNode(c);
+        graph.addEdge(a, b, "ab");
+        graph.addEdge(a, c);
+        graph.addEdge(c, b);
+        CSRGraph csr = new CSRGraph(graph);
+        assertEquals(3, csr.sizeNodes());
+        assertEquals(3, csr.sizeEdges());
+        int ia = csr.indexOf(a);
+        int ib = csr.indexOf(b);
+        int ic = csr.indexOf(c);
+        assertEquals(a, csr.getNode(ia));
+        assertEquals(-1, csr.indexOf(new Node()));
+        assertEquals(2, csr.outDegree(ia));
+        assertEquals(2, csr.inDegree(ib));
+        assertEquals(ib, csr.successor(ia, 0));
+        assertEquals(ia, csr.predecessor(ic, 0));
+        assertEquals("ab", csr.getContent(ia, 0));
+        assertNull(csr.getContent(ia, 1));
+        assertTrue(csr.containsEdge(ic, ib));
+        assertFalse(csr.containsEdge(ib, ic));
+        assertEquals(1, csr.getSinks().length);
+        assertEquals(ia, csr.getSinks()[0]);
+        assertEquals(1, csr.getWells().length);
+        assertEquals(ib, csr.getWells()[0]);
+        assertEquals(graph.toString(), csr.toDGraph().toString());
+    }
+
+    /**
+     * Test topologicalSort and isAcyclic.
+     */
+    @Test
+    public void testTopologicalSort() {
+        DAGraph dag = DAGraph.random(30, 0.2);
+        CSRGraph csr = new CSRGraph(dag);
+        assertTrue(csr.isAcyclic());
+        int[] sort = csr.topologicalSort();
+        assertEquals(dag.sizeNodes(), sort.length);
+        int[] rank = new int[sort.length];
+        for (int r = 0; r < sort.length; r++) {
+            rank[sort[r]] = r;
+        }
+        for (Edge edge : dag.getEdges()) {
+            assertTrue(rank[csr.indexOf(edge.getFrom())] < rank[csr.indexOf(edge.getTo())]);
+        }
+        DGraph graph = new DGraph(dag);
+        graph.addEdge(csr.getNode(sort[0]), csr.getNode(sort[0]));
+        CSRGraph cyclic = new CSRGraph(graph);
+        assertFalse(cyclic.isAcyclic());
+    }
+
+    /**
+     * Test reachable and transitiveClosure.
+     */
+    @Test
+    public void testTransitiveClosure() {
+        DGraph graph = DGraph.random(25, 0.08);
+        CSRGraph csr = new CSRGraph(graph);
+        DGraph closed = new DGraph(graph);
+        closed.transitiveClosure();
+        CSRGraph closure = csr.transitiveClosure();
+        assertEquals(closed.sizeEdges(), closure.sizeEdges());
+        for (int i = 0; i < csr.sizeNodes(); i++) {
+            assertEquals(closed.getSuccessorNodes(csr.getNode(i)), csr.getNodes(csr.reachable(i)));
+        }
+        assertEquals(closed.toString(), closure.toDGraph().toString());
+    }
+
+    /**
+     * Test transitiveReduction.
+     */
+    @Test
+    public void testTransitiveReduction() {
+        DAGraph dag = DAGraph.random(40, 0.3);
+        CSRGraph reduction = new CSRGraph(dag).transitiveReduction();
+        dag.transitiveReduction();
+        assertEquals(dag.toString(), reduction.toDGraph().toString());
+        DGraph cycle = DGraph.random(10, 1);
+        try {
+            new CSRGraph(cycle).transitiveReduction();
+            assertTrue(false);
+        } catch (IllegalStateException e) {
+            assertTrue(true);
+        }
+    }
+
+    /**
+     * Test getStronglyConnectedComponents.
+     */
+    @Test
+    public void testStronglyConnectedComponents() {
+        DGraph graph = DGraph.random(30, 0.05);
+        CSRGraph csr = new CSRGraph(graph);
+        int[] component = csr.getStronglyConnectedComponents();
+        DAGraph expected = graph.getStronglyConnectedComponent();
+        HashMap<Integer, TreeSet<Node>> components = new HashMap<Integer, TreeSet<Node>>();
+        for (int i = 0; i < csr.sizeNodes(); i++) {
+            if (!components.containsKey(component[i])) {
+                components.put(component[i], new TreeSet<Node>());
+            }
+            components.get(component[i]).add(csr.getNode(i));
+        }
+        ArrayList<TreeSet<Node>> actual = new ArrayList<TreeSet<Node>>(components.values());
+        assertEquals(expected.sizeNodes(), actual.size());
+        for (Node cc : expected.getNodes()) {
+            assertTrue(actual.contains(cc.getContent()));
+        }
+        for (int i = 0; i < csr.sizeNodes(); i++) {
+            for (int k = 0; k < csr.outDegree(i); k++) {
+                assertTrue(component[i] >= component[csr.successor(i, k)]);
+            }
+        }
+    }
+}
@@ -13,6 +13,7 @@ package fr.kbertet.dgraph;
 
 import org.junit.Test;
 import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertEquals;
 
 import java.util.TreeSet;
@@ -242,5 +243,64 @@ public class DAGraphTest {
         copy.transitiveClosure();
         assertEquals(copy.toString(), dag.toString());
     }
-}
 
+    /**
+     * Test the transitiveClosure and transitiveReduction methods against the CSR graph, sequentially and in parallel.
+     */
+    @Test
+    public void testTransitiveClosureReductionParallel() {
+        DAGraph dag = DAGraph.random(200, 0.05);
+        CSRGraph csr = new CSRGraph(dag);
+        DAGraph closed = new DAGraph(dag);
+        DAGraph closedParallel = new DAGraph(dag);
+        int added = closed.transitiveClosure();
+        assertEquals(added, closedParallel.transitiveClosureParallel());
+        assertEquals(csr.transitiveClosure().sizeEdges(), closed.sizeEdges());
+        assertEquals(closed.sizeEdges() - dag.sizeEdges(), added);
+        assertEquals(closed.toString(), closedParallel.toString());
+        String reduction = csr.transitiveReduction().toDGraph().toString();
+        DAGraph reduced = new DAGraph(closed);
+        assertEquals(closed.sizeEdges() - csr.transitiveReduction().sizeEdges(), reduced.transitiveReduction());
+        assertEquals(reduction, reduced.toString());
+        closed.transitiveReductionParallel();
+        assertEquals(reduction, closed.toString());
+        for (Node node : dag.getNodes()) {
+            assertEquals(csr.getNodes(csr.reachable(csr.indexOf(node))), dag.majorants(node));
+        }
+    }
+
+    /**
+     * Test the transitiveReduction method on a graph with loops.
+     */
+    @Test
+    public void testTransitiveReductionLoops() {
+        DAGraph dag = DAGraph.divisors(12);
+        dag.transitiveReduction();
+        DAGraph reflexive = new DAGraph(dag);
+        reflexive.transitiveClosure();
+        reflexive.reflexiveClosure();
+        int edges = reflexive.sizeEdges();
+        assertEquals(edges - dag.sizeEdges(), reflexive.transitiveReduction());
+        assertEquals(dag.toString(), reflexive.toString());
+    }
+
+    /**
+     * Test the isLessOrEqual method.
+     */
+    @Test
+    public void testIsLessOrEqual() {
+        DAGraph chain = new DAGraph();
+        Node node1 = new Node(1);
+        Node node2 = new Node(2);
+        Node node3 = new Node(3);
+        chain.addNode(node1);
+        chain.addNode(node2);
+        chain.addNode(node3);
+        chain.addEdge(node1, node2);
+        chain.addEdge(node2, node3);
+        assertTrue(chain.isLessOrEqual(node1, node1));
+        assertTrue(chain.isLessOrEqual(node1, node3));
+        assertFalse(chain.isLessOrEqual(node3, node1));
+        assertFalse(chain.isLessOrEqual(node1, new Node()));
+    }
+}
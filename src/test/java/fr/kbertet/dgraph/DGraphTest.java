@@ -394,6 +394,33 @@ public class DGraphTest {
         assertTrue(graph.getPredecessorEdges(to).isEmpty());
     }
 
+    /**
+     * Test the indexOf and getNodeByIndex methods.
+     */
+    @Test
+    public void testIndexOf() {
+        Node a = new Node();
+        Node b = new Node();
+        Node c = new Node();
+        DGraph graph = new DGraph();
+        graph.addNode(a);
+        graph.addNode(b);
+        graph.addNode(c);
+        assertEquals(0, graph.indexOf(a));
+        assertEquals(2, graph.indexOf(c));
+        assertEquals(b, graph.getNodeByIndex(1));
+        graph.removeNode(a);
+        assertEquals(-1, graph.indexOf(a));
+        assertEquals(0, graph.indexOf(c));
+        assertEquals(1, graph.indexOf(b));
+        DGraph copy = new DGraph(graph);
+        assertEquals(0, copy.indexOf(c));
+        DGraph other = new DGraph();
+        other.addNode(b);
+        assertEquals(0, other.indexOf(b));
+        assertEquals(1, graph.indexOf(b));
+    }
+
     /**
      * Test the containsEdge, addEdge, removeEdge method using 2 nodes.
      */
@@ -929,5 +956,30 @@ public class DGraphTest {
         assertTrue(dag.containsEdge(set1, set3));
         assertTrue(dag.containsEdge(set2, set3));
     }
-}
 
+    /**
+     * Test the getStronglyConnectedComponent method on a long path.
+     */
+    @Test
+    public void testGetStronglyConnectedComponentPath() {
+        DGraph graph = new DGraph();
+        int size = 50000;
+        Node[] nodes = new Node[size];
+        for (int i = 0; i < size; i++) {
+            nodes[i] = new Node(i);
+            graph.addNode(nodes[i]);
+            if (i > 0) {
+                graph.addEdge(nodes[i - 1], nodes[i]);
+            }
+        }
+        DAGraph dag = graph.getStronglyConnectedComponent();
+        assertEquals(dag.sizeNodes(), size);
+        assertEquals(dag.sizeEdges(), size - 1);
+        assertEquals(((TreeSet<Node>) dag.getNodes().first().getContent()).first(), nodes[0]);
+        graph.addEdge(nodes[size - 1], nodes[0]);
+        dag = graph.getStronglyConnectedComponent();
+        assertEquals(dag.sizeNodes(), 1);
+        assertEquals(dag.sizeEdges(), 0);
+        assertEquals(((TreeSet<Node>) dag.getNodes().first().getContent()).size(), size);
+    }
+}
@@ -0,0 +1,74 @@
+package fr.kbertet.dgraph;
+
+/*
+ * OrderIndexTest.java
+ *
+ * Copyright: 2010-2014 Karell Bertet, France
+ *
+ * License: http://www.cecill.info/licences/Licence_CeCILL-B_V1-en.html CeCILL-B license
+ *
+ * This file is part of java-lattices, free package. You can redistribute it and/or modify
+ * it under the terms of CeCILL-B license.
+ */
+
+import org.junit.Test;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.TreeSet;
+
+/**
+ * Test the dgraph.OrderIndex class.
+ *
+ * @author cguerin
+ */
+public class OrderIndexTest {
+    /**
+     * Test the index against the majorants and the minorants of a random graph.
+     */
+    @Test
+    public void testMajorantsMinorants() {
+        DAGraph dag = DAGraph.random(100, 0.05);
+        OrderIndex order = new OrderIndex(dag);
+        for (Node x : dag.getNodes()) {
+            TreeSet<Node> majorants = new TreeSet<Node>();
+            for (int i = order.nextMajorant(x, 0); i >= 0; i = order.nextMajorant(x, i + 1)) {
+                majorants.add(dag.getNodeByIndex(i));
+            }
+            assertEquals(dag.majorants(x), majorants);
+            TreeSet<Node> minorants = new TreeSet<Node>();
+            for (int i = order.nextMinorant(x, 0); i >= 0; i = order.nextMinorant(x, i + 1)) {
+                minorants.add(dag.getNodeByIndex(i));
+            }
+            assertEquals(dag.minorants(x), minorants);
+            for (Node y : dag.getNodes()) {
+                assertEquals(dag.isLessOrEqual(x, y), order.isLessOrEqual(x, y));
+            }
+        }
+    }
+
+    /**
+     * Test that the index follows the modifications of its graph.
+     */
+    @Test
+    public void testModifications() {
+        DAGraph chain = new DAGraph();
+        Node node1 = new Node(1);
+        Node node2 = new Node(2);
+        Node node3 = new Node(3);
+        chain.addNode(node1);
+        chain.addNode(node2);
+        chain.addEdge(node1, node2);
+        OrderIndex order = new OrderIndex(chain);
+        assertTrue(order.isLessOrEqual(node1, node2));
+        assertFalse(order.isLessOrEqual(node2, node1));
+        assertFalse(order.isLessOrEqual(node1, node3));
+        chain.addNode(node3);
+        chain.addEdge(node2, node3);
+        assertTrue(order.isLessOrEqual(node1, node3));
+        chain.removeEdge(node1, node2);
+        assertFalse(order.isLessOrEqual(node1, node3));
+        assertEquals(-1, order.nextMinorant(node2, 0));
+    }
+}
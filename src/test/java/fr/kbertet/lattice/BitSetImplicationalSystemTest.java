@@ -0,0 +1,137 @@
+package fr.kbertet.lattice;
+
+/*
+ * BitSetImplicationalSystemTest.java
+ *
+ * Copyright: 2010-2014 Karell Bertet, France
+ *
+ * License: http://www.cecill.info/licences/Licence_CeCILL-B_V1-en.html CeCILL-B license
+ *
+ * This file is part of java-lattices, free package. You can redistribute it and/or modify
+ * it under the terms of CeCILL-B license.
+ */
+
+import org.junit.Test;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertEquals;
+
+import java.util.TreeSet;
+
+/**
+ * Test the fr.kbertet.lattice.BitSetImplicationalSystem class.
+ *
+ * @author cguerin
+ */
+public class BitSetImplicationalSystemTest {
+    /**
+     * Test the equals and hashCode methods of BitSetRule.
+     */
+    @Test
+    public void testBitSetRule() {
+        BitSetRule r1 = new BitSetRule(new long[] {5L}, new long[] {2L});
+        BitSetRule r2 = new BitSetRule(new long[] {5L, 0L}, new long[] {2L, 0L, 0L});
+        assertEquals(r1, r2);
+        assertEquals(r1.hashCode(), r2.hashCode());
+        assertEquals(1, r2.getPremise().length);
+        assertFalse(r1.equals(new BitSetRule(new long[] {2L}, new long[] {5L})));
+        assertEquals("0 2  -> 1 ", r1.toString());
+    }
+
+    /**
+     * Test the conversions from and to an implicational system.
+     */
+    @Test
+    public void testConversion() {
+        ImplicationalSystem is = ImplicationalSystem.random(20, 30);
+        BitSetImplicationalSystem bis = new BitSetImplicationalSystem(is);
+        assertEquals(is.sizeElements(), bis.sizeElements());
+        assertEquals(is.sizeRules(), bis.sizeRules());
+        assertEquals(is.getRules(), bis.toImplicationalSystem().getRules());
+        for (Rule rule : is.getRules()) {
+            assertTrue(bis.containsRule(bis.encode(rule)));
+        }
+        Rule rule = is.getRules().first();
+        assertTrue(bis.removeRule(bis.encode(rule)));
+        assertFalse(bis.containsRule(bis.encode(rule)));
+        assertTrue(bis.addRule(bis.encode(rule)));
+        assertFalse(bis.addRule(new BitSetRule(new long[] {1L << 20}, new long[] {1L})));
+    }
+
+    /**
+     * Test the closure methods.
+     */
+    @Test
+    public void testClosure() {
+        ImplicationalSystem is = ImplicationalSystem.random(12, 20);
+        BitSetImplicationalSystem bis = new BitSetImplicationalSystem(is);
+        for (Comparable e : is.getSet()) {
+            TreeSet<Comparable> x = new TreeSet<Comparable>();
+            x.add(e);
+            assertEquals(is.closure(x), bis.closure(x));
+        }
+    }
+
+    /**
+     * Test the normalisation methods against those of ImplicationalSystem.
+     */
+    @Test
+    public void testNormalisation() {
+        for (int k = 0; k < 5; k++) {
+            ImplicationalSystem is = ImplicationalSystem.random(8, 10);
+            BitSetImplicationalSystem bis = new BitSetImplicationalSystem(is);
+            ImplicationalSystem copy = new ImplicationalSystem(is);
+            copy.makeProper();
+            bis.makeProper();
+            assertEquals(copy.getRules(), bis.toImplicationalSystem().getRules());
+            copy.makeUnary();
+            bis.makeUnary();
+            assertEquals(copy.getRules(), bis.toImplicationalSystem().getRules());
+            copy.makeCompact();
+            bis.makeCompact();
+            assertEquals(copy.getRules(), bis.toImplicationalSystem().getRules());
+            copy.makeLeftMinimal();
+            bis.makeLeftMinimal();
+            assertEquals(copy.getRules(), bis.toImplicationalSystem().getRules());
+            copy = new ImplicationalSystem(is);
+            bis = new BitSetImplicationalSystem(is);
+            copy.makeDirect();
+            bis.makeDirect();
+            assertEquals(copy.getRules(), bis.toImplicationalSystem().getRules());
+            copy = new ImplicationalSystem(is);
+            bis = new BitSetImplicationalSystem(is);
+            copy.makeRightMaximal();
+            bis.makeRightMaximal();
+            assertEquals(copy.getRules(), bis.toImplicationalSystem().getRules());
+            copy = new ImplicationalSystem(is);
+            bis = new BitSetImplicationalSystem(is);
+            copy.makeCanonicalDirectBasis();
+            bis.makeCanonicalDirectBasis();
+            assertEquals(copy.getRules(), bis.toImplicationalSystem().getRules());
+            copy = new ImplicationalSystem(is);
+            bis = new BitSetImplicationalSystem(is);
+            copy.makeCanonicalBasis();
+            bis.makeCanonicalBasis();
+            assertEquals(copy.getRules(), bis.toImplicationalSystem().getRules());
+        }
+    }
+
+    /**
+     * Test the makeMinimum method.
+     */
+    @Test
+    public void testMakeMinimum() {
+        for (int k = 0; k < 5; k++) {
+            ImplicationalSystem is = ImplicationalSystem.random(8, 10);
+            BitSetImplicationalSystem bis = new BitSetImplicationalSystem(is);
+            bis.makeMinimum();
+            ImplicationalSystem minimum = bis.toImplicationalSystem();
+            for (Comparable e : is.getSet()) {
+                TreeSet<Comparable> x = new TreeSet<Comparable>();
+                x.add(e);
+                assertEquals(is.closure(x), bis.closure(x));
+            }
+            assertEquals(0, minimum.makeMinimum());
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package fr.kbertet.lattice;
+
+/*
+ * CachedClosureSystemTest.java
+ *
+ * Copyright: 2010-2014 Karell Bertet, France
+ *
+ * License: http://www.cecill.info/licences/Licence_CeCILL-B_V1-en.html CeCILL-B license
+ *
+ * This file is part of java-lattices, free package. You can redistribute it and/or modify
+ * it under the terms of CeCILL-B license.
+ */
+
+import org.junit.Test;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.TreeSet;
+import java.util.Vector;
+import java.util.concurrent.ForkJoinPool;
+
+import fr.kbertet.context.Context;
+
+/**
+ * Test the fr.kbertet.lattice.CachedClosureSystem class.
+ *
+ * @author cguerin
+ */
+public class CachedClosureSystemTest {
+    /**
+     * Test the closure method and the counters.
+     */
+    @Test
+    public void testClosure() {
+        Context context = Context.random(20, 4, 3);
+        CachedClosureSystem cached = new CachedClosureSystem(context, 2);
+        TreeSet<Comparable> a = new TreeSet<Comparable>();
+        a.add(context.getSet().first());
+        TreeSet<Comparable> b = new TreeSet<Comparable>();
+        b.add(context.getSet().last());
+        assertEquals(context.closure(a), cached.closure(a));
+        assertEquals(context.closure(a), cached.closure(a));
+        assertEquals(1, cached.getHits());
+        assertEquals(1, cached.getMisses());
+        cached.closure(b);
+        cached.closure(new TreeSet<Comparable>());
+        assertEquals(2, cached.size());
+        assertEquals(1, cached.getEvictions());
+        // a has been evicted as the least recently used closure
+        cached.closure(b);
+        assertEquals(2, cached.getHits());
+        cached.closure(a);
+        assertEquals(4, cached.getMisses());
+        cached.clear();
+        assertEquals(0, cached.size());
+        assertEquals(0, cached.getHits());
+    }
+
+    /**
+     * Test the closed sets enumerated on a cached closure system, sequentially and in parallel.
+     */
+    @Test
+    public void testAllClosures() {
+        ClosureSystem[] systems = {Context.random(30, 5, 4), ImplicationalSystem.random(10, 8)};
+        ForkJoinPool pool = new ForkJoinPool(4);
+        for (ClosureSystem system : systems) {
+            CachedClosureSystem cached = new CachedClosureSystem(system, 1000);
+            Vector<Concept> expected = system.allClosures();
+            Vector<Concept> closures = cached.allClosures();
+            assertEquals(expected.size(), closures.size());
+            for (int i = 0; i < expected.size(); i++) {
+                assertEquals(expected.get(i).getSetA(), closures.get(i).getSetA());
+            }
+            closures = cached.allClosures(pool);
+            assertEquals(expected.size(), closures.size());
+            assertTrue(cached.getHits() > 0);
+            assertEquals(system.precedenceGraph().getEdges().toString(), cached.precedenceGraph().getEdges().toString());
+        }
+        pool.shutdown();
+    }
+}
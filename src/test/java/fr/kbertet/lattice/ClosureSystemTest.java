@@ -13,11 +13,17 @@ package fr.kbertet.lattice;
 
 import org.junit.Test;
 import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertEquals;
 
+import java.util.Iterator;
 import java.util.TreeSet;
+import java.util.Vector;
+import java.util.concurrent.ForkJoinPool;
 
+import fr.kbertet.util.BitSets;
 import fr.kbertet.util.ComparableSet;
+import fr.kbertet.util.Index;
 import fr.kbertet.context.Context;
 
 /**
@@ -62,6 +68,43 @@ public class ClosureSystemTest {
             is.addRule(r);
             assertEquals(is.allClosures().size(), 5);
     }
+    /**
+     * Test that allClosures starts with the closure of the empty set when it is not empty.
+     */
+    @Test
+    public void testallClosuresNonEmptyBottom() {
+        ImplicationalSystem is = new ImplicationalSystem();
+        TreeSet<Comparable> elements = new TreeSet<Comparable>();
+        elements.add('a');
+        elements.add('b');
+        elements.add('c');
+        is.addAllElements(elements);
+        Rule r = new Rule();
+        r.addToConclusion('a');
+        is.addRule(r);
+        TreeSet<Comparable> bottom = is.closure(new TreeSet<Comparable>());
+        assertFalse(bottom.isEmpty());
+        Vector<Concept> all = is.allClosures();
+        assertEquals(all.firstElement().getSetA(), new ComparableSet(bottom));
+        for (Concept c : all) {
+            assertFalse(c.getSetA().isEmpty());
+        }
+        Context context = new Context();
+        context.addToAttributes("a");
+        context.addToAttributes("b");
+        context.addToObservations("1");
+        context.addToObservations("2");
+        context.addExtentIntent("1", "a");
+        context.addExtentIntent("2", "a");
+        context.addExtentIntent("2", "b");
+        bottom = context.closure(new TreeSet<Comparable>());
+        assertFalse(bottom.isEmpty());
+        all = context.allClosures();
+        assertEquals(all.firstElement().getSetA(), new ComparableSet(bottom));
+        for (Concept c : all) {
+            assertFalse(c.getSetA().isEmpty());
+        }
+    }
     /**
      * Test for the closedSetLattice method from a context.
      *
@@ -197,4 +240,162 @@ public class ClosureSystemTest {
         assertEquals(context.precedenceGraph().getNodes().size(), 3);
         assertEquals(context.precedenceGraph().getEdges().size(), 1);
     }
+    /**
+     * Test for the closure of bit sets for Context and ImplicationalSystem.
+     */
+    @Test
+    public void testclosureBits() {
+        ClosureSystem[] systems = {Context.random(20, 4, 3), ImplicationalSystem.random(10, 8)};
+        for (ClosureSystem cs : systems) {
+            Index index = cs.getIndex();
+            long[] out = new long[BitSets.words(index.size())];
+            long[] scratch = new long[cs.getScratchSize()];
+            for (Comparable x : cs.getSet()) {
+                for (Comparable y : cs.getSet()) {
+                    TreeSet<Comparable> set = new TreeSet<Comparable>();
+                    set.add(x);
+                    set.add(y);
+                    cs.closure(index.bits(set), out, scratch);
+                    assertEquals(cs.closure(set), index.elements(out));
+                }
+            }
+        }
+    }
+    /**
+     * Test for the allClosures method compared to a naive enumeration.
+     */
+    @Test
+    public void testallClosuresRandom() {
+        ImplicationalSystem is = ImplicationalSystem.random(8, 6);
+        TreeSet<ComparableSet> closures = new TreeSet<ComparableSet>();
+        Object[] elements = is.getSet().toArray();
+        for (int mask = 0; mask < (1 << elements.length); mask++) {
+            TreeSet<Comparable> set = new TreeSet<Comparable>();
+            for (int i = 0; i < elements.length; i++) {
+                if ((mask & (1 << i)) != 0) {
+                    set.add((Comparable) elements[i]);
+                }
+            }
+            closures.add(new ComparableSet(is.closure(set)));
+        }
+        TreeSet<ComparableSet> all = new TreeSet<ComparableSet>();
+        for (Concept c : is.allClosures()) {
+            all.add(new ComparableSet(c.getSetA()));
+        }
+        assertEquals(closures, all);
+        assertEquals(closures.size(), is.allClosures().size());
+    }
+
+    /**
+     * Test for the parallel allClosures method compared to the sequential one.
+     */
+    @Test
+    public void testallClosuresParallel() {
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            ClosureSystem[] systems = {Context.random(30, 5, 4), ImplicationalSystem.random(10, 8)};
+            for (ClosureSystem system : systems) {
+                Vector<Concept> expected = system.allClosures();
+                Vector<Concept> parallel = system.allClosures(pool);
+                assertEquals(expected.size(), parallel.size());
+                for (int i = 0; i < expected.size(); i++) {
+                    assertEquals(expected.get(i).getSetA(), parallel.get(i).getSetA());
+                }
+                assertEquals(expected.size(), system.allClosuresParallel().size());
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * Test for the FastCloseByOne enumerator compared to the NextClosure one.
+     */
+    @Test
+    public void testFastCloseByOne() {
+        ClosureSystem[] systems = {Context.random(30, 5, 4), ImplicationalSystem.random(10, 8)};
+        for (ClosureSystem system : systems) {
+            TreeSet<ComparableSet> expected = new TreeSet<ComparableSet>();
+            for (Concept c : NextClosure.getInstance().allClosures(system)) {
+                expected.add(new ComparableSet(c.getSetA()));
+            }
+            Vector<Concept> closures = FastCloseByOne.getInstance().allClosures(system);
+            TreeSet<ComparableSet> all = new TreeSet<ComparableSet>();
+            for (Concept c : closures) {
+                all.add(new ComparableSet(c.getSetA()));
+            }
+            assertEquals(expected, all);
+            assertEquals(expected.size(), closures.size());
+            ConceptLattice lattice = system.closedSetLattice(FastCloseByOne.getInstance());
+            assertEquals(expected.size(), lattice.sizeNodes());
+            assertEquals(ConceptLattice.completeLattice(system).sizeEdges(), lattice.sizeEdges());
+        }
+    }
+
+    /**
+     * Test for the closures, closureIterator and enumerate methods compared to the allClosures method.
+     */
+    @Test
+    public void testClosuresStreaming() {
+        ClosureSystem[] systems = {Context.random(30, 5, 4), ImplicationalSystem.random(10, 8)};
+        for (ClosureSystem system : systems) {
+            final Vector<Concept> expected = system.allClosures();
+            final int[] count = {0};
+            system.closures(new ClosureVisitor() {
+                public boolean visit(Concept closure) {
+                    assertEquals(expected.get(count[0]).getSetA(), closure.getSetA());
+                    count[0]++;
+                    return true;
+                }
+            });
+            assertEquals(expected.size(), count[0]);
+            Iterator<Concept> it = system.closureIterator();
+            for (Concept c : expected) {
+                assertTrue(it.hasNext());
+                assertEquals(c.getSetA(), it.next().getSetA());
+            }
+            assertFalse(it.hasNext());
+            count[0] = 0;
+            FastCloseByOne.getInstance().enumerate(system, new ClosureVisitor() {
+                public boolean visit(Concept closure) {
+                    count[0]++;
+                    return count[0] < 2;
+                }
+            });
+            assertEquals(Math.min(2, expected.size()), count[0]);
+        }
+    }
+
+    /**
+     * Test for the canonicalBasis method compared to the makeCanonicalBasis method.
+     */
+    @Test
+    public void testCanonicalBasis() {
+        for (int k = 0; k < 5; k++) {
+            ImplicationalSystem is = ImplicationalSystem.random(10, 8);
+            ImplicationalSystem expected = new ImplicationalSystem(is);
+            expected.makeCanonicalBasis();
+            assertEquals(expected.getRules(), is.canonicalBasis().getRules());
+        }
+        Context context = Context.random(30, 5, 4);
+        ImplicationalSystem basis = context.canonicalBasis();
+        assertEquals(context.getSet(), basis.getSet());
+        Vector<Concept> expected = context.allClosures();
+        Vector<Concept> closures = basis.allClosures();
+        assertEquals(expected.size(), closures.size());
+        for (int i = 0; i < expected.size(); i++) {
+            assertEquals(expected.get(i).getSetA(), closures.get(i).getSetA());
+        }
+        ImplicationalSystem canonical = new ImplicationalSystem(basis);
+        canonical.makeCanonicalBasis();
+        assertEquals(canonical.getRules(), basis.getRules());
+        final int[] count = {0};
+        CanonicalBasis.getInstance().enumerate(context, new RuleVisitor() {
+            public boolean visit(Rule rule) {
+                count[0]++;
+                return false;
+            }
+        });
+        assertEquals(Math.min(1, basis.sizeRules()), count[0]);
+    }
 }
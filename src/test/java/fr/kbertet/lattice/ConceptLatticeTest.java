@@ -20,6 +20,7 @@ import java.util.TreeSet;
 import java.util.Vector;
 import java.util.Scanner;
 import java.io.File;
+import java.io.IOException;
 
 import fr.kbertet.util.ComparableSet;
 import fr.kbertet.dgraph.DAGraph;
@@ -315,7 +316,10 @@ public class ConceptLatticeTest {
         dag.addEdge(node1, node2);
         ConceptLattice result = ConceptLattice.idealLattice(dag);
         assertEquals(3, result.getNodes().size());
-        assertTrue(result.getEdges().isEmpty());
+        // the ideals {}, {e} and {e, f} form a chain whose Hasse diagram has two edges:
+        // the reflexive loops of the ideal lattice used to make its transitive reduction lose every edge
+        assertEquals(2, result.getEdges().size());
+        assertTrue(result.isLattice());
     }
 
     /**
@@ -365,6 +369,64 @@ public class ConceptLatticeTest {
         assertEquals(null, result.getNodes().first().getContent());
     }
 
+    /**
+     * Test of parallel diagramLattice method, of class ConceptLattice.
+     */
+    @Test
+    public void testDiagramLatticeParallel() {
+        ImplicationalSystem is = ImplicationalSystem.random(10, 8);
+        ConceptLattice expected = ConceptLattice.diagramLattice(is);
+        ConceptLattice result = ConceptLattice.diagramLatticeParallel(is);
+        assertEquals(diagram(expected), diagram(result));
+        assertEquals(diagram(expected), diagram(ConceptLattice.diagramLattice(is, null)));
+        assertEquals(expected.getDependencyGraph().getEdges().toString(), result.getDependencyGraph().getEdges().toString());
+    }
+
+    /**
+     * Test of diagramLatticeBreadthFirst method, of class ConceptLattice.
+     *
+     * @throws  IOException  When an IOException occurs
+     */
+    @Test
+    public void testDiagramLatticeBreadthFirst() throws IOException {
+        ImplicationalSystem is = ImplicationalSystem.random(10, 8);
+        ConceptLattice expected = ConceptLattice.diagramLattice(is);
+        ConceptLattice result = ConceptLattice.diagramLatticeBreadthFirst(is, 2);
+        assertEquals(diagram(expected), diagram(result));
+        assertEquals(expected.getDependencyGraph().getEdges().toString(), result.getDependencyGraph().getEdges().toString());
+        result = ConceptLattice.diagramLatticeBreadthFirst(is, Integer.MAX_VALUE);
+        assertEquals(diagram(expected), diagram(result));
+    }
+
+    /**
+     * Test of coverLattice method, of class ConceptLattice.
+     */
+    @Test
+    public void testCoverLattice() {
+        ImplicationalSystem is = ImplicationalSystem.random(10, 8);
+        TreeSet<String> expected = diagram(ConceptLattice.diagramLattice(is));
+        assertEquals(expected, diagram(ConceptLattice.coverLattice(is)));
+        assertEquals(expected, diagram(ConceptLattice.coverLattice(is, FastCloseByOne.getInstance())));
+    }
+
+    /**
+     * Returns a description of the concepts and edges of a lattice independent of its node identifiers.
+     *
+     * @param   lattice  a concept lattice
+     *
+     * @return  the sorted descriptions of concepts and edges
+     */
+    private static TreeSet<String> diagram(ConceptLattice lattice) {
+        TreeSet<String> diagram = new TreeSet<String>();
+        for (Node n : lattice.getNodes()) {
+            diagram.add(((Concept) n).getSetA().toString());
+            for (Node s : lattice.getSuccessorNodes(n)) {
+                diagram.add(((Concept) n).getSetA() + " -> " + ((Concept) s).getSetA());
+            }
+        }
+        return diagram;
+    }
+
     /**
      * Test of immediateSuccessors method, of class ConceptLattice.
      */
@@ -0,0 +1,72 @@
+package fr.kbertet.lattice;
+
+/*
+ * FrontierQueueTest.java
+ *
+ * Copyright: 2010-2014 Karell Bertet, France
+ *
+ * License: http://www.cecill.info/licences/Licence_CeCILL-B_V1-en.html CeCILL-B license
+ *
+ * This file is part of java-lattices, free package. You can redistribute it and/or modify
+ * it under the terms of CeCILL-B license.
+ */
+
+import org.junit.Test;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+
+/**
+ * Test the fr.kbertet.lattice.FrontierQueue class.
+ *
+ * @author cguerin
+ */
+public class FrontierQueueTest {
+    /**
+     * Test that entries are polled in the order they were added, whether they were spilled or not.
+     *
+     * @throws  IOException  When an IOException occurs
+     */
+    @Test
+    public void testOrder() throws IOException {
+        FrontierQueue queue = new FrontierQueue(3);
+        int polled = 0;
+        for (int k = 0; k < 25; k++) {
+            queue.add(k);
+            if (k % 4 == 3) {
+                assertEquals(polled++, queue.poll());
+            }
+        }
+        assertTrue(queue.spills() > 0);
+        for (int number = queue.poll(); number >= 0; number = queue.poll()) {
+            assertEquals(polled++, number);
+        }
+        assertEquals(25, polled);
+        assertEquals(-1, queue.poll());
+        queue.close();
+    }
+
+    /**
+     * Test that the entries kept in memory are bounded by twice the capacity
+     * whatever the number of entries of the queue, the others being released to temporary files.
+     *
+     * @throws  IOException  When an IOException occurs
+     */
+    @Test
+    public void testResident() throws IOException {
+        FrontierQueue queue = new FrontierQueue(16);
+        for (int k = 0; k < 100000; k++) {
+            queue.add(k);
+            assertTrue(queue.resident() <= 32);
+        }
+        assertEquals(100000, queue.size());
+        assertEquals(6249, queue.spills());
+        for (int k = 0; k < 100000; k++) {
+            assertEquals(k, queue.poll());
+            assertTrue(queue.resident() <= 32);
+        }
+        assertEquals(0, queue.size());
+        queue.close();
+    }
+}
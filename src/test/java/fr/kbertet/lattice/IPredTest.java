@@ -0,0 +1,65 @@
+package fr.kbertet.lattice;
+
+/*
+ * IPredTest.java
+ *
+ * Copyright: 2010-2014 Karell Bertet, France
+ *
+ * License: http://www.cecill.info/licences/Licence_CeCILL-B_V1-en.html CeCILL-B license
+ *
+ * This file is part of java-lattices, free package. You can redistribute it and/or modify
+ * it under the terms of CeCILL-B license.
+ */
+
+import org.junit.Test;
+import static org.junit.Assert.assertEquals;
+
+import java.util.Arrays;
+import java.util.TreeSet;
+import java.util.Vector;
+
+import fr.kbertet.util.Index;
+
+/**
+ * Test the fr.kbertet.lattice.IPred class.
+ *
+ * @author cguerin
+ */
+public class IPredTest {
+    /**
+     * Test the lowerCovers method on the boolean lattice of two elements.
+     */
+    @Test
+    public void testLowerCovers() {
+        Index index = new Index();
+        index.add("a");
+        index.add("b");
+        Vector<Concept> closures = new Vector<Concept>();
+        closures.add(concept("a", "b"));
+        closures.add(concept("b"));
+        closures.add(concept());
+        closures.add(concept("a"));
+        int[][] covers = IPred.getInstance().lowerCovers(index, closures);
+        int[] top = covers[0].clone();
+        Arrays.sort(top);
+        assertEquals("[1, 3]", Arrays.toString(top));
+        assertEquals("[2]", Arrays.toString(covers[1]));
+        assertEquals("[]", Arrays.toString(covers[2]));
+        assertEquals("[2]", Arrays.toString(covers[3]));
+    }
+
+    /**
+     * Returns the closed set of the specified elements.
+     *
+     * @param   elements  the elements of the closed set
+     *
+     * @return  the closed set
+     */
+    private static Concept concept(String... elements) {
+        TreeSet<Comparable> set = new TreeSet<Comparable>();
+        for (String element : elements) {
+            set.add(element);
+        }
+        return new Concept(set, false);
+    }
+}
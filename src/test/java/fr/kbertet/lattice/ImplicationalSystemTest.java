@@ -22,6 +22,7 @@ import java.io.FileWriter;
 import java.io.IOException;
 import java.util.Scanner;
 import java.util.TreeSet;
+import java.util.concurrent.ForkJoinPool;
 
 import fr.kbertet.dgraph.DGraph;
 import fr.kbertet.dgraph.Edge;
@@ -409,6 +410,25 @@ public class ImplicationalSystemTest {
         is.makeDirect();
         assertTrue(is.isDirect());
     }
+
+    /**
+     * Test for the parallel makeDirect method.
+     */
+    @Test
+    public void testmakeDirectParallel() {
+        ForkJoinPool pool = new ForkJoinPool(4);
+        for (int k = 0; k < 5; k++) {
+            ImplicationalSystem is = ImplicationalSystem.random(13, 8);
+            ImplicationalSystem direct = new ImplicationalSystem(is);
+            direct.makeDirect();
+            BitSetImplicationalSystem expected = new BitSetImplicationalSystem(is);
+            expected.makeDirect();
+            assertEquals(expected.toImplicationalSystem().getRules(), direct.getRules());
+            is.makeDirect(pool);
+            assertEquals(direct.getRules(), is.getRules());
+        }
+        pool.shutdown();
+    }
     /**
      * Test for the makeMinimum methods.
      */
@@ -436,6 +456,44 @@ public class ImplicationalSystemTest {
         is.makeCanonicalBasis();
         assertTrue(is.isCanonicalBasis());
     }
+
+    /**
+     * Test for the closure method skipping a rule.
+     */
+    @Test
+    public void testclosureExcluding() {
+        ImplicationalSystem is = ImplicationalSystem.random(12, 20);
+        for (Rule rule : is.getRules()) {
+            ImplicationalSystem epsilon = new ImplicationalSystem(is);
+            epsilon.removeRule(rule);
+            assertEquals(epsilon.closure(rule.getPremise()), is.closure(rule.getPremise(), rule));
+            assertEquals(rule, is.getRules().toArray()[is.indexOfRule(rule)]);
+        }
+        TreeSet<Comparable> z = new TreeSet<Comparable>();
+        z.add(Integer.valueOf(100));
+        assertEquals(-1, is.indexOfRule(new Rule(z, z)));
+    }
+
+    /**
+     * Test for the parallel makeMinimum and makeCanonicalBasis methods.
+     */
+    @Test
+    public void testmakeMinimumParallel() {
+        ForkJoinPool pool = new ForkJoinPool(4);
+        for (int k = 0; k < 5; k++) {
+            ImplicationalSystem is = ImplicationalSystem.random(12, 20);
+            ImplicationalSystem minimum = new ImplicationalSystem(is);
+            minimum.makeMinimum();
+            ImplicationalSystem parallel = new ImplicationalSystem(is);
+            parallel.makeMinimum(pool);
+            assertEquals(minimum.getRules(), parallel.getRules());
+            assertTrue(parallel.isMinimum());
+            ImplicationalSystem basis = is.canonicalBasis();
+            is.makeCanonicalBasis(pool);
+            assertEquals(basis.getRules(), is.getRules());
+        }
+        pool.shutdown();
+    }
     /**
      * Test for the representativeGraph method.
      */
@@ -501,4 +559,66 @@ public class ImplicationalSystemTest {
         is.reduction();
         assertTrue(is.isReduced());
     }
+
+    /**
+     * Test for the closure method compared to a naive fixpoint.
+     */
+    @Test
+    public void testclosure() {
+        for (int k = 0; k < 10; k++) {
+            ImplicationalSystem is = ImplicationalSystem.random(12, 20);
+            for (Comparable e : is.getSet()) {
+                TreeSet<Comparable> x = new TreeSet<Comparable>();
+                x.add(e);
+                TreeSet<Comparable> expected = new TreeSet<Comparable>(x);
+                boolean modified = true;
+                while (modified) {
+                    modified = false;
+                    for (Rule rule : is.getRules()) {
+                        if (expected.containsAll(rule.getPremise()) && !expected.containsAll(rule.getConclusion())) {
+                            expected.addAll(rule.getConclusion());
+                            modified = true;
+                        }
+                    }
+                }
+                assertEquals(expected, is.closure(x));
+            }
+        }
+        ImplicationalSystem is = new ImplicationalSystem();
+        is.addElement('a');
+        TreeSet<Comparable> x = new TreeSet<Comparable>();
+        x.add('z');
+        assertEquals(x, is.closure(x));
+    }
+
+    /**
+     * Test for the getRulesWithPremise and getRulesWithConclusion methods.
+     */
+    @Test
+    public void testgetRulesWith() {
+        ImplicationalSystem is = ImplicationalSystem.random(10, 15);
+        is.makeDirect();
+        is.deleteElement(is.getSet().first());
+        Rule rule = is.getRules().first();
+        is.removeRule(rule);
+        is.addRule(rule);
+        is.replaceRule(is.getRules().last(), new Rule(rule.getConclusion(), rule.getPremise()));
+        for (Comparable e : is.getSet()) {
+            TreeSet<Rule> premise = new TreeSet<Rule>();
+            TreeSet<Rule> conclusion = new TreeSet<Rule>();
+            for (Rule r : is.getRules()) {
+                if (r.getPremise().contains(e)) {
+                    premise.add(r);
+                }
+                if (r.getConclusion().contains(e)) {
+                    conclusion.add(r);
+                }
+            }
+            assertEquals(premise, is.getRulesWithPremise(e));
+            assertEquals(conclusion, is.getRulesWithConclusion(e));
+        }
+        ImplicationalSystem copy = new ImplicationalSystem(is);
+        copy.init();
+        assertTrue(copy.getRulesWithPremise(is.getSet().first()).isEmpty());
+    }
 }
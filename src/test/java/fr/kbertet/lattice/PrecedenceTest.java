@@ -0,0 +1,90 @@
+package fr.kbertet.lattice;
+
+/*
+ * PrecedenceTest.java
+ *
+ * Copyright: 2010-2014 Karell Bertet, France
+ *
+ * License: http://www.cecill.info/licences/Licence_CeCILL-B_V1-en.html CeCILL-B license
+ *
+ * This file is part of java-lattices, free package. You can redistribute it and/or modify
+ * it under the terms of CeCILL-B license.
+ */
+
+import org.junit.Test;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.TreeSet;
+import java.util.Vector;
+
+import fr.kbertet.dgraph.DAGraph;
+import fr.kbertet.dgraph.Node;
+import fr.kbertet.util.ComparableSet;
+
+/**
+ * Test the fr.kbertet.lattice.Precedence class.
+ *
+ * @author cguerin
+ */
+public class PrecedenceTest {
+    /**
+     * Test the valuation method against the minorants of the strongly connected components.
+     */
+    @Test
+    public void testValuation() {
+        ImplicationalSystem is = ImplicationalSystem.random(10, 8);
+        Precedence precedence = new Precedence(is);
+        DAGraph acyclPrec = is.precedenceGraph().getStronglyConnectedComponent();
+        assertEquals(acyclPrec.sizeNodes(), precedence.getComponents().sizeNodes());
+        for (Comparable e : is.getSet()) {
+            assertTrue(((TreeSet<Node>) precedence.getComponent(e).getContent()).size() > 0);
+        }
+        for (Node n : ConceptLattice.diagramLattice(is).getNodes()) {
+            ComparableSet f = new ComparableSet(((Concept) n).getSetA());
+            ComparableSet newVal = new ComparableSet(f);
+            for (Object x : f) {
+                for (Node cc : acyclPrec.getNodes()) {
+                    boolean contains = false;
+                    for (Node y : (TreeSet<Node>) cc.getContent()) {
+                        contains = contains || x.equals(y.getContent());
+                    }
+                    if (contains) {
+                        for (Node m : acyclPrec.minorants(cc)) {
+                            for (Node y : (TreeSet<Node>) m.getContent()) {
+                                newVal.remove(y.getContent());
+                            }
+                        }
+                    }
+                }
+            }
+            assertEquals(newVal, precedence.valuation(f));
+        }
+    }
+
+    /**
+     * Test that immediate successors computed with a shared precedence are those of each concept.
+     */
+    @Test
+    public void testImmediateSuccessors() {
+        ImplicationalSystem is = ImplicationalSystem.random(10, 8);
+        Precedence precedence = new Precedence(is);
+        ConceptLattice lattice = ConceptLattice.diagramLattice(is);
+        ConceptLattice other = new ConceptLattice();
+        for (Node n : lattice.getNodes()) {
+            Vector<TreeSet<Comparable>> succ = other.immediateSuccessors(n, precedence);
+            ArrayList<TreeSet<Comparable>> expected = ((Concept) n).immediateSuccessors(is);
+            TreeSet<ComparableSet> expectedSets = new TreeSet<ComparableSet>();
+            for (TreeSet<Comparable> s : expected) {
+                expectedSets.add(new ComparableSet(s));
+            }
+            TreeSet<ComparableSet> succSets = new TreeSet<ComparableSet>();
+            for (TreeSet<Comparable> s : succ) {
+                succSets.add(new ComparableSet(s));
+            }
+            assertEquals(expectedSets, succSets);
+            assertEquals(lattice.getSuccessorNodes(n).size(), succ.size());
+        }
+    }
+}
@@ -0,0 +1,117 @@
+package fr.kbertet.util;
+
+/*
+ * BitSetsTest.java
+ *
+ * Copyright: 2010-2014 Karell Bertet, France
+ *
+ * License: http://www.cecill.info/licences/Licence_CeCILL-B_V1-en.html CeCILL-B license
+ *
+ * This file is part of java-lattices, free package. You can redistribute it and/or modify
+ * it under the terms of CeCILL-B license.
+ */
+
+import org.junit.Test;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ *
+ * @author cguerin
+ */
+public class BitSetsTest {
+    /**
+     * Test words.
+     */
+    @Test
+    public void testWords() {
+        assertEquals(0, BitSets.words(0));
+        assertEquals(1, BitSets.words(1));
+        assertEquals(1, BitSets.words(64));
+        assertEquals(2, BitSets.words(65));
+    }
+
+    /**
+     * Test set, get and clear.
+     */
+    @Test
+    public void testSetGetClear() {
+        long[] words = new long[0];
+        words = BitSets.set(words, 3);
+        words = BitSets.set(words, 130);
+        assertEquals(3, words.length);
+        assertTrue(BitSets.get(words, 3));
+        assertTrue(BitSets.get(words, 130));
+        assertFalse(BitSets.get(words, 4));
+        assertFalse(BitSets.get(words, 1000));
+        BitSets.clear(words, 3);
+        assertFalse(BitSets.get(words, 3));
+        BitSets.clear(words, 1000);
+        assertEquals(1, BitSets.cardinality(words, words.length));
+    }
+
+    /**
+     * Test fill.
+     */
+    @Test
+    public void testFill() {
+        long[] words = new long[] {0L, 0L, -1L};
+        BitSets.fill(words, 70, 3);
+        assertEquals(70, BitSets.cardinality(words, 3));
+        assertTrue(BitSets.get(words, 69));
+        assertFalse(BitSets.get(words, 70));
+        BitSets.fill(words, 128, 3);
+        assertEquals(128, BitSets.cardinality(words, 3));
+        assertEquals(0L, words[2]);
+    }
+
+    /**
+     * Test and, or and andNot.
+     */
+    @Test
+    public void testOperations() {
+        long[] a = BitSets.set(BitSets.set(new long[2], 1), 65);
+        long[] b = BitSets.set(new long[1], 1);
+        long[] c = a.clone();
+        BitSets.and(c, b, 2);
+        assertTrue(BitSets.get(c, 1));
+        assertFalse(BitSets.get(c, 65));
+        c = b.clone();
+        BitSets.or(c, a, 1);
+        assertEquals(1, BitSets.cardinality(c, 1));
+        c = a.clone();
+        BitSets.andNot(c, b, 2);
+        assertFalse(BitSets.get(c, 1));
+        assertTrue(BitSets.get(c, 65));
+        assertEquals(1, BitSets.andCardinality(a, b, 2));
+    }
+
+    /**
+     * Test isSubset and equals.
+     */
+    @Test
+    public void testPredicates() {
+        long[] a = BitSets.set(new long[0], 65);
+        long[] b = BitSets.set(BitSets.set(new long[0], 65), 2);
+        assertTrue(BitSets.isSubset(a, b, 2));
+        assertFalse(BitSets.isSubset(b, a, 2));
+        assertTrue(BitSets.isSubset(new long[0], a, 2));
+        assertFalse(BitSets.isSubset(a, new long[0], 2));
+        assertTrue(BitSets.equals(a, new long[] {0L, 2L, 0L}, 3));
+        assertFalse(BitSets.equals(a, b, 2));
+    }
+
+    /**
+     * Test nextSetBit.
+     */
+    @Test
+    public void testNextSetBit() {
+        long[] words = BitSets.set(BitSets.set(new long[0], 5), 200);
+        assertEquals(5, BitSets.nextSetBit(words, 0));
+        assertEquals(200, BitSets.nextSetBit(words, 6));
+        assertEquals(-1, BitSets.nextSetBit(words, 201));
+        assertEquals(-1, BitSets.nextSetBit(words, 6, 2));
+        assertEquals(5, BitSets.nextSetBit(words, 5, 1));
+    }
+}
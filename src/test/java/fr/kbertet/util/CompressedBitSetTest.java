@@ -0,0 +1,143 @@
+package fr.kbertet.util;
+
+/*
+ * CompressedBitSetTest.java
+ *
+ * Copyright: 2010-2014 Karell Bertet, France
+ *
+ * License: http://www.cecill.info/licences/Licence_CeCILL-B_V1-en.html CeCILL-B license
+ *
+ * This file is part of java-lattices, free package. You can redistribute it and/or modify
+ * it under the terms of CeCILL-B license.
+ */
+
+import java.util.BitSet;
+import java.util.Random;
+
+import org.junit.Test;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ *
+ * @author cguerin
+ */
+public class CompressedBitSetTest {
+    /**
+     * Test set, get and clear through array, bitmap and run containers.
+     */
+    @Test
+    public void testSetGetClear() {
+        CompressedBitSet set = new CompressedBitSet();
+        BitSet expected = new BitSet();
+        assertTrue(set.isEmpty());
+        Random random = new Random(1);
+        for (int i = 0; i < 20000; i++) {
+            int x = random.nextInt(200000);
+            if (random.nextInt(4) == 0) {
+                set.clear(x);
+                expected.clear(x);
+            } else {
+                set.set(x);
+                expected.set(x);
+            }
+        }
+        for (int i = 0; i < 70000; i++) {
+            set.set(65536 + i);
+            expected.set(65536 + i);
+        }
+        check(expected, set);
+        set.optimize();
+        check(expected, set);
+        set.clear(70000);
+        expected.clear(70000);
+        set.set(300000);
+        expected.set(300000);
+        check(expected, set);
+    }
+
+    /**
+     * Test copy.
+     */
+    @Test
+    public void testCopy() {
+        CompressedBitSet set = new CompressedBitSet();
+        set.set(5);
+        CompressedBitSet copy = new CompressedBitSet(set);
+        copy.set(6);
+        assertFalse(set.get(6));
+        assertTrue(copy.get(5));
+        copy.clear(5);
+        copy.clear(6);
+        assertTrue(copy.isEmpty());
+        assertEquals(1, set.cardinality());
+    }
+
+    /**
+     * Test and and andCardinality.
+     */
+    @Test
+    public void testAnd() {
+        Random random = new Random(2);
+        for (int k = 0; k < 20; k++) {
+            CompressedBitSet a = new CompressedBitSet();
+            CompressedBitSet b = new CompressedBitSet();
+            BitSet ea = new BitSet();
+            BitSet eb = new BitSet();
+            int density = 1 + random.nextInt(50);
+            for (int x = 0; x < 150000; x++) {
+                if (random.nextInt(density) == 0 || (x / 1000) % 7 == k % 7) {
+                    a.set(x);
+                    ea.set(x);
+                }
+                if (random.nextInt(density) == 0) {
+                    b.set(x);
+                    eb.set(x);
+                }
+            }
+            if (k % 2 == 0) {
+                a.optimize();
+            }
+            BitSet ab = (BitSet) ea.clone();
+            ab.and(eb);
+            assertEquals(ab.cardinality(), a.andCardinality(b));
+            assertEquals(ab.cardinality(), b.andCardinality(a));
+            int n = BitSets.words(200000);
+            long[] words = new long[n];
+            BitSets.fill(words, 200000, n);
+            b.and(words, n);
+            assertEquals(ab.cardinality(), a.andCardinality(words, n));
+            BitSets.fill(words, 200000, n);
+            a.and(words, n);
+            b.and(words, n);
+            assertEquals(ab.cardinality(), BitSets.cardinality(words, n));
+            for (int x = ab.nextSetBit(0); x >= 0; x = ab.nextSetBit(x + 1)) {
+                assertTrue(BitSets.get(words, x));
+            }
+        }
+    }
+
+    /**
+     * Checks that the specified compressed set contains the same values as the expected one.
+     *
+     * @param   expected  the expected values
+     * @param   set       a compressed set
+     */
+    private static void check(BitSet expected, CompressedBitSet set) {
+        assertEquals(expected.cardinality(), set.cardinality());
+        int x = expected.nextSetBit(0);
+        int y = set.nextSetBit(0);
+        while (x >= 0) {
+            assertEquals(x, y);
+            assertTrue(set.get(x));
+            x = expected.nextSetBit(x + 1);
+            y = set.nextSetBit(y + 1);
+        }
+        assertEquals(-1, y);
+        assertEquals(BitSets.words(expected.length()), set.words());
+        for (int i = 0; i < 1000; i++) {
+            assertEquals(expected.get(i), set.get(i));
+        }
+    }
+}
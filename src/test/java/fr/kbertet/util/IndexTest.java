@@ -0,0 +1,84 @@
+package fr.kbertet.util;
+
+/*
+ * IndexTest.java
+ *
+ * Copyright: 2010-2014 Karell Bertet, France
+ *
+ * License: http://www.cecill.info/licences/Licence_CeCILL-B_V1-en.html CeCILL-B license
+ *
+ * This file is part of java-lattices, free package. You can redistribute it and/or modify
+ * it under the terms of CeCILL-B license.
+ */
+
+import org.junit.Test;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ *
+ * @author cguerin
+ */
+public class IndexTest {
+    /**
+     * Test add, get and indexOf.
+     */
+    @Test
+    public void testAdd() {
+        Index index = new Index();
+        assertEquals(0, index.add("b"));
+        assertEquals(1, index.add("a"));
+        assertEquals(0, index.add("b"));
+        assertEquals(2, index.size());
+        assertEquals("a", index.get(1));
+        assertEquals(1, index.indexOf("a"));
+        assertEquals(-1, index.indexOf("c"));
+        assertTrue(index.contains("b"));
+        assertFalse(index.contains("c"));
+    }
+
+    /**
+     * Test the copy constructor.
+     */
+    @Test
+    public void testCopy() {
+        Index index = new Index();
+        index.add("a");
+        Index copy = new Index(index);
+        copy.add("b");
+        assertEquals(1, index.size());
+        assertEquals(2, copy.size());
+        assertEquals(0, copy.indexOf("a"));
+    }
+
+    /**
+     * Test remove.
+     */
+    @Test
+    public void testRemove() {
+        Index index = new Index();
+        index.add("a");
+        index.add("b");
+        index.add("c");
+        assertEquals(0, index.remove("a"));
+        assertEquals(-1, index.remove("a"));
+        assertEquals(2, index.size());
+        assertEquals("c", index.get(0));
+        assertEquals(0, index.indexOf("c"));
+        assertEquals(1, index.remove("b"));
+        assertEquals(1, index.size());
+    }
+
+    /**
+     * Test clear.
+     */
+    @Test
+    public void testClear() {
+        Index index = new Index();
+        index.add("a");
+        index.clear();
+        assertEquals(0, index.size());
+        assertEquals(-1, index.indexOf("a"));
+    }
+}